@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark;
+
+/**
+ * Single benchmark.  The runner invokes setup() once, then repeatedly invokes
+ * operation() during the warmup and measurement iterations, then teardown().
+ * 
+ * Each operation processes a fixed number of samples, so that the runner can
+ * report throughput in samples per second and allocation in bytes per sample.
+ * Operations should pass their results to consume() so that the JIT compiler
+ * can't eliminate the work as dead code.
+ */
+public abstract class Benchmark
+{
+	private String mName;
+	private int mSamplesPerOperation;
+	
+	private float mSink;
+	private volatile float mPublishedSink;
+
+	/**
+	 * @param name - benchmark name, usually the class and method under test
+	 * @param samplesPerOperation - number of samples processed by each 
+	 * invocation of operation()
+	 */
+	public Benchmark( String name, int samplesPerOperation )
+	{
+		mName = name;
+		mSamplesPerOperation = samplesPerOperation;
+	}
+	
+	public String getName()
+	{
+		return mName;
+	}
+	
+	public int getSamplesPerOperation()
+	{
+		return mSamplesPerOperation;
+	}
+	
+	/**
+	 * Creates the component under test.  Invoked once before warmup.
+	 */
+	public void setup()
+	{
+	}
+	
+	/**
+	 * Processes one batch of samples
+	 */
+	public abstract void operation();
+	
+	/**
+	 * Invoked once after the measurement iterations
+	 */
+	public void teardown()
+	{
+		/* Publish the accumulated results so that they are observable */
+		mPublishedSink = mSink;
+	}
+	
+	/**
+	 * Consumes a result value so that the computation that produced it can't
+	 * be optimized away
+	 */
+	protected void consume( float value )
+	{
+		mSink += value;
+	}
+	
+	/**
+	 * Consumes the first and last values of a result array
+	 */
+	protected void consume( float[] values )
+	{
+		if( values.length > 0 )
+		{
+			mSink += values[ 0 ] + values[ values.length - 1 ];
+		}
+	}
+	
+	public float getSink()
+	{
+		return mPublishedSink;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return mName;
+	}
+}
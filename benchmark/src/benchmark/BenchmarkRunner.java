@@ -0,0 +1,301 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the DSP benchmarks and reports throughput in samples per second and 
+ * the allocation rate of each benchmark.
+ * 
+ * Each benchmark runs a number of timed warmup iterations, so that the JIT
+ * compiler has compiled the hot paths, followed by timed measurement 
+ * iterations.  Allocation is measured per thread, so that allocations by 
+ * other threads aren't included.  A benchmark that allocates on each sample
+ * shows up as a non-zero bytes per sample value.
+ * 
+ * Usage: BenchmarkRunner [name filter ...]
+ * 
+ * Only benchmarks whose names contain one of the filter values are run.  The
+ * iteration counts and length can be changed with the system properties
+ * benchmark.warmup, benchmark.iterations and benchmark.time (milliseconds).
+ */
+public class BenchmarkRunner
+{
+	private static final int WARMUP_ITERATIONS = 
+			Integer.getInteger( "benchmark.warmup", 5 );
+	private static final int MEASUREMENT_ITERATIONS = 
+			Integer.getInteger( "benchmark.iterations", 5 );
+	private static final long ITERATION_TIME_MS = 
+			Long.getLong( "benchmark.time", 1000l );
+
+	private ThreadMXBean mThreadMXBean = ManagementFactory.getThreadMXBean();
+	
+	public static void main( String[] args )
+	{
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		
+		for( Benchmark benchmark: DSPBenchmarks.getBenchmarks() )
+		{
+			if( matches( benchmark, args ) )
+			{
+				benchmarks.add( benchmark );
+			}
+		}
+		
+		BenchmarkRunner runner = new BenchmarkRunner();
+		
+		log( "Warmup: " + WARMUP_ITERATIONS + " x " + ITERATION_TIME_MS + 
+			" ms  Measurement: " + MEASUREMENT_ITERATIONS + " x " + 
+			ITERATION_TIME_MS + " ms" );
+		
+		if( !runner.isAllocationSupported() )
+		{
+			log( "Thread allocation measurement is not supported by this JVM" );
+		}
+		
+		log( String.format( "%-45s %12s %10s %12s %12s", "Benchmark", 
+			"Msamples/s", "Error", "Bytes/sample", "Alloc MB/s" ) );
+		
+		for( Benchmark benchmark: benchmarks )
+		{
+			Result result = runner.run( benchmark );
+			
+			log( result.toString() );
+		}
+	}
+	
+	private static boolean matches( Benchmark benchmark, String[] filters )
+	{
+		if( filters.length == 0 )
+		{
+			return true;
+		}
+		
+		for( String filter: filters )
+		{
+			if( benchmark.getName().contains( filter ) )
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Indicates if the JVM can measure the bytes allocated by a thread
+	 */
+	public boolean isAllocationSupported()
+	{
+		return mThreadMXBean instanceof com.sun.management.ThreadMXBean &&
+			((com.sun.management.ThreadMXBean)mThreadMXBean)
+				.isThreadAllocatedMemorySupported();
+	}
+	
+	/**
+	 * Bytes allocated by the current thread, or 0 if not supported
+	 */
+	private long getAllocatedBytes()
+	{
+		if( isAllocationSupported() )
+		{
+			return ((com.sun.management.ThreadMXBean)mThreadMXBean)
+				.getThreadAllocatedBytes( Thread.currentThread().getId() );
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Runs the warmup and measurement iterations for the benchmark
+	 */
+	public Result run( Benchmark benchmark )
+	{
+		benchmark.setup();
+		
+		for( int x = 0; x < WARMUP_ITERATIONS; x++ )
+		{
+			iteration( benchmark );
+		}
+		
+		Result result = new Result( benchmark.getName() );
+		
+		for( int x = 0; x < MEASUREMENT_ITERATIONS; x++ )
+		{
+			result.add( iteration( benchmark ) );
+		}
+		
+		benchmark.teardown();
+		
+		return result;
+	}
+	
+	/**
+	 * Runs benchmark operations for the iteration time
+	 */
+	private Iteration iteration( Benchmark benchmark )
+	{
+		long operations = 0;
+		
+		long allocatedStart = getAllocatedBytes();
+		long start = System.nanoTime();
+		long end = start + ITERATION_TIME_MS * 1000000l;
+		long now;
+		
+		do
+		{
+			benchmark.operation();
+			operations++;
+			now = System.nanoTime();
+		}
+		while( now < end );
+		
+		long allocated = getAllocatedBytes() - allocatedStart;
+		
+		return new Iteration( operations * benchmark.getSamplesPerOperation(), 
+							  now - start, allocated );
+	}
+	
+	/**
+	 * Samples processed, elapsed time and bytes allocated for one iteration
+	 */
+	public static class Iteration
+	{
+		private long mSamples;
+		private long mNanoseconds;
+		private long mAllocated;
+		
+		public Iteration( long samples, long nanoseconds, long allocated )
+		{
+			mSamples = samples;
+			mNanoseconds = nanoseconds;
+			mAllocated = allocated;
+		}
+		
+		public double getSamplesPerSecond()
+		{
+			return (double)mSamples * 1E9d / (double)mNanoseconds;
+		}
+	}
+	
+	/**
+	 * Benchmark result over all measurement iterations
+	 */
+	public static class Result
+	{
+		private String mName;
+		private List<Iteration> mIterations = new ArrayList<Iteration>();
+		
+		public Result( String name )
+		{
+			mName = name;
+		}
+		
+		public void add( Iteration iteration )
+		{
+			mIterations.add( iteration );
+		}
+		
+		/**
+		 * Mean samples per second across the iterations
+		 */
+		public double getSamplesPerSecond()
+		{
+			double sum = 0.0d;
+			
+			for( Iteration iteration: mIterations )
+			{
+				sum += iteration.getSamplesPerSecond();
+			}
+			
+			return mIterations.isEmpty() ? 0.0d : sum / mIterations.size();
+		}
+		
+		/**
+		 * Standard deviation of samples per second across the iterations
+		 */
+		public double getError()
+		{
+			if( mIterations.size() < 2 )
+			{
+				return 0.0d;
+			}
+			
+			double mean = getSamplesPerSecond();
+			double sum = 0.0d;
+			
+			for( Iteration iteration: mIterations )
+			{
+				double delta = iteration.getSamplesPerSecond() - mean;
+				
+				sum += delta * delta;
+			}
+			
+			return Math.sqrt( sum / ( mIterations.size() - 1 ) );
+		}
+		
+		public double getBytesPerSample()
+		{
+			long samples = 0;
+			long allocated = 0;
+			
+			for( Iteration iteration: mIterations )
+			{
+				samples += iteration.mSamples;
+				allocated += iteration.mAllocated;
+			}
+			
+			return samples == 0 ? 0.0d : (double)allocated / (double)samples;
+		}
+		
+		/**
+		 * Allocation rate in megabytes per second
+		 */
+		public double getAllocationRate()
+		{
+			long nanoseconds = 0;
+			long allocated = 0;
+			
+			for( Iteration iteration: mIterations )
+			{
+				nanoseconds += iteration.mNanoseconds;
+				allocated += iteration.mAllocated;
+			}
+			
+			return nanoseconds == 0 ? 0.0d : 
+				(double)allocated * 1E9d / (double)nanoseconds / 1048576.0d;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return String.format( "%-45s %12.3f %10.3f %12.2f %12.1f", mName, 
+				getSamplesPerSecond() / 1E6d, getError() / 1E6d, 
+				getBytesPerSample(), getAllocationRate() );
+		}
+	}
+	
+	public static void log( String message )
+	{
+		System.out.println( message );
+	}
+}
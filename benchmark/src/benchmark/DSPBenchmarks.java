@@ -0,0 +1,352 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sample.Listener;
+import sample.adapter.ByteSampleAdapter;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
+import sample.complex.ComplexSample;
+import sample.real.RealSampleListener;
+import source.tuner.frequency.FrequencyCorrectionControl;
+import util.Oscillator;
+import bits.IBitListener;
+import decode.p25.C4FMSymbolFilter;
+import dsp.filter.ComplexFIRFilter;
+import dsp.filter.ComplexHalfBandNoDecimateFilter;
+import dsp.filter.ComplexPrimeCICDecimate;
+import dsp.filter.FilterFactory;
+import dsp.filter.Filters;
+import dsp.filter.FloatHalfBandDecimationFilter;
+import dsp.filter.FloatFIRFilter;
+import dsp.filter.Window.WindowType;
+import dsp.gain.DirectGainControl;
+import dsp.fsk.LTRFSKDecoder;
+import dsp.nbfm.FMDiscriminator;
+import dsp.nbfm.FMDiscriminator.AngleEstimator;
+import dsp.psk.CQPSKDemodulator;
+
+/**
+ * Benchmarks for the DSP hot paths, configured the same way that the decoders
+ * and tuner channel sources configure them
+ */
+public class DSPBenchmarks
+{
+	/* Channel rate benchmarks process 2048 samples per operation */
+	public static final int CHANNEL_RATE = 48000;
+	public static final int CHANNEL_BLOCK = 2048;
+	
+	/* Tuner rate benchmarks process an RTL-2832 sized buffer per operation */
+	public static final int TUNER_RATE = 2400000;
+	public static final int TUNER_BLOCK = 16384;
+	
+	public static List<Benchmark> getBenchmarks()
+	{
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		final float[] channelSamples = Fixtures.getComplexSamples( 
+				CHANNEL_BLOCK, CHANNEL_RATE, 0 );
+		final ComplexBuffer channelBuffer = new ComplexBuffer( channelSamples );
+		final float[] realSamples = Fixtures.getRealSamples( 
+				CHANNEL_BLOCK, CHANNEL_RATE );
+		
+		benchmarks.add( new Benchmark( "ComplexFIRFilter.receive", CHANNEL_BLOCK )
+		{
+			private ComplexFIRFilter mFilter;
+			
+			@Override
+			public void setup()
+			{
+				mFilter = new ComplexFIRFilter( FilterFactory.getLowPass( 
+					48000, 6750, 7500, 60, WindowType.HANNING, true ), 1.0 );
+				
+				mFilter.setBufferListener( new ComplexBufferListener()
+				{
+					@Override
+					public void receive( ComplexBuffer buffer )
+					{
+						consume( buffer.getSamples() );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				mFilter.receive( channelBuffer );
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "FloatFIRFilter.get", CHANNEL_BLOCK )
+		{
+			private FloatFIRFilter mFilter;
+			
+			@Override
+			public void setup()
+			{
+				mFilter = new FloatFIRFilter( FilterFactory.getLowPass( 48000, 
+					3000, 4000, 48, WindowType.HAMMING, true ), 1.0 );
+			}
+
+			@Override
+			public void operation()
+			{
+				for( float sample: realSamples )
+				{
+					consume( mFilter.get( sample ) );
+				}
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "ComplexHalfBandNoDecimateFilter.receive", 
+				CHANNEL_BLOCK )
+		{
+			private ComplexHalfBandNoDecimateFilter mFilter;
+			
+			@Override
+			public void setup()
+			{
+				mFilter = new ComplexHalfBandNoDecimateFilter( 
+						Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 0.4 );
+				
+				mFilter.setBufferListener( new ComplexBufferListener()
+				{
+					@Override
+					public void receive( ComplexBuffer buffer )
+					{
+						consume( buffer.getSamples() );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				mFilter.receive( channelBuffer );
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "ComplexPrimeCICDecimate.receive", 
+				TUNER_BLOCK )
+		{
+			private float[] mSamples = Fixtures.getComplexSamples( 
+					TUNER_BLOCK, TUNER_RATE, 0 );
+			private ComplexPrimeCICDecimate mFilter;
+			
+			@Override
+			public void setup()
+			{
+				mFilter = FilterFactory.getDecimationFilter( TUNER_RATE, 
+					CHANNEL_RATE, 1, 12000, 60, WindowType.HAMMING );
+				
+				mFilter.setListener( new Listener<ComplexBuffer>()
+				{
+					@Override
+					public void receive( ComplexBuffer buffer )
+					{
+						consume( buffer.getSamples() );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				mFilter.receive( mSamples );
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "ByteSampleAdapter.convert", TUNER_BLOCK )
+		{
+			private byte[] mSamples = Fixtures.getByteSamples( TUNER_BLOCK );
+			private float[] mConverted = new float[ TUNER_BLOCK * 2 ];
+			private ByteSampleAdapter mAdapter = new ByteSampleAdapter();
+
+			@Override
+			public void operation()
+			{
+				mAdapter.convert( mSamples, mConverted );
+				
+				consume( mConverted );
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "Oscillator.nextComplex", CHANNEL_BLOCK )
+		{
+			private Oscillator mOscillator = new Oscillator( 1200, CHANNEL_RATE );
+
+			@Override
+			public void operation()
+			{
+				for( int x = 0; x < CHANNEL_BLOCK; x++ )
+				{
+					consume( mOscillator.nextComplex().inphase() );
+				}
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "CQPSKDemodulator.receive", CHANNEL_BLOCK )
+		{
+			private CQPSKDemodulator mDemodulator;
+			
+			@Override
+			public void setup()
+			{
+				mDemodulator = new CQPSKDemodulator();
+				
+				mDemodulator.setListener( new Listener<ComplexSample>()
+				{
+					@Override
+					public void receive( ComplexSample sample )
+					{
+						consume( sample.inphase() );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				mDemodulator.receive( channelBuffer );
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "C4FMSymbolFilter.receive", CHANNEL_BLOCK )
+		{
+			private C4FMSymbolFilter mFilter;
+			
+			@Override
+			public void setup()
+			{
+				DirectGainControl gain = 
+						new DirectGainControl( 15.0f, 0.1f, 35.0f, 0.3f );
+				
+				mFilter = new C4FMSymbolFilter( gain, 
+						new FrequencyCorrectionControl( 3000 ) );
+				
+				mFilter.setListener( new RealSampleListener()
+				{
+					@Override
+					public void receive( float sample )
+					{
+						consume( sample );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				for( float sample: realSamples )
+				{
+					mFilter.receive( sample * 15.0f );
+				}
+			}
+		} );
+		
+		for( final AngleEstimator estimator: AngleEstimator.values() )
+		{
+			benchmarks.add( new Benchmark( "FMDiscriminator.receive." + 
+					estimator, CHANNEL_BLOCK )
+			{
+				private FMDiscriminator mDiscriminator;
+				
+				@Override
+				public void setup()
+				{
+					mDiscriminator = new FMDiscriminator( 1.0f, estimator );
+					
+					mDiscriminator.setListener( new RealSampleListener()
+					{
+						@Override
+						public void receive( float sample )
+						{
+							consume( sample );
+						}
+					} );
+				}
+
+				@Override
+				public void operation()
+				{
+					mDiscriminator.receive( channelBuffer );
+				}
+			} );
+		}
+		
+		benchmarks.add( new Benchmark( "FloatHalfBandDecimationFilter.decimate", 
+				CHANNEL_BLOCK )
+		{
+			private FloatHalfBandDecimationFilter mFilter;
+			private float[] mOutput = new float[ CHANNEL_BLOCK ];
+			
+			@Override
+			public void setup()
+			{
+				mFilter = new FloatHalfBandDecimationFilter( 
+						Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
+			}
+
+			@Override
+			public void operation()
+			{
+				int count = mFilter.decimate( realSamples, 
+						realSamples.length, mOutput );
+				
+				for( int x = 0; x < count; x++ )
+				{
+					consume( mOutput[ x ] );
+				}
+			}
+		} );
+		
+		benchmarks.add( new Benchmark( "LTRFSKDecoder.receive", CHANNEL_BLOCK )
+		{
+			private LTRFSKDecoder mDecoder;
+			
+			@Override
+			public void setup()
+			{
+				mDecoder = new LTRFSKDecoder();
+				
+				mDecoder.addListener( new IBitListener()
+				{
+					@Override
+					public void receive( boolean bit )
+					{
+						consume( bit ? 1.0f : 0.0f );
+					}
+				} );
+			}
+
+			@Override
+			public void operation()
+			{
+				for( float sample: realSamples )
+				{
+					mDecoder.receive( sample );
+				}
+			}
+		} );
+		
+		return benchmarks;
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * Canned sample fixtures for the benchmarks.  Fixtures are generated from a
+ * fixed random seed so that every run processes identical samples.
+ */
+public class Fixtures
+{
+	private static final long SEED = 0x5D57A9E5l;
+	
+	/**
+	 * Interleaved I/Q samples of a frequency modulated carrier with a small 
+	 * amount of noise.  The carrier is offset from center by the offset
+	 * frequency and is modulated by a 4800 baud, 4-level symbol stream with
+	 * +/-1800 and +/-600 Hz deviation, like a P25 C4FM signal.
+	 * 
+	 * @param sampleCount - number of complex samples
+	 * @param sampleRate - sample rate in hertz
+	 * @param offset - carrier offset from center in hertz
+	 */
+	public static float[] getComplexSamples( int sampleCount, int sampleRate, 
+											 int offset )
+	{
+		Random random = new Random( SEED );
+		
+		float[] samples = new float[ sampleCount * 2 ];
+		
+		int samplesPerSymbol = Math.max( 1, sampleRate / 4800 );
+		double[] deviations = { -1800.0d, -600.0d, 600.0d, 1800.0d };
+		
+		double deviation = 0.0d;
+		double phase = 0.0d;
+		
+		for( int x = 0; x < sampleCount; x++ )
+		{
+			if( x % samplesPerSymbol == 0 )
+			{
+				deviation = deviations[ random.nextInt( 4 ) ];
+			}
+			
+			phase += 2.0d * Math.PI * ( offset + deviation ) / sampleRate;
+			
+			if( phase > Math.PI )
+			{
+				phase -= 2.0d * Math.PI;
+			}
+			else if( phase < -Math.PI )
+			{
+				phase += 2.0d * Math.PI;
+			}
+			
+			samples[ 2 * x ] = (float)( 0.5d * Math.cos( phase ) + 
+					0.01d * random.nextGaussian() );
+			samples[ 2 * x + 1 ] = (float)( 0.5d * Math.sin( phase ) + 
+					0.01d * random.nextGaussian() );
+		}
+		
+		return samples;
+	}
+
+	/**
+	 * Demodulated (real) samples of a 4-level symbol stream at 4800 baud with 
+	 * a small amount of noise
+	 * 
+	 * @param sampleCount - number of samples
+	 * @param sampleRate - sample rate in hertz
+	 */
+	public static float[] getRealSamples( int sampleCount, int sampleRate )
+	{
+		Random random = new Random( SEED );
+		
+		float[] samples = new float[ sampleCount ];
+		
+		int samplesPerSymbol = Math.max( 1, sampleRate / 4800 );
+		float[] levels = { -0.3f, -0.1f, 0.1f, 0.3f };
+		
+		float level = 0.0f;
+		
+		for( int x = 0; x < sampleCount; x++ )
+		{
+			if( x % samplesPerSymbol == 0 )
+			{
+				level = levels[ random.nextInt( 4 ) ];
+			}
+			
+			samples[ x ] = level + (float)( 0.01d * random.nextGaussian() );
+		}
+		
+		return samples;
+	}
+	
+	/**
+	 * Unsigned 8-bit interleaved I/Q samples, like the samples produced by an
+	 * RTL-2832 tuner
+	 * 
+	 * @param sampleCount - number of complex samples
+	 */
+	public static byte[] getByteSamples( int sampleCount )
+	{
+		float[] samples = getComplexSamples( sampleCount, 2400000, 100000 );
+		
+		byte[] bytes = new byte[ samples.length ];
+		
+		for( int x = 0; x < samples.length; x++ )
+		{
+			bytes[ x ] = (byte)( Math.round( samples[ x ] * 127.0f ) + 127 );
+		}
+		
+		return bytes;
+	}
+}
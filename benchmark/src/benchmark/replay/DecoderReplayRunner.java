@@ -0,0 +1,339 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark.replay;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import message.Message;
+import metrics.MetricsRegistry;
+import sample.Listener;
+import source.Source;
+import controller.ResourceManager;
+import controller.channel.Channel;
+
+/**
+ * Headless decoder throughput benchmark.  Replays recordings through a 
+ * processing chain as fast as the decoder can process the samples and 
+ * reports the speed as a multiple of real time, along with the number of valid
+ * decoded messages, so that decoder speed and decoder correctness can both be
+ * tracked.
+ * 
+ * Usage: DecoderReplayRunner decoder recording.wav [decoder recording.wav ...]
+ * 
+ * Decoders: P25_C4FM, P25_CQPSK, MPT1327, LTR_NET, FLEETSYNC
+ * 
+ * Recordings are 16-bit wave files at the 48 kHz channel rate, either 2 
+ * channel baseband I/Q or 1 channel demodulated audio.  Recordings at any 
+ * other sample rate are reported as failures.  Each recording is 
+ * replayed benchmark.warmup times (default 1) to warm up the JIT compiler and
+ * then benchmark.passes times (default 3) for the measurement.
+ * 
+ * Real time per core divides the audio duration by the CPU time used by all
+ * threads during the measurement, so that it reflects decoding capacity per
+ * processor core independent of the number of cores.
+ */
+public class DecoderReplayRunner
+{
+	private static final int WARMUP_PASSES = 
+			Integer.getInteger( "benchmark.warmup", 1 );
+	private static final int MEASUREMENT_PASSES = 
+			Integer.getInteger( "benchmark.passes", 3 );
+	
+	/* Keep the processing chain queue below its capacity, so that replayed
+	 * buffers are never dropped */
+	private static final int MAXIMUM_QUEUED_BUFFERS = 32;
+	private static final long WAIT_NANOSECONDS = 20000;
+	
+	/* Maximum wait for the decoder to finish a replay after the last block 
+	 * is sent */
+	private static final long END_OF_STREAM_TIMEOUT_SECONDS = 60;
+	
+	private static final int CHANNEL_RATE = 48000;
+
+	private ResourceManager mResourceManager;
+	
+	public DecoderReplayRunner( ResourceManager resourceManager )
+	{
+		mResourceManager = resourceManager;
+	}
+	
+	public static void main( String[] args )
+	{
+		if( args.length == 0 || args.length % 2 != 0 )
+		{
+			log( "Usage: DecoderReplayRunner decoder recording.wav "
+					+ "[decoder recording.wav ...]" );
+			log( "Decoders: P25_C4FM, P25_CQPSK, MPT1327, LTR_NET, FLEETSYNC" );
+			System.exit( 1 );
+		}
+		
+		DecoderReplayRunner runner = 
+				new DecoderReplayRunner( ResourceManager.createHeadless() );
+		
+		int status = 0;
+		
+		/* The thread pools don't use daemon threads, so always exit */
+		try
+		{
+			for( int x = 0; x < args.length; x += 2 )
+			{
+				ReplayDecoder decoder = ReplayDecoder.valueOf( args[ x ] );
+				
+				WaveRecording recording = 
+						new WaveRecording( new File( args[ x + 1 ] ) );
+
+				if( recording.getSampleRate() != CHANNEL_RATE )
+				{
+					log( "FAILED [" + recording.getFile().getName() + 
+						"] - sample rate [" + recording.getSampleRate() + 
+						"] is not the 48 kHz channel rate" );
+					
+					status = 1;
+					
+					continue;
+				}
+				
+				Result result = runner.run( decoder, recording );
+				
+				log( result.toString() );
+			}
+		}
+		catch( Exception e )
+		{
+			e.printStackTrace();
+			
+			status = 1;
+		}
+		
+		System.exit( status );
+	}
+	
+	/**
+	 * Replays the recording through a processing chain configured for the 
+	 * decoder
+	 */
+	public Result run( ReplayDecoder decoder, WaveRecording recording )
+	{
+		Channel channel = new Channel( "Replay " + decoder.name() );
+		channel.setAliasListName( "Replay" );
+		decoder.configure( channel, mResourceManager );
+		channel.setEnabled( true );
+		
+		Source source = ReplaySource.create( recording );
+		
+		ReplayProcessingChain chain = new ReplayProcessingChain( channel, 
+				mResourceManager, source );
+		
+		final AtomicLong messages = new AtomicLong();
+		
+		chain.addListener( new Listener<Message>()
+		{
+			@Override
+			public void receive( Message message )
+			{
+				if( message.isValid() )
+				{
+					messages.incrementAndGet();
+				}
+			}
+		} );
+		
+		chain.start();
+		
+		for( int x = 0; x < WARMUP_PASSES; x++ )
+		{
+			replay( chain, source, recording );
+		}
+		
+		messages.set( 0 );
+		
+		long cpuStart = getProcessCpuTime();
+		long start = System.nanoTime();
+		
+		for( int x = 0; x < MEASUREMENT_PASSES; x++ )
+		{
+			replay( chain, source, recording );
+		}
+		
+		long elapsed = System.nanoTime() - start;
+		long cpu = getProcessCpuTime() - cpuStart;
+		
+		Result result = new Result( decoder, recording, 
+			recording.getDuration() * MEASUREMENT_PASSES, elapsed, cpu, 
+			messages.get(), chain.getDroppedBufferCount(), 
+			MetricsRegistry.getInstance().getSummary( chain.getMetricGroup() ) );
+		
+		channel.setEnabled( false );
+		chain.stop();
+		chain.dispose();
+		
+		return result;
+	}
+	
+	/**
+	 * Sends each recording block to the processing chain, waiting while the
+	 * chain queue is full, and then waits for the end of stream signal from
+	 * the final block, which the chain releases after every block is decoded.
+	 */
+	private void replay( ReplayProcessingChain chain, Source source, 
+			WaveRecording recording )
+	{
+		List<float[]> blocks = recording.getBlocks();
+		
+		CountDownLatch endOfStream = new CountDownLatch( 1 );
+		
+		for( int x = 0; x < blocks.size(); x++ )
+		{
+			while( chain.getQueuedBufferCount() >= MAXIMUM_QUEUED_BUFFERS )
+			{
+				LockSupport.parkNanos( WAIT_NANOSECONDS );
+			}
+			
+			if( x == blocks.size() - 1 )
+			{
+				ReplaySource.sendEndOfStream( source, blocks.get( x ), 
+						endOfStream );
+			}
+			else
+			{
+				ReplaySource.send( source, blocks.get( x ) );
+			}
+		}
+		
+		try
+		{
+			if( !blocks.isEmpty() && !endOfStream.await( 
+					END_OF_STREAM_TIMEOUT_SECONDS, TimeUnit.SECONDS ) )
+			{
+				throw new IllegalStateException( "Decoder didn't finish "
+					+ "replaying [" + recording.getFile().getName() + "]" );
+			}
+		}
+		catch( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			
+			throw new IllegalStateException( "Interrupted while replaying [" + 
+					recording.getFile().getName() + "]", e );
+		}
+	}
+	
+	/**
+	 * CPU time used by all threads in this process, or 0 if not supported
+	 */
+	private static long getProcessCpuTime()
+	{
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		
+		if( os instanceof com.sun.management.OperatingSystemMXBean )
+		{
+			return ((com.sun.management.OperatingSystemMXBean)os)
+					.getProcessCpuTime();
+		}
+		
+		return 0;
+	}
+	
+	public static void log( String message )
+	{
+		System.out.println( message );
+	}
+	
+	/**
+	 * Replay measurement for one decoder and recording
+	 */
+	public static class Result
+	{
+		private ReplayDecoder mDecoder;
+		private WaveRecording mRecording;
+		private double mAudioSeconds;
+		private long mElapsed;
+		private long mCpu;
+		private long mMessages;
+		private long mDropped;
+		private String mMetrics;
+		
+		public Result( ReplayDecoder decoder, WaveRecording recording, 
+				double audioSeconds, long elapsed, long cpu, long messages, 
+				long dropped, String metrics )
+		{
+			mDecoder = decoder;
+			mRecording = recording;
+			mAudioSeconds = audioSeconds;
+			mElapsed = elapsed;
+			mCpu = cpu;
+			mMessages = messages;
+			mDropped = dropped;
+			mMetrics = metrics;
+		}
+		
+		/**
+		 * Audio duration divided by the elapsed time
+		 */
+		public double getRealtimeMultiple()
+		{
+			return mAudioSeconds / ( (double)mElapsed / 1E9d );
+		}
+		
+		/**
+		 * Audio duration divided by the CPU time used, or 0 if the CPU time
+		 * isn't available
+		 */
+		public double getRealtimeMultiplePerCore()
+		{
+			return mCpu == 0 ? 0.0d : mAudioSeconds / ( (double)mCpu / 1E9d );
+		}
+		
+		/**
+		 * Decoded valid messages per pass through the recording
+		 */
+		public long getMessagesPerPass()
+		{
+			return mMessages / MEASUREMENT_PASSES;
+		}
+		
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = new StringBuilder();
+			
+			sb.append( String.format( "%s [%s]: %.1fx realtime, %.1fx realtime "
+				+ "per core, %d valid messages per pass (%.1f s audio in %.2f s)", 
+				mDecoder.getLabel(), mRecording.getFile().getName(), 
+				getRealtimeMultiple(), getRealtimeMultiplePerCore(), 
+				getMessagesPerPass(), mAudioSeconds, (double)mElapsed / 1E9d ) );
+			
+			if( mDropped > 0 )
+			{
+				sb.append( " WARNING: " ).append( mDropped )
+				  .append( " buffers dropped" );
+			}
+			
+			sb.append( "\n  " ).append( mMetrics );
+			
+			return sb.toString();
+		}
+	}
+}
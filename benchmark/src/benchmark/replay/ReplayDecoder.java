@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark.replay;
+
+import controller.ResourceManager;
+import controller.channel.Channel;
+import controller.channel.ChannelMap;
+import controller.channel.ChannelRange;
+import decode.DecoderType;
+import decode.config.AuxDecodeConfiguration;
+import decode.config.DecodeConfigLTRNet;
+import decode.config.DecodeConfigMPT1327;
+import decode.config.DecodeConfigNBFM;
+import decode.config.DecodeConfigP25Phase1;
+import decode.p25.P25Decoder.Modulation;
+
+/**
+ * Decoder configurations that can be benchmarked with a replayed recording
+ */
+public enum ReplayDecoder
+{
+	P25_C4FM( "P25 C4FM" )
+	{
+		@Override
+		public void configure( Channel channel, ResourceManager resourceManager )
+		{
+			DecodeConfigP25Phase1 config = new DecodeConfigP25Phase1();
+			config.setModulation( Modulation.C4FM );
+			channel.setDecodeConfiguration( config );
+		}
+	},
+	P25_CQPSK( "P25 CQPSK" )
+	{
+		@Override
+		public void configure( Channel channel, ResourceManager resourceManager )
+		{
+			DecodeConfigP25Phase1 config = new DecodeConfigP25Phase1();
+			config.setModulation( Modulation.CQPSK );
+			channel.setDecodeConfiguration( config );
+		}
+	},
+	MPT1327( "MPT1327" )
+	{
+		@Override
+		public void configure( Channel channel, ResourceManager resourceManager )
+		{
+			/* The MPT1327 channel state requires a channel map to create 
+			 * traffic channel call events */
+			ChannelMap map = new ChannelMap( CHANNEL_MAP_NAME );
+			map.addRange( new ChannelRange( 1, 1023, 150000000, 12500 ) );
+			
+			resourceManager.getPlaylistManager().getPlayist()
+				.getChannelMapList().addChannelMap( map );
+			
+			DecodeConfigMPT1327 config = new DecodeConfigMPT1327();
+			config.setChannelMapName( CHANNEL_MAP_NAME );
+			channel.setDecodeConfiguration( config );
+		}
+	},
+	LTR_NET( "LTR-Net" )
+	{
+		@Override
+		public void configure( Channel channel, ResourceManager resourceManager )
+		{
+			channel.setDecodeConfiguration( new DecodeConfigLTRNet() );
+		}
+	},
+	FLEETSYNC( "Fleetsync II" )
+	{
+		@Override
+		public void configure( Channel channel, ResourceManager resourceManager )
+		{
+			channel.setDecodeConfiguration( new DecodeConfigNBFM() );
+			
+			AuxDecodeConfiguration aux = new AuxDecodeConfiguration();
+			aux.addAuxDecoder( DecoderType.FLEETSYNC2 );
+			channel.setAuxDecodeConfiguration( aux );
+		}
+	};
+	
+	private static final String CHANNEL_MAP_NAME = "Replay Channel Map";
+	
+	private String mLabel;
+	
+	private ReplayDecoder( String label )
+	{
+		mLabel = label;
+	}
+	
+	/**
+	 * Applies the decoder configuration to the channel
+	 */
+	public abstract void configure( Channel channel, 
+									ResourceManager resourceManager );
+	
+	public String getLabel()
+	{
+		return mLabel;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return mLabel;
+	}
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark.replay;
+
+import source.Source;
+import controller.ResourceManager;
+import controller.channel.Channel;
+import controller.channel.ProcessingChain;
+
+/**
+ * Processing chain that uses a replay source instead of the source that is
+ * specified by the channel source configuration
+ */
+public class ReplayProcessingChain extends ProcessingChain
+{
+	private Source mReplaySource;
+	
+	public ReplayProcessingChain( Channel channel, 
+								  ResourceManager resourceManager,
+								  Source replaySource )
+	{
+		super( channel, resourceManager );
+		
+		mReplaySource = replaySource;
+	}
+
+	@Override
+	protected Source createSource()
+	{
+		return mReplaySource;
+	}
+}
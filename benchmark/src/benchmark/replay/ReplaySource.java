@@ -0,0 +1,268 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark.replay;
+
+import java.util.concurrent.CountDownLatch;
+
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.real.RealBuffer;
+import source.ComplexSource;
+import source.RealSource;
+import source.Source;
+
+/**
+ * Sources that deliver recording sample blocks to the processing chain on
+ * demand, instead of at the recording sample rate
+ */
+public class ReplaySource
+{
+	/**
+	 * Creates a complex or real source, according to the recording sample type
+	 */
+	public static Source create( WaveRecording recording )
+	{
+		if( recording.isComplex() )
+		{
+			return new ComplexReplaySource( recording );
+		}
+		
+		return new RealReplaySource( recording );
+	}
+	
+	/**
+	 * Sends the sample block to the listener of the source
+	 */
+	public static void send( Source source, float[] block )
+	{
+		if( source instanceof ComplexReplaySource )
+		{
+			((ComplexReplaySource)source).send( block );
+		}
+		else
+		{
+			((RealReplaySource)source).send( block );
+		}
+	}
+	
+	/**
+	 * Sends the final sample block of a replay to the listener of the source.
+	 * The end of stream latch is counted down once the processing chain has
+	 * finished with the block.  The processing chain processes its queued 
+	 * buffers in order, so every earlier block has been decoded by then.
+	 */
+	public static void sendEndOfStream( Source source, float[] block, 
+			CountDownLatch endOfStream )
+	{
+		if( source instanceof ComplexReplaySource )
+		{
+			((ComplexReplaySource)source).send( 
+					new EndOfStreamComplexBuffer( block, endOfStream ) );
+		}
+		else
+		{
+			((RealReplaySource)source).send( 
+					new EndOfStreamRealBuffer( block, endOfStream ) );
+		}
+	}
+	
+	/**
+	 * Complex buffer that signals the end of stream when its last user 
+	 * releases it
+	 */
+	public static class EndOfStreamComplexBuffer extends ComplexBuffer
+	{
+		private CountDownLatch mEndOfStream;
+		
+		public EndOfStreamComplexBuffer( float[] samples, 
+				CountDownLatch endOfStream )
+		{
+			super( samples );
+			
+			mEndOfStream = endOfStream;
+		}
+
+		@Override
+		public void release()
+		{
+			super.release();
+			
+			if( getUserCount() == 0 )
+			{
+				mEndOfStream.countDown();
+			}
+		}
+	}
+	
+	/**
+	 * Real buffer that signals the end of stream when the processing chain
+	 * disposes it
+	 */
+	public static class EndOfStreamRealBuffer extends RealBuffer
+	{
+		private CountDownLatch mEndOfStream;
+		
+		public EndOfStreamRealBuffer( float[] samples, 
+				CountDownLatch endOfStream )
+		{
+			super( samples );
+			
+			mEndOfStream = endOfStream;
+		}
+
+		@Override
+		public void dispose()
+		{
+			super.dispose();
+			
+			mEndOfStream.countDown();
+		}
+	}
+	
+	public static class ComplexReplaySource extends ComplexSource
+	{
+		private WaveRecording mRecording;
+		private Listener<ComplexBuffer> mListener;
+		
+		public ComplexReplaySource( WaveRecording recording )
+		{
+			super( "Replay " + recording.getFile().getName() );
+			
+			mRecording = recording;
+		}
+		
+		public void send( float[] block )
+		{
+			/* Wrap the shared block - complex buffers are never modified
+			 * by their listeners */
+			send( new ComplexBuffer( block ) );
+		}
+		
+		/**
+		 * Sends the buffer to the listener and then releases this source's
+		 * use of the buffer
+		 */
+		public void send( ComplexBuffer buffer )
+		{
+			Listener<ComplexBuffer> listener = mListener;
+			
+			if( listener != null )
+			{
+				listener.receive( buffer );
+			}
+			
+			buffer.release();
+		}
+		
+		@Override
+		public void setListener( Listener<ComplexBuffer> listener )
+		{
+			mListener = listener;
+		}
+
+		@Override
+		public void removeListener( Listener<ComplexBuffer> listener )
+		{
+			mListener = null;
+		}
+
+		@Override
+		public int getSampleRate()
+		{
+			return mRecording.getSampleRate();
+		}
+
+		@Override
+		public long getFrequency()
+		{
+			return 0;
+		}
+
+		@Override
+		public void dispose()
+		{
+			mListener = null;
+		}
+	}
+
+	public static class RealReplaySource extends RealSource
+	{
+		private WaveRecording mRecording;
+		private Listener<RealBuffer> mListener;
+		
+		public RealReplaySource( WaveRecording recording )
+		{
+			super( "Replay " + recording.getFile().getName() );
+			
+			mRecording = recording;
+		}
+		
+		public void send( float[] block )
+		{
+			send( new RealBuffer( block ) );
+		}
+		
+		/**
+		 * Sends the buffer to the listener, which takes ownership of the 
+		 * buffer
+		 */
+		public void send( RealBuffer buffer )
+		{
+			Listener<RealBuffer> listener = mListener;
+			
+			if( listener != null )
+			{
+				listener.receive( buffer );
+			}
+			else
+			{
+				buffer.dispose();
+			}
+		}
+		
+		@Override
+		public void setListener( Listener<RealBuffer> listener )
+		{
+			mListener = listener;
+		}
+
+		@Override
+		public void removeListener( Listener<RealBuffer> listener )
+		{
+			mListener = null;
+		}
+
+		@Override
+		public int getSampleRate()
+		{
+			return mRecording.getSampleRate();
+		}
+
+		@Override
+		public long getFrequency()
+		{
+			return 0;
+		}
+
+		@Override
+		public void dispose()
+		{
+			mListener = null;
+		}
+	}
+}
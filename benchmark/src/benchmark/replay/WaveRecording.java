@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package benchmark.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Recording loaded completely into memory as blocks of float samples, so
+ * that file access isn't included in the decoder timing.
+ * 
+ * Supports 16-bit wave files: 2 channel files are baseband I/Q recordings,
+ * as produced by the complex wave recorder, and 1 channel files are 
+ * demodulated recordings, as produced by the float wave recorder.
+ */
+public class WaveRecording
+{
+	/* Samples per block, where an I/Q pair counts as one sample */
+	public static final int BLOCK_SIZE = 1024;
+	
+	private File mFile;
+	private boolean mComplex;
+	private int mSampleRate;
+	private long mSampleCount;
+	private List<float[]> mBlocks = new ArrayList<float[]>();
+	
+	public WaveRecording( File file ) throws IOException
+	{
+		mFile = file;
+		
+		load();
+	}
+	
+	private void load() throws IOException
+	{
+		AudioInputStream stream;
+		
+		try
+		{
+			stream = AudioSystem.getAudioInputStream( mFile );
+		}
+		catch( UnsupportedAudioFileException e )
+		{
+			throw new IOException( "Unsupported audio file [" + 
+					mFile.getName() + "]", e );
+		}
+		
+		try
+		{
+			AudioFormat format = stream.getFormat();
+			
+			if( format.getSampleSizeInBits() != 16 || 
+				format.getChannels() > 2 ||
+				format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED )
+			{
+				throw new IOException( "Unsupported wave format [" + format + 
+					"] - expected 1 or 2 channel 16-bit signed PCM samples" );
+			}
+			
+			mComplex = format.getChannels() == 2;
+			mSampleRate = (int)format.getSampleRate();
+			
+			ByteOrder order = format.isBigEndian() ? 
+					ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+			
+			int frameSize = format.getFrameSize();
+			int valuesPerBlock = BLOCK_SIZE * format.getChannels();
+			
+			byte[] bytes = new byte[ BLOCK_SIZE * frameSize ];
+			
+			int read = readFully( stream, bytes );
+			
+			while( read >= frameSize )
+			{
+				int frames = read / frameSize;
+				int values = frames * format.getChannels();
+				
+				float[] block = new float[ values ];
+				
+				ByteBuffer buffer = ByteBuffer.wrap( bytes ).order( order );
+				
+				for( int x = 0; x < values; x++ )
+				{
+					block[ x ] = (float)buffer.getShort() / 32767.0f;
+				}
+				
+				mBlocks.add( block );
+				mSampleCount += frames;
+				
+				read = values == valuesPerBlock ? readFully( stream, bytes ) : 0;
+			}
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Reads until the array is full or the end of the stream is reached
+	 * 
+	 * @return number of bytes read
+	 */
+	private static int readFully( AudioInputStream stream, byte[] bytes ) 
+			throws IOException
+	{
+		int total = 0;
+		
+		while( total < bytes.length )
+		{
+			int read = stream.read( bytes, total, bytes.length - total );
+			
+			if( read < 0 )
+			{
+				break;
+			}
+			
+			total += read;
+		}
+		
+		return total;
+	}
+	
+	public File getFile()
+	{
+		return mFile;
+	}
+	
+	/**
+	 * Indicates if the recording contains I/Q (complex) samples, or 
+	 * demodulated (real) samples
+	 */
+	public boolean isComplex()
+	{
+		return mComplex;
+	}
+	
+	public int getSampleRate()
+	{
+		return mSampleRate;
+	}
+	
+	/**
+	 * Recording duration in seconds
+	 */
+	public double getDuration()
+	{
+		return (double)mSampleCount / (double)mSampleRate;
+	}
+	
+	/**
+	 * Sample blocks.  Blocks are shared by every replay and must not be 
+	 * modified.
+	 */
+	public List<float[]> getBlocks()
+	{
+		return mBlocks;
+	}
+}
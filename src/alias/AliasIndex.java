@@ -0,0 +1,282 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package alias;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Alias lookup index for string identifiers (talkgroups, mobile ID numbers,
+ * fleetsync, MPT1327, ESN and site identifiers) that may contain wildcards.
+ * 
+ * Identifiers are resolved in the following order:
+ * 
+ * 	1) Exact match hash map lookup
+ * 	2) Recently resolved wildcard matches (bounded LRU cache)
+ * 	3) Character trie containing the single-character (*) wildcard entries,
+ * 	   where a literal character is preferred over a wildcard at each position
+ * 	4) Precompiled regular expressions for entries that contain a regex 
+ * 	   multi-character wildcard (.*)
+ * 
+ * The index is built once from the alias list and is not modified afterward,
+ * except for the recent match cache.  Rebuild the index when the alias list
+ * changes.
+ */
+public class AliasIndex
+{
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	
+	private static final char WILDCARD = '*';
+	private static final String REGEX_WILDCARD = ".*";
+
+	private HashMap<String,Alias> mExactMatches = new HashMap<String,Alias>();
+	private TrieNode mWildcardMatches = new TrieNode();
+	private ArrayList<Pattern> mPatterns = new ArrayList<Pattern>();
+	private ArrayList<Alias> mPatternAliases = new ArrayList<Alias>();
+	private boolean mHasWildcards = false;
+	
+	private Map<String,Alias> mRecentMatches;
+
+	/**
+	 * Constructs an index with a recent wildcard match cache of the default 
+	 * size.
+	 */
+	public AliasIndex()
+	{
+		this( DEFAULT_CACHE_SIZE );
+	}
+	
+	/**
+	 * Constructs an index.
+	 * 
+	 * @param cacheSize - maximum number of recently resolved wildcard matches 
+	 * to retain
+	 */
+	public AliasIndex( final int cacheSize )
+	{
+		mRecentMatches = Collections.synchronizedMap( 
+			new LinkedHashMap<String,Alias>( 16, 0.75f, true )
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry( Map.Entry<String,Alias> eldest )
+				{
+					return size() > cacheSize;
+				}
+			} );
+	}
+	
+	/**
+	 * Adds the identifier to the index.  A single-character wildcard (*) 
+	 * matches any character in that position, unless the identifier also 
+	 * contains a regex multi-character wildcard (.*), in which case the 
+	 * identifier is treated as a regular expression.
+	 * 
+	 * When the same identifier is added more than once, the last alias added 
+	 * is used.
+	 */
+	public void put( String id, Alias alias )
+	{
+		if( id == null )
+		{
+			return;
+		}
+		
+		if( id.indexOf( WILDCARD ) < 0 )
+		{
+			mExactMatches.put( id, alias );
+		}
+		else if( id.contains( REGEX_WILDCARD ) )
+		{
+			mPatterns.add( Pattern.compile( id ) );
+			mPatternAliases.add( alias );
+			mHasWildcards = true;
+		}
+		else
+		{
+			TrieNode node = mWildcardMatches;
+			
+			for( int x = 0; x < id.length(); x++ )
+			{
+				node = node.getOrCreateChild( id.charAt( x ) );
+			}
+			
+			node.mAlias = alias;
+			mHasWildcards = true;
+		}
+	}
+	
+	/**
+	 * Returns the alias that matches the identifier, or null
+	 */
+	public Alias get( String id )
+	{
+		if( id == null )
+		{
+			return null;
+		}
+		
+		Alias alias = mExactMatches.get( id );
+		
+		if( alias != null || !mHasWildcards )
+		{
+			return alias;
+		}
+
+		alias = mRecentMatches.get( id );
+		
+		if( alias != null )
+		{
+			return alias;
+		}
+		
+		alias = mWildcardMatches.match( id, 0 );
+		
+		if( alias == null )
+		{
+			for( int x = 0; x < mPatterns.size(); x++ )
+			{
+				if( mPatterns.get( x ).matcher( id ).matches() )
+				{
+					alias = mPatternAliases.get( x );
+					break;
+				}
+			}
+		}
+		
+		if( alias != null )
+		{
+			mRecentMatches.put( id, alias );
+		}
+		
+		return alias;
+	}
+
+	/**
+	 * Indicates if the index contains any wildcard entries
+	 */
+	public boolean hasWildcards()
+	{
+		return mHasWildcards;
+	}
+	
+	/**
+	 * Number of identifiers contained in the recent wildcard match cache
+	 */
+	public int getCacheSize()
+	{
+		return mRecentMatches.size();
+	}
+	
+	/**
+	 * Character trie node.  Children are held in small parallel arrays since
+	 * identifiers are composed of digits and hex characters, so each node has
+	 * few children.
+	 */
+	private static class TrieNode
+	{
+		private char[] mKeys = new char[ 0 ];
+		private TrieNode[] mChildren = new TrieNode[ 0 ];
+		private TrieNode mWildcard;
+		private Alias mAlias;
+		
+		private TrieNode getChild( char key )
+		{
+			for( int x = 0; x < mKeys.length; x++ )
+			{
+				if( mKeys[ x ] == key )
+				{
+					return mChildren[ x ];
+				}
+			}
+			
+			return null;
+		}
+		
+		private TrieNode getOrCreateChild( char key )
+		{
+			if( key == WILDCARD )
+			{
+				if( mWildcard == null )
+				{
+					mWildcard = new TrieNode();
+				}
+				
+				return mWildcard;
+			}
+			
+			TrieNode child = getChild( key );
+			
+			if( child == null )
+			{
+				int length = mKeys.length;
+
+				char[] keys = new char[ length + 1 ];
+				System.arraycopy( mKeys, 0, keys, 0, length );
+				keys[ length ] = key;
+				
+				TrieNode[] children = new TrieNode[ length + 1 ];
+				System.arraycopy( mChildren, 0, children, 0, length );
+				child = new TrieNode();
+				children[ length ] = child;
+				
+				mKeys = keys;
+				mChildren = children;
+			}
+			
+			return child;
+		}
+
+		/**
+		 * Returns the alias of the first entry that matches the identifier 
+		 * from the index position to the end, preferring literal characters
+		 * over wildcards.
+		 */
+		private Alias match( String id, int index )
+		{
+			if( index == id.length() )
+			{
+				return mAlias;
+			}
+			
+			TrieNode child = getChild( id.charAt( index ) );
+			
+			if( child != null )
+			{
+				Alias alias = child.match( id, index + 1 );
+				
+				if( alias != null )
+				{
+					return alias;
+				}
+			}
+			
+			if( mWildcard != null )
+			{
+				return mWildcard.match( id, index + 1 );
+			}
+			
+			return null;
+		}
+	}
+}
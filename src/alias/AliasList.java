@@ -31,6 +31,7 @@ import alias.action.AliasAction;
 import alias.action.beep.BeepAction;
 import alias.action.clip.ClipAction;
 import alias.action.script.ScriptAction;
+import alias.action.snapshot.SnapshotAction;
 import alias.esn.Esn;
 import alias.fleetsync.FleetsyncID;
 import alias.fleetsync.StatusID;
@@ -58,7 +59,8 @@ import alias.uniqueID.UniqueID;
 			   AliasAction.class,
 			   BeepAction.class,
 			   ClipAction.class,
-			   ScriptAction.class } )
+			   ScriptAction.class,
+			   SnapshotAction.class } )
 
 @XmlRootElement( name = "alias_list" )
 public class AliasList implements Comparable<AliasList>
@@ -68,23 +70,17 @@ public class AliasList implements Comparable<AliasList>
 	private String mName;
 	private ArrayList<Group> mGroups = new ArrayList<Group>();
 	
-	private HashMap<String,Alias> mESN = new HashMap<String,Alias>();
-	private HashMap<String,Alias> mFleetsync = new HashMap<String,Alias>();
-	private HashMap<String,Alias> mMDC1200 = new HashMap<String,Alias>();
-	private HashMap<String,Alias> mMobileID = new HashMap<String,Alias>();
-	private HashMap<String,Alias> mMPT1327 = new HashMap<String,Alias>();
-	private HashMap<String, Alias> mSiteID = new HashMap<String,Alias>();
-	private HashMap<Integer, Alias> mStatus = new HashMap<Integer,Alias>();
-	private HashMap<String,Alias> mTalkgroup = new HashMap<String,Alias>();
-	private HashMap<Integer,Alias> mUniqueID = new HashMap<Integer,Alias>();
-	
-	private boolean mESNWildcard = false;
-	private boolean mMobileIDWildcard = false;
-	private boolean mFleetsyncWildcard = false;
-	private boolean mMDC1200Wildcard = false;
-	private boolean mMPT1327Wildcard = false;
-	private boolean mSiteWildcard = false;
-	private boolean mTalkgroupWildcard = false;
+	/* Lookup indexes are replaced by update() and read by decoder threads.
+	 * Volatile ensures that a reader sees a fully built index. */
+	private volatile AliasIndex mESN = new AliasIndex();
+	private volatile AliasIndex mFleetsync = new AliasIndex();
+	private volatile AliasIndex mMDC1200 = new AliasIndex();
+	private volatile AliasIndex mMobileID = new AliasIndex();
+	private volatile AliasIndex mMPT1327 = new AliasIndex();
+	private volatile AliasIndex mSiteID = new AliasIndex();
+	private volatile HashMap<Integer, Alias> mStatus = new HashMap<Integer,Alias>();
+	private volatile AliasIndex mTalkgroup = new AliasIndex();
+	private volatile HashMap<Integer,Alias> mUniqueID = new HashMap<Integer,Alias>();
 	
 	public AliasList()
 	{
@@ -98,20 +94,20 @@ public class AliasList implements Comparable<AliasList>
 	}
 	
 	/**
-	 * Load/Reload all lookup hashmaps
+	 * Load/Reload all lookup indexes.  New indexes are built and then swapped
+	 * in, so that lookups from decoder threads always see a complete index.
 	 */
 	public void update()
 	{
-		//Clear hashmaps
-		mESN.clear();
-		mFleetsync.clear();
-		mMDC1200.clear();
-		mMobileID.clear();
-		mMPT1327.clear();
-		mSiteID.clear();
-		mStatus.clear();
-		mTalkgroup.clear();
-		mUniqueID.clear();
+		AliasIndex esnIndex = new AliasIndex();
+		AliasIndex fleetsyncIndex = new AliasIndex();
+		AliasIndex mdc1200Index = new AliasIndex();
+		AliasIndex mobileIDIndex = new AliasIndex();
+		AliasIndex mpt1327Index = new AliasIndex();
+		AliasIndex siteIndex = new AliasIndex();
+		HashMap<Integer,Alias> statusMap = new HashMap<Integer,Alias>();
+		AliasIndex talkgroupIndex = new AliasIndex();
+		HashMap<Integer,Alias> uniqueIDMap = new HashMap<Integer,Alias>();
 		
 		for( Group group: mGroups )
 		{
@@ -122,158 +118,53 @@ public class AliasList implements Comparable<AliasList>
 					switch( id.getType() )
 					{
 						case ESN:
-							Esn esn = (Esn)id;
-							if( esn.getEsn().contains( "*" ) )
-							{
-								mESNWildcard = true;
-
-								mESN.put( fixWildcard( esn.getEsn() ), alias );
-							}
-							else
-							{
-								mESN.put( esn.getEsn(), alias );
-							}
+							esnIndex.put( ((Esn)id).getEsn(), alias );
 							break;
 						case Fleetsync:
-							FleetsyncID fs = (FleetsyncID)id;
-							
-							if( fs.getIdent().contains( "*" ) )
-							{
-								mFleetsyncWildcard = true;
-								
-								mFleetsync.put( fixWildcard( fs.getIdent() ), alias );
-							}
-							else
-							{
-								mFleetsync.put( fs.getIdent(), alias );
-							}
+							fleetsyncIndex.put( ((FleetsyncID)id).getIdent(), alias );
 							break;
 						case MDC1200:
-							MDC1200ID mdc = (MDC1200ID)id;
-							
-							if( mdc.getIdent().contains( "*" ) )
-							{
-								mMDC1200Wildcard = true;
-								
-								//Replace (*) wildcard with regex wildcard (.)
-								mMDC1200.put( fixWildcard( mdc.getIdent() ), alias );
-							}
-							else
-							{
-								mMDC1200.put( mdc.getIdent(), alias );
-							}
+							mdc1200Index.put( ((MDC1200ID)id).getIdent(), alias );
 							break;
 						case MPT1327:
-							MPT1327ID mpt = (MPT1327ID)id;
-							
-							String ident = mpt.getIdent();
-							
-							if( ident != null )
-							{
-								if( ident.contains( "*" ) )
-								{
-									mMPT1327Wildcard = true;
-									
-									//Replace (*) wildcard with regex wildcard (.)
-									mMPT1327.put( fixWildcard( ident ), alias );
-								}
-								else
-								{
-									mMPT1327.put( ident, alias );
-								}
-							}
+							mpt1327Index.put( ((MPT1327ID)id).getIdent(), alias );
 							break;
 						case MIN:
-							Min min = (Min)id;
-							
-							if( min.getMin().contains( "*" ) )
-							{
-								mMobileIDWildcard = true;
-								mMobileID.put( fixWildcard( min.getMin() ), alias );
-							}
-							else
-							{
-								mMobileID.put( min.getMin(), alias );
-							}
+							mobileIDIndex.put( ((Min)id).getMin(), alias );
 							break;
 						case LTRNetUID:
 							UniqueID uid = (UniqueID)id;
 							
-							mUniqueID.put( uid.getUid(), alias );
+							uniqueIDMap.put( uid.getUid(), alias );
 							break;
 						case Site:
-							SiteID siteID = (SiteID)id;
-
-							if( siteID.getSite().contains( "*" ) )
-							{
-								mSiteWildcard = true;
-								mSiteID.put( fixWildcard( siteID.getSite() ), alias );
-							}
-							else
-							{
-								mSiteID.put( siteID.getSite(), alias );
-							}
-							
+							siteIndex.put( ((SiteID)id).getSite(), alias );
 							break;
 						case Status:
-							mStatus.put( ((StatusID)id).getStatus(), alias );
+							statusMap.put( ((StatusID)id).getStatus(), alias );
 							break;
 						case Talkgroup:
-							TalkgroupID tgid = (TalkgroupID)id;
-							
-							if( tgid.getTalkgroup().contains( "*" ) )
-							{
-								mTalkgroupWildcard = true;
-								
-								//Replace (*) wildcard with regex wildcard (.)
-								mTalkgroup.put( fixWildcard( tgid.getTalkgroup() ), alias );
-							}
-							else
-							{
-								mTalkgroup.put( tgid.getTalkgroup(), alias );
-							}
+							talkgroupIndex.put( ((TalkgroupID)id).getTalkgroup(), alias );
 							break;
 					}
 				}
 			}
 		}
+		
+		mESN = esnIndex;
+		mFleetsync = fleetsyncIndex;
+		mMDC1200 = mdc1200Index;
+		mMobileID = mobileIDIndex;
+		mMPT1327 = mpt1327Index;
+		mSiteID = siteIndex;
+		mStatus = statusMap;
+		mTalkgroup = talkgroupIndex;
+		mUniqueID = uniqueIDMap;
 	}
 
-	/**
-	 * Converts user wildcard character (*) to regex single character wildcard (.)
-	 * but ignores a regex multi-character wildcard (.*)
-	 */
-	private String fixWildcard( String value )
-	{
-		if( value.contains( "*" ) && !value.contains( ".*" ) )
-		{
-			return value.replace( "*", "." );
-		}
-
-		return value;
-	}
-	
 	public Alias getSiteID( String siteID )
 	{
-		if( siteID != null )
-		{
-			if( mSiteWildcard )
-			{
-				for( String regex: mSiteID.keySet() )
-				{
-					if( siteID.matches( regex ) )
-					{
-						return mSiteID.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mSiteID.get( siteID );
-			}
-		}
-		
-		return null;
+		return mSiteID.get( siteID );
 	}
 	
 	public Alias getStatus( int status )
@@ -288,101 +179,23 @@ public class AliasList implements Comparable<AliasList>
 	
 	public Alias getESNAlias( String esn )
 	{
-		if( esn != null )
-		{
-			Alias retVal = null;
-			
-			if( mESNWildcard )
-			{
-				for( String regex: mESN.keySet() )
-				{
-					if( esn.matches( regex ) )
-					{
-						return mESN.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mESN.get( esn );
-			}
-		}
-		
-		return null;
+		return mESN.get( esn );
 	}
 	
 
 	public Alias getFleetsyncAlias( String ident )
 	{
-		if( ident != null )
-		{
-			Alias retVal = null;
-			
-			if( mFleetsyncWildcard )
-			{
-				for( String regex: mFleetsync.keySet() )
-				{
-					if( ident.matches( regex ) )
-					{
-						return mFleetsync.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mFleetsync.get( ident );
-			}
-		}
-		
-		return null;
+		return mFleetsync.get( ident );
 	}
 	
 	public Alias getMDC1200Alias( String ident )
 	{
-		if( ident != null )
-		{
-			Alias retVal = null;
-			
-			if( mMDC1200Wildcard )
-			{
-				for( String regex: mMDC1200.keySet() )
-				{
-					if( ident.matches( regex ) )
-					{
-						return mMDC1200.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mMDC1200.get( ident );
-			}
-		}
-		
-		return null;
+		return mMDC1200.get( ident );
 	}
 	
 	public Alias getMPT1327Alias( String ident )
 	{
-		if( ident != null )
-		{
-			if( mMPT1327Wildcard )
-			{
-				for( String regex: mMPT1327.keySet() )
-				{
-					if( ident.matches( regex ) )
-					{
-						return mMPT1327.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mMPT1327.get( ident );
-			}
-		}
-		
-		return null;
+		return mMPT1327.get( ident );
 	}
 	
 	public Group getGroup( Alias alias )
@@ -403,48 +216,12 @@ public class AliasList implements Comparable<AliasList>
 	
 	public Alias getMobileIDNumberAlias( String ident )
 	{
-		if( ident != null )
-		{
-			if( mMobileIDWildcard )
-			{
-				for( String regex: mMobileID.keySet() )
-				{
-					if( ident.matches( regex ) )
-					{
-						return mMobileID.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mMobileID.get( ident );
-			}
-		}
-		
-		return null;
+		return mMobileID.get( ident );
 	}
 	
 	public Alias getTalkgroupAlias( String tgid )
 	{
-		if( tgid != null )
-		{
-			if( mTalkgroupWildcard )
-			{
-				for( String regex: mTalkgroup.keySet() )
-				{
-					if( tgid.matches( regex ) )
-					{
-						return mTalkgroup.get( regex );
-					}
-				}
-			}
-			else
-			{
-				return mTalkgroup.get( tgid );
-			}
-		}
-		
-		return null;
+		return mTalkgroup.get( tgid );
 	}
 	
 	public String toString()
@@ -34,6 +34,8 @@ import alias.action.clip.ClipAction;
 import alias.action.clip.ClipActionNode;
 import alias.action.script.ScriptAction;
 import alias.action.script.ScriptActionNode;
+import alias.action.snapshot.SnapshotAction;
+import alias.action.snapshot.SnapshotActionNode;
 import alias.esn.ESNNode;
 import alias.esn.Esn;
 import alias.fleetsync.FleetsyncID;
@@ -159,6 +161,11 @@ public class AliasNode extends ConfigurableNode
         		getModel().addNode( new ScriptActionNode( (ScriptAction)action ), 
         				AliasNode.this, getChildCount() );
     		}
+    		else if( action instanceof SnapshotAction )
+    		{
+        		getModel().addNode( new SnapshotActionNode( (SnapshotAction)action ), 
+        				AliasNode.this, getChildCount() );
+    		}
     	}
     	
     	sort();
@@ -437,6 +444,29 @@ public class AliasNode extends ConfigurableNode
 		} );
 		
 		addActionMenu.add( addScriptItem );
+		
+		JMenuItem addSnapshotItem = new JMenuItem( "Baseband Snapshot" );
+		
+		addSnapshotItem.addActionListener( new ActionListener() 
+		{
+			@Override
+            public void actionPerformed( ActionEvent e )
+            {
+				SnapshotAction snapshotAction = new SnapshotAction();
+
+				getAlias().addAliasAction( snapshotAction );
+				
+				SnapshotActionNode node = new SnapshotActionNode( snapshotAction );
+				
+				getModel().addNode( node, 
+									AliasNode.this, 
+									AliasNode.this.getChildCount() );
+				
+				node.show();
+            }
+		} );
+		
+		addActionMenu.add( addSnapshotItem );
 
 		retVal.add( addActionMenu );
 		
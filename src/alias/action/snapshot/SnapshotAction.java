@@ -0,0 +1,42 @@
+package alias.action.snapshot;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import message.Message;
+import source.tuner.TunerRingBuffer;
+import alias.Alias;
+import alias.action.RecurringAction;
+
+/**
+ * Saves a snapshot of each tuner's ring buffer of recent baseband samples, 
+ * plus a post-trigger period, when the alias is active.  Requires the tuner 
+ * ring buffer to be enabled with the tuner.ring.buffer.seconds property.
+ */
+public class SnapshotAction extends RecurringAction
+{
+	private int mPostTriggerSeconds = 5;
+	
+	public SnapshotAction()
+	{
+		/* Suppress repeated snapshots while the alias remains active */
+		mInterval = Interval.DELAYED_RESET;
+		mPeriod = 30;
+	}
+	
+	@XmlAttribute( name = "post_trigger" )
+	public int getPostTriggerSeconds()
+	{
+		return mPostTriggerSeconds;
+	}
+	
+	public void setPostTriggerSeconds( int seconds )
+	{
+		mPostTriggerSeconds = seconds;
+	}
+
+	@Override
+	public void performAction( Alias alias, Message message )
+	{
+		TunerRingBuffer.snapshotAll( alias.getName(), mPostTriggerSeconds );
+	}
+}
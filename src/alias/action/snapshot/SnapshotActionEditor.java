@@ -0,0 +1,148 @@
+package alias.action.snapshot;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
+import javax.swing.SpinnerModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import net.miginfocom.swing.MigLayout;
+import alias.action.RecurringAction.Interval;
+
+public class SnapshotActionEditor extends JPanel implements ActionListener
+{
+    private static final long serialVersionUID = 1L;
+    
+    private SnapshotActionNode mSnapshotActionNode;
+    private JComboBox<Interval> mComboInterval;
+    private JSpinner mSpinnerPeriod;
+    private JSpinner mSpinnerPostTrigger;
+
+	public SnapshotActionEditor( SnapshotActionNode snapshotActionNode )
+	{
+		mSnapshotActionNode = snapshotActionNode;
+		
+		initGUI();
+	}
+	
+	private void initGUI()
+	{
+		setLayout( new MigLayout( "fill,wrap 2", "[right][left]", "[][][][][][][grow]" ) );
+
+		add( new JLabel( "Action: Baseband Snapshot" ), "span,align center" );
+		
+		add( new JLabel( "Interval:" ) );
+		
+		mComboInterval = new JComboBox<Interval>( Interval.values() );
+
+		mComboInterval.setSelectedItem( mSnapshotActionNode
+				.getSnapshotAction().getInterval() );
+
+		mComboInterval.addActionListener( new ActionListener()
+		{
+			@Override
+           public void actionPerformed( ActionEvent e )
+           {
+				Interval selected = mComboInterval
+						.getItemAt( mComboInterval.getSelectedIndex() );
+				
+				if( selected != null )
+				{
+					/* Enable/disable period spinner based on selection */
+					mSpinnerPeriod.setEnabled( selected != Interval.ONCE );
+					
+					mSnapshotActionNode.getSnapshotAction().setInterval( selected );
+				}
+           }
+		});
+		
+		add( mComboInterval, "wrap" );
+
+		final SpinnerModel model = new SpinnerNumberModel( 
+				mSnapshotActionNode.getSnapshotAction().getPeriod(), 1, 300, 1 );
+		
+		model.addChangeListener( new ChangeListener() 
+		{
+			@Override
+			public void stateChanged( ChangeEvent e )
+			{
+				mSnapshotActionNode.getSnapshotAction()
+						.setPeriod( (int)model.getValue() );
+			}
+		} );
+		
+		mSpinnerPeriod = new JSpinner( model );
+
+		if( mSnapshotActionNode.getSnapshotAction().getInterval() == Interval.ONCE )
+		{
+			mSpinnerPeriod.setEnabled( false );
+		}
+		
+		add( new JLabel( "Period:" ) );
+		add( mSpinnerPeriod, "wrap" );
+
+		final SpinnerModel postModel = new SpinnerNumberModel( 
+				mSnapshotActionNode.getSnapshotAction().getPostTriggerSeconds(), 
+				0, 300, 1 );
+		
+		postModel.addChangeListener( new ChangeListener() 
+		{
+			@Override
+			public void stateChanged( ChangeEvent e )
+			{
+				mSnapshotActionNode.getSnapshotAction()
+						.setPostTriggerSeconds( (int)postModel.getValue() );
+			}
+		} );
+		
+		mSpinnerPostTrigger = new JSpinner( postModel );
+		
+		add( new JLabel( "Post-Trigger Seconds:" ) );
+		add( mSpinnerPostTrigger, "wrap" );
+
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append( "This action saves the recent baseband I/Q samples held in each tuner's ring buffer, plus the post-trigger seconds of new samples, to a recording file when the alias is active.\n\n" );
+		sb.append( "The tuner ring buffer must be enabled by setting the tuner.ring.buffer.seconds property to the number of seconds to retain.\n\n" );
+		sb.append( "Once - Save a snapshot the first time the alias is active and never again.\n\n" );
+		sb.append( "Once, Reset After Delay - Save a snapshot and suppress subsequent snapshots for the specified period in seconds.\n\n" );
+		sb.append( "Until Dismissed - Save a snapshot every period seconds until you click OK on the dialog that appears." );
+		
+		JTextArea description = new JTextArea( sb.toString() );
+		
+		description.setLineWrap( true );
+		description.setBackground( getBackground() );
+		
+		add( description, "growx,span" );
+		
+		JButton btnSave = new JButton( "Save" );
+		btnSave.addActionListener( SnapshotActionEditor.this );
+		add( btnSave, "growx,push" );
+
+		JButton btnReset = new JButton( "Reset" );
+		btnReset.addActionListener( SnapshotActionEditor.this );
+		add( btnReset, "growx,push" );
+	}
+
+	@Override
+    public void actionPerformed( ActionEvent e )
+    {
+		String command = e.getActionCommand();
+		
+		if( command.contentEquals( "Save" ) )
+		{
+			mSnapshotActionNode.save();
+			mSnapshotActionNode.show();
+		}
+		
+		mSnapshotActionNode.refresh();
+    }
+}
@@ -66,6 +66,14 @@ public class AudioOutputImpl implements RealSampleListener,
         	mLog.error( "AudioOutput - couldn't open audio speakers "
         			+ "for playback", e );
         }
+        catch ( IllegalArgumentException e )
+        {
+        	/* No audio device supports the format, e.g. headless systems */
+        	mLog.error( "AudioOutput - no audio output line available "
+        			+ "for playback - " + e.getMessage() );
+        	
+        	mOutput = null;
+        }
 	}
 
 	@Override
@@ -83,9 +91,12 @@ public class AudioOutputImpl implements RealSampleListener,
 	@Override
 	public void dispose()
 	{
-		mOutput.stop();
-		mOutput.close();
-		mOutput = null;
+		if( mOutput != null )
+		{
+			mOutput.stop();
+			mOutput.close();
+			mOutput = null;
+		}
 	}
 
 	@Override
@@ -107,7 +118,10 @@ public class AudioOutputImpl implements RealSampleListener,
 		{
 			ByteBuffer buffer = mBuffer.get();
 			
-			mOutput.write( buffer.array(), 0, buffer.array().length );
+			if( mOutput != null )
+			{
+				mOutput.write( buffer.array(), 0, buffer.array().length );
+			}
 			
 			mBuffer.reset();
 		}
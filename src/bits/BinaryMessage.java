@@ -17,6 +17,7 @@
  ******************************************************************************/
 package bits;
 
+import java.util.Arrays;
 import java.util.BitSet;
 
 import org.slf4j.Logger;
@@ -24,15 +25,38 @@ import org.slf4j.LoggerFactory;
 
 import edac.CRC;
 
-public class BinaryMessage extends BitSet
+/**
+ * Binary message bit buffer backed by an array of 64-bit words.
+ * 
+ * Bits are stored most significant bit first within each word, so that bit
+ * index 0 is the MSB of word 0 and bit index 63 is the LSB of word 0.  With 
+ * this ordering, a contiguous range of message bits is also a contiguous 
+ * range of word bits in the same order and field values can be extracted with
+ * a shift and mask of (at most) two words instead of one bit at a time.
+ * 
+ * Field extraction using an array of (possibly non-contiguous) bit indexes 
+ * coalesces each run of consecutive indexes into a single masked word read.
+ * 
+ * This class provides the subset of java.util.BitSet methods used by the 
+ * message decoders.  The buffer grows as needed when bits are set beyond the
+ * current capacity.
+ */
+public class BinaryMessage
 {
 	private final static Logger mLog = LoggerFactory.getLogger( BinaryMessage.class );
 
-	private static final long serialVersionUID = 1L;
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+	private static final int BITS_PER_WORD = 64;
+	private static final long WORD_MASK = 0xFFFFFFFFFFFFFFFFL;
 
+	/**
+	 * Message bits, MSB first within each word
+	 */
+	private long[] mWords;
+	
     /**
-     * Logical (ie constructed) size of this bitset, despite the actual size of
-     * the super bitset that this class is based on
+     * Logical (ie constructed) size of this message, despite the actual size
+     * of the word array that backs this message
      */
     private int mSize = 0;
     
@@ -42,15 +66,6 @@ public class BinaryMessage extends BitSet
      */
     private int mPointer = 0;
 
-    /**
-     * Bitset that buffers bits added one at a time, up to the size of the this
-     * bitset. 
-     * 
-     * Note: the super class bitset behind this class may have a size larger 
-     * that the size parameter specified.
-     * @param size
-     */
-    
     /**
      * Used for temporary storage of CRC check results when we're passing this
      * message to an EDAC function.
@@ -59,7 +74,7 @@ public class BinaryMessage extends BitSet
     
     public BinaryMessage( int size )
     {
-        super( size );
+    	mWords = new long[ wordCount( size ) ];
         mSize = size;
     }
     
@@ -97,21 +112,26 @@ public class BinaryMessage extends BitSet
      */
     private BinaryMessage( BinaryMessage toCopyFrom )
     {
-        this( toCopyFrom.size() );
-        this.or( toCopyFrom );
-        this.mPointer = toCopyFrom.pointer();
+    	mWords = Arrays.copyOf( toCopyFrom.mWords, toCopyFrom.mWords.length );
+    	mSize = toCopyFrom.size();
+        mPointer = toCopyFrom.pointer();
     }
 
     public BinaryMessage( BitSet bitset, int size )
     {
         this( size );
-        this.or( bitset );
+        
+		for( int i = bitset.nextSetBit( 0 ); i >= 0; i = bitset.nextSetBit( i + 1 ) ) 
+		{
+			set( i );
+		}
+
         this.mPointer = size - 1;
     }
     
     /**
      * Returns a mew binary message containing the bits from (inclusive) to 
-     * end (exclusive).
+     * end (exclusive).  The bits are copied a word at a time.
      * 
      * @param start
      * @param end
@@ -119,9 +139,11 @@ public class BinaryMessage extends BitSet
      */
     public BinaryMessage getSubMessage( int start, int end )
     {
-    	BitSet subset = this.get( start, end );
+    	BinaryMessage subset = get( start, end );
     	
-    	return new BinaryMessage( subset, end - start );
+    	subset.setPointer( end - start - 1 );
+    	
+    	return subset;
     }
     
     public CRC getCRC()
@@ -208,11 +230,9 @@ public class BinaryMessage extends BitSet
     }
 
     /**
-     * Overrides the in-build size() method of the bitset and returns the value
-     * specified at instantiation.  The actual bitset size may be larger than
-     * this value, and that size is managed by the super class.
+     * Size specified at instantiation or via setSize().  The backing word 
+     * array may be larger than this value.
      */
-    @Override
     public int size()
     {
         return mSize;
@@ -227,10 +247,9 @@ public class BinaryMessage extends BitSet
      * Clears (sets to false or 0) the bits in this bitset and resets the
      * pointer to zero.
      */
-    @Override
     public void clear()
     {
-        this.clear( 0,  mSize );
+        Arrays.fill( mWords, 0l );
         mPointer = 0;
     }
 
@@ -256,6 +275,419 @@ public class BinaryMessage extends BitSet
         }
     }
     
+    /**
+     * Number of words required to hold the specified number of bits
+     */
+    private static int wordCount( int bits )
+    {
+    	return ( bits + BITS_PER_WORD - 1 ) >>> ADDRESS_BITS_PER_WORD;
+    }
+    
+    /**
+     * Bit mask for the bit index within its word
+     */
+    private static long mask( int index )
+    {
+    	return Long.MIN_VALUE >>> index;
+    }
+    
+    /**
+     * Expands the word array as needed to hold the bit index
+     */
+    private void ensureCapacity( int index )
+    {
+    	int required = ( index >>> ADDRESS_BITS_PER_WORD ) + 1;
+    	
+    	if( required > mWords.length )
+    	{
+    		mWords = Arrays.copyOf( mWords, 
+    				Math.max( required, 2 * mWords.length ) );
+    	}
+    }
+    
+    /**
+     * Returns the value of the bit at the index
+     */
+    public boolean get( int index )
+    {
+    	if( index < 0 )
+    	{
+    		throw new IndexOutOfBoundsException( "index < 0: " + index );
+    	}
+    	
+    	int word = index >>> ADDRESS_BITS_PER_WORD;
+    	
+    	return word < mWords.length && ( mWords[ word ] & mask( index ) ) != 0;
+    }
+    
+    /**
+     * Returns a new message containing the bits from (inclusive) to end 
+     * (exclusive).
+     */
+    public BinaryMessage get( int from, int to )
+    {
+    	int length = to - from;
+    	
+    	BinaryMessage message = new BinaryMessage( length );
+    	
+    	long[] words = message.mWords;
+    	
+    	for( int x = 0; x < words.length; x++ )
+    	{
+    		int bits = Math.min( BITS_PER_WORD, length - ( x * BITS_PER_WORD ) );
+    		
+    		words[ x ] = extract( from + ( x * BITS_PER_WORD ), bits ) << 
+    						( BITS_PER_WORD - bits );
+    	}
+    	
+    	return message;
+    }
+    
+    /**
+     * Sets the bit at the index
+     */
+    public void set( int index )
+    {
+    	ensureCapacity( index );
+    	
+    	mWords[ index >>> ADDRESS_BITS_PER_WORD ] |= mask( index );
+    }
+    
+    /**
+     * Sets the bit at the index to the value
+     */
+    public void set( int index, boolean value )
+    {
+    	if( value )
+    	{
+    		set( index );
+    	}
+    	else
+    	{
+    		clear( index );
+    	}
+    }
+    
+    /**
+     * Sets the bits from (inclusive) to end (exclusive)
+     */
+    public void set( int from, int to )
+    {
+    	for( int x = from; x < to; x++ )
+    	{
+    		set( x );
+    	}
+    }
+    
+    /**
+     * Sets the bits from (inclusive) to end (exclusive) to the value
+     */
+    public void set( int from, int to, boolean value )
+    {
+    	if( value )
+    	{
+    		set( from, to );
+    	}
+    	else
+    	{
+    		clear( from, to );
+    	}
+    }
+    
+    /**
+     * Clears the bit at the index
+     */
+    public void clear( int index )
+    {
+    	int word = index >>> ADDRESS_BITS_PER_WORD;
+    	
+    	if( word < mWords.length )
+    	{
+    		mWords[ word ] &= ~mask( index );
+    	}
+    }
+    
+    /**
+     * Clears the bits from (inclusive) to end (exclusive)
+     */
+    public void clear( int from, int to )
+    {
+    	for( int x = from; x < to; x++ )
+    	{
+    		clear( x );
+    	}
+    }
+    
+    /**
+     * Toggles the bit at the index
+     */
+    public void flip( int index )
+    {
+    	ensureCapacity( index );
+    	
+    	mWords[ index >>> ADDRESS_BITS_PER_WORD ] ^= mask( index );
+    }
+
+    /**
+     * Toggles the bits from (inclusive) to end (exclusive)
+     */
+    public void flip( int from, int to )
+    {
+    	for( int x = from; x < to; x++ )
+    	{
+    		flip( x );
+    	}
+    }
+    
+    /**
+     * Index of the first set bit at or after the from index, or -1 if there
+     * are no set bits
+     */
+    public int nextSetBit( int from )
+    {
+    	int word = from >>> ADDRESS_BITS_PER_WORD;
+    	
+    	if( word >= mWords.length )
+    	{
+    		return -1;
+    	}
+    	
+    	long bits = mWords[ word ] & ( WORD_MASK >>> from );
+    	
+    	while( true )
+    	{
+    		if( bits != 0 )
+    		{
+    			return ( word * BITS_PER_WORD ) + Long.numberOfLeadingZeros( bits );
+    		}
+    		
+    		if( ++word == mWords.length )
+    		{
+    			return -1;
+    		}
+    		
+    		bits = mWords[ word ];
+    	}
+    }
+    
+    /**
+     * Index of the first clear bit at or after the from index
+     */
+    public int nextClearBit( int from )
+    {
+    	int word = from >>> ADDRESS_BITS_PER_WORD;
+    	
+    	if( word >= mWords.length )
+    	{
+    		return from;
+    	}
+    	
+    	long bits = ~mWords[ word ] & ( WORD_MASK >>> from );
+    	
+    	while( true )
+    	{
+    		if( bits != 0 )
+    		{
+    			return ( word * BITS_PER_WORD ) + Long.numberOfLeadingZeros( bits );
+    		}
+    		
+    		if( ++word == mWords.length )
+    		{
+    			return word * BITS_PER_WORD;
+    		}
+    		
+    		bits = ~mWords[ word ];
+    	}
+    }
+    
+    /**
+     * Number of set bits
+     */
+    public int cardinality()
+    {
+    	int count = 0;
+    	
+    	for( long word: mWords )
+    	{
+    		count += Long.bitCount( word );
+    	}
+    	
+    	return count;
+    }
+    
+    /**
+     * Index of the highest set bit plus one
+     */
+    public int length()
+    {
+    	for( int x = mWords.length - 1; x >= 0; x-- )
+    	{
+    		if( mWords[ x ] != 0 )
+    		{
+    			return ( x * BITS_PER_WORD ) + BITS_PER_WORD - 
+    					Long.numberOfTrailingZeros( mWords[ x ] );
+    		}
+    	}
+    	
+    	return 0;
+    }
+    
+    /**
+     * Indicates if there are no set bits
+     */
+    public boolean isEmpty()
+    {
+    	for( long word: mWords )
+    	{
+    		if( word != 0 )
+    		{
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    /**
+     * Logical AND of this message with the other message
+     */
+    public void and( BinaryMessage other )
+    {
+    	for( int x = 0; x < mWords.length; x++ )
+    	{
+    		mWords[ x ] &= x < other.mWords.length ? other.mWords[ x ] : 0;
+    	}
+    }
+
+    /**
+     * Logical OR of this message with the other message
+     */
+    public void or( BinaryMessage other )
+    {
+    	ensureWords( other.mWords.length );
+    	
+    	for( int x = 0; x < other.mWords.length; x++ )
+    	{
+    		mWords[ x ] |= other.mWords[ x ];
+    	}
+    }
+    
+    /**
+     * Logical XOR of this message with the other message
+     */
+    public void xor( BinaryMessage other )
+    {
+    	ensureWords( other.mWords.length );
+    	
+    	for( int x = 0; x < other.mWords.length; x++ )
+    	{
+    		mWords[ x ] ^= other.mWords[ x ];
+    	}
+    }
+    
+    private void ensureWords( int count )
+    {
+    	if( count > mWords.length )
+    	{
+    		mWords = Arrays.copyOf( mWords, count );
+    	}
+    }
+    
+    /**
+     * Returns the set bits as a little endian byte array, where bit index 0 is
+     * the LSB of the first byte.  The array length is determined by the 
+     * highest set bit, matching java.util.BitSet.toByteArray().
+     */
+    public byte[] toByteArray()
+    {
+    	byte[] bytes = new byte[ ( length() + 7 ) / 8 ];
+    	
+		for( int i = nextSetBit( 0 ); i >= 0; i = nextSetBit( i + 1 ) ) 
+		{
+			bytes[ i / 8 ] |= ( 1 << ( i % 8 ) );
+		}
+		
+		return bytes;
+    }
+    
+    @Override
+    public boolean equals( Object object )
+    {
+    	if( this == object )
+    	{
+    		return true;
+    	}
+    	
+    	if( !( object instanceof BinaryMessage ) )
+    	{
+    		return false;
+    	}
+    	
+    	BinaryMessage other = (BinaryMessage)object;
+    	
+    	int words = Math.max( mWords.length, other.mWords.length );
+    	
+    	for( int x = 0; x < words; x++ )
+    	{
+    		long a = x < mWords.length ? mWords[ x ] : 0;
+    		long b = x < other.mWords.length ? other.mWords[ x ] : 0;
+    		
+    		if( a != b )
+    		{
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    @Override
+    public int hashCode()
+    {
+    	long hash = 1234;
+    	
+    	int words = mWords.length;
+    	
+    	while( words > 0 && mWords[ words - 1 ] == 0 )
+    	{
+    		words--;
+    	}
+    	
+    	for( int x = words; --x >= 0; )
+    	{
+    		hash ^= mWords[ x ] * ( x + 1 );
+    	}
+    	
+    	return (int)( ( hash >> 32 ) ^ hash );
+    }
+    
+    /**
+     * Returns (length) contiguous bits starting at the start index as a right
+     * aligned value, where the start index bit is the MSB of the value.
+     * 
+     * @param start - index of the MSB
+     * @param length - number of bits, 1 - 64
+     */
+    private long extract( int start, int length )
+    {
+    	int word = start >>> ADDRESS_BITS_PER_WORD;
+    	int offset = start & ( BITS_PER_WORD - 1 );
+    	
+    	if( word >= mWords.length )
+    	{
+    		return 0;
+    	}
+    	
+    	long value = mWords[ word ] << offset;
+    	
+    	if( offset + length > BITS_PER_WORD && word + 1 < mWords.length )
+    	{
+    		value |= mWords[ word + 1 ] >>> ( BITS_PER_WORD - offset );
+    	}
+    	
+    	return value >>> ( BITS_PER_WORD - length );
+    }
+    
     public String toString()
     {
         StringBuilder sb = new StringBuilder();
@@ -358,16 +790,34 @@ public class BinaryMessage extends BitSet
     				+ "or less to fit into a primitive integer value" );
     	}
 
-    	int value = 0;
-
-    	for( int index: bits )
+    	return (int)getField( bits );
+    }
+    
+    /**
+     * Returns the value of the bits at the bit positions, with index 0 being 
+     * the MSB.  Each run of consecutive bit positions is read from the word
+     * array with a single masked read.
+     */
+    private long getField( int[] bits )
+    {
+    	long value = 0;
+    	
+    	int x = 0;
+    	
+    	while( x < bits.length )
     	{
-    		value = Integer.rotateLeft( value, 1 );
+    		int start = bits[ x ];
+    		int run = 1;
     		
-    		if( get( index ) )
+    		while( x + run < bits.length && bits[ x + run ] == start + run )
     		{
-    			value++;
+    			run++;
     		}
+    		
+    		value = ( run == BITS_PER_WORD ? 0 : value << run ) | 
+    					extract( start, run );
+    		
+    		x += run;
     	}
     	
     	return value;
@@ -388,19 +838,7 @@ public class BinaryMessage extends BitSet
     				+ "indexes to form a proper byte" );
     	}
 
-    	int value = 0;
-
-    	for( int index: bits )
-    	{
-    		value = Integer.rotateLeft( value, 1 );
-    		
-    		if( get( index ) )
-    		{
-    			value++;
-    		}
-    	}
-    	
-    	return (byte)( value & 0xFF );
+    	return (byte)getField( bits );
     }
 
     /**
@@ -418,19 +856,7 @@ public class BinaryMessage extends BitSet
     				+ "or less to fit into a primitive long value" );
     	}
 
-    	long value = 0;
-
-    	for( int index: bits )
-    	{
-    		value = Long.rotateLeft( value, 1 );
-    		
-    		if( get( index ) )
-    		{
-    			value++;
-    		}
-    	}
-    	
-    	return value;
+    	return getField( bits );
     }
     
     
@@ -509,34 +935,7 @@ public class BinaryMessage extends BitSet
     				+ "or less to fit into a primitive integer value" );
     	}
     	
-    	int value = 0;
-
-    	if( start < end )
-    	{
-        	for( int x = start; x <= end; x++ )
-        	{
-        		value = Integer.rotateLeft( value, 1 );
-
-        		if( get( x ) )
-        		{
-        			value++;;
-        		}
-        	}
-    	}
-    	else
-    	{
-        	for( int x = end; x >= start; x-- )
-        	{
-        		value = Integer.rotateLeft( value, 1 );
-
-        		if( get( x ) )
-        		{
-        			value++;;
-        		}
-        	}
-    	}
-    	
-    	return value;
+    	return (int)getLong( start, end );
     }
     
     /**
@@ -560,34 +959,27 @@ public class BinaryMessage extends BitSet
     				+ "or less to fit into a primitive long value" );
     	}
     	
-    	long value = 0;
-
-    	if( start < end )
+    	if( start <= end )
     	{
-        	for( int x = start; x <= end; x++ )
-        	{
-        		value = Long.rotateLeft( value, 1 );
-        		
-        		if( get( x ) )
-        		{
-        			value++;
-        		}
-        	}
+    		int length = end - start + 1;
+    		
+    		if( length > BITS_PER_WORD )
+    		{
+    			return ( extract( start, BITS_PER_WORD - 1 ) << 2 ) |
+    					extract( start + BITS_PER_WORD - 1, 2 );
+    		}
+    		
+    		return extract( start, length );
     	}
     	else
     	{
-        	for( int x = end; x >= start; x-- )
-        	{
-        		value = Long.rotateLeft( value, 1 );
-        		
-        		if( get( x ) )
-        		{
-        			value++;
-        		}
-        	}
+    		/* Reversed bit order - the start index is the MSB */
+    		int length = start - end + 1;
+    		
+    		long value = extract( end, Math.min( length, BITS_PER_WORD ) );
+    		
+    		return Long.reverse( value ) >>> ( BITS_PER_WORD - length );
     	}
-    	
-    	return value;
     }
 
     /**
@@ -774,10 +1166,12 @@ public class BinaryMessage extends BitSet
 	 */
 	public void xor( int offset, int width, int value )
 	{
-		BinaryMessage mask = new BinaryMessage( this.size() );
-		
-		mask.load( offset, width, value );
-		
-		this.xor( mask );
+		for( int x = 0; x < width; x++ )
+		{
+			if( ( value & ( 1l << ( width - x - 1 ) ) ) != 0 )
+			{
+				flip( offset + x );
+			}
+		}
 	}
 }
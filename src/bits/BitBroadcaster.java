@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package bits;
+
+import sample.Listener;
+
+/**
+ * Broadcasts each received bit to multiple primitive bit listeners.
+ * 
+ * Listeners are held in an array that is replaced whenever a listener is added
+ * or removed, so that the per-bit broadcast doesn't create an iterator.
+ * 
+ * Also accepts boxed bits, so that Boolean producers (e.g. instrumentation 
+ * taps) can feed the broadcaster.
+ */
+public class BitBroadcaster implements IBitListener, Listener<Boolean>
+{
+	private volatile IBitListener[] mListeners = new IBitListener[ 0 ];
+
+	@Override
+	public void receive( boolean bit )
+	{
+		IBitListener[] listeners = mListeners;
+		
+		for( int x = 0; x < listeners.length; x++ )
+		{
+			listeners[ x ].receive( bit );
+		}
+	}
+
+	@Override
+	public void receive( Boolean bit )
+	{
+		receive( bit.booleanValue() );
+	}
+	
+	/**
+	 * Clear listeners to prepare for garbage collection
+	 */
+	public void dispose()
+	{
+		clear();
+	}
+	
+	public boolean hasListeners()
+	{
+		return mListeners.length > 0;
+	}
+	
+	public int getListenerCount()
+	{
+		return mListeners.length;
+	}
+	
+	public synchronized void addListener( IBitListener listener )
+	{
+		IBitListener[] listeners = new IBitListener[ mListeners.length + 1 ];
+		
+		System.arraycopy( mListeners, 0, listeners, 0, mListeners.length );
+		
+		listeners[ mListeners.length ] = listener;
+		
+		mListeners = listeners;
+	}
+	
+	public synchronized void removeListener( IBitListener listener )
+	{
+		for( int x = 0; x < mListeners.length; x++ )
+		{
+			if( mListeners[ x ] == listener )
+			{
+				IBitListener[] listeners = 
+						new IBitListener[ mListeners.length - 1 ];
+				
+				System.arraycopy( mListeners, 0, listeners, 0, x );
+				System.arraycopy( mListeners, x + 1, listeners, x, 
+						mListeners.length - x - 1 );
+				
+				mListeners = listeners;
+				
+				return;
+			}
+		}
+	}
+	
+	public synchronized void clear()
+	{
+		mListeners = new IBitListener[ 0 ];
+	}
+}
@@ -17,9 +17,6 @@
  ******************************************************************************/
 package bits;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-
 import sample.Broadcaster;
 import sample.Listener;
 import dsp.symbol.SyncDetectListener;
@@ -32,22 +29,29 @@ import dsp.symbol.SyncDetectProvider;
  * 
  * Will extract multiple messages simultaneously, for each sync pattern that is
  * encountered within the bitset bit stream.
+ * 
+ * Bits are normally received as primitives via the IBitListener interface.  
+ * The boxed Boolean listener interface is retained for instrumentation taps.
+ * Message assemblers are reused from a pool that grows to the maximum number
+ * of overlapping messages seen, so that a sync hit only allocates the binary
+ * message that is handed off to the message listeners.
  */
-public class MessageFramer implements Listener<Boolean>, 
+public class MessageFramer implements IBitListener, Listener<Boolean>, 
 									  SyncDetectProvider
 {
+	/* Initial number of pooled message assemblers */
+	private static final int INITIAL_ASSEMBLER_COUNT = 4;
+	
 	private boolean[] mSyncPattern;
 	private int mMessageLength;
 	private SyncDetectListener mSyncDetectListener;
 	private Broadcaster<BinaryMessage> mBroadcaster = 
 								new Broadcaster<BinaryMessage>();
-	private ArrayList<MessageAssembler> mMessageAssemblers = 
-                            new ArrayList<MessageAssembler>();
 
-	private ArrayList<MessageAssembler> mCompletedMessageAssemblers = 
-    								new ArrayList<MessageAssembler>();
-    
-	private BinaryMessage mPreviousBuffer = null;
+	/* Active assemblers, in order of creation, followed by idle assemblers */
+	private MessageAssembler[] mMessageAssemblers = 
+							new MessageAssembler[ INITIAL_ASSEMBLER_COUNT ];
+	private int mActiveAssemblerCount = 0;
 
 	private SyncPatternMatcher mMatcher;
     
@@ -56,45 +60,70 @@ public class MessageFramer implements Listener<Boolean>,
         mSyncPattern = syncPattern;
         mMatcher = new SyncPatternMatcher( syncPattern );
         mMessageLength = messageLength;
+        
+        for( int x = 0; x < mMessageAssemblers.length; x++ )
+        {
+        	mMessageAssemblers[ x ] = new MessageAssembler();
+        }
     }
     
     public void dispose()
     {
     	mBroadcaster.dispose();
-    	mCompletedMessageAssemblers.clear();
-    	mMessageAssemblers.clear();
+    	
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		mMessageAssemblers[ x ].dispose();
+    	}
+    	
+    	mActiveAssemblerCount = 0;
     }
 
     @Override
     public void receive( Boolean bit )
+    {
+    	receive( bit.booleanValue() );
+    }
+
+    @Override
+    public void receive( boolean bit )
     {
     	mMatcher.receive( bit );
     	
-        Iterator<MessageAssembler> it = mMessageAssemblers.iterator();
-        
-        MessageAssembler assembler;
-        
-        while( it.hasNext() )
-        {
-            assembler = it.next();
-
-            /* Dispose and remove any completed assemblers */
-            if( assembler.complete() )
-            {
-            	assembler.dispose();
-            	it.remove();
-            }
-            /* Otherwise, send them the bit */
-            else
-            {
-                assembler.receive( bit );
-            }
-        }
+    	int active = 0;
+    	
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		MessageAssembler assembler = mMessageAssemblers[ x ];
+    		
+    		if( !assembler.complete() )
+    		{
+    			assembler.receive( bit );
+    		}
+    		
+    		/* Completed assemblers are moved to the idle end of the array */
+    		if( assembler.complete() )
+    		{
+    			assembler.dispose();
+    		}
+    		else
+    		{
+    			if( active != x )
+    			{
+    				mMessageAssemblers[ x ] = mMessageAssemblers[ active ];
+    				mMessageAssemblers[ active ] = assembler;
+    			}
+    			
+    			active++;
+    		}
+    	}
+    	
+    	mActiveAssemblerCount = active;
         
-        /* Check for sync match and add new message assembler */
+        /* Check for sync match and start a new message assembler */
     	if( mMatcher.matches() )
     	{
-            addMessageAssembler( new MessageAssembler( mMessageLength, mSyncPattern ) );
+    		getMessageAssembler().start();
             
             /* Notify any sync detect listener(s) */
             if( mSyncDetectListener != null )
@@ -107,14 +136,21 @@ public class MessageFramer implements Listener<Boolean>,
     /**
      * Causes all messages currently under assembly to be forcibly
      * sent (ie flushed) to all registered message listeners, and
-     * subsequently, all assemblers to be deleted
+     * subsequently, all assemblers to be returned to the pool
      */
     public void flush()
     {
-        for( MessageAssembler assembler: mMessageAssemblers )
-        {
-            assembler.flush();
-        }
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		if( !mMessageAssemblers[ x ].complete() )
+    		{
+    			mMessageAssemblers[ x ].flush();
+    		}
+    		
+    		mMessageAssemblers[ x ].dispose();
+    	}
+    	
+    	mActiveAssemblerCount = 0;
     }
     
 	@Override
@@ -137,17 +173,29 @@ public class MessageFramer implements Listener<Boolean>,
         mBroadcaster.removeListener( listener );
     }
 
-    /*
-     * Adds a message assembler to receive bits from the bit stream
+    /**
+     * Provides an idle message assembler from the pool and marks it as active.
+     * The pool is doubled in size when all assemblers are active.
      */
-    private void addMessageAssembler( MessageAssembler assembler )
-    {
-        mMessageAssemblers.add( assembler );
-    }
-    
-    private void removeMessageAssembler( MessageAssembler assembler )
+    private MessageAssembler getMessageAssembler()
     {
-        mMessageAssemblers.remove( assembler );
+    	if( mActiveAssemblerCount == mMessageAssemblers.length )
+    	{
+    		MessageAssembler[] assemblers = 
+    				new MessageAssembler[ mMessageAssemblers.length * 2 ];
+    		
+    		System.arraycopy( mMessageAssemblers, 0, assemblers, 0, 
+    				mMessageAssemblers.length );
+    		
+    		for( int x = mMessageAssemblers.length; x < assemblers.length; x++ )
+    		{
+    			assemblers[ x ] = new MessageAssembler();
+    		}
+    		
+    		mMessageAssemblers = assemblers;
+    	}
+    	
+    	return mMessageAssemblers[ mActiveAssemblerCount++ ];
     }
 
     /**
@@ -157,27 +205,27 @@ public class MessageFramer implements Listener<Boolean>,
      * flags itself as complete.
      * 
      * By design, multiple message assemblers can exist at the same time, each
-     * assembling different, overlapping potential messages
+     * assembling different, overlapping potential messages.  Assemblers are
+     * reused, but each started message is a new binary message since the 
+     * message listeners retain the messages they receive.
      */
-    private class MessageAssembler implements Listener<Boolean>
+    private class MessageAssembler implements IBitListener
     {
         BinaryMessage mMessage;
         boolean mComplete = false;
         
-        MessageAssembler( int messageLength )
-        {
-            mMessage = new BinaryMessage( messageLength );
-        }
-        
-        MessageAssembler( int messageLength, boolean[] initialFill )
+        /**
+         * Starts a new message, pre-loaded with the sync pattern
+         */
+        public void start()
         {
-            this(  messageLength );
-            
-            /* Pre-load the message with the sync pattern */
-            for( int x = 0; x < initialFill.length; x++ )
-            {
-                receive( initialFill[ x ] );
-            }
+        	mMessage = new BinaryMessage( mMessageLength, mSyncPattern );
+        	mComplete = false;
+        	
+        	if( mMessage.isFull() )
+        	{
+        		flush();
+        	}
         }
         
         public void dispose()
@@ -189,7 +237,7 @@ public class MessageFramer implements Listener<Boolean>,
         /**
          * Receives one bit at a time, and assembles them into a message
          */
-        public void receive( Boolean bit )
+        public void receive( boolean bit )
         {
             try
             {
@@ -204,14 +252,13 @@ public class MessageFramer implements Listener<Boolean>,
              * message listeners, and set complete flag so for auto-removal */
             if( mMessage.isFull() )
             {
-                mComplete = true;
                 flush();
             }
         }
 
         /**
          * Flushes/Sends the current message, or partial message, and sets 
-         * complete flag to true, so that we can be auto-removed
+         * complete flag to true, so that we can be returned to the pool
          */
         public void flush()
         {
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package bits;
+
+import sample.Listener;
+
+/**
+ * Multiple sync pattern message framer.  Searches a single bit stream for any
+ * number of registered sync patterns and frames a message for each sync 
+ * pattern that is detected, using the message length and message listener 
+ * registered with that sync pattern.
+ * 
+ * All sync patterns are compared against one shift register for each bit.  A
+ * pattern matches when the number of differing bit positions (ie hamming 
+ * distance) does not exceed the bit error threshold registered with the 
+ * pattern.  Each framed message is pre-loaded with the registered sync 
+ * pattern, followed by the bits that follow the sync.
+ * 
+ * Note: works for sync patterns up to 64 bits long.
+ * 
+ * Message assemblers are reused from a pool that grows to the maximum number
+ * of overlapping messages seen.
+ */
+public class MultiSyncMessageFramer implements IBitListener, Listener<Boolean>
+{
+	/* Initial number of pooled message assemblers */
+	private static final int INITIAL_ASSEMBLER_COUNT = 8;
+	
+	private long mBits = 0;
+	private SyncTarget[] mSyncTargets = new SyncTarget[ 0 ];
+	
+	/* Active assemblers, in order of creation, followed by idle assemblers */
+	private MessageAssembler[] mMessageAssemblers = 
+							new MessageAssembler[ INITIAL_ASSEMBLER_COUNT ];
+	private int mActiveAssemblerCount = 0;
+
+	public MultiSyncMessageFramer()
+	{
+        for( int x = 0; x < mMessageAssemblers.length; x++ )
+        {
+        	mMessageAssemblers[ x ] = new MessageAssembler();
+        }
+	}
+	
+	public void dispose()
+	{
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		mMessageAssemblers[ x ].dispose();
+    	}
+    	
+    	mActiveAssemblerCount = 0;
+    	
+    	mSyncTargets = new SyncTarget[ 0 ];
+	}
+	
+	/**
+	 * Registers a sync pattern to search for in the bit stream.
+	 * 
+	 * @param syncPattern - sync bits, up to 64 bits
+	 * @param messageLength - length of framed messages, including the sync
+	 * @param bitErrorThreshold - maximum number of sync bit positions that can
+	 * differ from the sync pattern for a sync match
+	 * @param listener - receives the framed messages for this sync pattern
+	 */
+	public synchronized void addSyncPattern( boolean[] syncPattern, 
+			int messageLength, int bitErrorThreshold, 
+			Listener<BinaryMessage> listener )
+	{
+		if( syncPattern.length > 64 )
+		{
+			throw new IllegalArgumentException( "Sync pattern length [" + 
+				syncPattern.length + "] exceeds the maximum of 64 bits" );
+		}
+		
+		SyncTarget[] targets = new SyncTarget[ mSyncTargets.length + 1 ];
+		
+		System.arraycopy( mSyncTargets, 0, targets, 0, mSyncTargets.length );
+		
+		targets[ mSyncTargets.length ] = new SyncTarget( syncPattern, 
+				messageLength, bitErrorThreshold, listener );
+		
+		mSyncTargets = targets;
+	}
+	
+	/**
+	 * Removes all sync patterns registered with the message listener
+	 */
+	public synchronized void removeMessageListener( 
+			Listener<BinaryMessage> listener )
+	{
+		int count = 0;
+		
+		for( SyncTarget target: mSyncTargets )
+		{
+			if( target.mListener != listener )
+			{
+				count++;
+			}
+		}
+		
+		SyncTarget[] targets = new SyncTarget[ count ];
+		
+		int index = 0;
+		
+		for( SyncTarget target: mSyncTargets )
+		{
+			if( target.mListener != listener )
+			{
+				targets[ index++ ] = target;
+			}
+		}
+		
+		mSyncTargets = targets;
+	}
+	
+	/**
+	 * Number of registered sync patterns
+	 */
+	public int getSyncPatternCount()
+	{
+		return mSyncTargets.length;
+	}
+
+    @Override
+    public void receive( Boolean bit )
+    {
+    	receive( bit.booleanValue() );
+    }
+
+	@Override
+	public void receive( boolean bit )
+	{
+		mBits <<= 1;
+		
+		if( bit )
+		{
+			mBits |= 1;
+		}
+
+    	int active = 0;
+    	
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		MessageAssembler assembler = mMessageAssemblers[ x ];
+    		
+    		if( !assembler.complete() )
+    		{
+    			assembler.receive( bit );
+    		}
+    		
+    		/* Completed assemblers are moved to the idle end of the array */
+    		if( assembler.complete() )
+    		{
+    			assembler.dispose();
+    		}
+    		else
+    		{
+    			if( active != x )
+    			{
+    				mMessageAssemblers[ x ] = mMessageAssemblers[ active ];
+    				mMessageAssemblers[ active ] = assembler;
+    			}
+    			
+    			active++;
+    		}
+    	}
+    	
+    	mActiveAssemblerCount = active;
+
+    	SyncTarget[] targets = mSyncTargets;
+    	
+    	for( int x = 0; x < targets.length; x++ )
+    	{
+    		SyncTarget target = targets[ x ];
+    		
+    		if( Long.bitCount( ( mBits & target.mMask ) ^ target.mSync ) <= 
+    				target.mBitErrorThreshold )
+    		{
+    			getMessageAssembler().start( target );
+    		}
+    	}
+	}
+	
+    /**
+     * Causes all messages currently under assembly to be forcibly
+     * sent (ie flushed) to their message listeners, and subsequently, all 
+     * assemblers to be returned to the pool
+     */
+    public void flush()
+    {
+    	for( int x = 0; x < mActiveAssemblerCount; x++ )
+    	{
+    		if( !mMessageAssemblers[ x ].complete() )
+    		{
+    			mMessageAssemblers[ x ].flush();
+    		}
+    		
+    		mMessageAssemblers[ x ].dispose();
+    	}
+    	
+    	mActiveAssemblerCount = 0;
+    }
+    
+    /**
+     * Provides an idle message assembler from the pool and marks it as active.
+     * The pool is doubled in size when all assemblers are active.
+     */
+    private MessageAssembler getMessageAssembler()
+    {
+    	if( mActiveAssemblerCount == mMessageAssemblers.length )
+    	{
+    		MessageAssembler[] assemblers = 
+    				new MessageAssembler[ mMessageAssemblers.length * 2 ];
+    		
+    		System.arraycopy( mMessageAssemblers, 0, assemblers, 0, 
+    				mMessageAssemblers.length );
+    		
+    		for( int x = mMessageAssemblers.length; x < assemblers.length; x++ )
+    		{
+    			assemblers[ x ] = new MessageAssembler();
+    		}
+    		
+    		mMessageAssemblers = assemblers;
+    	}
+    	
+    	return mMessageAssemblers[ mActiveAssemblerCount++ ];
+    }
+    
+    /**
+     * Registered sync pattern, converted to a right-aligned long value for 
+     * comparison against the shift register
+     */
+    private class SyncTarget
+    {
+    	private boolean[] mSyncPattern;
+    	private long mSync;
+    	private long mMask;
+    	private int mMessageLength;
+    	private int mBitErrorThreshold;
+    	private Listener<BinaryMessage> mListener;
+    	
+    	public SyncTarget( boolean[] syncPattern, int messageLength, 
+    			int bitErrorThreshold, Listener<BinaryMessage> listener )
+    	{
+    		mSyncPattern = syncPattern;
+    		mMessageLength = messageLength;
+    		mBitErrorThreshold = bitErrorThreshold;
+    		mListener = listener;
+    		
+    		mMask = syncPattern.length == 64 ? 
+    				0xFFFFFFFFFFFFFFFFl : ( 1l << syncPattern.length ) - 1;
+
+    		for( int x = 0; x < syncPattern.length; x++ )
+    		{
+    			if( syncPattern[ x ] )
+    			{
+    				mSync |= 1l << ( syncPattern.length - 1 - x );
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Assembles a binary message, starting with the initial fill of the 
+     * identified sync pattern, and every bit thereafter.  Once the accumulated
+     * bits equal the message length, the message is sent and the assembler
+     * flags itself as complete.
+     */
+    private class MessageAssembler implements IBitListener
+    {
+    	private SyncTarget mTarget;
+    	private BinaryMessage mMessage;
+    	private boolean mComplete = false;
+        
+        /**
+         * Starts a new message, pre-loaded with the sync pattern
+         */
+        public void start( SyncTarget target )
+        {
+        	mTarget = target;
+        	mMessage = new BinaryMessage( target.mMessageLength, 
+        								  target.mSyncPattern );
+        	mComplete = false;
+        	
+        	if( mMessage.isFull() )
+        	{
+        		flush();
+        	}
+        }
+        
+        public void dispose()
+        {
+        	mTarget = null;
+        	mMessage = null;
+        }
+
+        @Override
+        public void receive( boolean bit )
+        {
+            try
+            {
+                mMessage.add( bit );
+            }
+            catch( BitSetFullException e )
+            {
+                e.printStackTrace();
+            }
+            
+            if( mMessage.isFull() )
+            {
+                flush();
+            }
+        }
+
+        /**
+         * Sends the current message, or partial message, to the message 
+         * listener and sets the complete flag
+         */
+        public void flush()
+        {
+        	mTarget.mListener.receive( mMessage );
+            mComplete = true;
+        }
+
+        public boolean complete()
+        {
+            return mComplete;
+        }
+    }
+}
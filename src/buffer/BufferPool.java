@@ -0,0 +1,257 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package buffer;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import metrics.Gauge;
+import metrics.MetricGroup;
+
+/**
+ * Thread-safe pool of reusable buffers.  Buffers are obtained from the pool 
+ * and returned to the pool when the last user is finished with the buffer, so 
+ * that high-rate sample producers can reuse buffers instead of allocating a 
+ * new buffer for each sample transfer.
+ * 
+ * Tracks pool hits (buffer reused), misses (buffer allocated) and the number
+ * of outstanding buffers (obtained, but not yet returned).  A steady state
+ * sample stream should show near-zero misses after the pool is warmed up.
+ */
+public abstract class BufferPool<T>
+{
+	private ConcurrentLinkedQueue<T> mRecycledBuffers = 
+						new ConcurrentLinkedQueue<T>();
+	private AtomicInteger mRecycledCount = new AtomicInteger();
+	private int mMaximumPoolSize;
+	
+	private AtomicLong mHits = new AtomicLong();
+	private AtomicLong mMisses = new AtomicLong();
+	private AtomicLong mDiscards = new AtomicLong();
+	private AtomicInteger mOutstanding = new AtomicInteger();
+	
+	/**
+	 * @param maximumPoolSize - maximum number of recycled buffers to retain.
+	 * Buffers returned to a full pool are discarded.
+	 */
+	public BufferPool( int maximumPoolSize )
+	{
+		mMaximumPoolSize = maximumPoolSize;
+	}
+
+	/**
+	 * Removes a recycled buffer of the requested length from the pool, or 
+	 * returns null if the pool has no buffer of that length.  Subclasses must
+	 * invoke either hit() or miss() for each buffer provided to a user.
+	 * 
+	 * Producers with a varying buffer length (ie decimating producers) reuse
+	 * buffers of each length.  When no buffer matches and the pool is full, 
+	 * the oldest recycled buffer is discarded so that buffers of a length that
+	 * is no longer requested (ie after a sample rate change) drain from the 
+	 * pool.
+	 */
+	protected T poll( int length )
+	{
+		Iterator<T> it = mRecycledBuffers.iterator();
+		
+		while( it.hasNext() )
+		{
+			T buffer = it.next();
+			
+			if( getLength( buffer ) == length && 
+				mRecycledBuffers.remove( buffer ) )
+			{
+				mRecycledCount.decrementAndGet();
+				
+				return buffer;
+			}
+		}
+		
+		if( mRecycledCount.get() >= mMaximumPoolSize && 
+			mRecycledBuffers.poll() != null )
+		{
+			mRecycledCount.decrementAndGet();
+			mDiscards.incrementAndGet();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Length of the recycled buffer, used to match buffer requests
+	 */
+	protected abstract int getLength( T buffer );
+	
+	/**
+	 * Records that a recycled buffer was provided to a user
+	 */
+	protected void hit()
+	{
+		mHits.incrementAndGet();
+		mOutstanding.incrementAndGet();
+	}
+	
+	/**
+	 * Records that a new buffer was allocated for a user
+	 */
+	protected void miss()
+	{
+		mMisses.incrementAndGet();
+		mOutstanding.incrementAndGet();
+	}
+
+	/**
+	 * Returns the buffer to the pool for reuse.  Buffers that are not reusable
+	 * or that would exceed the maximum pool size are discarded.
+	 */
+	protected void recycle( T buffer, boolean reusable )
+	{
+		mOutstanding.decrementAndGet();
+		
+		if( reusable && mRecycledCount.get() < mMaximumPoolSize )
+		{
+			mRecycledCount.incrementAndGet();
+			mRecycledBuffers.offer( buffer );
+		}
+		else
+		{
+			mDiscards.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Removes all recycled buffers from the pool
+	 */
+	public void clear()
+	{
+		mRecycledBuffers.clear();
+		mRecycledCount.set( 0 );
+	}
+	
+	/**
+	 * Number of buffers provided from the pool of recycled buffers
+	 */
+	public long getHitCount()
+	{
+		return mHits.get();
+	}
+	
+	/**
+	 * Number of buffers that were newly allocated because the pool was empty
+	 */
+	public long getMissCount()
+	{
+		return mMisses.get();
+	}
+	
+	/**
+	 * Number of returned buffers that were discarded instead of recycled
+	 */
+	public long getDiscardCount()
+	{
+		return mDiscards.get();
+	}
+	
+	/**
+	 * Number of buffers currently in use (obtained and not yet returned)
+	 */
+	public int getOutstandingCount()
+	{
+		return mOutstanding.get();
+	}
+	
+	/**
+	 * Number of recycled buffers available for reuse
+	 */
+	public int getAvailableCount()
+	{
+		return mRecycledCount.get();
+	}
+
+	/**
+	 * Percentage of buffer requests that were satisfied from the pool
+	 */
+	public double getHitRatio()
+	{
+		long hits = mHits.get();
+		long total = hits + mMisses.get();
+		
+		return total == 0 ? 0.0 : (double)hits / (double)total * 100.0;
+	}
+	
+	/**
+	 * Registers the hit, miss, outstanding and discard counts as gauges in 
+	 * the metric group, with the metric names prefixed by the pool name 
+	 * (ie buffer.pool.hits)
+	 */
+	public void setMetricGroup( MetricGroup group, String name )
+	{
+		group.gauge( name + ".hits", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getHitCount();
+			}
+		} );
+
+		group.gauge( name + ".misses", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getMissCount();
+			}
+		} );
+
+		group.gauge( name + ".outstanding", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getOutstandingCount();
+			}
+		} );
+
+		group.gauge( name + ".discarded", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getDiscardCount();
+			}
+		} );
+	}
+	
+	public String getStatistics()
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append( "hits [" ).append( getHitCount() );
+		sb.append( "] misses [" ).append( getMissCount() );
+		sb.append( "] hit ratio [" ).append( String.format( "%.1f%%", getHitRatio() ) );
+		sb.append( "] outstanding [" ).append( getOutstandingCount() );
+		sb.append( "] available [" ).append( getAvailableCount() );
+		sb.append( "] discarded [" ).append( getDiscardCount() );
+		sb.append( "]" );
+		
+		return sb.toString();
+	}
+}
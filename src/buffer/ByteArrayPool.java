@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package buffer;
+
+/**
+ * Pool of reusable byte arrays for raw sample transfers.  Byte arrays have a 
+ * single user, so the user returns the array with recycle() once the samples
+ * have been converted.
+ */
+public class ByteArrayPool extends BufferPool<byte[]>
+{
+	/**
+	 * @param maximumPoolSize - maximum number of recycled arrays to retain
+	 */
+	public ByteArrayPool( int maximumPoolSize )
+	{
+		super( maximumPoolSize );
+	}
+
+	/**
+	 * Returns a byte array of the requested length, reusing a recycled array
+	 * when one of the same length is available
+	 */
+	public byte[] get( int length )
+	{
+		byte[] buffer = poll( length );
+		
+		if( buffer != null )
+		{
+			hit();
+			
+			return buffer;
+		}
+
+		miss();
+		
+		return new byte[ length ];
+	}
+	
+	@Override
+	protected int getLength( byte[] buffer )
+	{
+		return buffer.length;
+	}
+
+	/**
+	 * Returns the array to the pool for reuse
+	 */
+	public void recycle( byte[] buffer )
+	{
+		recycle( buffer, buffer != null );
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free, single-producer/single-consumer ring buffer for handing
+ * sample buffers from one processing stage to the next.  
+ * 
+ * Exactly one thread at a time may offer elements and exactly one thread at a
+ * time may poll elements.  When the ring is full, offer() refuses the element 
+ * and counts it as dropped, so a stalled consumer causes counted drops rather 
+ * than unbounded queue growth.
+ */
+public class RingBuffer<T>
+{
+	private Object[] mElements;
+	private int mMask;
+	
+	/* Next index to poll, written only by the consumer */
+	private AtomicLong mHead = new AtomicLong();
+
+	/* Next index to offer, written only by the producer */
+	private AtomicLong mTail = new AtomicLong();
+	
+	private AtomicLong mDropCount = new AtomicLong();
+	
+	/**
+	 * @param capacity - maximum number of elements, rounded up to the next 
+	 * power of 2
+	 */
+	public RingBuffer( int capacity )
+	{
+		int size = 1;
+		
+		while( size < capacity )
+		{
+			size <<= 1;
+		}
+		
+		mElements = new Object[ size ];
+		mMask = size - 1;
+	}
+	
+	/**
+	 * Adds the element to the ring.  Producer thread only.
+	 * 
+	 * @return true if the element was added, or false if the ring is full and 
+	 * the element was dropped
+	 */
+	public boolean offer( T element )
+	{
+		long tail = mTail.get();
+		
+		if( tail - mHead.get() >= mElements.length )
+		{
+			mDropCount.incrementAndGet();
+			
+			return false;
+		}
+		
+		mElements[ (int)( tail & mMask ) ] = element;
+		
+		/* Ordered write publishes the element before the new tail */
+		mTail.lazySet( tail + 1 );
+		
+		return true;
+	}
+	
+	/**
+	 * Removes the next element from the ring.  Consumer thread only.
+	 * 
+	 * @return next element or null if the ring is empty
+	 */
+	@SuppressWarnings( "unchecked" )
+	public T poll()
+	{
+		long head = mHead.get();
+		
+		if( head >= mTail.get() )
+		{
+			return null;
+		}
+		
+		int index = (int)( head & mMask );
+		
+		T element = (T)mElements[ index ];
+		
+		mElements[ index ] = null;
+		
+		mHead.lazySet( head + 1 );
+		
+		return element;
+	}
+	
+	/**
+	 * Removes all elements from the ring.  Consumer thread only.
+	 */
+	public void clear()
+	{
+		T element = poll();
+		
+		while( element != null )
+		{
+			element = poll();
+		}
+	}
+	
+	/**
+	 * Number of elements currently in the ring
+	 */
+	public int size()
+	{
+		long head = mHead.get();
+		
+		return (int)( mTail.get() - head );
+	}
+	
+	public boolean isEmpty()
+	{
+		return size() <= 0;
+	}
+	
+	public int getCapacity()
+	{
+		return mElements.length;
+	}
+	
+	/**
+	 * Number of elements refused because the ring was full
+	 */
+	public long getDropCount()
+	{
+		return mDropCount.get();
+	}
+}
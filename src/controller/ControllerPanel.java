@@ -30,6 +30,7 @@ import javax.swing.event.ChangeListener;
 
 import map.MapPanel;
 import message.Message;
+import metrics.MetricsPanel;
 import net.miginfocom.swing.MigLayout;
 import sample.Listener;
 import spectrum.ChannelSpectrumPanel;
@@ -53,6 +54,8 @@ public class ControllerPanel extends JPanel
     private MessageActivityPanel mMessageActivityPanel = 
     		new MessageActivityPanel();
     
+    private MetricsPanel mMetricsPanel = new MetricsPanel();
+    
     private ChannelSpectrumPanel mChannelSpectrumPanel;
     
     private JideTabbedPane mTabbedPane;
@@ -89,7 +92,7 @@ public class ControllerPanel extends JPanel
     	
     	mChannelSpectrumPanel = new ChannelSpectrumPanel( mResourceManager );
     	
-    	//Tabbed View - configuration, calls, messages, map
+    	//Tabbed View - configuration, calls, messages, metrics, map
     	mTabbedPane = new JideTabbedPane();
     	mTabbedPane.setFont( this.getFont() );
     	mTabbedPane.setForeground( Color.BLACK );
@@ -97,6 +100,7 @@ public class ControllerPanel extends JPanel
     	mTabbedPane.addTab( "Channel Spectrum", mChannelSpectrumPanel );
     	mTabbedPane.addTab( "Events", mCallEventPanel );
     	mTabbedPane.addTab( "Messages", mMessageActivityPanel );
+    	mTabbedPane.addTab( "Metrics", mMetricsPanel );
 
     	/**
     	 * Change listener to enable/disable the channel spectrum display
@@ -144,6 +148,7 @@ public class ControllerPanel extends JPanel
     	channelManager.addListener( mChannelStateList );
     	channelManager.addListener( mChannelSpectrumPanel );
     	channelManager.addListener( mMessageActivityPanel );
+    	channelManager.addListener( mMetricsPanel );
 		
 		JScrollPane channelStateListScroll = new JScrollPane();
     	channelStateListScroll.getViewport().setView( mChannelStateList );
@@ -57,6 +57,31 @@ public class ResourceManager
     						PlaylistManager playlistManager,
     						EventLogManager eventLogManager,
     						RecorderManager recorderManager )
+    {
+    	this( settingsManager, playlistManager, eventLogManager, 
+    		  recorderManager, false );
+    }
+    
+    /**
+     * Creates a resource manager for processing recordings without tuner 
+     * hardware or a display, like the decoder replay benchmarks.  The tuner 
+     * manager, configuration controller and map service are not created and 
+     * their getters return null.
+     */
+    public static ResourceManager createHeadless()
+    {
+    	return new ResourceManager( new SettingsManager(),
+    								new PlaylistManager(),
+    								new EventLogManager(),
+    								new RecorderManager(), 
+    								true );
+    }
+
+    private ResourceManager( SettingsManager settingsManager,
+    						 PlaylistManager playlistManager,
+    						 EventLogManager eventLogManager,
+    						 RecorderManager recorderManager,
+    						 boolean headless )
     {
     	mSettingsManager = settingsManager;
     	mPlaylistManager = playlistManager;
@@ -70,9 +95,14 @@ public class ResourceManager
     	mChannelManager = new ChannelManager( this );
     	mSourceManager = new SourceManager( this );
     	mRecordingSourceManager = new RecordingSourceManager( this );
-    	mTunerManager = new TunerManager( this );
-    	mController = new ConfigurationControllerModel( this );
-    	mMapService = new MapService( this );    
+    	
+    	if( !headless )
+    	{
+        	mTunerManager = new TunerManager( this );
+        	mController = new ConfigurationControllerModel( this );
+        	mMapService = new MapService( this );    
+    	}
+    	
     	mThreadPoolManager = new ThreadPoolManager();
     }
 
@@ -18,93 +18,434 @@
 package controller;
 
 import java.util.HashMap;
-import java.util.concurrent.Executors;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread pool manager - schedules the recurring sample processing tasks on 
+ * pools of single-threaded workers that are sized from the number of 
+ * available processor cores.
+ * 
+ * Decimation and decoder tasks share the channel worker pool.  Tasks that are
+ * scheduled with the same affinity object (e.g. a channel's source) are pinned
+ * to the same worker thread, so that a channel's decimation and decode stages
+ * run on one core with their sample buffers in cache.  Tasks without an 
+ * affinity are assigned to the least loaded worker.
+ * 
+ * Tasks either run at a fixed rate, or run on their worker when signalled by
+ * a producer (see scheduleSignalled).
+ * 
+ * Run count, run time and queue depth (tasks that are due but waiting for 
+ * their worker) are tracked per thread type.
+ */
 public class ThreadPoolManager
 {
-	private int THREAD_POOL_SIZE = 2;
-	private int MAX_TASK_COUNT = 24;
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( ThreadPoolManager.class );
 
-	private HashMap<ScheduledFuture<?>,ThreadType> mTasks = 
-				new HashMap<ScheduledFuture<?>,ThreadType>();
+	private static final int CORE_COUNT = 
+			Runtime.getRuntime().availableProcessors();
+	
+	private static final int CHANNEL_POOL_SIZE = Math.max( 2, CORE_COUNT );
+	private static final int SOURCE_POOL_SIZE = Math.max( 1, CORE_COUNT / 2 );
+	private static final int GENERAL_POOL_SIZE = Math.max( 2, CORE_COUNT / 4 );
+	
+	private static final long STATISTICS_LOG_INTERVAL = 60;
+
+	private HashMap<ScheduledFuture<?>,Task> mTasks = 
+				new HashMap<ScheduledFuture<?>,Task>();
+	
+	private HashSet<SignalledTask> mSignalledTasks = 
+				new HashSet<SignalledTask>();
+	
+	private HashMap<Object,Affinity> mAffinities = 
+				new HashMap<Object,Affinity>();
 	
-	private ScheduledExecutorService mExecutor;
+	private HashMap<ThreadType,Statistics> mStatistics = 
+				new HashMap<ThreadType,Statistics>();
+	
+	private Worker[] mChannelWorkers;
+	private Worker[] mSourceWorkers;
+	
+	private ScheduledThreadPoolExecutor mExecutor;
 	
 	public ThreadPoolManager()
 	{
+		for( ThreadType type: ThreadType.values() )
+		{
+			mStatistics.put( type, new Statistics() );
+		}
 	}
 
+	/**
+	 * Schedules a recurring task on the least loaded worker for the type.
+	 */
 	public ScheduledFuture<?> scheduleFixedRate( ThreadType type, 
 										Runnable command, 
 										long period, 
 										TimeUnit unit )
 										throws RejectedExecutionException
 	{
-		if( mExecutor == null )
+		return scheduleFixedRate( type, null, command, period, unit );
+	}
+	
+	/**
+	 * Schedules a recurring task.  Tasks scheduled with the same affinity
+	 * object run on the same worker thread.
+	 * 
+	 * @param type - thread type, determines the worker pool and statistics
+	 * @param affinity - object that groups tasks onto one worker, or null
+	 * @param command - task to run
+	 * @param period - run interval
+	 * @param unit - run interval units
+	 * @return - scheduled task handle, to use with cancel()
+	 */
+	public synchronized ScheduledFuture<?> scheduleFixedRate( ThreadType type,
+										Object affinity,
+										Runnable command, 
+										long period, 
+										TimeUnit unit )
+										throws RejectedExecutionException
+	{
+		Task task = createTask( type, affinity, command );
+		
+		ScheduledFuture<?> future = task.getWorker().getExecutor()
+				.scheduleAtFixedRate( task, 0, period, unit );
+		
+		mTasks.put( future, task );
+		
+		return future;
+	}
+	
+	/**
+	 * Creates a signalled task.  Instead of running on a fixed schedule, the 
+	 * task runs on its worker each time it is signalled, for example when a 
+	 * producer places a sample buffer in the consumer's queue.  Signals that 
+	 * arrive while the task is already waiting to run are coalesced into the
+	 * pending run, and a signal that arrives while the task is running causes
+	 * one more run.
+	 * 
+	 * @param type - thread type, determines the worker pool and statistics
+	 * @param affinity - object that groups tasks onto one worker, or null
+	 * @param command - task to run when signalled
+	 * @return - signalled task, to signal and to use with cancel()
+	 */
+	public synchronized SignalledTask scheduleSignalled( ThreadType type,
+														 Object affinity,
+														 Runnable command )
+	{
+		SignalledTask signalledTask = 
+				new SignalledTask( createTask( type, affinity, command ) );
+		
+		mSignalledTasks.add( signalledTask );
+		
+		return signalledTask;
+	}
+	
+	public void scheduleOnce( Runnable command, long delay, TimeUnit unit )	
+			throws RejectedExecutionException
+	{
+		getExecutor().schedule( command, delay, unit );
+	}
+
+	public synchronized void cancel( ScheduledFuture<?> future )
+	{
+		future.cancel( true );
+		
+		Task task = mTasks.remove( future );
+		
+		if( task != null )
 		{
-			mExecutor = Executors.newScheduledThreadPool( THREAD_POOL_SIZE );
+			release( task );
 		}
-
-		if( mTasks.size() <= MAX_TASK_COUNT )
+	}
+	
+	public synchronized void cancel( SignalledTask signalledTask )
+	{
+		signalledTask.cancel();
+		
+		if( mSignalledTasks.remove( signalledTask ) )
+		{
+			release( signalledTask.getTask() );
+		}
+	}
+	
+	/**
+	 * Assigns the command to a worker, using the worker already assigned to 
+	 * the affinity object when there is one
+	 */
+	private Task createTask( ThreadType type, Object affinity, Runnable command )
+	{
+		Worker[] pool = getWorkers( type );
+		
+		Affinity assigned = null;
+		
+		if( affinity != null )
 		{
-			ScheduledFuture<?> task = 
-					mExecutor.scheduleAtFixedRate( command, 0, period, unit );
+			assigned = mAffinities.get( affinity );
+			
+			if( assigned == null )
+			{
+				assigned = new Affinity( getLeastLoadedWorker( pool ) );
+				
+				mAffinities.put( affinity, assigned );
+			}
 			
-			mTasks.put( task, type );
+			/* Affinity only applies within a worker pool */
+			if( assigned.getWorker().getPool() != pool )
+			{
+				assigned = null;
+				affinity = null;
+			}
+		}
+		
+		Worker worker;
+		
+		if( assigned != null )
+		{
+			assigned.increment();
 			
-			return task;
+			worker = assigned.getWorker();
 		}
 		else
 		{
-			throw new RejectedExecutionException( "Cannot schedule task - at "
-					+ "max task count [" + mTasks.size() + "]" );
+			worker = getLeastLoadedWorker( pool );
 		}
 		
+		worker.increment();
+		
+		return new Task( type, affinity, worker, command );
+	}
+
+	/**
+	 * Removes the task from its worker and affinity assignment
+	 */
+	private void release( Task task )
+	{
+		task.getWorker().decrement();
+		
+		Object affinity = task.getAffinity();
+		
+		if( affinity != null )
+		{
+			Affinity assigned = mAffinities.get( affinity );
+			
+			if( assigned != null && assigned.decrement() <= 0 )
+			{
+				mAffinities.remove( affinity );
+			}
+		}
 	}
 	
-	public void scheduleOnce( Runnable command, long delay, TimeUnit unit )	
-			throws RejectedExecutionException
+	public synchronized int getTaskCount( ThreadType type )
 	{
-		if( mExecutor == null )
+		int count = 0;
+		
+		for( Task task: mTasks.values() )
 		{
-			mExecutor = Executors.newScheduledThreadPool( THREAD_POOL_SIZE );
+			if( task.getType() == type )
+			{
+				count++;
+			}
 		}
 		
-		if( mTasks.size() <= MAX_TASK_COUNT )
+		for( SignalledTask signalledTask: mSignalledTasks )
 		{
-			mExecutor.schedule( command, delay, unit );
+			if( signalledTask.getTask().getType() == type )
+			{
+				count++;
+			}
 		}
-		else
+		
+		return count;
+	}
+
+	/**
+	 * Number of recurring tasks of the type that are due to run, but are 
+	 * waiting for their worker thread to finish other tasks.
+	 */
+	public synchronized int getQueueDepth( ThreadType type )
+	{
+		int depth = 0;
+		
+		for( Map.Entry<ScheduledFuture<?>,Task> entry: mTasks.entrySet() )
+		{
+			if( entry.getValue().getType() == type && 
+				!entry.getValue().isRunning() &&
+				entry.getKey().getDelay( TimeUnit.NANOSECONDS ) <= 0 )
+			{
+				depth++;
+			}
+		}
+		
+		for( SignalledTask signalledTask: mSignalledTasks )
 		{
-			throw new RejectedExecutionException( "Cannot schedule task - at "
-			+ "max task count [" + mTasks.size() + "]" );
+			if( signalledTask.getTask().getType() == type &&
+				signalledTask.isPending() && 
+				!signalledTask.getTask().isRunning() )
+			{
+				depth++;
+			}
 		}
+		
+		return depth;
+	}
+	
+	/**
+	 * Number of task runs completed for the thread type
+	 */
+	public long getRunCount( ThreadType type )
+	{
+		return mStatistics.get( type ).getRunCount();
 	}
 
-	public void cancel( ScheduledFuture<?> task )
+	/**
+	 * Average task run time for the thread type in microseconds
+	 */
+	public long getAverageRunTime( ThreadType type )
+	{
+		return mStatistics.get( type ).getAverageRunTime();
+	}
+	
+	/**
+	 * Maximum task run time for the thread type in microseconds
+	 */
+	public long getMaximumRunTime( ThreadType type )
+	{
+		return mStatistics.get( type ).getMaximumRunTime();
+	}
+	
+	/**
+	 * Number of worker threads that service the thread type
+	 */
+	public int getWorkerCount( ThreadType type )
 	{
-		task.cancel( true );
+		switch( type )
+		{
+			case SOURCE_SAMPLE_PROCESSING:
+				return SOURCE_POOL_SIZE;
+			case DECIMATION:
+			case DECODER:
+			default:
+				return CHANNEL_POOL_SIZE;
+		}
+	}
+	
+	public String getStatistics( ThreadType type )
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append( type.name() );
+		sb.append( " workers [" + getWorkerCount( type ) );
+		sb.append( "] tasks [" + getTaskCount( type ) );
+		sb.append( "] queued [" + getQueueDepth( type ) );
+		sb.append( "] runs [" + getRunCount( type ) );
+		sb.append( "] average run [" + getAverageRunTime( type ) );
+		sb.append( " us] max run [" + getMaximumRunTime( type ) );
+		sb.append( " us]" );
 		
-		ThreadType type = mTasks.remove( task );
+		return sb.toString();
 	}
 	
-	public int getTaskCount( ThreadType type )
+	/**
+	 * Shared executor for one-time tasks and the statistics logger
+	 */
+	private synchronized ScheduledThreadPoolExecutor getExecutor()
 	{
-		int count = 0;
+		if( mExecutor == null )
+		{
+			mExecutor = new ScheduledThreadPoolExecutor( GENERAL_POOL_SIZE, 
+					new NamedThreadFactory( "general" ) );
+			
+			mExecutor.scheduleAtFixedRate( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					if( mLog.isDebugEnabled() )
+					{
+						for( ThreadType type: ThreadType.values() )
+						{
+							mLog.debug( getStatistics( type ) );
+						}
+					}
+				}
+			}, STATISTICS_LOG_INTERVAL, STATISTICS_LOG_INTERVAL, 
+					TimeUnit.SECONDS );
+		}
+		
+		return mExecutor;
+	}
+	
+	/**
+	 * Worker pool for the thread type, created on first use
+	 */
+	private Worker[] getWorkers( ThreadType type )
+	{
+		/* Start the shared executor and statistics logging */
+		getExecutor();
+		
+		switch( type )
+		{
+			case SOURCE_SAMPLE_PROCESSING:
+				if( mSourceWorkers == null )
+				{
+					mSourceWorkers = createWorkers( "source", SOURCE_POOL_SIZE );
+				}
+				return mSourceWorkers;
+			case DECIMATION:
+			case DECODER:
+			default:
+				if( mChannelWorkers == null )
+				{
+					mChannelWorkers = createWorkers( "channel", 
+							CHANNEL_POOL_SIZE );
+				}
+				return mChannelWorkers;
+		}
+	}
+	
+	private Worker[] createWorkers( String name, int count )
+	{
+		Worker[] workers = new Worker[ count ];
+		
+		NamedThreadFactory factory = new NamedThreadFactory( name );
+
+		for( int x = 0; x < count; x++ )
+		{
+			workers[ x ] = new Worker( workers, 
+					new ScheduledThreadPoolExecutor( 1, factory ) );
+		}
+		
+		mLog.info( "Created [" + count + "] " + name + " worker threads" );
 		
-		for( ThreadType current: mTasks.values() )
+		return workers;
+	}
+	
+	private Worker getLeastLoadedWorker( Worker[] workers )
+	{
+		Worker leastLoaded = workers[ 0 ];
+		
+		for( Worker worker: workers )
 		{
-			if( current == type )
+			if( worker.getTaskCount() < leastLoaded.getTaskCount() )
 			{
-				count++;
+				leastLoaded = worker;
 			}
 		}
 		
-		return count;
+		return leastLoaded;
 	}
 
 	public enum ThreadType
@@ -113,4 +454,270 @@ public class ThreadPoolManager
 		DECIMATION,
 		DECODER;
 	}
+	
+	/**
+	 * Task that runs on its assigned worker each time it is signalled
+	 */
+	public class SignalledTask implements Runnable
+	{
+		private Task mTask;
+		private AtomicBoolean mPending = new AtomicBoolean();
+		private volatile boolean mCancelled;
+		
+		private SignalledTask( Task task )
+		{
+			mTask = task;
+		}
+		
+		private Task getTask()
+		{
+			return mTask;
+		}
+		
+		/**
+		 * Schedules the task to run on its worker, unless a run is already 
+		 * pending
+		 */
+		public void signal()
+		{
+			if( !mCancelled && mPending.compareAndSet( false, true ) )
+			{
+				try
+				{
+					mTask.getWorker().getExecutor().execute( this );
+				}
+				catch( RejectedExecutionException ree )
+				{
+					mPending.set( false );
+				}
+			}
+		}
+		
+		/**
+		 * Indicates if the task has been signalled but has not yet started 
+		 * running
+		 */
+		public boolean isPending()
+		{
+			return mPending.get();
+		}
+		
+		private void cancel()
+		{
+			mCancelled = true;
+		}
+		
+		@Override
+		public void run()
+		{
+			/* Clear the pending flag first, so that a signal that arrives
+			 * while the task is running schedules another run */
+			mPending.set( false );
+			
+			if( !mCancelled )
+			{
+				mTask.run();
+			}
+		}
+	}
+	
+	/**
+	 * Single threaded executor and the number of recurring tasks assigned
+	 */
+	private class Worker
+	{
+		private Worker[] mPool;
+		private ScheduledThreadPoolExecutor mExecutor;
+		private int mTaskCount;
+		
+		public Worker( Worker[] pool, ScheduledThreadPoolExecutor executor )
+		{
+			mPool = pool;
+			mExecutor = executor;
+		}
+		
+		public Worker[] getPool()
+		{
+			return mPool;
+		}
+		
+		public ScheduledThreadPoolExecutor getExecutor()
+		{
+			return mExecutor;
+		}
+		
+		public int getTaskCount()
+		{
+			return mTaskCount;
+		}
+		
+		public void increment()
+		{
+			mTaskCount++;
+		}
+		
+		public void decrement()
+		{
+			mTaskCount--;
+		}
+	}
+	
+	/**
+	 * Worker assignment for an affinity object and the number of tasks using
+	 * the assignment
+	 */
+	private class Affinity
+	{
+		private Worker mWorker;
+		private int mCount;
+		
+		public Affinity( Worker worker )
+		{
+			mWorker = worker;
+		}
+		
+		public Worker getWorker()
+		{
+			return mWorker;
+		}
+		
+		public void increment()
+		{
+			mCount++;
+		}
+		
+		public int decrement()
+		{
+			return --mCount;
+		}
+	}
+	
+	/**
+	 * Wraps a recurring task to record its run time
+	 */
+	private class Task implements Runnable
+	{
+		private ThreadType mType;
+		private Object mAffinity;
+		private Worker mWorker;
+		private Runnable mCommand;
+		private Statistics mTypeStatistics;
+		private volatile boolean mRunning;
+		
+		public Task( ThreadType type, Object affinity, Worker worker, 
+					 Runnable command )
+		{
+			mType = type;
+			mAffinity = affinity;
+			mWorker = worker;
+			mCommand = command;
+			mTypeStatistics = mStatistics.get( type );
+		}
+		
+		public ThreadType getType()
+		{
+			return mType;
+		}
+		
+		public Object getAffinity()
+		{
+			return mAffinity;
+		}
+		
+		public Worker getWorker()
+		{
+			return mWorker;
+		}
+		
+		public boolean isRunning()
+		{
+			return mRunning;
+		}
+		
+		@Override
+		public void run()
+		{
+			mRunning = true;
+			
+			long start = System.nanoTime();
+			
+			try
+			{
+				mCommand.run();
+			}
+			finally
+			{
+				mTypeStatistics.add( System.nanoTime() - start );
+				
+				mRunning = false;
+			}
+		}
+	}
+	
+	/**
+	 * Run count and run time accumulator
+	 */
+	private class Statistics
+	{
+		private AtomicLong mRunCount = new AtomicLong();
+		private AtomicLong mRunTime = new AtomicLong();
+		private AtomicLong mMaximumRunTime = new AtomicLong();
+		
+		public void add( long nanoseconds )
+		{
+			mRunCount.incrementAndGet();
+			mRunTime.addAndGet( nanoseconds );
+			
+			long maximum = mMaximumRunTime.get();
+			
+			while( nanoseconds > maximum && 
+				   !mMaximumRunTime.compareAndSet( maximum, nanoseconds ) )
+			{
+				maximum = mMaximumRunTime.get();
+			}
+		}
+		
+		public long getRunCount()
+		{
+			return mRunCount.get();
+		}
+		
+		public long getAverageRunTime()
+		{
+			long count = mRunCount.get();
+			
+			if( count == 0 )
+			{
+				return 0;
+			}
+			
+			return TimeUnit.NANOSECONDS.toMicros( mRunTime.get() / count );
+		}
+		
+		public long getMaximumRunTime()
+		{
+			return TimeUnit.NANOSECONDS.toMicros( mMaximumRunTime.get() );
+		}
+	}
+	
+	/**
+	 * Names the worker threads so that they can be identified in a profiler
+	 */
+	private class NamedThreadFactory implements ThreadFactory
+	{
+		private String mName;
+		private AtomicInteger mCount = new AtomicInteger();
+		
+		public NamedThreadFactory( String name )
+		{
+			mName = name;
+		}
+		
+		@Override
+		public Thread newThread( Runnable runnable )
+		{
+			return new Thread( runnable, "sdrtrunk " + mName + " " + 
+					mCount.incrementAndGet() );
+		}
+	}
 }
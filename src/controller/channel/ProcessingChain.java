@@ -22,13 +22,17 @@ import gui.SDRTrunk;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import message.Message;
+import metrics.Counter;
+import metrics.Gauge;
+import metrics.Histogram;
+import metrics.MetricGroup;
+import metrics.MetricsRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +40,10 @@ import org.slf4j.LoggerFactory;
 import record.Recorder;
 import record.wave.ComplexWaveRecorder;
 import record.wave.FloatWaveRecorder;
+import record.wave.MappedComplexWaveRecorder;
 import sample.Broadcaster;
 import sample.Listener;
+import sample.complex.ComplexBuffer;
 import sample.complex.ComplexSample;
 import sample.real.RealBuffer;
 import sample.real.RealSampleListener;
@@ -54,16 +60,20 @@ import alias.AliasList;
 import audio.IAudioOutput;
 import audio.IAudioTypeListener;
 import audio.SquelchListener;
+import buffer.RingBuffer;
 import controller.ResourceManager;
+import controller.ThreadPoolManager.SignalledTask;
 import controller.ThreadPoolManager.ThreadType;
-import controller.activity.CallEvent;
 import controller.channel.Channel.ChannelType;
 import controller.state.ChannelState;
 import controller.state.ChannelState.State;
 import decode.Decoder;
 import decode.DecoderFactory;
+import eventlog.CallEventLogger;
 import eventlog.EventLogType;
 import eventlog.EventLogger;
+import eventlog.EventStoreLogger;
+import eventlog.MessageEventLogger;
 
 /**
  * A channel has all of the pieces needed to wire together a source, decoder,
@@ -78,22 +88,40 @@ public class ProcessingChain implements Listener<Message>
 	protected Source mSource;
 	protected Decoder mDecoder;
 	protected List<Recorder> mRecorders = new ArrayList<Recorder>();
-	protected ArrayList<EventLogger> mEventLoggers = new ArrayList<EventLogger>();
+	protected CopyOnWriteArrayList<EventLogger> mEventLoggers = 
+			new CopyOnWriteArrayList<EventLogger>();
 	protected AutomaticFrequencyControl mAFC;
 	protected ChannelState mChannelState;
 	protected ResourceManager mResourceManager;
-	private ScheduledFuture<?> mProcessorTask;
+	/* Sample buffers waiting for the decoder -- about 1 second of samples */
+	private static final int BUFFER_CAPACITY = 64;
+	/* Maximum buffers processed per run, so that a busy channel doesn't
+	 * starve other tasks that share the worker thread */
+	private static final int MAX_BUFFERS_PER_RUN = 8;
+	
+	private volatile SignalledTask mProcessorTask;
 	private AliasList mAliasList;
 
-	private ComplexSampleReceiver mComplexReceiver = new ComplexSampleReceiver();
-	private LinkedTransferQueue<List<ComplexSample>> mComplexQueue = 
-								new LinkedTransferQueue<List<ComplexSample>>();
+	private ComplexBufferReceiver mComplexReceiver = new ComplexBufferReceiver();
+	private RingBuffer<ComplexBuffer> mComplexQueue = 
+								new RingBuffer<ComplexBuffer>( BUFFER_CAPACITY );
+	private ComplexProcessor mComplexProcessor = new ComplexProcessor();
 
 	private RealSampleReceiver mRealReceiver = new RealSampleReceiver();
-	private LinkedTransferQueue<RealBuffer> mRealQueue = 
-									new LinkedTransferQueue<RealBuffer>();
+	private RingBuffer<RealBuffer> mRealQueue = 
+									new RingBuffer<RealBuffer>( BUFFER_CAPACITY );
+	private RealProcessor mRealProcessor = new RealProcessor();
 
 	protected Broadcaster<Message> mBroadcaster = new Broadcaster<Message>();
+	
+	/* Unique id per chain, so that identically named channels don't share
+	 * a metric group */
+	private static final AtomicInteger sChainCounter = new AtomicInteger();
+	private int mChainID = sChainCounter.incrementAndGet();
+	
+	private MetricGroup mMetricGroup;
+	private Counter mSampleCounter;
+	private Histogram mDecoderTimer;
 
 	public ProcessingChain( Channel channel, ResourceManager resourceManager )
 	{
@@ -106,6 +134,47 @@ public class ProcessingChain implements Listener<Message>
 					.getPlayist().getAliasDirectory().getAliasList(  
 							mChannel.getAliasListName() );
 		}
+		
+		mMetricGroup = MetricsRegistry.getInstance()
+				.getGroup( "channel." + mChannel.getChannelDisplayName() + 
+						"#" + mChainID );
+		
+		mMetricGroup.gauge( "chain.queue.depth", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getQueuedBufferCount();
+			}
+		} );
+		
+		mMetricGroup.gauge( "chain.queue.dropped", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return getDroppedBufferCount();
+			}
+		} );
+		
+		mMetricGroup.gauge( "eventlog.dropped", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				long dropped = 0;
+				
+				for( EventLogger logger: mEventLoggers )
+				{
+					dropped += logger.getDroppedCount();
+				}
+				
+				return dropped;
+			}
+		} );
+		
+		mSampleCounter = mMetricGroup.counter( "chain.samples" );
+		mDecoderTimer = mMetricGroup.histogram( "decoder.ns" );
 	}
 	
 	public IAudioOutput getAudioOutput()
@@ -118,7 +187,15 @@ public class ProcessingChain implements Listener<Message>
 		return null;
 	}
 
-	public Listener<List<ComplexSample>> getComplexReceiver()
+	/**
+	 * Processing metrics for the source, decoder and this processing chain
+	 */
+	public MetricGroup getMetricGroup()
+	{
+		return mMetricGroup;
+	}
+
+	public Listener<ComplexBuffer> getComplexReceiver()
 	{
 		return mComplexReceiver;
 	}
@@ -143,8 +220,12 @@ public class ProcessingChain implements Listener<Message>
 		if( mProcessorTask != null )
 		{
 			mResourceManager.getThreadPoolManager().cancel( mProcessorTask );
+			mProcessorTask = null;
 		}
 		
+		mComplexProcessor.clear();
+		mRealProcessor.clear();
+		
 		if( mChannelState != null )
 		{
 			mChannelState.dispose();
@@ -159,6 +240,7 @@ public class ProcessingChain implements Listener<Message>
 
 		mBroadcaster.dispose();
 		mEventLoggers.clear();
+		mMetricGroup.dispose();
 		mRecorders.clear();
 		
 		mResourceManager = null;
@@ -225,6 +307,17 @@ public class ProcessingChain implements Listener<Message>
 		return "Channel [" + mChannel.getName() + "] - ";
 	}
 	
+	/**
+	 * Obtains a source for this processing chain from the source manager, 
+	 * according to the channel source configuration.  Subclasses can override
+	 * this method to provide a different source.
+	 */
+	protected Source createSource() throws SourceException
+	{
+		return mResourceManager.getSourceManager()
+				.getSource( ProcessingChain.this );
+	}
+	
 	public void updateSource()
 	{
 		/* Cleanup existing source */
@@ -243,6 +336,7 @@ public class ProcessingChain implements Listener<Message>
 			if( mProcessorTask != null )
 			{
 				mResourceManager.getThreadPoolManager().cancel( mProcessorTask );
+				mProcessorTask = null;
 			}
 			
 			mSource.dispose();
@@ -255,8 +349,7 @@ public class ProcessingChain implements Listener<Message>
 		{
 			try
             {
-	            mSource = mResourceManager.getSourceManager()
-	            					.getSource( ProcessingChain.this );
+	            mSource = createSource();
             }
             catch ( SourceException e )
             {
@@ -268,15 +361,19 @@ public class ProcessingChain implements Listener<Message>
 
 			if( mSource != null )
 			{
+				if( mSource instanceof TunerChannelSource )
+				{
+					((TunerChannelSource)mSource).setMetricGroup( mMetricGroup );
+				}
+				
 				if( mSource instanceof ComplexSource )
 				{
 					try
 					{
 						mProcessorTask = 
 								mResourceManager.getThreadPoolManager()
-									.scheduleFixedRate( ThreadType.DECODER, 
-											   new ComplexProcessor(), 
-											   50, TimeUnit.MILLISECONDS );
+									.scheduleSignalled( ThreadType.DECODER, mSource,
+											   mComplexProcessor );
 
 						((ComplexSource)mSource)
 							.setListener( this.getComplexReceiver() );
@@ -296,9 +393,8 @@ public class ProcessingChain implements Listener<Message>
 					{
 						mProcessorTask = 
 								mResourceManager.getThreadPoolManager()
-									.scheduleFixedRate( ThreadType.DECODER, 
-											   new RealProcessor(), 
-											   50, TimeUnit.MILLISECONDS );
+									.scheduleSignalled( ThreadType.DECODER, mSource,
+											   mRealProcessor );
 
 						((RealSource)mSource)
 								.setListener( this.getRealReceiver() );
@@ -345,6 +441,8 @@ public class ProcessingChain implements Listener<Message>
 				{
 					/* Register to receive decoded messages and auxiliary messages */
 					mDecoder.addMessageListener( ProcessingChain.this );
+					
+					mDecoder.setMetricGroup( mMetricGroup );
 
 					/* Establish two-way communication between the frequency 
 					 * correction controller and the tuner channel source */
@@ -402,18 +500,39 @@ public class ProcessingChain implements Listener<Message>
 				
 				if( type == EventLogType.CALL_EVENT )
 				{
-					logger = mResourceManager.getEventLogManager()
-							.getLogger( this, type );
+					CallEventLogger callEventLogger = (CallEventLogger)
+						mResourceManager.getEventLogManager().getLogger( this, type );
 					
 					getChannelState().getCallEventModel()
-						.addListener( (Listener<CallEvent>)logger );
+						.addListener( callEventLogger );
+					
+					logger = callEventLogger;
+				}
+				else if( type == EventLogType.EVENT_STORE )
+				{
+					EventStoreLogger eventStoreLogger = (EventStoreLogger)
+						mResourceManager.getEventLogManager().getLogger( this, type );
+					
+					if( eventStoreLogger == null )
+					{
+						continue;
+					}
+					
+					getChannelState().getCallEventModel().addListener( 
+						eventStoreLogger.getCallEventListener() );
+
+					addListener( eventStoreLogger );
+					
+					logger = eventStoreLogger;
 				}
 				else
 				{
-					logger = mResourceManager.getEventLogManager()
-							.getLogger( this, type );
+					MessageEventLogger messageEventLogger = (MessageEventLogger)
+						mResourceManager.getEventLogManager().getLogger( this, type );
 
-					addListener( (Listener<Message>)logger );
+					addListener( messageEventLogger );
+					
+					logger = messageEventLogger;
 				}
 				
 				logger.start();
@@ -435,6 +554,13 @@ public class ProcessingChain implements Listener<Message>
 			{
 				if( recorder != null )
 				{
+					if( recorder instanceof MappedComplexWaveRecorder && 
+						mDecoder != null )
+					{
+						mDecoder.removeComplexBufferListener( 
+								(MappedComplexWaveRecorder)recorder );
+					}
+
 					try
 	                {
 		                recorder.stop();
@@ -477,6 +603,14 @@ public class ProcessingChain implements Listener<Message>
 
 						mDecoder.addComplexListener( (ComplexWaveRecorder )recorder );
 					}
+					else if( recorder instanceof MappedComplexWaveRecorder )
+					{
+						mLog.info( getLogPrefix() + "- started baseband recording [" + 
+								recorder.getFileName() + "]" );
+
+						mDecoder.addComplexBufferListener( 
+								(MappedComplexWaveRecorder)recorder );
+					}
 					
 	            }
 	            catch ( IOException e )
@@ -641,104 +775,207 @@ public class ProcessingChain implements Listener<Message>
 		mBroadcaster.removeListener( listener );
     }
 
+	/**
+	 * Number of sample buffers waiting for the decoder
+	 */
+	public int getQueuedBufferCount()
+	{
+		return mComplexQueue.size() + mRealQueue.size();
+	}
+
+	/**
+	 * Number of sample buffers dropped because the decoder queue was full
+	 */
+	public long getDroppedBufferCount()
+	{
+		return mComplexQueue.getDropCount() + mRealQueue.getDropCount();
+	}
+
     /**
      * Manages the real sample queue and distributes samples to the decoder.
+     * Runs each time the processor task is signalled by a buffer arrival.
      */
 	private class RealProcessor implements Runnable
 	{
 		@Override
-        public void run()
+        public synchronized void run()
         {
 			try
 			{
-				List<RealBuffer> sampleBuffers = new ArrayList<RealBuffer>();
-
-				mRealQueue.drainTo( sampleBuffers, 4 );
+				int count = 0;
+				
+				RealBuffer sampleBuffer = mRealQueue.poll();
 
-				for( RealBuffer sampleBuffer: sampleBuffers )
+				while( sampleBuffer != null )
 				{
 					if( mDecoder != null )
 					{
+						long start = System.nanoTime();
+						
 						float[] samples = sampleBuffer.getSamples();
 						
 						for( float sample: samples )
 						{
 							mDecoder.getRealReceiver().receive( sample );
 						}
+						
+						mDecoderTimer.update( System.nanoTime() - start );
 					}
 					
 					sampleBuffer.dispose();
+					
+					count++;
+					
+					sampleBuffer = count < MAX_BUFFERS_PER_RUN ? 
+							mRealQueue.poll() : null;
 				}
 				
-				sampleBuffers.clear();
+				/* Reschedule to process the remaining buffers */
+				if( !mRealQueue.isEmpty() )
+				{
+					signal();
+				}
 			}
 			catch( Exception e )
 			{
 				mLog.error( "error during processing chain real processor run", e );
 			}
         }
+		
+		/**
+		 * Discards queued buffers.  Synchronized with run() so that the queue
+		 * only has one consumer at a time.
+		 */
+		public synchronized void clear()
+		{
+			RealBuffer sampleBuffer = mRealQueue.poll();
+			
+			while( sampleBuffer != null )
+			{
+				sampleBuffer.dispose();
+				sampleBuffer = mRealQueue.poll();
+			}
+		}
 	}
 
 	/**
-     * Manages the complex sample queue and distributes samples to the decoder.
+     * Manages the complex sample buffer queue and distributes the buffers to
+     * the decoder.  Runs each time the processor task is signalled by a buffer
+     * arrival.
      */
 	private class ComplexProcessor implements Runnable
 	{
 		@Override
-        public void run()
+        public synchronized void run()
         {
 			try
 			{
-				List<List<ComplexSample>> sampleSets = 
-						new ArrayList<List<ComplexSample>>();
-
-				mComplexQueue.drainTo( sampleSets, 16 );
+				int count = 0;
+				
+				ComplexBuffer sampleBuffer = mComplexQueue.poll();
 			
-				for( List<ComplexSample> samples: sampleSets )
+				while( sampleBuffer != null )
 				{
-					for( ComplexSample sample: samples )
+					if( mDecoder != null )
 					{
-						if( sample != null && mDecoder != null )
-						{
-							mDecoder.getComplexReceiver().receive( sample );
-						}
+						long start = System.nanoTime();
+						
+						mDecoder.getComplexBufferReceiver().receive( sampleBuffer );
+						
+						mDecoderTimer.update( System.nanoTime() - start );
 					}
 					
-					samples.clear();
+					sampleBuffer.release();
+					
+					count++;
+					
+					sampleBuffer = count < MAX_BUFFERS_PER_RUN ? 
+							mComplexQueue.poll() : null;
 				}
 				
-				sampleSets.clear();
+				/* Reschedule to process the remaining buffers */
+				if( !mComplexQueue.isEmpty() )
+				{
+					signal();
+				}
 			}
 			catch( Exception e )
 			{
 				mLog.error( "error during processing chain complex processor run", e );
 			}
         }
+		
+		/**
+		 * Releases queued buffers.  Synchronized with run() so that the queue
+		 * only has one consumer at a time.
+		 */
+		public synchronized void clear()
+		{
+			ComplexBuffer sampleBuffer = mComplexQueue.poll();
+			
+			while( sampleBuffer != null )
+			{
+				sampleBuffer.release();
+				sampleBuffer = mComplexQueue.poll();
+			}
+		}
 	}
 	
 	/**
-	 * Internal listener to receive complex (I/Q) baseband samples.  Places 
-	 * received samples into the queue managed by the ComplexProcessor.
+	 * Internal listener to receive complex (I/Q) baseband sample buffers.  
+	 * Places received buffers into the queue managed by the ComplexProcessor
+	 * and signals the processor.
 	 */
-	public class ComplexSampleReceiver implements Listener<List<ComplexSample>>
+	public class ComplexBufferReceiver implements Listener<ComplexBuffer>
 	{
 		@Override
-        public void receive( List<ComplexSample> samples )
+        public void receive( ComplexBuffer buffer )
         {
-			mComplexQueue.add( samples );
+			mSampleCounter.add( buffer.getSamples().length / 2 );
+			
+			buffer.retain();
+			
+			if( mComplexQueue.offer( buffer ) )
+			{
+				signal();
+			}
+			else
+			{
+				buffer.release();
+			}
         }
 	}
 
 	/**
 	 * Internal listener to receive real(ie demodulated) samples.  Places
-	 * received samples into the queue managed by the RealProcessor
+	 * received samples into the queue managed by the RealProcessor and signals
+	 * the processor.
 	 */
 	public class RealSampleReceiver implements Listener<RealBuffer>
 	{
 		@Override
         public void receive( RealBuffer samples )
         {
-			mRealQueue.add( samples );
+			mSampleCounter.add( samples.getSamples().length );
+			
+			if( mRealQueue.offer( samples ) )
+			{
+				signal();
+			}
+			else
+			{
+				samples.dispose();
+			}
         }
 	}
+	
+	private void signal()
+	{
+		SignalledTask task = mProcessorTask;
+		
+		if( task != null )
+		{
+			task.signal();
+		}
+	}
 }
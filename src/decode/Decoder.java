@@ -21,8 +21,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import message.Message;
+import metrics.Counter;
+import metrics.MetricGroup;
 import sample.Broadcaster;
 import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferBroadcaster;
+import sample.complex.ComplexBufferListener;
+import sample.complex.ComplexBufferPool;
 import sample.complex.ComplexSample;
 import sample.real.RealSampleBroadcaster;
 import sample.real.RealSampleListener;
@@ -40,11 +46,19 @@ public abstract class Decoder implements Listener<Message>
 	private RealSampleBroadcaster mRealBroadcaster = new RealSampleBroadcaster();
 	private Broadcaster<ComplexSample> mComplexBroadcaster = 
 							new Broadcaster<ComplexSample>();
+	private ComplexBufferBroadcaster mComplexBufferBroadcaster = 
+							new ComplexBufferBroadcaster();
+	private ComplexBufferReceiver mComplexBufferReceiver = 
+							new ComplexBufferReceiver();
+	private ComplexSampleReceiver mComplexSampleReceiver = 
+							new ComplexSampleReceiver();
 
 	protected SampleType mSourceSampleType;
 	protected ArrayList<Decoder> mAuxiliaryDecoders = new ArrayList<Decoder>();
 	
 	protected FrequencyCorrectionControl mFrequencyCorrection;
+	
+	private Counter mMessageCounter;
 
 	/**
 	 * Abstract decoder class.
@@ -120,11 +134,26 @@ public abstract class Decoder implements Listener<Message>
 	
 	/**
 	 * Returns a complex listener interface for connecting this decoder to a 
-	 * float stream provider
+	 * single complex sample stream provider.  Each sample is wrapped in a 
+	 * sample buffer and sent to the complex buffer receiver.
+	 * 
+	 * Note: use the complex buffer receiver for sources that provide sample
+	 * buffers.
 	 */
 	public Listener<ComplexSample> getComplexReceiver()
 	{
-		return (Listener<ComplexSample>)mComplexBroadcaster;
+		return mComplexSampleReceiver;
+	}
+
+	/**
+	 * Returns a complex buffer listener interface for connecting this decoder
+	 * to a complex sample buffer provider.  Buffers are sent to all complex 
+	 * buffer listeners.  Buffer samples are also sent as individual complex 
+	 * samples to any (legacy) complex sample listeners.
+	 */
+	public ComplexBufferListener getComplexBufferReceiver()
+	{
+		return mComplexBufferReceiver;
 	}
 
 	/**
@@ -146,6 +175,7 @@ public abstract class Decoder implements Listener<Message>
 
 		mMessageBroadcaster.clear();
 		mComplexBroadcaster.clear();
+		mComplexBufferBroadcaster.clear();
 		mRealBroadcaster.clear();
 		
 		if( mFrequencyCorrection != null )
@@ -165,11 +195,21 @@ public abstract class Decoder implements Listener<Message>
 	 * auxiliary decoder, so that those messages can be echoed and included in 
 	 * the consolidated message stream to all message listeners registered on 
 	 * the primary decoder.
+	 * 
+	 * Auxiliary decoders can share a sample receiver (e.g. a shared AFSK 
+	 * decoder) and a shared receiver is only registered once.
 	 */
 	public void addAuxiliaryDecoder( Decoder decoder )
 	{
 		mAuxiliaryDecoders.add( decoder );
-		mRealBroadcaster.addListener( decoder.getRealReceiver() );
+		
+		RealSampleListener receiver = decoder.getRealReceiver();
+		
+		if( !mRealBroadcaster.hasListener( receiver ) )
+		{
+			mRealBroadcaster.addListener( receiver );
+		}
+
 		decoder.addMessageListener( this );
 	}
 	
@@ -198,6 +238,16 @@ public abstract class Decoder implements Listener<Message>
 		return mEventLogger;
 	}
 
+	/**
+	 * Registers the decoder metrics with the metric group.  Messages from 
+	 * auxiliary decoders are echoed through this decoder and are included in
+	 * the message count.
+	 */
+	public void setMetricGroup( MetricGroup group )
+	{
+		mMessageCounter = group.counter( "decoder.messages" );
+	}
+
 	/**
 	 * Main receiver method for all demodulators to send their decoded messages
 	 * so that they will be broadcast to all registered listeners
@@ -213,6 +263,11 @@ public abstract class Decoder implements Listener<Message>
 	 */
     public void send( Message message )
     {
+    	if( mMessageCounter != null )
+    	{
+    		mMessageCounter.increment();
+    	}
+    	
     	if( mMessageBroadcaster != null )
     	{
         	mMessageBroadcaster.receive( message );
@@ -273,4 +328,70 @@ public abstract class Decoder implements Listener<Message>
     {
 		mComplexBroadcaster.removeListener( listener );
     }
+
+    /**
+     * Adds a complex (I/Q) buffer listener to receive the inbound complex 
+     * sample buffer stream
+     */
+    public void addComplexBufferListener( ComplexBufferListener listener )
+    {
+    	mComplexBufferBroadcaster.addListener( listener );
+    }
+
+    /**
+     * Removes the complex (I/Q) buffer listener from receiving sample buffers
+     */
+    public void removeComplexBufferListener( ComplexBufferListener listener )
+    {
+    	mComplexBufferBroadcaster.removeListener( listener );
+    }
+
+    /**
+     * Distributes received sample buffers to the complex buffer listeners and
+     * unpacks the buffer samples for any complex sample listeners.
+     */
+    public class ComplexBufferReceiver implements ComplexBufferListener
+    {
+		@Override
+        public void receive( ComplexBuffer buffer )
+        {
+			mComplexBufferBroadcaster.broadcast( buffer );
+			
+			if( mComplexBroadcaster.hasListeners() )
+			{
+				float[] samples = buffer.getSamples();
+				
+				for( int x = 0; x < samples.length; x += 2 )
+				{
+					mComplexBroadcaster.broadcast( 
+						new ComplexSample( samples[ x ], samples[ x + 1 ] ) );
+				}
+			}
+        }
+    }
+
+    /**
+     * Wraps single complex samples into pooled single-sample buffers for 
+     * distribution by the complex buffer receiver.  Buffers are released 
+     * after dispatch, so the pool reuses the same buffer unless a listener 
+     * retains it.
+     */
+    public class ComplexSampleReceiver implements Listener<ComplexSample>
+    {
+		private ComplexBufferPool mBufferPool = new ComplexBufferPool( 4 );
+		
+		@Override
+        public void receive( ComplexSample sample )
+        {
+			ComplexBuffer buffer = mBufferPool.getBuffer( 2 );
+			
+			float[] samples = buffer.getSamples();
+			samples[ 0 ] = sample.inphase();
+			samples[ 1 ] = sample.quadrature();
+			
+			mComplexBufferReceiver.receive( buffer );
+			
+			buffer.release();
+        }
+    }
 }
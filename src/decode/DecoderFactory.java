@@ -50,6 +50,7 @@ import decode.passport.PassportChannelState;
 import decode.passport.PassportDecoder;
 import decode.tait.Tait1200ChannelState;
 import decode.tait.Tait1200Decoder;
+import dsp.fsk.AFSK1200Decoder;
 
 public class DecoderFactory
 {
@@ -103,7 +104,8 @@ public class DecoderFactory
 				DecodeConfigP25Phase1 p25Config = (DecodeConfigP25Phase1)config;
 				
 				retVal = new P25Decoder( chain.getResourceManager(), 
-						sampleType, p25Config.getModulation(), aliasList );
+						sampleType, p25Config.getModulation(), aliasList, 
+						p25Config.getAngleEstimator() );
 				break;
 			default:
 				throw new IllegalArgumentException( 
@@ -116,25 +118,29 @@ public class DecoderFactory
 			AuxDecodeConfiguration auxConfig = 
 					chain.getChannel().getAuxDecodeConfiguration();
 
+			/* The 1200 baud AFSK auxiliary decoders share a single filter 
+			 * chain, symbol slicer and multi-pattern sync detector */
+			AFSK1200Decoder afskDecoder = new AFSK1200Decoder();
+
 			for( DecoderType auxDecoder: auxConfig.getAuxDecoders() )
 			{
 				switch( auxDecoder )
 				{
 					case FLEETSYNC2:
 						retVal.addAuxiliaryDecoder( 
-								new Fleetsync2Decoder( aliasList ) );
+								new Fleetsync2Decoder( aliasList, afskDecoder ) );
 						break;
 					case MDC1200:
 						retVal.addAuxiliaryDecoder( 
-								new MDCDecoder( aliasList ) );
+								new MDCDecoder( aliasList, afskDecoder ) );
 						break;
 					case LJ_1200:
 						retVal.addAuxiliaryDecoder( 
-								new LJ1200Decoder( aliasList ) );
+								new LJ1200Decoder( aliasList, afskDecoder ) );
 						break;
 					case TAIT_1200:
 						retVal.addAuxiliaryDecoder( 
-								new Tait1200Decoder( aliasList ) );
+								new Tait1200Decoder( aliasList, afskDecoder ) );
 						break;
 				}
 			}
@@ -23,6 +23,8 @@ import javax.xml.bind.annotation.XmlSeeAlso;
 
 import controller.config.Configuration;
 import decode.DecoderType;
+import dsp.nbfm.FMDiscriminator;
+import dsp.nbfm.FMDiscriminator.AngleEstimator;
 
 @XmlSeeAlso( { DecodeConfigAM.class,
                DecodeConfigNBFM.class,
@@ -37,6 +39,8 @@ public abstract class DecodeConfiguration extends Configuration
 	private DecoderType mDecoderType = DecoderType.NBFM;
 	private boolean mAFCEnabled = true;
 	private int mAFCMaxCorrection = 3000;
+	private AngleEstimator mAngleEstimator = 
+			FMDiscriminator.DEFAULT_ANGLE_ESTIMATOR;
 
 	public DecodeConfiguration()
 	{
@@ -79,6 +83,21 @@ public abstract class DecodeConfiguration extends Configuration
 		mAFCMaxCorrection = max;
 	}
 	
+	/**
+	 * Angle estimator for the FM discriminator of decoders that demodulate 
+	 * FM signals
+	 */
+	@XmlElement( name = "angle_estimator" )
+	public AngleEstimator getAngleEstimator()
+	{
+		return mAngleEstimator;
+	}
+	
+	public void setAngleEstimator( AngleEstimator estimator )
+	{
+		mAngleEstimator = estimator;
+	}
+	
 	public boolean supportsAFC()
 	{
 	    return true;
@@ -20,7 +20,6 @@ package decode.fleetsync2;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -158,7 +157,7 @@ public class FleetsyncMessage extends Message
     
     private CRC detectAndCorrect( int start, int end )
     {
-    	BitSet original = mMessage.get( start, end );
+    	BinaryMessage original = mMessage.get( start, end );
     	
     	CRC retVal = CRCFleetsync.check( original );
     	
@@ -19,99 +19,61 @@ package decode.lj1200;
 
 import instrument.Instrumentable;
 import instrument.tap.Tap;
-import instrument.tap.stream.BinaryTap;
-import instrument.tap.stream.FloatTap;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import sample.Broadcaster;
 import sample.real.RealSampleListener;
 import source.Source.SampleType;
 import alias.AliasList;
 import audio.IAudioOutput;
-import bits.MessageFramer;
 import bits.SyncPattern;
 import decode.Decoder;
 import decode.DecoderType;
-import dsp.filter.Filters;
-import dsp.filter.FloatFIRFilter;
-import dsp.filter.FloatHalfBandFilter;
-import dsp.fsk.FSK2Decoder;
-import dsp.fsk.FSK2Decoder.Output;
+import dsp.fsk.AFSK1200Decoder;
 
 /**
  * LJ1200 - 1200 baud 2FSK decoder
  */
 public class LJ1200Decoder extends Decoder implements Instrumentable
 {
-	/* Decimated sample rate ( 48,000 / 2 = 24,000 ) feeding the decoder */
-	private static final int DECIMATED_SAMPLE_RATE = 24000;
-	
-	/* Baud or Symbol Rate */
-	private static final int SYMBOL_RATE = 1200;
-
 	/* Message length - 16-bit sync plus 64 bit message */
     private static final int MESSAGE_LENGTH = 80;
     
-    /* Instrumentation Taps */
-    private ArrayList<Tap> mAvailableTaps;
-	private static final String INSTRUMENT_INPUT = 
-			"Tap Point: Float Input";
-	private static final String INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD = 
-			"Tap Point: Bandpass Filter > < FSK2 Decoder";
-	private static final String INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER = 
-			"Tap Point: FSK2 Decoder > < Message Framer";
-	
-    private FSK2Decoder mFSKDecoder;
-    private Broadcaster<Boolean> mFSKDecoderBroadcaster = 
-    					new Broadcaster<Boolean>();
-    
-    private FloatHalfBandFilter mDecimationFilter;
-    private FloatFIRFilter mBandPassFilter;
-    private MessageFramer mTowerMessageFramer;
-    private MessageFramer mTransponderMessageFramer;
+    private AFSK1200Decoder mAFSKDecoder;
     private LJ1200MessageProcessor mMessageProcessor;
     
     public LJ1200Decoder( AliasList aliasList )
+	{
+    	this( aliasList, new AFSK1200Decoder() );
+	}
+    
+    /**
+     * Constructs the decoder using a 1200 baud AFSK decoder that can be shared
+     * with other 1200 baud auxiliary decoders on the same channel
+     */
+    public LJ1200Decoder( AliasList aliasList, AFSK1200Decoder afskDecoder )
 	{
     	super( SampleType.REAL );
     	
-        mDecimationFilter = new FloatHalfBandFilter( 
-        		Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.0002 );
-        addRealSampleListener( mDecimationFilter );
-
-        mBandPassFilter = new FloatFIRFilter( 
-        		Filters.FIRBP_1200FSK_24000FS.getCoefficients(), 1.02 );
-        mDecimationFilter.setListener( mBandPassFilter );
-
-        mFSKDecoder = new FSK2Decoder( DECIMATED_SAMPLE_RATE, 
-        					SYMBOL_RATE, Output.INVERTED );
-        mBandPassFilter.setListener( mFSKDecoder );
-
-        mFSKDecoder.setListener( mFSKDecoderBroadcaster );
-
-        mTowerMessageFramer = new MessageFramer( 
-        		SyncPattern.LJ1200.getPattern(), MESSAGE_LENGTH );
-        mTransponderMessageFramer = new MessageFramer( 
-        		SyncPattern.LJ1200_TRANSPONDER.getPattern(), MESSAGE_LENGTH );
-        mFSKDecoderBroadcaster.addListener( mTowerMessageFramer );
-        mFSKDecoderBroadcaster.addListener( mTransponderMessageFramer );
+    	mAFSKDecoder = afskDecoder;
         
         mMessageProcessor = new LJ1200MessageProcessor( aliasList );
-        mTowerMessageFramer.addMessageListener( mMessageProcessor );
-        mTransponderMessageFramer.addMessageListener( mMessageProcessor );
         mMessageProcessor.addMessageListener( this );
+
+        /* Tower and transponder messages */
+        mAFSKDecoder.getMessageFramer().addSyncPattern( 
+        		SyncPattern.LJ1200.getPattern(), MESSAGE_LENGTH, 0, 
+        		mMessageProcessor );
+        mAFSKDecoder.getMessageFramer().addSyncPattern( 
+        		SyncPattern.LJ1200_TRANSPONDER.getPattern(), MESSAGE_LENGTH, 0, 
+        		mMessageProcessor );
 	}
     
     public void dispose()
     {
     	super.dispose();
     	
-    	mDecimationFilter.dispose();
-    	mBandPassFilter.dispose();
-    	mFSKDecoder.dispose();
-    	mTowerMessageFramer.dispose();
+    	mAFSKDecoder.getMessageFramer().removeMessageListener( mMessageProcessor );
     	mMessageProcessor.dispose();
     }
 
@@ -123,73 +85,30 @@ public class LJ1200Decoder extends Decoder implements Instrumentable
 
 	/**
 	 * Returns a float listener interface for connecting this decoder to a 
-	 * float stream provider
+	 * float stream provider.  Auxiliary decoders that share an AFSK decoder
+	 * return the same receiver and the shared decoder is only registered once.
 	 */
 	public RealSampleListener getRealReceiver()
 	{
-		return (RealSampleListener)mDecimationFilter;
+		return mAFSKDecoder;
 	}
 	
 	@Override
     public List<Tap> getTaps()
     {
-		if( mAvailableTaps == null )
-		{
-			mAvailableTaps = new ArrayList<Tap>();
-			
-			mAvailableTaps.add( new FloatTap( INSTRUMENT_INPUT, 0, 1.0f ) );
-			mAvailableTaps.add( new FloatTap( 
-					INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD, 0, 0.5f ) );
-			mAvailableTaps.addAll( mFSKDecoder.getTaps() );
-			mAvailableTaps.add( new BinaryTap( 
-					INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER, 0, 0.025f ) );
-		}
-		
-	    return mAvailableTaps;
+	    return mAFSKDecoder.getTaps();
     }
 
 	@Override
     public void addTap( Tap tap )
     {
-		mFSKDecoder.addTap( tap );
-
-		switch( tap.getName() )
-		{
-			case INSTRUMENT_INPUT:
-				FloatTap inputTap = (FloatTap)tap;
-				addRealSampleListener( inputTap );
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-				FloatTap bpTap = (FloatTap)tap;
-				mBandPassFilter.setListener( bpTap );
-				bpTap.setListener( mFSKDecoder );
-				break;
-			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				BinaryTap decoderTap = (BinaryTap)tap;
-				mFSKDecoder.setListener( decoderTap );
-				decoderTap.setListener( mTowerMessageFramer );
-		        break;
-		}
+		mAFSKDecoder.addTap( tap );
     }
 
 	@Override
     public void removeTap( Tap tap )
     {
-		mFSKDecoder.removeTap( tap );
-
-		switch( tap.getName() )
-		{
-			case INSTRUMENT_INPUT:
-				FloatTap inputTap = (FloatTap)tap;
-				removeRealListener( inputTap );
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-				mBandPassFilter.setListener( mFSKDecoder );
-				break;
-			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				mFSKDecoder.setListener( mTowerMessageFramer );
-		        break;
-		}
+		mAFSKDecoder.removeTap( tap );
     }
 
 	@Override
@@ -77,8 +77,9 @@ public class LTRNetDecoder extends Decoder implements Instrumentable
 			 * back to this class, so we can receive the demodulated output
 			 * to process
 			 */
-			mDemodulator = new FilteringNBFMDemodulator();
-			this.addComplexListener( mDemodulator );
+			mDemodulator = new FilteringNBFMDemodulator(
+					config.getAngleEstimator() );
+			this.addComplexBufferListener( mDemodulator );
 
 			/**
 			 * Remove the DC component that is present when we're mistuned
@@ -20,7 +20,6 @@ package decode.mdc1200;
 import instrument.Instrumentable;
 import instrument.tap.Tap;
 import instrument.tap.stream.BinaryTap;
-import instrument.tap.stream.FloatTap;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,72 +28,60 @@ import sample.real.RealSampleListener;
 import source.Source.SampleType;
 import alias.AliasList;
 import audio.IAudioOutput;
+import bits.IBitListener;
 import bits.MessageFramer;
 import bits.SyncPattern;
 import decode.Decoder;
 import decode.DecoderType;
 import dsp.NRZDecoder;
-import dsp.filter.Filters;
-import dsp.filter.FloatFIRFilter;
-import dsp.filter.FloatHalfBandFilter;
-import dsp.fsk.FSK2Decoder;
-import dsp.fsk.FSK2Decoder.Output;
+import dsp.fsk.AFSK1200Decoder;
 
 /**
  * MDC1200 Decoder - 1200 baud 2FSK decoder that can process 48k sample rate
  * complex or floating point samples and output fully framed MDC1200 messages
+ * 
+ * MDC1200 is NRZ-I encoded, so this decoder receives the bits from the 1200
+ * baud AFSK decoder and applies NRZ decoding before framing the messages with
+ * its own message framer.
  */
 public class MDCDecoder extends Decoder implements Instrumentable
 {
-	/* Decimated sample rate ( 48,000 / 2 = 24,000 ) feeding the decoder */
-	private static final int sDECIMATED_SAMPLE_RATE = 24000;
-	
-	/* Baud or Symbol Rate */
-	private static final int sSYMBOL_RATE = 1200;
-
 	/* Message length */
     private static final int sMESSAGE_LENGTH = 304;
     
     /* Instrumentation Taps */
     private ArrayList<Tap> mAvailableTaps;
-	private static final String INSTRUMENT_INPUT = 
-			"Tap Point: Float Input";
-	private static final String INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD = 
-			"Tap Point: Bandpass Filter > < FSK2 Decoder";
 	private static final String INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER = 
 			"Tap Point: FSK2 Decoder > < NRZI Decoder";
 	private static final String INSTRUMENT_NRZI_DECODER_TO_MESSAGE_FRAMER = 
 			"Tap Point: NRZ Decoder > < Message Framer";
 	
-    private FSK2Decoder mFSKDecoder;
-    private FloatHalfBandFilter mDecimationFilter;
-    private FloatFIRFilter mBandPassFilter;
+    private AFSK1200Decoder mAFSKDecoder;
+    private BitInverter mBitInverter = new BitInverter();
     private NRZDecoder mNRZDecoder;
     private MessageFramer mMessageFramer;
     private MDCMessageProcessor mMessageProcessor;
     
     public MDCDecoder( AliasList aliasList )
+	{
+    	this( aliasList, new AFSK1200Decoder() );
+	}
+    
+    /**
+     * Constructs the decoder using a 1200 baud AFSK decoder that can be shared
+     * with other 1200 baud auxiliary decoders on the same channel
+     */
+    public MDCDecoder( AliasList aliasList, AFSK1200Decoder afskDecoder )
 	{
     	super( SampleType.REAL );
+    	
+    	mAFSKDecoder = afskDecoder;
 
-    	/* Decimation filter: 48000 / 2 = 24000 */
-    	mDecimationFilter = new FloatHalfBandFilter( 
-        		Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.0002 );
-        addRealSampleListener( mDecimationFilter );
-
-        /* Bandpass filter - predefined */
-        mBandPassFilter = new FloatFIRFilter( 
-        		Filters.FIRBP_1200FSK_24000FS.getCoefficients(), 1.02 );
-        mDecimationFilter.setListener( mBandPassFilter );
-
-        /* 2FSK Decoder */
-    	mFSKDecoder = new FSK2Decoder( sDECIMATED_SAMPLE_RATE, 
-				   sSYMBOL_RATE, Output.NORMAL );
-        mBandPassFilter.setListener( mFSKDecoder );
-
-        /* NRZ Decoder */
+        /* NRZ Decoder - the AFSK decoder has inverted output, so the bits are 
+         * inverted to normal output before NRZ decoding */
         mNRZDecoder = new NRZDecoder( NRZDecoder.MODE_INVERTED );
-        mFSKDecoder.setListener( mNRZDecoder );
+        mBitInverter.setListener( mNRZDecoder );
+        mAFSKDecoder.addListener( mBitInverter );
 
         /* Message Framer */
         mMessageFramer = new MessageFramer( SyncPattern.MDC1200.getPattern(), 
@@ -111,9 +98,7 @@ public class MDCDecoder extends Decoder implements Instrumentable
     {
     	super.dispose();
     	
-    	mDecimationFilter.dispose();
-    	mBandPassFilter.dispose();
-    	mFSKDecoder.dispose();
+    	mAFSKDecoder.removeListener( mBitInverter );
     	mNRZDecoder.dispose();
     	mMessageFramer.dispose();
     	mMessageProcessor.dispose();
@@ -125,6 +110,16 @@ public class MDCDecoder extends Decoder implements Instrumentable
 	    return DecoderType.MDC1200;
     }
 
+	/**
+	 * Returns a float listener interface for connecting this decoder to a 
+	 * float stream provider.  Auxiliary decoders that share an AFSK decoder
+	 * return the same receiver and the shared decoder is only registered once.
+	 */
+	public RealSampleListener getRealReceiver()
+	{
+		return mAFSKDecoder;
+	}
+
 	/* Instrumentation */
 	@Override
     public List<Tap> getTaps()
@@ -133,11 +128,7 @@ public class MDCDecoder extends Decoder implements Instrumentable
 		{
 			mAvailableTaps = new ArrayList<Tap>();
 			
-			mAvailableTaps.add( 
-				new FloatTap( INSTRUMENT_INPUT, 0, 1.0f ) );
-			mAvailableTaps.add( 
-				new FloatTap( INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD, 0, 0.5f ) );
-			mAvailableTaps.addAll( mFSKDecoder.getTaps() );
+			mAvailableTaps.addAll( mAFSKDecoder.getTaps() );
 			mAvailableTaps.add( 
 				new BinaryTap( INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER, 0, 0.025f ) );
 			mAvailableTaps.add( 
@@ -150,23 +141,14 @@ public class MDCDecoder extends Decoder implements Instrumentable
 	@Override
     public void addTap( Tap tap )
     {
-		mFSKDecoder.addTap( tap );
+		mAFSKDecoder.addTap( tap );
 
 		switch( tap.getName() )
 		{
-			case INSTRUMENT_INPUT:
-				addRealSampleListener( (FloatTap)tap ); 
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-				/* wire the tap between the bandpass filter and the demod */
-				FloatTap floatTap = (FloatTap)tap; 
-		        mBandPassFilter.setListener( floatTap );
-		        floatTap.setListener( mFSKDecoder );
-				break;
 			case INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER:
 				/* wire between FSK2 decoder and NRZ decoder */
 				BinaryTap binTap = (BinaryTap)tap;
-				mFSKDecoder.setListener( binTap );
+				mBitInverter.setListener( binTap );
 				binTap.setListener( mNRZDecoder );
 				break;
 			case INSTRUMENT_NRZI_DECODER_TO_MESSAGE_FRAMER:
@@ -182,18 +164,12 @@ public class MDCDecoder extends Decoder implements Instrumentable
 	@Override
     public void removeTap( Tap tap )
     {
-		mFSKDecoder.removeTap( tap );
+		mAFSKDecoder.removeTap( tap );
 		
 		switch( tap.getName() )
 		{
-			case INSTRUMENT_INPUT:
-				removeRealListener( (FloatTap)tap );
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-		        mBandPassFilter.setListener( mFSKDecoder );
-				break;
 			case INSTRUMENT_FSK2_DECODER_TO_NRZ_DECODER:
-				mFSKDecoder.setListener( mNRZDecoder );
+				mBitInverter.setListener( mNRZDecoder );
 				break;
 			case INSTRUMENT_NRZI_DECODER_TO_MESSAGE_FRAMER:
 				mNRZDecoder.setListener( mMessageFramer );
@@ -214,4 +190,23 @@ public class MDCDecoder extends Decoder implements Instrumentable
 		// Not implemented
 		return null;
 	}
+	
+	/**
+	 * Inverts each bit from the AFSK decoder
+	 */
+	private class BitInverter implements IBitListener
+	{
+		private IBitListener mListener;
+		
+		@Override
+		public void receive( boolean bit )
+		{
+			mListener.receive( !bit );
+		}
+		
+		public void setListener( IBitListener listener )
+		{
+			mListener = listener;
+		}
+	}
 }
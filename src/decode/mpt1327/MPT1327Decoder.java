@@ -25,12 +25,12 @@ import instrument.tap.stream.FloatTap;
 import java.util.ArrayList;
 import java.util.List;
 
-import sample.Broadcaster;
 import sample.real.RealSampleListener;
 import source.Source.SampleType;
 import alias.AliasList;
 import audio.AudioOutputImpl;
 import audio.IAudioOutput;
+import bits.BitBroadcaster;
 import bits.MessageFramer;
 import bits.SyncPattern;
 import decode.Decoder;
@@ -81,7 +81,7 @@ public class MPT1327Decoder extends Decoder implements Instrumentable
 	private FloatFIRFilter mLowPassFilter;
 	private DCRemovalFilter mDCRemovalFilter; 
 	private FSK2Decoder mFSKDecoder;
-	private Broadcaster<Boolean> mSymbolBroadcaster;
+	private BitBroadcaster mSymbolBroadcaster;
     private MessageFramer mControlMessageFramer;
     private MessageFramer mTrafficMessageFramer;
     private MPT1327MessageProcessor mMessageProcessor;
@@ -101,9 +101,9 @@ public class MPT1327Decoder extends Decoder implements Instrumentable
 			/* I/Q low pass filtering narrow band FM demodulator */
 			mNBFMDemodulator = new NBFMDemodulator( 
 				FilterFactory.getLowPass( 48000, 4000, 73, WindowType.HAMMING ), 
-			    1.0002, true );
+			    1.0002, true, config.getAngleEstimator() );
 			
-			this.addComplexListener( mNBFMDemodulator );
+			this.addComplexBufferListener( mNBFMDemodulator );
 			
 			/* DC removal filter */
 			mDCRemovalFilter = new DCRemovalFilter( sDC_REMOVAL_RATIO );
@@ -151,7 +151,7 @@ public class MPT1327Decoder extends Decoder implements Instrumentable
 		}
 		mLowPassFilter.setListener( mFSKDecoder );
 		
-		mSymbolBroadcaster = new Broadcaster<Boolean>();
+		mSymbolBroadcaster = new BitBroadcaster();
         mFSKDecoder.setListener( mSymbolBroadcaster );
 
         /* Message framer for control channel messages */
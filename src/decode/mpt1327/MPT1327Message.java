@@ -20,7 +20,6 @@ package decode.mpt1327;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -238,7 +237,7 @@ public class MPT1327Message extends Message
     //TODO: move this to the CRC class
     private CRC detectAndCorrect( int start, int end )
     {
-    	BitSet original = mMessage.get( start, end );
+    	BinaryMessage original = mMessage.get( start, end );
     	
     	CRC retVal = CRCFleetsync.check( original );
     	
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package decode.p25;
+
+import bits.BinaryMessage;
+
+/**
+ * Decoder for the P25 1/2 and 3/4 rate trellis encoded 196-bit data blocks
+ */
+public interface ITrellisDecoder
+{
+	/**
+	 * Decodes the trellis encoded block located between the start and end 
+	 * indexes and overlays the decoded bits on the original message, starting
+	 * at the start index, with the remaining block bits cleared to zero.
+	 * 
+	 * @return true if the block was decoded, or false if the block contained
+	 * too many errors to decode
+	 */
+	public boolean decode( BinaryMessage message, int start, int end );
+
+	/**
+	 * Number of bit errors corrected in the most recently decoded block, or 
+	 * -1 if the decoder does not track corrected bits
+	 */
+	public int getCorrectedBitCount();
+
+	/**
+	 * Member object cleanup prior to deleting
+	 */
+	public void dispose();
+}
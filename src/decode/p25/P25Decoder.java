@@ -30,6 +30,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import metrics.MetricGroup;
 import sample.real.RealSampleListener;
 import source.Source.SampleType;
 import source.tuner.frequency.FrequencyCorrectionControl;
@@ -45,6 +46,7 @@ import dsp.filter.Window.WindowType;
 import dsp.gain.ComplexFeedForwardGainControl;
 import dsp.gain.DirectGainControl;
 import dsp.nbfm.FMDiscriminator;
+import dsp.nbfm.FMDiscriminator.AngleEstimator;
 import dsp.psk.CQPSKDemodulator;
 import dsp.psk.QPSKStarSlicer;
 
@@ -101,6 +103,24 @@ public class P25Decoder extends Decoder implements Instrumentable
 					   SampleType sampleType, 
 			   		   Modulation modulation, 
 					   AliasList aliasList )
+	{
+		this( resourceManager, sampleType, modulation, aliasList, 
+			  FMDiscriminator.DEFAULT_ANGLE_ESTIMATOR );
+	}
+
+	/**
+	 * @param resourceManager - resource manager
+	 * @param sampleType - source sample type
+	 * @param modulation - C4FM or CQPSK
+	 * @param aliasList - alias list for decoded messages
+	 * @param estimator - FM discriminator angle estimator for C4FM 
+	 * demodulation of complex samples
+	 */
+	public P25Decoder( ResourceManager resourceManager,
+					   SampleType sampleType, 
+			   		   Modulation modulation, 
+					   AliasList aliasList,
+					   AngleEstimator estimator )
 	{
 		super( sampleType );
 		mModulation = modulation;
@@ -133,19 +153,19 @@ public class P25Decoder extends Decoder implements Instrumentable
 				mBasebandFilter = new ComplexFIRFilter( FilterFactory.getLowPass( 
 						48000, 7250, 8000, 60, WindowType.HANNING, true ), 1.0 );
 				
-				this.addComplexListener( mBasebandFilter );
+				this.addComplexBufferListener( mBasebandFilter );
 
 				mAGC = new ComplexFeedForwardGainControl( 32 );
-				mBasebandFilter.setListener( mAGC );
+				mBasebandFilter.setBufferListener( mAGC );
 
 				/* Root raised cosine filter using 34 symbol periods and 10
 				 * samples per symbol with a roll-off (alpha) value of 0.2.
 				 * This should produce a filter with 341 coefficients. */
 				mRootRaisedCosineFilter = new ComplexFIRFilter( FilterFactory
 						.getRootRaisedCosine( 10, 34, 0.2 ), 1.0 );
-				mAGC.setListener( mRootRaisedCosineFilter );
+				mAGC.setBufferListener( mRootRaisedCosineFilter );
 
-				mRootRaisedCosineFilter.setListener( mCQPSKDemodulator );
+				mRootRaisedCosineFilter.setBufferListener( mCQPSKDemodulator );
 				
 				mCQPSKSlicer = new QPSKStarSlicer();
 				mCQPSKDemodulator.setListener( mCQPSKSlicer );
@@ -157,10 +177,10 @@ public class P25Decoder extends Decoder implements Instrumentable
 				mBasebandFilter = new ComplexFIRFilter( FilterFactory.getLowPass( 
 						48000, 6750, 7500, 60, WindowType.HANNING, true ), 1.0 );
 				
-				this.addComplexListener( mBasebandFilter );
+				this.addComplexBufferListener( mBasebandFilter );
 
-				mFMDemodulator = new FMDiscriminator( 1.0f );
-				mBasebandFilter.setListener( mFMDemodulator );
+				mFMDemodulator = new FMDiscriminator( 1.0f, estimator );
+				mBasebandFilter.setBufferListener( mFMDemodulator );
 				
 				/* Route output of the FM demod back to this channel so that we
 				 * can process the output as if it were coming from any other
@@ -200,6 +220,14 @@ public class P25Decoder extends Decoder implements Instrumentable
 		return mAudioOutput;
 	}
 
+	@Override
+	public void setMetricGroup( MetricGroup group )
+	{
+		super.setMetricGroup( group );
+		
+		mMessageFramer.setMetricGroup( group );
+	}
+
 	@Override
     public DecoderType getType()
     {
@@ -264,15 +292,13 @@ public class P25Decoder extends Decoder implements Instrumentable
 			case INSTRUMENT_COMPLEX_INPUT:
 				addComplexListener( (ComplexTap)tap );
 				break;
+			/* Block filter and gain outputs continue to flow to the next stage
+			 * via the buffer listener while the tap observes the samples */
 			case INSTRUMENT_BASEBAND_FILTER_OUTPUT:
-				ComplexTap baseband = (ComplexTap)tap;
-				mBasebandFilter.setListener( baseband );
-				baseband.setListener( mAGC );
+				mBasebandFilter.setListener( (ComplexTap)tap );
 				break;
 			case INSTRUMENT_AGC_OUTPUT:
-				ComplexTap agcSymbol = (ComplexTap)tap;
-				mAGC.setListener( agcSymbol );
-				agcSymbol.setListener( mCQPSKDemodulator );
+				mAGC.setListener( (ComplexTap)tap );
 				break;
 			case INSTRUMENT_QPSK_DEMODULATOR_OUTPUT:
 				QPSKTap qpsk = (QPSKTap)tap;
@@ -333,10 +359,10 @@ public class P25Decoder extends Decoder implements Instrumentable
 				removeComplexListener( (ComplexTap)tap );
 				break;
 			case INSTRUMENT_BASEBAND_FILTER_OUTPUT:
-				mBasebandFilter.setListener( mAGC );
+				mBasebandFilter.setListener( null );
 				break;
 			case INSTRUMENT_AGC_OUTPUT:
-				mAGC.setListener( mCQPSKDemodulator );
+				mAGC.setListener( null );
 				break;
 			case INSTRUMENT_QPSK_DEMODULATOR_OUTPUT:
 				mCQPSKDemodulator.setListener( mCQPSKSlicer );
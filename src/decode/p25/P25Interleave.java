@@ -1,7 +1,5 @@
 package decode.p25;
 
-import java.util.BitSet;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,7 +78,7 @@ public class P25Interleave
 	public static BinaryMessage deinterleave( int[] pattern, BinaryMessage message, 
 			int start, int end )
 	{
-		BitSet original = message.get( start, end );
+		BinaryMessage original = message.get( start, end );
 
 		/* Clear block bits in source message */
 		message.clear( start, end );
@@ -121,7 +119,7 @@ public class P25Interleave
     public static BinaryMessage interleave( int[] pattern, BinaryMessage message, 
     		int start, int end )
     {
-        BitSet original = message.get( start, end );
+        BinaryMessage original = message.get( start, end );
         
        /* Clear block bits in source message */
         message.clear( start, end );
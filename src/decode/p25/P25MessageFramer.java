@@ -15,6 +15,9 @@ import bits.ISyncDetectListener;
 import bits.MultiSyncPatternMatcher;
 import bits.SoftSyncDetector;
 import bits.SyncDetector;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricGroup;
 import decode.p25.message.P25Message;
 import decode.p25.message.hdu.HDUMessage;
 import decode.p25.message.ldu.LDU1Message;
@@ -79,10 +82,18 @@ public class P25MessageFramer implements Listener<Dibit>
 	private Listener<Message> mListener;
 	private AliasList mAliasList;
 
-	private Trellis_1_2_Rate mHalfRate = new Trellis_1_2_Rate();
-	private Trellis_3_4_Rate mThreeQuarterRate = new Trellis_3_4_Rate();
+	private ITrellisDecoder mHalfRate;
+	private ITrellisDecoder mThreeQuarterRate;
 	private BCH_63_16_11 mNIDDecoder = new BCH_63_16_11();
 	
+	private Counter mSyncCounter;
+	private Counter mCRCPassedCounter;
+	private Counter mCRCCorrectedCounter;
+	private Counter mCRCFailedCounter;
+	private Counter mParityFailedCounter;
+	private Counter mTrellisFailedCounter;
+	private Histogram mTrellisCorrectedHistogram;
+	
 	/**
 	 * Constructs a P25 message framer to receive a stream of symbols and
 	 * detect the sync pattern then capture the following stream of symbols up
@@ -93,11 +104,20 @@ public class P25MessageFramer implements Listener<Dibit>
 	{
 		mAliasList = aliasList;
 		
+		setTrellisDecoderType( TrellisDecoderType.VITERBI );
+		
 		mPrimarySyncDetector.setListener( new ISyncDetectListener()
 		{
 			@Override
 			public void syncDetected()
 			{
+				Counter syncCounter = mSyncCounter;
+				
+				if( syncCounter != null )
+				{
+					syncCounter.increment();
+				}
+				
 	        	for( P25MessageAssembler assembler: mAssemblers )
 	        	{
 	        		if( !assembler.isActive() )
@@ -139,6 +159,102 @@ public class P25MessageFramer implements Listener<Dibit>
 				demodulator, PHASE_CORRECTION_180_DEGREES  ) );
 	}
 	
+	/**
+	 * Selects the decoder implementation for 1/2 and 3/4 rate trellis encoded
+	 * TSBK and PDU blocks
+	 */
+	public void setTrellisDecoderType( TrellisDecoderType type )
+	{
+		if( mHalfRate != null )
+		{
+			mHalfRate.dispose();
+		}
+		
+		if( mThreeQuarterRate != null )
+		{
+			mThreeQuarterRate.dispose();
+		}
+		
+		mHalfRate = type.getHalfRateDecoder();
+		mThreeQuarterRate = type.getThreeQuarterRateDecoder();
+	}
+	
+	/**
+	 * Registers sync detection, CRC pass/fail/corrected and trellis decoder
+	 * counters with the metric group
+	 */
+	public void setMetricGroup( MetricGroup group )
+	{
+		mCRCPassedCounter = group.counter( "p25.crc.passed" );
+		mCRCCorrectedCounter = group.counter( "p25.crc.corrected" );
+		mCRCFailedCounter = group.counter( "p25.crc.failed" );
+		mParityFailedCounter = group.counter( "p25.parity.failed" );
+		mTrellisFailedCounter = group.counter( "p25.trellis.failed" );
+		mTrellisCorrectedHistogram = group.histogram( "p25.trellis.corrected" );
+		mSyncCounter = group.counter( "p25.sync" );
+	}
+	
+	/**
+	 * Decodes the trellis encoded block and updates the trellis decoder 
+	 * corrected bit and failure metrics
+	 */
+	private boolean decodeTrellis( ITrellisDecoder decoder, 
+								   BinaryMessage message, int start, int end )
+	{
+		boolean decoded = decoder.decode( message, start, end );
+		
+		if( mTrellisFailedCounter != null )
+		{
+			if( decoded )
+			{
+				int corrected = decoder.getCorrectedBitCount();
+				
+				if( corrected >= 0 )
+				{
+					mTrellisCorrectedHistogram.update( corrected );
+				}
+			}
+			else
+			{
+				mTrellisFailedCounter.increment();
+			}
+		}
+		
+		return decoded;
+	}
+	
+	/**
+	 * Indicates if the message passed its CRC check, either as received or 
+	 * after error correction, and updates the CRC counters.  Messages that 
+	 * fail a parity check are still dispatched, so they are counted 
+	 * separately from CRC failures.
+	 */
+	private boolean isValidCRC( BinaryMessage message )
+	{
+		CRC crc = message.getCRC();
+		
+		if( mCRCPassedCounter != null )
+		{
+			switch( crc )
+			{
+				case CORRECTED:
+					mCRCCorrectedCounter.increment();
+					break;
+				case FAILED_CRC:
+					mCRCFailedCounter.increment();
+					break;
+				case FAILED_PARITY:
+					mParityFailedCounter.increment();
+					break;
+				default:
+					mCRCPassedCounter.increment();
+					break;
+			}
+		}
+		
+		return crc != CRC.FAILED_CRC;
+	}
+	
 	private void dispatch( Message message )
 	{
 		if( mListener != null )
@@ -254,7 +370,7 @@ public class P25MessageFramer implements Listener<Dibit>
 				case NID:
 					mMessage = mNIDDecoder.correctNID( mMessage );
 					
-					if( mMessage.getCRC() != CRC.FAILED_CRC )
+					if( isValidCRC( mMessage ) )
 					{
 						int value = mMessage.getInt( P25Message.DUID );
 						
@@ -307,13 +423,13 @@ public class P25MessageFramer implements Listener<Dibit>
 	
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, PDU0_BEGIN, PDU0_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, PDU0_BEGIN, PDU0_END ) )
 					{
 						mMessage = CRCP25.correctCCITT80( mMessage, 
 								PDU0_BEGIN, PDU0_CRC_BEGIN );
 						
 
-						if( mMessage.getCRC() != CRC.FAILED_CRC )
+						if( isValidCRC( mMessage ) )
 						{
 							boolean confirmed = mMessage.get( 
 									PDUMessage.CONFIRMATION_REQUIRED_INDICATOR );
@@ -349,7 +465,7 @@ public class P25MessageFramer implements Listener<Dibit>
 	
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, PDU1_BEGIN, PDU1_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, PDU1_BEGIN, PDU1_END ) )
 					{
 						if( mMessage.getInt( PDUMessage.BLOCKS_TO_FOLLOW ) == 1 )
 						{
@@ -380,7 +496,7 @@ public class P25MessageFramer implements Listener<Dibit>
 	
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, PDU2_BEGIN, PDU2_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, PDU2_BEGIN, PDU2_END ) )
 					{
 						if( mMessage.getInt( PDUMessage.BLOCKS_TO_FOLLOW ) == 2 )
 						{
@@ -414,7 +530,7 @@ public class P25MessageFramer implements Listener<Dibit>
 	
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, PDU3_BEGIN, PDU3_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, PDU3_BEGIN, PDU3_END ) )
 					{
 						mMessage.setSize( PDU3_DECODED_END );
 						
@@ -432,7 +548,7 @@ public class P25MessageFramer implements Listener<Dibit>
 							mMessage.size() - 196, mMessage.size() );
 
 					/* Decode 3/4 rate convolutional encoding from latest block */
-					if( mThreeQuarterRate.decode( mMessage, 
+					if( decodeTrellis( mThreeQuarterRate, mMessage, 
 							mMessage.size() - 196, mMessage.size() ) )
 					{
 						/* Resize the message and adjust the message pointer
@@ -504,15 +620,15 @@ public class P25MessageFramer implements Listener<Dibit>
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
 					
-					if( mHalfRate.decode( mMessage, TSBK_BEGIN, TSBK_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, TSBK_BEGIN, TSBK_END ) )
 					{
 						mMessage = CRCP25.correctCCITT80( mMessage, 
 								TSBK_BEGIN, TSBK_CRC_START );
 
-						if( mMessage.getCRC() != CRC.FAILED_CRC )
+						if( isValidCRC( mMessage ) )
 						{
-							BinaryMessage tsbkBuffer1 = mMessage.copy();
-							tsbkBuffer1.setSize( TSBK_DECODED_END );
+							BinaryMessage tsbkBuffer1 = 
+									mMessage.getSubMessage( 0, TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage1 = TSBKMessageFactory.getMessage( 
 		                            tsbkBuffer1, DataUnitID.TSBK1, mAliasList ); 
@@ -548,15 +664,15 @@ public class P25MessageFramer implements Listener<Dibit>
 
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, TSBK_BEGIN, TSBK_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, TSBK_BEGIN, TSBK_END ) )
 					{
 						mMessage = CRCP25.correctCCITT80( mMessage, 
 								TSBK_BEGIN, TSBK_CRC_START );
 						
-						if( mMessage.getCRC() != CRC.FAILED_CRC )
+						if( isValidCRC( mMessage ) )
 						{
-							BinaryMessage tsbkBuffer2 = mMessage.copy();
-							tsbkBuffer2.setSize( TSBK_DECODED_END );
+							BinaryMessage tsbkBuffer2 = 
+									mMessage.getSubMessage( 0, TSBK_DECODED_END );
 							
 		                    TSBKMessage tsbkMessage2 = TSBKMessageFactory.getMessage( 
 		                            tsbkBuffer2, DataUnitID.TSBK2, mAliasList ); 
@@ -589,15 +705,15 @@ public class P25MessageFramer implements Listener<Dibit>
 	
 					/* Remove trellis encoding - abort processing if we have an
 					 * unsuccessful decode due to excessive errors */
-					if( mHalfRate.decode( mMessage, TSBK_BEGIN, TSBK_END ) )
+					if( decodeTrellis( mHalfRate, mMessage, TSBK_BEGIN, TSBK_END ) )
 					{
 						mMessage = CRCP25.correctCCITT80( mMessage, 
 								TSBK_BEGIN, TSBK_CRC_START );
 						
-						if( mMessage.getCRC() != CRC.FAILED_CRC )
+						if( isValidCRC( mMessage ) )
 						{
-		                    BinaryMessage tsbkBuffer3 = mMessage.copy();
-							tsbkBuffer3.setSize( TSBK_DECODED_END );
+		                    BinaryMessage tsbkBuffer3 = 
+									mMessage.getSubMessage( 0, TSBK_DECODED_END );
 		                    
 		                    TSBKMessage tsbkMessage3 = TSBKMessageFactory.getMessage( 
 		                            tsbkBuffer3, DataUnitID.TSBK3, mAliasList ); 
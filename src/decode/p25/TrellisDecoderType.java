@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package decode.p25;
+
+/**
+ * P25 trellis decoder implementations for 1/2 and 3/4 rate data blocks
+ */
+public enum TrellisDecoderType
+{
+	/* Constellation node (1/2 rate) and survivor path (3/4 rate) decoders */
+	LEGACY( "Legacy" ),
+	
+	/* Table driven Viterbi decoders */
+	VITERBI( "Viterbi" );
+	
+	private String mLabel;
+	
+	private TrellisDecoderType( String label )
+	{
+		mLabel = label;
+	}
+	
+	public ITrellisDecoder getHalfRateDecoder()
+	{
+		return this == VITERBI ? new Viterbi_1_2_Rate() : new Trellis_1_2_Rate();
+	}
+	
+	public ITrellisDecoder getThreeQuarterRateDecoder()
+	{
+		return this == VITERBI ? new Viterbi_3_4_Rate() : new Trellis_3_4_Rate();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return mLabel;
+	}
+}
@@ -9,7 +9,7 @@ import org.slf4j.LoggerFactory;
 import bits.BinaryMessage;
 import dsp.symbol.Dibit;
 
-public class Trellis_1_2_Rate
+public class Trellis_1_2_Rate implements ITrellisDecoder
 {
 	public final static int MAX_ERROR_THRESHOLD = 7;
 	
@@ -57,6 +57,16 @@ public class Trellis_1_2_Rate
 		}
 	}
 	
+	/**
+	 * Corrected bit counts are not tracked by this decoder
+	 */
+	@Override
+	public int getCorrectedBitCount()
+	{
+		return -1;
+	}
+	
+	@Override
 	public void dispose()
 	{
 		for( ConstellationNode node: mConstellationNodes )
@@ -97,6 +107,7 @@ public class Trellis_1_2_Rate
 		return sb.toString();
 	}
 
+	@Override
 	public boolean decode( BinaryMessage message, int start, int end )
 	{
 		/* load each of the nodes with de-interleaved constellations */
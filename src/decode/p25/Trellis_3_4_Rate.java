@@ -11,7 +11,7 @@ import org.slf4j.LoggerFactory;
 import bits.BinaryMessage;
 import dsp.symbol.Dibit;
 
-public class Trellis_3_4_Rate
+public class Trellis_3_4_Rate implements ITrellisDecoder
 {
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( Trellis_3_4_Rate.class );
@@ -59,6 +59,15 @@ public class Trellis_3_4_Rate
 		createConstellationToTribitMap();
 	}
 
+	/**
+	 * Corrected bit counts are not tracked by this decoder
+	 */
+	@Override
+	public int getCorrectedBitCount()
+	{
+		return -1;
+	}
+
 	/**
 	 * Creates a lookup map for state to input tribit values for a given 
 	 * constellation.  Input tribits are contained in the array using the state
@@ -90,6 +99,7 @@ public class Trellis_3_4_Rate
 	/**
 	 * Member object cleanup prior to deleting
 	 */
+	@Override
 	public void dispose()
 	{
 		reset();
@@ -102,6 +112,7 @@ public class Trellis_3_4_Rate
 	 * 
 	 * @return - original message with decoded message bits..
 	 */
+	@Override
 	public boolean decode( BinaryMessage message, int start, int end )
 	{
 		reset();
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package decode.p25;
+
+import java.util.Arrays;
+
+import bits.BinaryMessage;
+
+/**
+ * Table driven Viterbi decoder for P25 trellis encoded 196-bit data blocks.
+ * 
+ * Each block is transmitted as 49 4-bit constellations.  The encoder state is
+ * the previous input symbol (dibit or tribit), so the next state for any 
+ * state and input is simply the input, and the transmitted constellation is
+ * looked up from a state x input output table.  The encoder starts in state 0
+ * and the final (flushing) input symbol returns the encoder to state 0.
+ * 
+ * Branch metrics are calculated once per block into a primitive array of
+ * 49 x 16 constellation metrics.  Hard decision metrics are the hamming 
+ * distance between the received and the candidate constellation.  Soft
+ * decision metrics can be loaded into the same table without changing the
+ * path metric or traceback processing.
+ * 
+ * The final path metric is the number of bit errors corrected in the block.
+ * Blocks that require more than the maximum number of bit corrections are 
+ * rejected.
+ */
+public abstract class ViterbiTrellisDecoder implements ITrellisDecoder
+{
+	/* 196-bit blocks contain 49 x 4-bit constellations */
+	public static final int CONSTELLATION_COUNT = 49;
+	private static final int CONSTELLATION_BITS = 4;
+	private static final int CONSTELLATION_VALUES = 16;
+	
+	private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+	private int mStateCount;
+	private int mInputBits;
+	private int[] mOutputs;
+	private int mMaximumBitErrors;
+
+	private int[] mBranchMetrics = 
+			new int[ CONSTELLATION_COUNT * CONSTELLATION_VALUES ];
+	private int[] mPathMetrics;
+	private int[] mNextPathMetrics;
+	private byte[] mSurvivors;
+	private int[] mDecoded = new int[ CONSTELLATION_COUNT ];
+	private int mCorrectedBitCount;
+
+	/**
+	 * @param inputBits - number of bits per input symbol (2 or 3)
+	 * @param outputs - transmitted constellation value for each state and 
+	 * input symbol, indexed as ( state * state count ) + input
+	 * @param maximumBitErrors - maximum number of bit corrections for a block
+	 * to be considered decoded
+	 */
+	protected ViterbiTrellisDecoder( int inputBits, int[] outputs, 
+									 int maximumBitErrors )
+	{
+		mInputBits = inputBits;
+		mStateCount = 1 << inputBits;
+		mOutputs = outputs;
+		mMaximumBitErrors = maximumBitErrors;
+		
+		assert( mOutputs.length == mStateCount * mStateCount );
+
+		mPathMetrics = new int[ mStateCount ];
+		mNextPathMetrics = new int[ mStateCount ];
+		mSurvivors = new byte[ CONSTELLATION_COUNT * mStateCount ];
+	}
+	
+	@Override
+	public void dispose()
+	{
+	}
+
+	@Override
+	public int getCorrectedBitCount()
+	{
+		return mCorrectedBitCount;
+	}
+	
+	@Override
+	public boolean decode( BinaryMessage message, int start, int end )
+	{
+		loadHardDecisionMetrics( message, start );
+		
+		if( decode() )
+		{
+			/* Clear the original message bits */
+			message.clear( start, end );
+
+			/* Load each of the decoded input symbols into the original message */
+			for( int x = 0; x < CONSTELLATION_COUNT; x++ )
+			{
+				message.load( start + ( x * mInputBits ), mInputBits, 
+						mDecoded[ x ] );
+			}
+			
+			return true;
+		}
+		
+		return false;
+	}
+
+	/**
+	 * Loads the branch metrics table with the hamming distance between each
+	 * received constellation and each of the 16 possible constellations.
+	 */
+	private void loadHardDecisionMetrics( BinaryMessage message, int start )
+	{
+		int[] metrics = mBranchMetrics;
+		
+		for( int x = 0; x < CONSTELLATION_COUNT; x++ )
+		{
+			int index = start + ( x * CONSTELLATION_BITS );
+			
+			int received = message.getInt( index, index + 3 );
+			
+			int offset = x * CONSTELLATION_VALUES;
+			
+			for( int c = 0; c < CONSTELLATION_VALUES; c++ )
+			{
+				metrics[ offset + c ] = Integer.bitCount( received ^ c );
+			}
+		}
+	}
+	
+	/**
+	 * Branch metrics table of 49 x 16 constellation metrics, indexed as 
+	 * ( constellation index * 16 ) + candidate constellation value.  Lower
+	 * metrics indicate a closer match.
+	 */
+	protected int[] getBranchMetrics()
+	{
+		return mBranchMetrics;
+	}
+
+	/**
+	 * Finds the lowest metric path through the trellis using the current 
+	 * branch metrics and loads the decoded input symbols.
+	 * 
+	 * @return true if the path metric is within the maximum bit error count
+	 */
+	protected boolean decode()
+	{
+		int states = mStateCount;
+		int[] outputs = mOutputs;
+		int[] branchMetrics = mBranchMetrics;
+		byte[] survivors = mSurvivors;
+		
+		int[] metrics = mPathMetrics;
+		int[] next = mNextPathMetrics;
+
+		/* State 0 is the only legal start point */
+		Arrays.fill( metrics, UNREACHABLE );
+		metrics[ 0 ] = 0;
+		
+		for( int x = 0; x < CONSTELLATION_COUNT; x++ )
+		{
+			Arrays.fill( next, UNREACHABLE );
+			
+			int branchOffset = x * CONSTELLATION_VALUES;
+			int survivorOffset = x * states;
+			
+			for( int state = 0; state < states; state++ )
+			{
+				int metric = metrics[ state ];
+				
+				if( metric != UNREACHABLE )
+				{
+					int outputOffset = state * states;
+					
+					/* The input symbol is the next state */
+					for( int input = 0; input < states; input++ )
+					{
+						int candidate = metric + branchMetrics[ branchOffset + 
+						                      outputs[ outputOffset + input ] ];
+						
+						if( candidate < next[ input ] )
+						{
+							next[ input ] = candidate;
+							survivors[ survivorOffset + input ] = (byte)state;
+						}
+					}
+				}
+			}
+			
+			int[] swap = metrics;
+			metrics = next;
+			next = swap;
+		}
+		
+		mPathMetrics = metrics;
+		mNextPathMetrics = next;
+		
+		/* The flushing symbol returns the encoder to state 0 */
+		mCorrectedBitCount = metrics[ 0 ];
+
+		if( mCorrectedBitCount > mMaximumBitErrors )
+		{
+			return false;
+		}
+
+		/* Trace back from state 0, loading the input symbol for each step */
+		int state = 0;
+		
+		for( int x = CONSTELLATION_COUNT - 1; x >= 0; x-- )
+		{
+			mDecoded[ x ] = state;
+			
+			state = survivors[ ( x * states ) + state ];
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package decode.p25;
+
+/**
+ * Viterbi decoder for 1/2 rate trellis encoded 196-bit TSBK and unconfirmed
+ * PDU blocks.  Decodes 49 input dibits (48 data dibits and a flushing dibit)
+ * producing 98 bits.
+ */
+public class Viterbi_1_2_Rate extends ViterbiTrellisDecoder
+{
+	public static final int MAX_BIT_ERRORS = 12;
+	
+	/* Transmitted constellation value for each state (previous input) dibit
+	 * and input dibit */
+	private static final int[] OUTPUTS = 
+		{  2, 12,  1, 15,
+		  14,  0, 13,  3,
+		   9,  7, 10,  4,
+		   5, 11,  6,  8 };
+
+	public Viterbi_1_2_Rate()
+	{
+		super( 2, OUTPUTS, MAX_BIT_ERRORS );
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package decode.p25;
+
+/**
+ * Viterbi decoder for 3/4 rate trellis encoded 196-bit confirmed PDU blocks.
+ * Decodes 49 input tribits (48 data tribits and a flushing tribit) producing 
+ * 147 bits.
+ */
+public class Viterbi_3_4_Rate extends ViterbiTrellisDecoder
+{
+	public static final int MAX_BIT_ERRORS = 6;
+
+	/* Transmitted constellation value for each state (previous input) tribit
+	 * and input tribit */
+	private static final int[] OUTPUTS = 
+		{  2, 13, 14,  1,  7,  8, 11,  4,
+		  14,  1,  7,  8, 11,  4,  2, 13,
+		  10,  5,  6,  9, 15,  0,  3, 12,
+		   6,  9, 15,  0,  3, 12, 10,  5,
+		  15,  0,  3, 12, 10,  5,  6,  9,
+		   3, 12, 10,  5,  6,  9, 15,  0,
+		   7,  8, 11,  4,  2, 13, 14,  1,
+		  11,  4,  2, 13, 14,  1,  7,  8 };
+
+	public Viterbi_3_4_Rate()
+	{
+		super( 3, OUTPUTS, MAX_BIT_ERRORS );
+	}
+}
@@ -22,8 +22,10 @@ import audio.AudioType;
 import audio.IAudioOutput;
 import audio.IAudioTypeListener;
 import audio.SquelchListener;
+import buffer.RingBuffer;
 import controller.ResourceManager;
 import controller.ThreadPoolManager;
+import controller.ThreadPoolManager.SignalledTask;
 import controller.ThreadPoolManager.ThreadType;
 import decode.p25.message.ldu.LDUMessage;
 
@@ -48,8 +50,11 @@ public class P25AudioOutput implements IAudioOutput, IAudioTypeListener,
 	private IMBETargetDataLine mIMBETargetDataLine = new IMBETargetDataLine();
 	private SourceDataLine mOutput;
 	private AudioInputStream mIMBEToPCMConverter;
-	private LinkedTransferQueue<byte[]> mIMBEFrameQueue = 
-			new LinkedTransferQueue<byte[]>();
+	/* Room for 14 LDU messages (about 2.5 seconds) of imbe frames */
+	private static final int IMBE_FRAME_CAPACITY = 128;
+	
+	private RingBuffer<byte[]> mIMBEFrameQueue = 
+			new RingBuffer<byte[]>( IMBE_FRAME_CAPACITY );
 	private LinkedTransferQueue<byte[]> mProcessedAudioQueue = 
 			new LinkedTransferQueue<byte[]>();
 	
@@ -60,6 +65,7 @@ public class P25AudioOutput implements IAudioOutput, IAudioTypeListener,
 	private boolean mEncryptedAudio = false;
 	
 	private ThreadPoolManager mThreadPoolManager;
+	private SignalledTask mConverterTask;
 	
 	public P25AudioOutput( ResourceManager resourceManager )
 	{
@@ -69,11 +75,11 @@ public class P25AudioOutput implements IAudioOutput, IAudioTypeListener,
 		{
 			mThreadPoolManager = resourceManager.getThreadPoolManager();
 
-			/* Schedule the imbe frame processor to run slightly faster than 6
-			 * times a second.  Each LDU message contains 9 frames and the 
-			 * frame rate is 50, so we need to run at least 6 times a second */ 
-			mThreadPoolManager.scheduleFixedRate( ThreadType.SOURCE_SAMPLE_PROCESSING, 
-					new IMBEFrameConverter(), 40, TimeUnit.MILLISECONDS );
+			/* The imbe frame processor runs each time an LDU message delivers
+			 * a set of 9 imbe frames */ 
+			mConverterTask = mThreadPoolManager.scheduleSignalled( 
+					ThreadType.SOURCE_SAMPLE_PROCESSING, this, 
+					new IMBEFrameConverter() );
 		}
 	}
 
@@ -106,6 +112,13 @@ public class P25AudioOutput implements IAudioOutput, IAudioTypeListener,
 									+ "imbe audio frame" );
 						}
 					}
+					
+					SignalledTask converterTask = mConverterTask;
+					
+					if( converterTask != null )
+					{
+						converterTask.signal();
+					}
 				}
 			}
 		}
@@ -258,8 +271,19 @@ public class P25AudioOutput implements IAudioOutput, IAudioTypeListener,
 	{
 		mCanProcessAudio = false;
 		
+		if( mConverterTask != null )
+		{
+			mThreadPoolManager.cancel( mConverterTask );
+			mConverterTask = null;
+		}
+		
+		/* The frame queue has a single consumer, so only clear it when the 
+		 * converter isn't running - a running converter drains the queue */
+		if( mConverting.compareAndSet( false, true ) )
+		{
+			mIMBEFrameQueue.clear();
+		}
 		
-		mIMBEFrameQueue.clear();
 		mProcessedAudioQueue.clear();
 
 		mConverting.set( false );
@@ -76,8 +76,9 @@ public class PassportDecoder extends Decoder implements Instrumentable
 			 * back to this class, so we can receive the demodulated output
 			 * to process
 			 */
-			mNBFMDemodulator = new FilteringNBFMDemodulator();
-			this.addComplexListener( mNBFMDemodulator );
+			mNBFMDemodulator = new FilteringNBFMDemodulator(
+					config.getAngleEstimator() );
+			this.addComplexBufferListener( mNBFMDemodulator );
 
 			/**
 			 * Remove the DC component that is present when we're mistuned
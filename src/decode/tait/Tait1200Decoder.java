@@ -19,106 +19,65 @@ package decode.tait;
 
 import instrument.Instrumentable;
 import instrument.tap.Tap;
-import instrument.tap.stream.BinaryTap;
-import instrument.tap.stream.FloatTap;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import sample.Broadcaster;
 import sample.real.RealSampleListener;
 import source.Source.SampleType;
 import alias.AliasList;
 import audio.IAudioOutput;
-import bits.MessageFramer;
 import bits.SyncPattern;
 import decode.Decoder;
 import decode.DecoderType;
-import dsp.filter.Filters;
-import dsp.filter.FloatFIRFilter;
-import dsp.filter.FloatHalfBandFilter;
-import dsp.fsk.FSK2Decoder;
-import dsp.fsk.FSK2Decoder.Output;
+import dsp.fsk.AFSK1200Decoder;
 
 /**
  * TAIT 1200 - 1200 baud 2FSK decoder
  */
 public class Tait1200Decoder extends Decoder implements Instrumentable
 {
-	/* Decimated sample rate ( 48,000 / 2 = 24,000 ) feeding the decoder */
-	private static final int DECIMATED_SAMPLE_RATE = 24000;
-	
-	/* Baud or Symbol Rate */
-	private static final int SYMBOL_RATE = 1200;
-
 	/* Message length ... */
     private static final int MESSAGE_LENGTH = 440;
     
-    /* Instrumentation Taps */
-    private ArrayList<Tap> mAvailableTaps;
-	private static final String INSTRUMENT_INPUT = 
-			"Tap Point: Float Input";
-	private static final String INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD = 
-			"Tap Point: Bandpass Filter > < FSK2 Decoder";
-	private static final String INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER = 
-			"Tap Point: FSK2 Decoder > < Message Framer";
-	
-    private FSK2Decoder mFSKDecoder;
-    
-    private FloatHalfBandFilter mDecimationFilter;
-    private FloatFIRFilter mBandPassFilter;
-    private MessageFramer mMessageFramerGPS;
-    private MessageFramer mMessageFramerSELCALL;
-    private Broadcaster<Boolean> mFSKBroadcaster = new Broadcaster<Boolean>();
+    private AFSK1200Decoder mAFSKDecoder;
     private Tait1200GPSMessageProcessor mMessageAProcessor;
     private Tait1200ANIMessageProcessor mMessageBProcessor;
     
     public Tait1200Decoder( AliasList aliasList )
+	{
+    	this( aliasList, new AFSK1200Decoder() );
+	}
+    
+    /**
+     * Constructs the decoder using a 1200 baud AFSK decoder that can be shared
+     * with other 1200 baud auxiliary decoders on the same channel
+     */
+    public Tait1200Decoder( AliasList aliasList, AFSK1200Decoder afskDecoder )
 	{
     	super( SampleType.REAL );
     	
-        mDecimationFilter = new FloatHalfBandFilter( 
-        		Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.0002 );
-        addRealSampleListener( mDecimationFilter );
-
-        mBandPassFilter = new FloatFIRFilter( 
-        		Filters.FIRBP_1200FSK_24000FS.getCoefficients(), 1.02 );
-        mDecimationFilter.setListener( mBandPassFilter );
-
-        mFSKDecoder = new FSK2Decoder( DECIMATED_SAMPLE_RATE, 
-        					SYMBOL_RATE, Output.INVERTED );
-        mBandPassFilter.setListener( mFSKDecoder );
-
-
-        mFSKDecoder.setListener( mFSKBroadcaster );
-
-        mMessageFramerGPS = new MessageFramer( 
-        		SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH );
-        mMessageFramerSELCALL = new MessageFramer( 
-        		SyncPattern.TAIT_SELCAL_MESSAGE.getPattern(), MESSAGE_LENGTH );
-        
-        mFSKBroadcaster.addListener( mMessageFramerGPS );
-        mFSKBroadcaster.addListener( mMessageFramerSELCALL );
+    	mAFSKDecoder = afskDecoder;
 
         mMessageAProcessor = new Tait1200GPSMessageProcessor( aliasList );
         mMessageBProcessor = new Tait1200ANIMessageProcessor( aliasList );
         
-        mMessageFramerGPS.addMessageListener( mMessageAProcessor );
-        mMessageFramerSELCALL.addMessageListener( mMessageBProcessor );
-        
         mMessageAProcessor.addMessageListener( this );
         mMessageBProcessor.addMessageListener( this );
+
+        mAFSKDecoder.getMessageFramer().addSyncPattern( 
+        		SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH, 
+        		0, mMessageAProcessor );
+        mAFSKDecoder.getMessageFramer().addSyncPattern( 
+        		SyncPattern.TAIT_SELCAL_MESSAGE.getPattern(), MESSAGE_LENGTH, 
+        		0, mMessageBProcessor );
 	}
     
     public void dispose()
     {
     	super.dispose();
     	
-    	mDecimationFilter.dispose();
-    	mBandPassFilter.dispose();
-    	mFSKDecoder.dispose();
-    	mMessageFramerGPS.dispose();
-    	mMessageFramerSELCALL.dispose();
+    	mAFSKDecoder.getMessageFramer().removeMessageListener( mMessageAProcessor );
+    	mAFSKDecoder.getMessageFramer().removeMessageListener( mMessageBProcessor );
     	mMessageAProcessor.dispose();
     	mMessageBProcessor.dispose();
     }
@@ -131,72 +90,30 @@ public class Tait1200Decoder extends Decoder implements Instrumentable
 
 	/**
 	 * Returns a float listener interface for connecting this decoder to a 
-	 * float stream provider
+	 * float stream provider.  Auxiliary decoders that share an AFSK decoder
+	 * return the same receiver and the shared decoder is only registered once.
 	 */
 	public RealSampleListener getRealReceiver()
 	{
-		return (RealSampleListener)mDecimationFilter;
+		return mAFSKDecoder;
 	}
 	
 	@Override
     public List<Tap> getTaps()
     {
-		if( mAvailableTaps == null )
-		{
-			mAvailableTaps = new ArrayList<Tap>();
-			
-			mAvailableTaps.add( new FloatTap( INSTRUMENT_INPUT, 0, 1.0f ) );
-			mAvailableTaps.add( new FloatTap( 
-					INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD, 0, 0.5f ) );
-			mAvailableTaps.addAll( mFSKDecoder.getTaps() );
-			mAvailableTaps.add( new BinaryTap( 
-					INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER, 0, 0.025f ) );
-		}
-		
-	    return mAvailableTaps;
+	    return mAFSKDecoder.getTaps();
     }
 
 	@Override
     public void addTap( Tap tap )
     {
-		mFSKDecoder.addTap( tap );
-
-		switch( tap.getName() )
-		{
-			case INSTRUMENT_INPUT:
-				FloatTap inputTap = (FloatTap)tap;
-				addRealSampleListener( inputTap );
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-				FloatTap bpTap = (FloatTap)tap;
-				mBandPassFilter.setListener( bpTap );
-				bpTap.setListener( mFSKDecoder );
-				break;
-			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				BinaryTap decoderTap = (BinaryTap)tap;
-				mFSKBroadcaster.addListener( decoderTap );
-		        break;
-		}
+		mAFSKDecoder.addTap( tap );
     }
 
 	@Override
     public void removeTap( Tap tap )
     {
-		mFSKDecoder.removeTap( tap );
-
-		switch( tap.getName() )
-		{
-			case INSTRUMENT_INPUT:
-				FloatTap inputTap = (FloatTap)tap;
-				removeRealListener( inputTap );
-				break;
-			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
-				mBandPassFilter.setListener( mFSKDecoder );
-				break;
-			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
-				mFSKBroadcaster.removeListener( (BinaryTap)tap );
-		        break;
-		}
+		mAFSKDecoder.removeTap( tap );
     }
 
 	@Override
@@ -208,7 +125,7 @@ public class Tait1200Decoder extends Decoder implements Instrumentable
 	@Override
 	public IAudioOutput getAudioOutput()
 	{
-		// Not implemented
+		//Not implemented
 		return null;
 	}
 }
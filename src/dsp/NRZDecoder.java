@@ -18,13 +18,14 @@
 package dsp;
 
 import sample.Listener;
+import bits.IBitListener;
 
-public class NRZDecoder implements Listener<Boolean>
+public class NRZDecoder implements IBitListener, Listener<Boolean>
 {
 	public final static boolean MODE_NORMAL = true;
 	public final static boolean MODE_INVERTED = false;
 	
-	private Listener<Boolean> mListener;
+	private IBitListener mListener;
 	private boolean mMode = MODE_NORMAL;
 	private boolean mPrevious;
 
@@ -54,6 +55,12 @@ public class NRZDecoder implements Listener<Boolean>
 
 	@Override
     public void receive( Boolean bit )
+    {
+		receive( bit.booleanValue() );
+    }
+
+	@Override
+    public void receive( boolean bit )
     {
 		boolean result = mPrevious ^ bit;
 		
@@ -65,12 +72,12 @@ public class NRZDecoder implements Listener<Boolean>
 		mPrevious = result;
     }
 
-	public void setListener( Listener<Boolean> listener )
+	public void setListener( IBitListener listener )
 	{
 		mListener = listener;
 	}
 	
-	public void removeListener( Listener<Boolean> listener )
+	public void removeListener( IBitListener listener )
 	{
 		mListener = null;
 	}
@@ -17,144 +17,234 @@
  ******************************************************************************/
 package dsp.filter;
 
-import java.util.ArrayList;
-
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
+import sample.complex.ComplexBufferPool;
 import sample.complex.ComplexSample;
 
-public class ComplexFIRFilter extends ComplexFilter
+/**
+ * Symmetric coefficient complex FIR filter that processes blocks of 
+ * interleaved I/Q samples.
+ * 
+ * The sample history is stored in float arrays, one each for inphase and
+ * quadrature, with the (taps - 1) history samples stored contiguously ahead of
+ * the current block of samples.  Each filtered sample is calculated from a 
+ * contiguous window in the history array, so no circular buffer modulo or 
+ * index map is required.
+ * 
+ * Convolution is performed one coefficient at a time across the whole block,
+ * accumulating into a float array of filtered samples.  The inner loop is a
+ * simple unit-stride multiply/add over arrays that the JIT compiler can 
+ * vectorize.  Since the coefficients are symmetric, the two samples that share
+ * a coefficient are added before the multiplication, halving the number of 
+ * multiplies.  The gain value is applied to the coefficients at construction.
+ * 
+ * Working arrays are sized for the largest block received, so that steady
+ * state filtering is allocation free.  Filtered buffers are obtained from a 
+ * buffer pool owned by this filter.
+ */
+public class ComplexFIRFilter extends ComplexFilter 
+							  implements ComplexBufferListener
 {
-	private ArrayList<ComplexSample> mBuffer;
-    private int mBufferSize = 1; //Temporary initial value
-	private int mBufferPointer = 0;
-	private double[] mCoefficients;
-	private int[][] mIndexMap;
-	private int mCenterCoefficient;
-	private int mCenterCoefficientMapIndex;
-	private double mGain;
+	private static final int BUFFER_POOL_SIZE = 4;
+	
+	/* Initial working array capacity, expanded as needed for larger blocks */
+	private static final int INITIAL_BLOCK_SIZE = 1024;
+
+	private float[] mCoefficients;
+	private float mCenterCoefficient;
+	private int mCenterIndex;
+	private int mTapCount;
+	private int mHistoryLength;
+	private int mBlockCapacity;
+
+	private float[] mIHistory;
+	private float[] mQHistory;
+	private float[] mIFiltered;
+	private float[] mQFiltered;
+	
+	private float[] mSample = new float[ 2 ];
+	
+	private ComplexBufferPool mBufferPool = 
+					new ComplexBufferPool( BUFFER_POOL_SIZE );
 
+	/**
+	 * @param coefficients - odd-length set of symmetric filter coefficients
+	 * @param gain - gain to apply to each filtered sample
+	 */
 	public ComplexFIRFilter( double[] coefficients, double gain )
 	{
-		mCoefficients = coefficients;
-		mBuffer = new ArrayList<ComplexSample>();
-		mBufferSize = mCoefficients.length;
-		mGain = gain;
+		//Ensure we have an odd size
+		assert( coefficients.length % 2 == 1 );
+
+		mTapCount = coefficients.length;
+		mHistoryLength = mTapCount - 1;
+		mCenterIndex = mTapCount / 2;
+		
+		/* Only the first half of the symmetric coefficients is needed */
+		mCoefficients = new float[ mCenterIndex ];
 		
-		//Fill the buffer with zero valued samples, so we don't have to check for null
-		for( int x = 0; x < mCoefficients.length; x++ )
+		for( int x = 0; x < mCenterIndex; x++ )
 		{
-			mBuffer.add( new ComplexSample( (float)0.0, (float)0.0 ) );
+			mCoefficients[ x ] = (float)( coefficients[ x ] * gain );
 		}
 		
-		generateIndexMap( mCoefficients.length );
+		mCenterCoefficient = (float)( coefficients[ mCenterIndex ] * gain );
+
+		//Zero valued sample history
+		setBlockCapacity( INITIAL_BLOCK_SIZE );
 	}
 	
 	public void dispose()
 	{
-		mBuffer.clear();
-		mBuffer = null;
+		super.dispose();
+		
+		mIHistory = null;
+		mQHistory = null;
+		mIFiltered = null;
+		mQFiltered = null;
 		
 		mCoefficients = null;
-		mIndexMap = null;
+		
+		mBufferPool.clear();
 	}
 
 	public void receive( ComplexSample newSample )
 	{
-		//Add the new sample to the buffer
-		mBuffer.set( mBufferPointer, newSample );
+		mSample[ 0 ] = newSample.left();
+		mSample[ 1 ] = newSample.right();
+		
+		filter( mSample, mSample );
 
-		//Increment & Adjust the buffer pointer for circular wrap around
-		mBufferPointer++;
+		send( new ComplexSample( mSample[ 0 ], mSample[ 1 ] ) );
+	}
 
-		if( mBufferPointer >= mBufferSize )
+	/**
+	 * Filters the buffer of interleaved I/Q samples and sends a new buffer of
+	 * filtered samples to the buffer listener.  The received buffer is not 
+	 * modified, since it may be shared with other listeners.
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		ComplexBuffer filtered = mBufferPool.getBuffer( samples.length );
+		
+		filter( samples, filtered.getSamples() );
+		
+		send( filtered );
+		
+		filtered.release();
+	}
+
+	/**
+	 * Filters the interleaved I/Q samples array and places the filtered 
+	 * samples in the filtered array.  Both arrays can be the same array.
+	 * 
+	 * @param samples - interleaved I/Q samples to filter
+	 * @param filtered - array to receive filtered samples, at least as long as
+	 * the samples array
+	 */
+	public void filter( float[] samples, float[] filtered )
+	{
+		int count = samples.length / 2;
+		
+		if( count > mBlockCapacity )
 		{
-			mBufferPointer = 0;
+			setBlockCapacity( count );
 		}
-
-		//Convolution - multiply filter coefficients by the circular buffer 
-		//samples to calculate a new filtered value
-		double leftAccumulator = 0;
-		double rightAccumulator = 0;
-
-		//Start with the center tap value
-		leftAccumulator += mCoefficients[ mCenterCoefficient ] * 
-				mBuffer.get( mIndexMap[ mBufferPointer ][ mCenterCoefficientMapIndex ] ).left();
-		rightAccumulator += mCoefficients[ mCenterCoefficient ] * 
-				mBuffer.get( mIndexMap[ mBufferPointer ][ mCenterCoefficientMapIndex ] ).right();
-		
-		//For the remaining coefficients, add the symmetric samples, oldest and newest
-		//first, then multiply by the single coefficient
-		for( int x = 0; x < mCenterCoefficient; x++ )
+		
+		float[] iHistory = mIHistory;
+		float[] qHistory = mQHistory;
+		
+		/* Append the new samples to the end of the sample history */
+		int offset = mHistoryLength;
+		
+		for( int x = 0; x < count; x++ )
 		{
-			leftAccumulator += mCoefficients[ x ] *
-				( mBuffer.get( mIndexMap[ mBufferPointer ][ x ] ).left() + 
-				  mBuffer.get( mIndexMap[ mBufferPointer ][ x + mCenterCoefficient ] ).left() );
-			
-			rightAccumulator += mCoefficients[ x ] *
-					( mBuffer.get( mIndexMap[ mBufferPointer ][ x ] ).right() + 
-					  mBuffer.get( mIndexMap[ mBufferPointer ][ x + mCenterCoefficient ] ).right() );
+			iHistory[ offset + x ] = samples[ 2 * x ];
+			qHistory[ offset + x ] = samples[ 2 * x + 1 ];
 		}
-
-		//We're almost finished ... apply gain, cast the doubles to floats and
-		//send it on it's merry way
-		send( new ComplexSample( (float)( leftAccumulator * mGain ),
-								 (float)( rightAccumulator * mGain ) ) );
+		
+		convolve( iHistory, mIFiltered, count );
+		convolve( qHistory, mQFiltered, count );
+		
+		float[] iFiltered = mIFiltered;
+		float[] qFiltered = mQFiltered;
+		
+		for( int x = 0; x < count; x++ )
+		{
+			filtered[ 2 * x ] = iFiltered[ x ];
+			filtered[ 2 * x + 1 ] = qFiltered[ x ];
+		}
+		
+		/* Retain the newest samples as history for the next block */
+		System.arraycopy( iHistory, count, iHistory, 0, mHistoryLength );
+		System.arraycopy( qHistory, count, qHistory, 0, mHistoryLength );
 	}
 
 	/**
-	 * @param odd-sized number of filter taps (ie coefficients) and buffer
+	 * Convolution - multiply filter coefficients by the sample history to 
+	 * calculate a block of filtered values.  Filtered value x is calculated
+	 * from the window of history samples starting at index x.
+	 * 
+	 * Starts with the center coefficient value.  For each non-center 
+	 * coefficient, adds the symmetric samples and then multiplies by the 
+	 * single coefficient.
+	 * 
+	 * @param history - sample history followed by the current block of samples
+	 * @param filtered - receives the filtered samples
+	 * @param count - number of samples in the current block
 	 */
-	private void generateIndexMap( int size )
+	private void convolve( float[] history, float[] filtered, int count )
 	{
-		//Ensure we have an odd size
-		assert( size % 2 == 1 );
+		float center = mCenterCoefficient;
+		int centerIndex = mCenterIndex;
 		
-		mIndexMap = new int[ size ][ size ];
-		
-		//Last column will be the center coefficient index value for each row
-		mCenterCoefficientMapIndex = size - 1;
-		mCenterCoefficient = (int)( size / 2 );
-
-		//Setup the first row.  Offset is the first row's center coefficient value
-		//and will become the index value we place in the last column
-		mIndexMap[ 0 ][ mCenterCoefficientMapIndex ] = mCenterCoefficient;
-
-		//Indexes 0 to 1/2 are their index value, and indexes 1/2 to end are
-		//an offset of the first half of the values
-		for( int x = 0; x < mCenterCoefficient; x++ )
+		for( int x = 0; x < count; x++ )
 		{
-			mIndexMap[ 0 ][ x ] = x;
-			mIndexMap[ 0 ][ x + mCenterCoefficient ] = size - 1 - x;
+			filtered[ x ] = center * history[ centerIndex + x ];
 		}
 		
-		//For each subsequent map row, increment the value of the preceding row
-		//same column by 1, wrapping to zero when we exceed the size value
-		for( int x = 1; x < size; x++ )
+		float[] coefficients = mCoefficients;
+		int last = mHistoryLength;
+		
+		for( int tap = 0; tap < centerIndex; tap++ )
 		{
-			for( int y = 0; y < size; y++ )
+			float coefficient = coefficients[ tap ];
+			int oldest = tap;
+			int newest = last - tap;
+			
+			for( int x = 0; x < count; x++ )
 			{
-				mIndexMap[ x ][ y ] = mIndexMap[ x - 1 ][ y ] + 1;
-				
-				if( mIndexMap[ x ][ y ] >= size )
-				{
-					mIndexMap[ x ][ y ] = 0;
-				}
+				filtered[ x ] += coefficient * 
+						( history[ oldest + x ] + history[ newest + x ] );
 			}
 		}
 	}
-
-	public String printIndexMap()
+	
+	/**
+	 * Resizes the working arrays to process blocks up to the specified number
+	 * of samples, preserving the current sample history.
+	 */
+	private void setBlockCapacity( int capacity )
 	{
-		StringBuilder sb = new StringBuilder();
+		float[] iHistory = new float[ mHistoryLength + capacity ];
+		float[] qHistory = new float[ mHistoryLength + capacity ];
 		
-		for( int x = 0; x < mCoefficients.length; x++ )
+		if( mIHistory != null )
 		{
-			for( int y = 0; y < mCoefficients.length; y++ )
-			{
-				sb.append( mIndexMap[ x ][ y ] + "  " );
-			}
-			sb.append( "\n" );
+			System.arraycopy( mIHistory, 0, iHistory, 0, mHistoryLength );
+			System.arraycopy( mQHistory, 0, qHistory, 0, mHistoryLength );
 		}
-
-		return sb.toString();
+		
+		mIHistory = iHistory;
+		mQHistory = qHistory;
+		
+		mIFiltered = new float[ capacity ];
+		mQFiltered = new float[ capacity ];
+		
+		mBlockCapacity = capacity;
 	}
 }
@@ -18,20 +18,33 @@
 package dsp.filter;
 
 import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.complex.ComplexSample;
 
 public abstract class ComplexFilter implements Listener<ComplexSample>
 {
 	private Listener<ComplexSample> mListener;
+	private ComplexBufferListener mBufferListener;
 	
 	public void setListener( Listener<ComplexSample> listener )
 	{
 		mListener = listener;
 	}
 	
+	/**
+	 * Sets the listener to receive filtered sample buffers from the block
+	 * processing interface of filters that support it
+	 */
+	public void setBufferListener( ComplexBufferListener listener )
+	{
+		mBufferListener = listener;
+	}
+	
 	public void dispose()
 	{
 		mListener = null;
+		mBufferListener = null;
 	}
 	
 	public Listener<ComplexSample> getListener()
@@ -44,6 +57,11 @@ public abstract class ComplexFilter implements Listener<ComplexSample>
 		return mListener != null;
 	}
 	
+	public ComplexBufferListener getBufferListener()
+	{
+		return mBufferListener;
+	}
+	
 	protected void send( ComplexSample sample )
 	{
 		if( mListener != null )
@@ -51,4 +69,28 @@ public abstract class ComplexFilter implements Listener<ComplexSample>
 			mListener.receive( sample );
 		}
 	}
+
+	/**
+	 * Sends the filtered buffer to the buffer listener.  If a (per-sample)
+	 * listener is also registered, for example an instrumentation tap, the
+	 * buffer samples are also sent to that listener as complex samples.
+	 */
+	protected void send( ComplexBuffer buffer )
+	{
+		if( mBufferListener != null )
+		{
+			mBufferListener.receive( buffer );
+		}
+		
+		if( mListener != null )
+		{
+			float[] samples = buffer.getSamples();
+			
+			for( int x = 0; x < samples.length; x += 2 )
+			{
+				mListener.receive( new ComplexSample( samples[ x ], 
+													  samples[ x + 1 ] ) );
+			}
+		}
+	}
 }
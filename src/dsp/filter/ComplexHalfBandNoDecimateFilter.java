@@ -17,15 +17,15 @@
  ******************************************************************************/
 package dsp.filter;
 
-import java.util.ArrayList;
-
-import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.complex.ComplexSample;
 
 public class ComplexHalfBandNoDecimateFilter extends ComplexFilter
+											 implements ComplexBufferListener
 {
-	private Listener<ComplexSample> mListener;
-	private ArrayList<ComplexSample> mBuffer;
+	private float[] mIBuffer;
+	private float[] mQBuffer;
     private int mBufferSize = 1; //Temporary initial value
 	private int mBufferPointer = 0;
 	private double mGain;
@@ -54,14 +54,11 @@ public class ComplexHalfBandNoDecimateFilter extends ComplexFilter
 	public ComplexHalfBandNoDecimateFilter( Filters filter, double gain )
 	{
 		mCoefficients = filter.getCoefficients();
-		mBuffer = new ArrayList<ComplexSample>();
 		mBufferSize = mCoefficients.length;
 		
-		//Fill the buffer with zero valued samples
-		for( int x = 0; x < mCoefficients.length; x++ )
-		{
-			mBuffer.add( new ComplexSample( (float)0.0, (float)0.0 ) );
-		}
+		//Zero valued sample history
+		mIBuffer = new float[ mBufferSize ];
+		mQBuffer = new float[ mBufferSize ];
 		
 		generateIndexMap( mCoefficients.length );
 		mGain = gain;
@@ -69,12 +66,56 @@ public class ComplexHalfBandNoDecimateFilter extends ComplexFilter
 
 	/**
 	 * Calculate the filtered value by applying the coefficients against
-	 * the complex samples in mBuffer
+	 * the complex samples in the sample history
 	 */
 	public void receive( ComplexSample newSample )
 	{
-		//Add the new sample to the buffer
-		mBuffer.set( mBufferPointer, newSample );
+		load( newSample.left(), newSample.right() );
+
+		//We're almost finished ... apply gain, cast the doubles to floats and
+		//send it on it's merry way
+		send( new ComplexSample( (float)( convolve( mIBuffer ) * mGain ),
+								 (float)( convolve( mQBuffer ) * mGain ) ) );
+	}
+
+	/**
+	 * Filters the buffer of interleaved I/Q samples and sends a new buffer of
+	 * filtered samples to the buffer listener.
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		float[] filtered = new float[ samples.length ];
+		
+		filter( samples, filtered );
+		
+		send( new ComplexBuffer( filtered ) );
+	}
+
+	/**
+	 * Filters the interleaved I/Q samples array and places the filtered 
+	 * samples in the filtered array.  Both arrays can be the same array.
+	 */
+	public void filter( float[] samples, float[] filtered )
+	{
+		for( int x = 0; x < samples.length; x += 2 )
+		{
+			load( samples[ x ], samples[ x + 1 ] );
+			
+			filtered[ x ] = (float)( convolve( mIBuffer ) * mGain );
+			filtered[ x + 1 ] = (float)( convolve( mQBuffer ) * mGain );
+		}
+	}
+	
+	/**
+	 * Adds the new sample to the circular sample history
+	 */
+	private void load( float inphase, float quadrature )
+	{
+		mIBuffer[ mBufferPointer ] = inphase;
+		mQBuffer[ mBufferPointer ] = quadrature;
 
 		//Increment & Adjust the buffer pointer for circular wrap around
 		mBufferPointer++;
@@ -83,35 +124,28 @@ public class ComplexHalfBandNoDecimateFilter extends ComplexFilter
 		{
 			mBufferPointer = 0;
 		}
+	}
 
-		//Convolution - multiply filter coefficients by the circular buffer 
-		//samples to calculate a new filtered value
-		double leftAccumulator = 0;
-		double rightAccumulator = 0;
-
-		//Start with the center tap value
-		leftAccumulator += mCoefficients[ mCenterCoefficient ] * 
-				mBuffer.get( mIndexMap[ mBufferPointer ][ mCenterCoefficientMapIndex ] ).left();
-		rightAccumulator += mCoefficients[ mCenterCoefficient ] * 
-				mBuffer.get( mIndexMap[ mBufferPointer ][ mCenterCoefficientMapIndex ] ).right();
+	/**
+	 * Convolution - multiply filter coefficients by the circular buffer 
+	 * samples to calculate a new filtered value.  Starts with the center tap
+	 * and then adds the symmetric samples, oldest and newest first, and 
+	 * multiplies by the single coefficient, skipping the zero coefficients.
+	 */
+	private double convolve( float[] buffer )
+	{
+		int[] indexes = mIndexMap[ mBufferPointer ];
+		
+		double accumulator = mCoefficients[ mCenterCoefficient ] * 
+				buffer[ indexes[ mCenterCoefficientMapIndex ] ];
 		
-		//For the remaining coefficients, add the symmetric samples, oldest and newest
-		//first, then multiply by the single coefficient
 		for( int x = 0; x < mCenterCoefficientMapIndex; x += 2 )
 		{
-			leftAccumulator += mCoefficients[ x ] *
-				( mBuffer.get( mIndexMap[ mBufferPointer ][ x ] ).left() + 
-				  mBuffer.get( mIndexMap[ mBufferPointer ][ x + 1 ] ).left() );
-			
-			rightAccumulator += mCoefficients[ x ] *
-					( mBuffer.get( mIndexMap[ mBufferPointer ][ x ] ).right() + 
-					  mBuffer.get( mIndexMap[ mBufferPointer ][ x + 1 ] ).right() );
+			accumulator += mCoefficients[ x ] *
+				( buffer[ indexes[ x ] ] + buffer[ indexes[ x + 1 ] ] );
 		}
-
-		//We're almost finished ... apply gain, cast the doubles to floats and
-		//send it on it's merry way
-		send( new ComplexSample( (float)( leftAccumulator * mGain ),
-								 (float)( rightAccumulator * mGain ) ) );
+		
+		return accumulator;
 	}
 	
 	/**
@@ -1,13 +1,14 @@
 package dsp.filter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sample.Listener;
-import sample.complex.ComplexSample;
+import sample.complex.ComplexBuffer;
 import sample.complex.ComplexSampleListener;
 import sample.decimator.ComplexDecimator;
 import dsp.filter.Window.WindowType;
@@ -32,11 +33,10 @@ public class ComplexPrimeCICDecimate
 
 	private Output mOutput;
 	
-	private Listener<ComplexSample> mListener;
-	
 	/**
 	 * Non-Recursive Prime-Factor CIC Filter with float sample array inputs and
-	 * decimated, single paired i/q float sample output.
+	 * decimated, float sample array outputs.  Each received sample array 
+	 * produces a single decimated output sample buffer.
 	 * 
 	 * Implements the CIC filter described in Understanding Digital Signal 
 	 * Processing, 3e, Lyons, on page 769.  This filter is comprised of multiple 
@@ -94,7 +94,7 @@ public class ComplexPrimeCICDecimate
 	/**
 	 * Adds a listener to receive the output of this CIC decimation filter
 	 */
-	public void setListener( Listener<ComplexSample> listener )
+	public void setListener( Listener<ComplexBuffer> listener )
 	{
 		mOutput.setListener( listener );
 	}
@@ -102,7 +102,7 @@ public class ComplexPrimeCICDecimate
 	/**
 	 * Removes listener from output of this CIC decimation filter
 	 */
-	public void removeListener( Listener<ComplexSample> listener )
+	public void removeListener( Listener<ComplexBuffer> listener )
 	{
 		mOutput.removeListener( listener );
 	}
@@ -150,7 +150,7 @@ public class ComplexPrimeCICDecimate
 			mFirstDecimatingStage.receive( samples[ x ], samples[ x + 1 ] );
 		}
 
-		samples = null;
+		mOutput.flush();
     }
 	
 	/**
@@ -320,16 +320,22 @@ public class ComplexPrimeCICDecimate
 	
 
 	/**
-	 * Output adapter - applies gain correction, applies cleanup filter, casts 
-	 * double-valued samples into float-valued complex sample and sends the 
-	 * result to the registered listener.
+	 * Output adapter - collects the decimated samples produced from each 
+	 * received sample array, applies cleanup filtering to the collected samples
+	 * and sends the result to the registered listener as a sample buffer.
 	 */
 	public class Output implements ComplexSampleListener
 	{
-		private ComplexFilter mCleanupFilter;
+		private ComplexFIRFilter mCleanupFilter;
 		private ComplexHalfBandNoDecimateFilter mHalfBandFilter = 
 				new ComplexHalfBandNoDecimateFilter( 
 						Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 0.4 );
+		
+		private Listener<ComplexBuffer> mListener;
+		
+		/* Reusable collection array for decimated samples - grows as needed */
+		private float[] mSamples = new float[ 2048 ];
+		private int mSamplePointer = 0;
 
 		public Output( int outputSampleRate, int passFrequency, int attenuation, 
 				WindowType windowType )
@@ -339,40 +345,66 @@ public class ComplexPrimeCICDecimate
 										  passFrequency,
 										  attenuation,
 										  windowType ), 0.4d );
-			
-			mCleanupFilter.setListener( mHalfBandFilter );
 		}
 
 		/**
 		 * Receiver method for the output adapter to receive a filtered,
-		 * decimated sample, apply gain correction, apply cleanup filtering
-		 * and output the sample values as a complex sample.
+		 * decimated sample and store it until the end of the current sample
+		 * array.
 		 */
 		@Override
-        public void receive( float left, float right )
+        public void receive( float inphase, float quadrature )
         {
-			mCleanupFilter.receive( new ComplexSample( left, right ) );
+			if( mSamplePointer >= mSamples.length )
+			{
+				mSamples = Arrays.copyOf( mSamples, mSamples.length * 2 );
+			}
+			
+			mSamples[ mSamplePointer++ ] = inphase;
+			mSamples[ mSamplePointer++ ] = quadrature;
         }
 		
 		/**
-		 * Adds a listener to receive output samples
+		 * Applies cleanup filtering to the decimated samples collected since
+		 * the last flush and dispatches them to the listener as a new buffer
 		 */
-        public void setListener( Listener<ComplexSample> listener )
+		public void flush()
+		{
+			if( mSamplePointer > 0 )
+			{
+				float[] samples = Arrays.copyOf( mSamples, mSamplePointer );
+				
+				mSamplePointer = 0;
+				
+				mCleanupFilter.filter( samples, samples );
+				mHalfBandFilter.filter( samples, samples );
+				
+				if( mListener != null )
+				{
+					mListener.receive( new ComplexBuffer( samples ) );
+				}
+			}
+		}
+		
+		/**
+		 * Adds a listener to receive output sample buffers
+		 */
+        public void setListener( Listener<ComplexBuffer> listener )
         {
-			mHalfBandFilter.setListener( listener );
+			mListener = listener;
         }
 
 		/**
-		 * Removes the listener from receiving output samples
+		 * Removes the listener from receiving output sample buffers
 		 */
-        public void removeListener( Listener<ComplexSample> listener )
+        public void removeListener( Listener<ComplexBuffer> listener )
         {
-			mHalfBandFilter.setListener( null );
+			mListener = null;
         }
 		
-		public Listener<ComplexSample> getListener()
+		public Listener<ComplexBuffer> getListener()
 		{
-			return mHalfBandFilter.getListener();
+			return mListener;
 		}
 	}
 }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package dsp.filter;
+
+import java.util.Arrays;
+
+public class FloatHalfBandDecimationFilter
+{
+	private float[] mBuffer;
+	private int mHistoryLength;
+	private double[] mCoefficients;
+	private double mCenterCoefficient;
+	private int mCenterOffset;
+	private double mGain;
+	private boolean mDispatchFlag = false;
+
+	/**
+	 * Block processing half-band filter with decimation by 2 against real
+	 * valued floats.
+	 *
+	 * Polyphase implementation: only the retained (every other) output
+	 * samples are calculated.  For each retained output, the even phase
+	 * branch applies the non-zero half-band coefficients and the odd phase
+	 * branch reduces to the center coefficient, so the 0-valued half-band
+	 * coefficients are never visited.
+	 *
+	 * Takes advantage of the symmetrical nature of FIR filter coefficients by
+	 * adding oldest and newest sample first, then multiplying once by the
+	 * corresponding coefficient.
+	 *
+	 * Samples are processed from a linear history buffer instead of a circular
+	 * buffer, so the inner loop has no index map lookups or wrap-around
+	 * checks.
+	 *
+	 * Produces the same output as the FloatHalfBandFilter.
+	 *
+	 * @param filter - half-band filter coefficients
+	 * @param gain - gain multiplier.  Use 1.0 for unity/no gain
+	 */
+	public FloatHalfBandDecimationFilter( Filters filter, double gain )
+	{
+		double[] coefficients = filter.getCoefficients();
+
+		if( coefficients.length % 2 != 1 )
+		{
+			throw new IllegalArgumentException( "Half-band filter must have "
+					+ "an odd number of coefficients" );
+		}
+
+		mHistoryLength = coefficients.length - 1;
+		mCenterOffset = mHistoryLength / 2;
+		mCenterCoefficient = coefficients[ mCenterOffset ];
+
+		/* Non-zero symmetric coefficients: indexes 0, 2, 4 ... center - 1 */
+		mCoefficients = new double[ ( mCenterOffset + 1 ) / 2 ];
+
+		for( int x = 0; x < mCoefficients.length; x++ )
+		{
+			mCoefficients[ x ] = coefficients[ x * 2 ];
+		}
+
+		mBuffer = new float[ mHistoryLength ];
+
+		mGain = gain;
+	}
+
+	/**
+	 * Filters and decimates a block of samples.  The input and output arrays
+	 * can be the same array, to filter the samples in place.
+	 *
+	 * @param input - samples to filter
+	 * @param length - number of samples to filter from the input array
+	 * @param output - receives the filtered samples and must be at least
+	 * ( length + 1 ) / 2 in size
+	 *
+	 * @return number of filtered samples placed in the output array
+	 */
+	public int decimate( float[] input, int length, float[] output )
+	{
+		if( mBuffer.length < mHistoryLength + length )
+		{
+			mBuffer = Arrays.copyOf( mBuffer, mHistoryLength + length );
+		}
+
+		float[] buffer = mBuffer;
+		double[] coefficients = mCoefficients;
+		double center = mCenterCoefficient;
+		double gain = mGain;
+		int centerOffset = mCenterOffset;
+		int historyLength = mHistoryLength;
+
+		System.arraycopy( input, 0, buffer, historyLength, length );
+
+		int count = 0;
+
+		/* The first sample after each dispatched sample is skipped */
+		for( int x = ( mDispatchFlag ? 1 : 0 ); x < length; x += 2 )
+		{
+			/* Buffer index of the oldest and newest samples for this output */
+			int oldest = x;
+			int newest = x + historyLength;
+
+			double accumulator = center * buffer[ oldest + centerOffset ];
+
+			for( int y = 0; y < coefficients.length; y++ )
+			{
+				accumulator += coefficients[ y ] *
+						( buffer[ oldest + ( 2 * y ) ] +
+						  buffer[ newest - ( 2 * y ) ] );
+			}
+
+			output[ count++ ] = (float)( accumulator * gain );
+		}
+
+		/* Toggle the flag once for each sample received */
+		if( ( length & 1 ) == 1 )
+		{
+			mDispatchFlag = !mDispatchFlag;
+		}
+
+		/* Retain the newest samples as history for the next block */
+		System.arraycopy( buffer, length, buffer, 0, historyLength );
+
+		return count;
+	}
+
+	/**
+	 * Clears the sample history
+	 */
+	public void reset()
+	{
+		Arrays.fill( mBuffer, 0.0f );
+		mDispatchFlag = false;
+	}
+}
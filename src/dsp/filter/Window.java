@@ -152,6 +152,88 @@ public class Window
     	return coefficients;
     }
 
+    /**
+     * Kaiser window with the beta parameter sized for the stop band
+     * attenuation in dB.
+     *
+     * Discrete-Time Signal Processing 3e, Oppenheim & Schafer, section 7.6.1
+     */
+    public static double[] getKaiserWindow( int length, double attenuation )
+    {
+    	double beta = getKaiserBeta( attenuation );
+
+    	double denominator = besselI0( beta );
+
+    	double[] coefficients = new double[ length ];
+
+    	double half = (double)( length - 1 ) / 2.0D;
+
+    	for( int x = 0; x < length; x++ )
+    	{
+    		double ratio = ( (double)x - half ) / half;
+
+    		coefficients[ x ] = besselI0( beta *
+    				Math.sqrt( 1.0D - ( ratio * ratio ) ) ) / denominator;
+    	}
+
+    	return coefficients;
+    }
+
+    /**
+     * Kaiser window beta parameter for the stop band attenuation in dB
+     */
+    public static double getKaiserBeta( double attenuation )
+    {
+    	if( attenuation > 50.0D )
+    	{
+    		return 0.1102D * ( attenuation - 8.7D );
+    	}
+    	else if( attenuation >= 21.0D )
+    	{
+    		return ( 0.5842D * Math.pow( attenuation - 21.0D, 0.4D ) ) +
+    			   ( 0.07886D * ( attenuation - 21.0D ) );
+    	}
+
+    	return 0.0D;
+    }
+
+    /**
+     * Kaiser window filter length for the stop band attenuation in dB and the
+     * transition band width, normalized to the sample rate (0.0 - 0.5)
+     */
+    public static int getKaiserLength( double attenuation, double transition )
+    {
+    	return (int)Math.ceil( ( attenuation - 7.95D ) /
+    			( 14.36D * transition ) ) + 1;
+    }
+
+    /**
+     * Zeroth order modified bessel function of the first kind, evaluated by
+     * series expansion
+     */
+    private static double besselI0( double x )
+    {
+    	double sum = 1.0D;
+    	double term = 1.0D;
+    	double half = x / 2.0D;
+
+    	for( int k = 1; k < 50; k++ )
+    	{
+    		term *= half / (double)k;
+
+    		double squared = term * term;
+
+    		sum += squared;
+
+    		if( squared < sum * 1.0E-21D )
+    		{
+    			break;
+    		}
+    	}
+
+    	return sum;
+    }
+
     /**
      * Apply the window against an array of float-type samples
      */
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package dsp.filter.channelizer;
+
+import org.jtransforms.fft.FloatFFT_1D;
+
+/**
+ * Oversampled polyphase filter bank channelizer.  Splits a complex sample
+ * stream into M equally spaced sub-band channels using a single prototype 
+ * low pass filter, partitioned into M polyphase branches, and one M-point 
+ * inverse FFT per output sample.  
+ * 
+ * Channel k is centered at k * ( sampleRate / M ) relative to the center of 
+ * the input stream, where channels k > M/2 represent the negative frequencies.  
+ * Each channel is decimated by D and is output at sampleRate / D.  When D is 
+ * less than M, adjacent channels overlap so that any narrow band signal lying
+ * between two channel centers is fully contained in the nearest channel.
+ * 
+ * Processing cost is fixed per input sample, regardless of how many channel
+ * outputs are requested.
+ * 
+ * Reference: Harris, Multirate Signal Processing for Communication Systems,
+ * chapter 6.
+ */
+public class PolyphaseChannelizer
+{
+	private int mChannelCount;
+	private int mDecimation;
+	private int mTapCount;
+
+	/* Prototype filter coefficients in reversed order */
+	private float[] mCoefficients;
+
+	/* Sample history, written twice so that the filter window is contiguous */
+	private float[] mInphase;
+	private float[] mQuadrature;
+	private int mPointer;
+	
+	/* Samples loaded since the last output */
+	private int mCounter;
+
+	/* Output sample index ( n * D ) modulo M, for the phase correction */
+	private int mRotation;
+	private float[] mRotationInphase;
+	private float[] mRotationQuadrature;
+
+	private float[] mBranches;
+	private FloatFFT_1D mFFT;
+
+	/**
+	 * Constructs the channelizer.
+	 * 
+	 * @param channelCount - number of channels (M)
+	 * @param decimation - output decimation rate (D), less than or equal to M
+	 * @param coefficients - prototype low pass filter designed at the input
+	 * sample rate.  The filter is zero padded to a multiple of channel count.
+	 */
+	public PolyphaseChannelizer( int channelCount, 
+								 int decimation, 
+								 double[] coefficients )
+	{
+		if( decimation < 1 || decimation > channelCount )
+		{
+			throw new IllegalArgumentException( "Decimation [" + decimation + 
+				"] must be between 1 and the channel count [" + 
+					channelCount + "]" );
+		}
+		
+		mChannelCount = channelCount;
+		mDecimation = decimation;
+
+		int tapsPerBranch = ( coefficients.length + channelCount - 1 ) / 
+					channelCount;
+		
+		mTapCount = tapsPerBranch * channelCount;
+		
+		mCoefficients = new float[ mTapCount ];
+		
+		for( int x = 0; x < coefficients.length; x++ )
+		{
+			mCoefficients[ mTapCount - 1 - x ] = (float)coefficients[ x ];
+		}
+		
+		mInphase = new float[ mTapCount * 2 ];
+		mQuadrature = new float[ mTapCount * 2 ];
+
+		mRotationInphase = new float[ channelCount ];
+		mRotationQuadrature = new float[ channelCount ];
+		
+		for( int x = 0; x < channelCount; x++ )
+		{
+			double angle = -2.0d * Math.PI * (double)x / (double)channelCount;
+			
+			mRotationInphase[ x ] = (float)Math.cos( angle );
+			mRotationQuadrature[ x ] = (float)Math.sin( angle );
+		}
+		
+		mBranches = new float[ channelCount * 2 ];
+		mFFT = new FloatFFT_1D( channelCount );
+	}
+	
+	/**
+	 * Number of channels (M)
+	 */
+	public int getChannelCount()
+	{
+		return mChannelCount;
+	}
+	
+	/**
+	 * Channel output decimation rate (D)
+	 */
+	public int getDecimation()
+	{
+		return mDecimation;
+	}
+	
+	/**
+	 * Number of output samples that will be produced for each channel from 
+	 * the next block of the specified number of complex input samples
+	 */
+	public int getOutputCount( int sampleCount )
+	{
+		return ( mCounter + sampleCount ) / mDecimation;
+	}
+
+	/**
+	 * Channelizes the block of interleaved complex samples into the 
+	 * interleaved complex output arrays for each of the requested channels.  
+	 * Channels that are not requested are still computed by the FFT, but are 
+	 * not copied out.
+	 * 
+	 * @param samples - interleaved inphase and quadrature input samples
+	 * @param channels - channel indexes to output
+	 * @param outputs - output sample arrays, in the same order as channels, 
+	 * each sized for at least 2 x getOutputCount( samples.length / 2 ) floats
+	 * @return - number of complex samples written to each output array
+	 */
+	public int filter( float[] samples, int[] channels, float[][] outputs )
+	{
+		int outputPointer = 0;
+		
+		for( int x = 0; x < samples.length; x += 2 )
+		{
+			mInphase[ mPointer ] = samples[ x ];
+			mInphase[ mPointer + mTapCount ] = samples[ x ];
+			mQuadrature[ mPointer ] = samples[ x + 1 ];
+			mQuadrature[ mPointer + mTapCount ] = samples[ x + 1 ];
+			
+			mPointer++;
+			
+			if( mPointer >= mTapCount )
+			{
+				mPointer = 0;
+			}
+			
+			mCounter++;
+			
+			if( mCounter >= mDecimation )
+			{
+				mCounter = 0;
+				
+				calculate();
+				
+				for( int y = 0; y < channels.length; y++ )
+				{
+					int channel = channels[ y ];
+					
+					int rotation = ( channel * mRotation ) % mChannelCount;
+					
+					float inphase = mBranches[ 2 * channel ];
+					float quadrature = mBranches[ 2 * channel + 1 ];
+					
+					outputs[ y ][ outputPointer ] = 
+						( inphase * mRotationInphase[ rotation ] ) - 
+						( quadrature * mRotationQuadrature[ rotation ] );
+					
+					outputs[ y ][ outputPointer + 1 ] = 
+						( quadrature * mRotationInphase[ rotation ] ) + 
+						( inphase * mRotationQuadrature[ rotation ] );
+				}
+				
+				outputPointer += 2;
+				
+				mRotation = ( mRotation + mDecimation ) % mChannelCount;
+			}
+		}
+		
+		return outputPointer / 2;
+	}
+
+	/**
+	 * Filters the sample history through each of the polyphase branches and 
+	 * transforms the branch outputs into the channel outputs.
+	 * 
+	 * The history window is ordered oldest to newest, so window index j holds
+	 * input sample x[n - (N - 1 - j)] and feeds branch (N - 1 - j) mod M, 
+	 * which is M - 1 - ( j mod M ) when N is a multiple of M.
+	 */
+	private void calculate()
+	{
+		for( int x = 0; x < mBranches.length; x++ )
+		{
+			mBranches[ x ] = 0.0f;
+		}
+		
+		for( int offset = 0; offset < mTapCount; offset += mChannelCount )
+		{
+			int index = mPointer + offset;
+			
+			for( int branch = 0; branch < mChannelCount; branch++ )
+			{
+				float coefficient = mCoefficients[ offset + branch ];
+				
+				int output = 2 * ( mChannelCount - 1 - branch );
+				
+				mBranches[ output ] += coefficient * mInphase[ index + branch ];
+				mBranches[ output + 1 ] += 
+						coefficient * mQuadrature[ index + branch ];
+			}
+		}
+		
+		mFFT.complexInverse( mBranches, false );
+	}
+}
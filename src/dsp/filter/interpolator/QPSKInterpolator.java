@@ -58,4 +58,37 @@ public class QPSKInterpolator extends Interpolator
 
 		return new ComplexSample( realAccumulator * mGain, imaginaryAccumulator * mGain );
 	}
+
+	/**
+	 * Calculates an interpolated value from the 8 samples beginning at the 
+	 * offset index of the inphase and quadrature sample arrays.
+	 * 
+	 * @see filter( ComplexSample[], int, float )
+	 * 
+	 * @param inphase - inphase sample array of length at least offset + 7
+	 * @param quadrature - quadrature sample array of length at least offset + 7
+	 * @param mu - interpolated sample position between 0 and 1.0 
+	 * 
+	 * @return - interpolated sample value
+	 */
+	public ComplexSample filter( float[] inphase, float[] quadrature, 
+								 int offset, float mu )
+	{
+		/* Ensure we have enough samples in the array */
+		assert( inphase.length >= offset + 7 );
+
+		/* Identify the filter bank that corresponds to mu */
+		int index = (int)( NSTEPS * mu );
+		
+		float realAccumulator = 0.0f;
+		float imaginaryAccumulator = 0.0f;
+		
+		for( int x = 0; x < 8; x++ )
+		{
+			realAccumulator += TAPS[ index ][ 7 - x ] * inphase[ offset + x ];
+			imaginaryAccumulator += TAPS[ index ][ 7 - x ] * quadrature[ offset + x ];
+		}
+
+		return new ComplexSample( realAccumulator * mGain, imaginaryAccumulator * mGain );
+	}
 }
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package dsp.fsk;
+
+import instrument.Instrumentable;
+import instrument.tap.Tap;
+import instrument.tap.stream.BinaryTap;
+import instrument.tap.stream.FloatTap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sample.real.RealSampleListener;
+import bits.BitBroadcaster;
+import bits.IBitListener;
+import bits.MultiSyncMessageFramer;
+import dsp.filter.Filters;
+import dsp.filter.FloatFIRFilter;
+import dsp.filter.FloatHalfBandFilter;
+import dsp.fsk.FSK2Decoder.Output;
+
+/**
+ * 1200 baud AFSK decoder front end that can be shared by all of the 1200 baud
+ * auxiliary decoders (Fleetsync II, MDC1200, LJ1200 and Tait 1200) running on 
+ * a channel, so that the demodulated audio is decimated, filtered and sliced 
+ * once, instead of once per auxiliary decoder.
+ * 
+ * Expects a 48k sample rate demodulated audio input.  Decimates to 24k, 
+ * applies a 1200 baud FSK bandpass filter and decodes the bits with inverted 
+ * output.  Bits are sent to the shared multi-sync message framer and to any
+ * registered bit listeners.
+ * 
+ * Decoders register their sync patterns with the shared message framer, so 
+ * that a single shift register is checked against all sync patterns.
+ */
+public class AFSK1200Decoder implements RealSampleListener, Instrumentable
+{
+	/* Decimated sample rate ( 48,000 / 2 = 24,000 ) feeding the decoder */
+	private static final int DECIMATED_SAMPLE_RATE = 24000;
+	
+	/* Baud or Symbol Rate */
+	private static final int SYMBOL_RATE = 1200;
+
+    /* Instrumentation Taps */
+    private ArrayList<Tap> mAvailableTaps;
+	private static final String INSTRUMENT_INPUT = 
+			"Tap Point: Float Input";
+	private static final String INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD = 
+			"Tap Point: Bandpass Filter > < FSK2 Decoder";
+	private static final String INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER = 
+			"Tap Point: FSK2 Decoder > < Message Framer";
+
+	private RealSampleListener mInputListener;
+    private FloatHalfBandFilter mDecimationFilter;
+    private FloatFIRFilter mBandPassFilter;
+    private FSK2Decoder mFSKDecoder;
+    private BitBroadcaster mBitBroadcaster = new BitBroadcaster();
+    private MultiSyncMessageFramer mMessageFramer = 
+    							new MultiSyncMessageFramer();
+	
+	public AFSK1200Decoder()
+	{
+        mDecimationFilter = new FloatHalfBandFilter( 
+        		Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.0002 );
+        mInputListener = mDecimationFilter;
+
+        mBandPassFilter = new FloatFIRFilter( 
+        		Filters.FIRBP_1200FSK_24000FS.getCoefficients(), 1.02 );
+        mDecimationFilter.setListener( mBandPassFilter );
+
+        mFSKDecoder = new FSK2Decoder( DECIMATED_SAMPLE_RATE, 
+        					SYMBOL_RATE, Output.INVERTED );
+        mBandPassFilter.setListener( mFSKDecoder );
+
+        mFSKDecoder.setListener( mBitBroadcaster );
+        mBitBroadcaster.addListener( mMessageFramer );
+	}
+	
+	public void dispose()
+	{
+		mDecimationFilter.dispose();
+		mBandPassFilter.dispose();
+		mFSKDecoder.dispose();
+		mBitBroadcaster.dispose();
+		mMessageFramer.dispose();
+	}
+
+	/**
+	 * Primary demodulated audio sample input
+	 */
+	@Override
+	public void receive( float sample )
+	{
+		mInputListener.receive( sample );
+	}
+	
+	/**
+	 * Shared message framer.  Register sync patterns with this framer to 
+	 * receive framed messages.
+	 */
+	public MultiSyncMessageFramer getMessageFramer()
+	{
+		return mMessageFramer;
+	}
+
+	/**
+	 * Registers a listener to receive the decoded (inverted output) bits, for
+	 * decoders that require additional bit processing prior to framing.
+	 */
+	public void addListener( IBitListener listener )
+	{
+		mBitBroadcaster.addListener( listener );
+	}
+	
+	public void removeListener( IBitListener listener )
+	{
+		mBitBroadcaster.removeListener( listener );
+	}
+
+	@Override
+    public List<Tap> getTaps()
+    {
+		if( mAvailableTaps == null )
+		{
+			mAvailableTaps = new ArrayList<Tap>();
+			
+			mAvailableTaps.add( new FloatTap( INSTRUMENT_INPUT, 0, 1.0f ) );
+			mAvailableTaps.add( new FloatTap( 
+					INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD, 0, 0.5f ) );
+			mAvailableTaps.addAll( mFSKDecoder.getTaps() );
+			mAvailableTaps.add( new BinaryTap( 
+					INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER, 0, 0.025f ) );
+		}
+		
+	    return mAvailableTaps;
+    }
+
+	@Override
+    public void addTap( Tap tap )
+    {
+		mFSKDecoder.addTap( tap );
+
+		switch( tap.getName() )
+		{
+			case INSTRUMENT_INPUT:
+				FloatTap inputTap = (FloatTap)tap;
+				mInputListener = inputTap;
+				inputTap.setListener( mDecimationFilter );
+				break;
+			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
+				FloatTap bpTap = (FloatTap)tap;
+				mBandPassFilter.setListener( bpTap );
+				bpTap.setListener( mFSKDecoder );
+				break;
+			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
+				BinaryTap decoderTap = (BinaryTap)tap;
+				mFSKDecoder.setListener( decoderTap );
+				decoderTap.setListener( mBitBroadcaster );
+		        break;
+		}
+    }
+
+	@Override
+    public void removeTap( Tap tap )
+    {
+		mFSKDecoder.removeTap( tap );
+
+		switch( tap.getName() )
+		{
+			case INSTRUMENT_INPUT:
+				mInputListener = mDecimationFilter;
+				break;
+			case INSTRUMENT_BANDPASS_FILTER_TO_FSK2_DEMOD:
+				mBandPassFilter.setListener( mFSKDecoder );
+				break;
+			case INSTRUMENT_FSK2_DECODER_TO_MESSAGE_FRAMER:
+				mFSKDecoder.setListener( mBitBroadcaster );
+		        break;
+		}
+    }
+}
@@ -25,8 +25,8 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 
-import sample.Listener;
 import sample.real.RealSampleListener;
+import bits.IBitListener;
 import buffer.BooleanAveragingBuffer;
 import dsp.symbol.SymbolEvent;
 import dsp.symbol.SymbolEvent.Shift;
@@ -61,7 +61,7 @@ public class FSK2Decoder implements Instrumentable, RealSampleListener
 	private ArrayList<Tap> mAvailableTaps;
 	private ArrayList<SymbolEventTap> mTaps = new ArrayList<SymbolEventTap>();
 	
-	private Listener<Boolean> mListener;
+	private IBitListener mListener;
 	private BooleanAveragingBuffer mDelayBuffer;
 	private BooleanAveragingBuffer mLowPassFilter;
 	private Slicer mSlicer;
@@ -117,7 +117,7 @@ public class FSK2Decoder implements Instrumentable, RealSampleListener
 	/**
 	 * Registers a listener to receive the decoded FSK bits
 	 */
-	public void setListener( Listener<Boolean> listener ) 
+	public void setListener( IBitListener listener ) 
 	{
 		mListener = listener;
 	}
@@ -125,7 +125,7 @@ public class FSK2Decoder implements Instrumentable, RealSampleListener
 	/**
 	 * Removes the listener
 	 */
-	public void removeListener( Listener<Boolean> listener ) 
+	public void removeListener( IBitListener listener ) 
 	{
 		mListener = null;
 	}
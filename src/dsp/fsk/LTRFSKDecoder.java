@@ -26,11 +26,11 @@ import instrument.tap.stream.SymbolEventTap;
 import java.util.ArrayList;
 import java.util.List;
 
-import sample.Listener;
 import sample.real.RealSampleListener;
+import bits.IBitListener;
 import dsp.filter.DCRemovalFilter3;
 import dsp.filter.Filters;
-import dsp.filter.FloatHalfBandFilter;
+import dsp.filter.FloatHalfBandDecimationFilter;
 import dsp.filter.FloatHalfBandNoDecimateFilter;
 import dsp.filter.LTRPulseShapingFilter;
 import dsp.filter.SquaringFilter;
@@ -39,11 +39,14 @@ import dsp.symbol.Slicer.Output;
 
 public class LTRFSKDecoder implements RealSampleListener, Instrumentable
 {
-	private FloatHalfBandFilter mHBFilter1;
-	private FloatHalfBandFilter mHBFilter2;
-	private FloatHalfBandFilter mHBFilter3;
-	private FloatHalfBandFilter mHBFilter4;
-	private FloatHalfBandFilter mHBFilter5;
+	/* Input samples are accumulated and decimated as a block */
+	private static final int BLOCK_SIZE = 512;
+	private float[] mBlock = new float[ BLOCK_SIZE ];
+	private int mBlockPointer = 0;
+
+	private FloatHalfBandDecimationFilter[] mDecimationFilters = 
+			new FloatHalfBandDecimationFilter[ 5 ];
+	private FloatTap[] mDecimationTaps = new FloatTap[ 5 ];
 	private FloatHalfBandNoDecimateFilter mHBFilter6;
 	private DCRemovalFilter3 mDCFilter;
 	private SquaringFilter mSquaringFilter;
@@ -68,28 +71,15 @@ public class LTRFSKDecoder implements RealSampleListener, Instrumentable
 	 */
 	public LTRFSKDecoder()
 	{
-		mHBFilter1 = new FloatHalfBandFilter( 
-				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		
-		mHBFilter2 = new FloatHalfBandFilter( 
-				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		mHBFilter1.setListener( mHBFilter2 );
-		
-		mHBFilter3 = new FloatHalfBandFilter( 
-				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		mHBFilter2.setListener( mHBFilter3 );
-		
-		mHBFilter4 = new FloatHalfBandFilter( 
-				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		mHBFilter3.setListener( mHBFilter4 );
-
-		mHBFilter5 = new FloatHalfBandFilter( 
-				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		mHBFilter4.setListener( mHBFilter5 );
+		/* Filters 1 - 5 decimate 48 kHz down to 1500 Hz */
+		for( int x = 0; x < mDecimationFilters.length; x++ )
+		{
+			mDecimationFilters[ x ] = new FloatHalfBandDecimationFilter( 
+					Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
+		}
 		
 		mHBFilter6 = new FloatHalfBandNoDecimateFilter( 
 				Filters.FIR_HALF_BAND_31T_ONE_EIGHTH_FCO, 1.1002 );
-		mHBFilter5.setListener( mHBFilter6 );
 
 		mDCFilter = new DCRemovalFilter3( 0.9946f );
 		mHBFilter6.setListener( mDCFilter );
@@ -107,15 +97,51 @@ public class LTRFSKDecoder implements RealSampleListener, Instrumentable
 	@Override
     public void receive( float sample )
     {
-		mHBFilter1.receive( sample );
+		mBlock[ mBlockPointer++ ] = sample;
+		
+		if( mBlockPointer >= BLOCK_SIZE )
+		{
+			process( mBlock, BLOCK_SIZE );
+			
+			mBlockPointer = 0;
+		}
     }
 
-    public void addListener( Listener<Boolean> listener )
+	/**
+	 * Decimates a block of samples in place through filters 1 - 5 and sends 
+	 * the decimated samples to the remainder of the filter chain
+	 */
+	private void process( float[] samples, int length )
+	{
+		int count = length;
+		
+		for( int x = 0; x < mDecimationFilters.length; x++ )
+		{
+			count = mDecimationFilters[ x ].decimate( samples, count, samples );
+			
+			FloatTap tap = mDecimationTaps[ x ];
+			
+			if( tap != null )
+			{
+				for( int y = 0; y < count; y++ )
+				{
+					tap.receive( samples[ y ] );
+				}
+			}
+		}
+		
+		for( int x = 0; x < count; x++ )
+		{
+			mHBFilter6.receive( samples[ x ] );
+		}
+	}
+
+    public void addListener( IBitListener listener )
     {
 		mSlicer.setListener( listener );
     }
 
-    public void removeListener( Listener<Boolean> listener )
+    public void removeListener( IBitListener listener )
     {
 		mSlicer.removeListener( listener );
     }
@@ -147,24 +173,19 @@ public class LTRFSKDecoder implements RealSampleListener, Instrumentable
 		switch( tap.getName() )
 		{
 			case TAP_F1_F2:
-				mHBFilter1.setListener( (FloatTap)tap );
-				((FloatTap)tap).setListener( mHBFilter2 );
+				mDecimationTaps[ 0 ] = (FloatTap)tap;
 				break;
 			case TAP_F2_F3:
-				mHBFilter2.setListener( (FloatTap)tap );
-				((FloatTap)tap).setListener( mHBFilter3 );
+				mDecimationTaps[ 1 ] = (FloatTap)tap;
 				break;
 			case TAP_F3_F4:
-				mHBFilter3.setListener( (FloatTap)tap );
-				((FloatTap)tap).setListener( mHBFilter4 );
+				mDecimationTaps[ 2 ] = (FloatTap)tap;
 				break;
 			case TAP_F4_F5:
-				mHBFilter4.setListener( (FloatTap)tap );
-				((FloatTap)tap).setListener( mHBFilter5 );
+				mDecimationTaps[ 3 ] = (FloatTap)tap;
 				break;
 			case TAP_F5_F6:
-				mHBFilter5.setListener( (FloatTap)tap );
-				((FloatTap)tap).setListener( mHBFilter6 );
+				mDecimationTaps[ 4 ] = (FloatTap)tap;
 				break;
 			case TAP_F6_DT:
 				mHBFilter6.setListener( (FloatTap)tap );
@@ -194,19 +215,19 @@ public class LTRFSKDecoder implements RealSampleListener, Instrumentable
 		switch( tap.getName() )
 		{
 			case TAP_F1_F2:
-				mHBFilter1.setListener( mHBFilter2 );
+				mDecimationTaps[ 0 ] = null;
 				break;
 			case TAP_F2_F3:
-				mHBFilter2.setListener( mHBFilter3 );
+				mDecimationTaps[ 1 ] = null;
 				break;
 			case TAP_F3_F4:
-				mHBFilter3.setListener( mHBFilter4 );
+				mDecimationTaps[ 2 ] = null;
 				break;
 			case TAP_F4_F5:
-				mHBFilter4.setListener( mHBFilter5 );
+				mDecimationTaps[ 3 ] = null;
 				break;
 			case TAP_F5_F6:
-				mHBFilter5.setListener( mHBFilter6 );
+				mDecimationTaps[ 4 ] = null;
 				break;
 			case TAP_F6_DT:
 				mHBFilter6.setListener( mDCFilter );
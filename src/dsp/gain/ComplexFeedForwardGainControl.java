@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 
 import sample.Listener;
 import sample.Provider;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.complex.ComplexSample;
 import buffer.FloatCircularBuffer;
 
@@ -32,7 +34,9 @@ import buffer.FloatCircularBuffer;
  *     
  ******************************************************************************/
 public class ComplexFeedForwardGainControl 
-		implements Listener<ComplexSample>, Provider<ComplexSample>
+		implements Listener<ComplexSample>, 
+				   Provider<ComplexSample>,
+				   ComplexBufferListener
 {
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( ComplexFeedForwardGainControl.class );
@@ -41,6 +45,7 @@ public class ComplexFeedForwardGainControl
 	public static final float MINIMUM_ENVELOPE = 0.0001f;
 
 	private Listener<ComplexSample> mListener;
+	private ComplexBufferListener mBufferListener;
 
 	private FloatCircularBuffer mEnvelopeHistory;
 	
@@ -67,8 +72,78 @@ public class ComplexFeedForwardGainControl
 	@Override
 	public void receive( ComplexSample sample )
 	{
-		float envelope = sample.envelope();
+		update( sample.envelope() );
+		
+		/* Apply current gain value to the sample and send to the listener */
+		if( mListener != null )
+		{
+			sample.multiply( mGain );
+			
+			mListener.receive( sample );
+		}
+	}
+
+	/**
+	 * Applies gain control to the buffer samples and sends a new buffer of 
+	 * gain adjusted samples to the buffer listener.  The received buffer is
+	 * not modified.
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		float[] adjusted = new float[ samples.length ];
+		
+		for( int x = 0; x < samples.length; x += 2 )
+		{
+			update( envelope( samples[ x ], samples[ x + 1 ] ) );
+			
+			adjusted[ x ] = samples[ x ] * mGain;
+			adjusted[ x + 1 ] = samples[ x + 1 ] * mGain;
+		}
+		
+		if( mBufferListener != null )
+		{
+			mBufferListener.receive( new ComplexBuffer( adjusted ) );
+		}
+		
+		if( mListener != null )
+		{
+			for( int x = 0; x < adjusted.length; x += 2 )
+			{
+				mListener.receive( 
+					new ComplexSample( adjusted[ x ], adjusted[ x + 1 ] ) );
+			}
+		}
+	}
+	
+	/**
+	 * Approximate magnitude of the sample.  
+	 * 
+	 * @see ComplexSample.envelope()
+	 */
+	private static float envelope( float inphase, float quadrature )
+	{
+		float inphaseAbsolute = Math.abs( inphase );
+		float quadratureAbsolute = Math.abs( quadrature );
+		
+		if( inphaseAbsolute > quadratureAbsolute )
+		{
+			return inphaseAbsolute + ( 0.4f * quadratureAbsolute );
+		}
+		else
+		{
+			return quadratureAbsolute + ( 0.4f * inphaseAbsolute );
+		}
+	}
 
+	/**
+	 * Updates the envelope history and adjusts the gain value when the 
+	 * maximum envelope value changes
+	 */
+	private void update( float envelope )
+	{
 		if( envelope > mMaxEnvelope )
 		{
 			mMaxEnvelope = envelope;
@@ -95,14 +170,6 @@ public class ComplexFeedForwardGainControl
 			
 			adjustGain();
 		}
-		
-		/* Apply current gain value to the sample and send to the listener */
-		if( mListener != null )
-		{
-			sample.multiply( mGain );
-			
-			mListener.receive( sample );
-		}
 	}
 	
 	private void adjustGain()
@@ -121,4 +188,12 @@ public class ComplexFeedForwardGainControl
 	{
 		mListener = null;
 	}
+
+	/**
+	 * Sets the listener to receive gain adjusted sample buffers
+	 */
+	public void setBufferListener( ComplexBufferListener listener )
+	{
+		mBufferListener = listener;
+	}
 }
@@ -18,31 +18,70 @@
 package dsp.nbfm;
 
 import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.complex.ComplexSample;
 import sample.real.RealSampleListener;
+import util.ArcTangent;
 
-public class FMDiscriminator implements Listener<ComplexSample>
+public class FMDiscriminator implements Listener<ComplexSample>, 
+										ComplexBufferListener
 {
+	/**
+	 * Angle estimator used to calculate the phase delta between samples.
+	 * 
+	 * MATH_ATAN: double precision Math.atan() of q/i.  Output is limited to 
+	 * +/- PI/2 radians.
+	 * 
+	 * POLYNOMIAL_ATAN2: float polynomial atan2 approximation with an absolute
+	 * error of 1.0e-5 radians or less.  Output covers +/- PI radians.
+	 */
+	public enum AngleEstimator { MATH_ATAN, POLYNOMIAL_ATAN2 };
+
+	public static final AngleEstimator DEFAULT_ANGLE_ESTIMATOR = 
+			AngleEstimator.POLYNOMIAL_ATAN2;
+	
 	private RealSampleListener mListener;
-	private ComplexSample mPreviousSample = new ComplexSample( 0.0f, 0.0f );
+	private float mPreviousInphase = 0.0f;
+	private float mPreviousQuadrature = 0.0f;
 	private double mGain;
+	private AngleEstimator mAngleEstimator;
+	
+	/* Reusable block of demodulated samples */
+	private float[] mDemodulated = new float[ 0 ];
 	
 	/**
 	 * Implements a polar discriminator with ArcTangent angle estimator to 
 	 * demodulate complex sampled frequency modulated signals.
 	 * 
+	 * Uses the default (polynomial atan2) angle estimator.
+	 * 
 	 * @param gain - gain to be applied to the demodulated output - can be
 	 * dynamically applied to continuously adjust audio output
 	 */
 	public FMDiscriminator( double gain )
+	{
+		this( gain, DEFAULT_ANGLE_ESTIMATOR );
+	}
+	
+	/**
+	 * @param gain - gain to be applied to the demodulated output
+	 * @param estimator - angle estimator
+	 */
+	public FMDiscriminator( double gain, AngleEstimator estimator )
 	{
 		mGain = gain;
+		mAngleEstimator = estimator;
+	}
+	
+	public AngleEstimator getAngleEstimator()
+	{
+		return mAngleEstimator;
 	}
 	
 	public void dispose()
 	{
 		mListener = null;
-		mPreviousSample = null;
 	}
 
 	public synchronized void setGain( double gain )
@@ -53,21 +92,118 @@ public class FMDiscriminator implements Listener<ComplexSample>
 	@Override
     public void receive( ComplexSample currentSample )
     {
+		float angle = demodulate( currentSample.inphase(), 
+								  currentSample.quadrature() );
+		
+		if( mListener != null )
+		{
+			mListener.receive( angle );
+		}
+    }
+
+	/**
+	 * Demodulates the interleaved I/Q samples in the buffer with the array
+	 * demodulator, then sends each demodulated sample to the listener.  The 
+	 * downstream real sample chains (audio filters, symbol filters, decoders) 
+	 * take one sample at a time, so only the demodulation runs over the whole
+	 * buffer - the listener is still invoked once per sample.
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		int count = samples.length / 2;
+		
+		if( mDemodulated.length < count )
+		{
+			mDemodulated = new float[ count ];
+		}
+
+		demodulate( samples, mDemodulated );
+		
+		RealSampleListener listener = mListener;
+		
+		if( listener != null )
+		{
+			float[] demodulated = mDemodulated;
+			
+			for( int x = 0; x < count; x++ )
+			{
+				listener.receive( demodulated[ x ] );
+			}
+		}
+	}
+
+	/**
+	 * Demodulates a block of interleaved I/Q samples.
+	 * 
+	 * @param samples - interleaved I/Q samples
+	 * @param demodulated - receives one demodulated sample per I/Q sample and 
+	 * must be at least half the length of the samples array
+	 */
+	public void demodulate( float[] samples, float[] demodulated )
+	{
+		float previousInphase = mPreviousInphase;
+		float previousQuadrature = mPreviousQuadrature;
+		float gain = (float)mGain;
+		
+		if( mAngleEstimator == AngleEstimator.POLYNOMIAL_ATAN2 )
+		{
+			for( int x = 0; x < samples.length; x += 2 )
+			{
+				float inphase = samples[ x ];
+				float quadrature = samples[ x + 1 ];
+				
+				/* Multiply the current sample against the complex conjugate of
+				 * the previous sample */
+				float i = ( inphase * previousInphase ) + 
+						  ( quadrature * previousQuadrature );
+				float q = ( quadrature * previousInphase ) - 
+						  ( inphase * previousQuadrature );
+				
+				demodulated[ x / 2 ] = ArcTangent.atan2( q, i ) * gain;
+				
+				previousInphase = inphase;
+				previousQuadrature = quadrature;
+			}
+			
+			mPreviousInphase = previousInphase;
+			mPreviousQuadrature = previousQuadrature;
+		}
+		else
+		{
+			for( int x = 0; x < samples.length; x += 2 )
+			{
+				demodulated[ x / 2 ] = demodulate( samples[ x ], samples[ x + 1 ] );
+			}
+		}
+	}
+	
+	/**
+	 * Demodulates a single sample
+	 */
+	private float demodulate( float inphase, float quadrature )
+	{
 		/**
 		 * Multiply the current sample against the complex conjugate of the 
 		 * previous sample to derive the phase delta between the two samples
 		 * 
 		 * Negating the previous sample quadrature produces the conjugate
 		 */
-		double i = ( currentSample.inphase() * mPreviousSample.inphase() ) - 
-				( currentSample.quadrature() * -mPreviousSample.quadrature() );
-		double q = ( currentSample.quadrature() * mPreviousSample.inphase() ) + 
-				( currentSample.inphase() * -mPreviousSample.quadrature() );
+		double i = ( inphase * mPreviousInphase ) - 
+				( quadrature * -mPreviousQuadrature );
+		double q = ( quadrature * mPreviousInphase ) + 
+				( inphase * -mPreviousQuadrature );
 
 		double angle;
 
+		if( mAngleEstimator == AngleEstimator.POLYNOMIAL_ATAN2 )
+		{
+			angle = ArcTangent.atan2( (float)q, (float)i );
+		}
 		//Check for divide by zero
-		if( i == 0 )
+		else if( i == 0 )
 		{
 			angle = 0.0;
 		}
@@ -83,16 +219,14 @@ public class FMDiscriminator implements Listener<ComplexSample>
 			angle = Math.atan( (double)q * denominator );
 		}
 
-		if( mListener != null )
-		{
-			mListener.receive( (float)( angle * mGain ) );
-		}
-
 		/**
 		 * Store the current sample to use during the next iteration
 		 */
-		mPreviousSample = currentSample;
-    }
+		mPreviousInphase = inphase;
+		mPreviousQuadrature = quadrature;
+
+		return (float)( angle * mGain );
+	}
 
     public void setListener( RealSampleListener listener )
     {
@@ -20,16 +20,17 @@ package dsp.nbfm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import sample.Listener;
-import sample.complex.ComplexSample;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.real.RealSampleBroadcaster;
 import sample.real.RealSampleListener;
 import dsp.filter.ComplexFIRFilter;
 import dsp.filter.FilterFactory;
 import dsp.filter.FloatFIRFilter;
 import dsp.filter.Window.WindowType;
+import dsp.nbfm.FMDiscriminator.AngleEstimator;
 
-public class FilteringNBFMDemodulator implements Listener<ComplexSample>
+public class FilteringNBFMDemodulator implements ComplexBufferListener
 {
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( FilteringNBFMDemodulator.class );
@@ -41,14 +42,29 @@ public class FilteringNBFMDemodulator implements Listener<ComplexSample>
 
 	public FilteringNBFMDemodulator( double[] iqFilter, double iqGain,
 							double[] audioFilter, double audioGain )
+	{
+		this( iqFilter, iqGain, audioFilter, audioGain, 
+			  FMDiscriminator.DEFAULT_ANGLE_ESTIMATOR );
+	}
+
+	/**
+	 * @param iqFilter - baseband filter coefficients
+	 * @param iqGain - baseband filter gain
+	 * @param audioFilter - audio filter coefficients
+	 * @param audioGain - audio filter gain
+	 * @param estimator - FM discriminator angle estimator
+	 */
+	public FilteringNBFMDemodulator( double[] iqFilter, double iqGain,
+							double[] audioFilter, double audioGain,
+							AngleEstimator estimator )
 	{
 		mIQFilter = new ComplexFIRFilter( iqFilter, iqGain );
 
 		mAudioFilter = new FloatFIRFilter( audioFilter, audioGain ); 
 		
-		mDiscriminator = new FMDiscriminator( 1 );
+		mDiscriminator = new FMDiscriminator( 1, estimator );
 
-		mIQFilter.setListener( mDiscriminator );
+		mIQFilter.setBufferListener( mDiscriminator );
 
 		mDiscriminator.setListener( mAudioFilter );
 
@@ -60,21 +76,31 @@ public class FilteringNBFMDemodulator implements Listener<ComplexSample>
 	 * valued demodulated, audio filtered output samples.
 	 */
 	public FilteringNBFMDemodulator()
+	{
+		this( FMDiscriminator.DEFAULT_ANGLE_ESTIMATOR );
+	}
+
+	/**
+	 * Implements a quadrature narrow-band demodulator that produces float
+	 * valued demodulated, audio filtered output samples, using the angle
+	 * estimator.
+	 */
+	public FilteringNBFMDemodulator( AngleEstimator estimator )
 	{
 		this( FilterFactory.getLowPass( 48000, 5000, 7000, 48, WindowType.HAMMING, true ), 
 				  1.0002,
 			  FilterFactory.getLowPass( 48000, 3000, 6000, 48, WindowType.HAMMING, true ),
-			  2 );
+			  2, estimator );
 	}
 
 	/**
-	 * Receive method for complex samples that are fed into this class to be
-	 * processed
+	 * Receive method for complex sample buffers that are fed into this class 
+	 * to be filtered and demodulated as a block
 	 */
 	@Override
-    public void receive( ComplexSample quadratureSample )
+    public void receive( ComplexBuffer buffer )
     {
-		mIQFilter.receive( quadratureSample );
+		mIQFilter.receive( buffer );
     }
 
 	/**
@@ -17,15 +17,16 @@
  ******************************************************************************/
 package dsp.nbfm;
 
-import sample.Listener;
-import sample.complex.ComplexSample;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.real.RealSampleBroadcaster;
 import sample.real.RealSampleListener;
 import dsp.filter.ComplexFIRFilter;
 import dsp.filter.FilterFactory;
 import dsp.filter.Window.WindowType;
+import dsp.nbfm.FMDiscriminator.AngleEstimator;
 
-public class NBFMDemodulator implements Listener<ComplexSample>
+public class NBFMDemodulator implements ComplexBufferListener
 {
 	private RealSampleBroadcaster mBroadcaster = new RealSampleBroadcaster();
 	private ComplexFIRFilter mIQFilter;
@@ -42,12 +43,24 @@ public class NBFMDemodulator implements Listener<ComplexSample>
 	}
 
 	public NBFMDemodulator( double[] iqFilter, double iqGain, boolean afc )
+	{
+		this( iqFilter, iqGain, afc, FMDiscriminator.DEFAULT_ANGLE_ESTIMATOR );
+	}
+
+	/**
+	 * @param iqFilter - baseband filter coefficients
+	 * @param iqGain - baseband filter gain
+	 * @param afc - automatic frequency control
+	 * @param estimator - FM discriminator angle estimator
+	 */
+	public NBFMDemodulator( double[] iqFilter, double iqGain, boolean afc,
+							AngleEstimator estimator )
 	{
 		mIQFilter = new ComplexFIRFilter( iqFilter, iqGain );
 
-		mDiscriminator = new FMDiscriminator( 1 );
+		mDiscriminator = new FMDiscriminator( 1, estimator );
 
-		mIQFilter.setListener( mDiscriminator );
+		mIQFilter.setBufferListener( mDiscriminator );
 
 		mDiscriminator.setListener( mBroadcaster );
 	}
@@ -62,13 +75,13 @@ public class NBFMDemodulator implements Listener<ComplexSample>
 	}
 	
 	/**
-	 * Receive method for complex samples that are fed into this class to be
-	 * processed
+	 * Receive method for complex sample buffers that are fed into this class 
+	 * to be filtered and demodulated as a block
 	 */
 	@Override
-    public void receive( ComplexSample sample )
+    public void receive( ComplexBuffer buffer )
     {
-		mIQFilter.receive( sample );
+		mIQFilter.receive( buffer );
     }
 
 	/**
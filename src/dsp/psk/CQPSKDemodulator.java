@@ -36,7 +36,6 @@ import instrument.tap.stream.EyeDiagramDataTap;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -44,6 +43,8 @@ import org.slf4j.LoggerFactory;
 
 import sample.Listener;
 import sample.Provider;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
 import sample.complex.ComplexSample;
 import source.tuner.frequency.FrequencyChangeListener;
 import buffer.FloatAveragingBuffer;
@@ -59,7 +60,8 @@ import dsp.filter.interpolator.QPSKInterpolator;
  */
 public class CQPSKDemodulator implements Instrumentable,
 										 Listener<ComplexSample>, 
-										 Provider<ComplexSample>
+										 Provider<ComplexSample>,
+										 ComplexBufferListener
 {
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( CQPSKDemodulator.class );
@@ -92,6 +94,20 @@ public class CQPSKDemodulator implements Instrumentable,
 	{
 		mGardnerDetector.receive( sample );
 	}
+
+	/**
+	 * Demodulates each of the interleaved I/Q samples in the buffer
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		for( int x = 0; x < samples.length; x += 2 )
+		{
+			mGardnerDetector.receive( samples[ x ], samples[ x + 1 ] );
+		}
+	}
 	
 	/**
 	 * Applies a phase correction value to the costas loop to correct when a
@@ -215,8 +231,10 @@ public class CQPSKDemodulator implements Instrumentable,
 		public static final int SAMPLES_PER_SYMBOL = 10;
 		public static final int TWICE_SAMPLES_PER_SYMBOL = 20;
 		
-		private ComplexSample[] mDelayLine = 
-				new ComplexSample[ 2 * TWICE_SAMPLES_PER_SYMBOL ];
+		private float[] mDelayLineInphase = 
+				new float[ 2 * TWICE_SAMPLES_PER_SYMBOL ];
+		private float[] mDelayLineQuadrature = 
+				new float[ 2 * TWICE_SAMPLES_PER_SYMBOL ];
 		private int mDelayLinePointer = 0;
 
 		/* Sampling point */
@@ -240,14 +258,15 @@ public class CQPSKDemodulator implements Instrumentable,
 		 */
 		public GardnerSymbolTiming()
 		{
-			for( int x = 0; x < ( 2 * TWICE_SAMPLES_PER_SYMBOL ); x++ )
-			{
-				mDelayLine[ x ] = new ComplexSample( 0.0f, 0.0f );
-			}
 		}
 
 		@Override
 		public void receive( ComplexSample sample )
+		{
+			receive( sample.inphase(), sample.quadrature() );
+		}
+		
+		public void receive( float inphase, float quadrature )
 		{
 			/* Count down samples per symbol until we calculate the symbol */
 			mMu--;
@@ -256,12 +275,22 @@ public class CQPSKDemodulator implements Instrumentable,
 			
 			/* Mix incoming sample with costas loop to remove any rotation 
 			 * that is present from a mis-tuned carrier frequency */
-			ComplexSample derotatedSample = ComplexSample
-					.multiply( mCostasLoop.getCurrentVector(), sample );
+			float angle = mCostasLoop.getCurrentAngle();
+			float vectorInphase = (float)Math.cos( angle );
+			float vectorQuadrature = (float)Math.sin( angle );
+			
+			float derotatedInphase = ( vectorInphase * inphase ) - 
+									 ( vectorQuadrature * quadrature );
+			float derotatedQuadrature = ( vectorQuadrature * inphase ) + 
+										( vectorInphase * quadrature );
 
 			/* Fill up the delay line to use with the interpolator */
-			mDelayLine[ mDelayLinePointer ] = derotatedSample;
-			mDelayLine[ mDelayLinePointer + TWICE_SAMPLES_PER_SYMBOL ] = derotatedSample;
+			mDelayLineInphase[ mDelayLinePointer ] = derotatedInphase;
+			mDelayLineInphase[ mDelayLinePointer + TWICE_SAMPLES_PER_SYMBOL ] = 
+					derotatedInphase;
+			mDelayLineQuadrature[ mDelayLinePointer ] = derotatedQuadrature;
+			mDelayLineQuadrature[ mDelayLinePointer + TWICE_SAMPLES_PER_SYMBOL ] = 
+					derotatedQuadrature;
 
 			/* Imcrement pointer and keep pointer in bounds */
 			mDelayLinePointer = ( mDelayLinePointer + 1 ) % TWICE_SAMPLES_PER_SYMBOL;
@@ -280,11 +309,13 @@ public class CQPSKDemodulator implements Instrumentable,
 				}
 
 				/* Calculate interpolated middle sample and current sample */
-				ComplexSample middleSample = mInterpolator
-						.filter( mDelayLine, mDelayLinePointer, mMu );
+				ComplexSample middleSample = mInterpolator.filter( 
+						mDelayLineInphase, mDelayLineQuadrature, 
+						mDelayLinePointer, mMu );
 				
-				ComplexSample currentSample = mInterpolator
-						.filter( mDelayLine, mDelayLinePointer + half_sps, half_mu );
+				ComplexSample currentSample = mInterpolator.filter( 
+						mDelayLineInphase, mDelayLineQuadrature, 
+						mDelayLinePointer + half_sps, half_mu );
 				
 				/* Multiply current and previous samples to get symbols to use
 				 * for gardner error feedback */
@@ -300,9 +331,17 @@ public class CQPSKDemodulator implements Instrumentable,
 
 				if( mEyeDiagramDataTap != null )
 				{
-					mEyeDiagramDataTap.receive( 
-						new EyeDiagramData( Arrays.copyOfRange( mDelayLine, 
-							mDelayLinePointer, mDelayLinePointer + 20 ),
+					ComplexSample[] eyeSamples = 
+							new ComplexSample[ TWICE_SAMPLES_PER_SYMBOL ];
+					
+					for( int x = 0; x < TWICE_SAMPLES_PER_SYMBOL; x++ )
+					{
+						eyeSamples[ x ] = new ComplexSample( 
+							mDelayLineInphase[ mDelayLinePointer + x ],
+							mDelayLineQuadrature[ mDelayLinePointer + x ] );
+					}
+					
+					mEyeDiagramDataTap.receive( new EyeDiagramData( eyeSamples,
 							mMu, (float)half_sps + half_mu ) );
 				}
 				
@@ -442,7 +481,15 @@ public class CQPSKDemodulator implements Instrumentable,
 		 */
 		public ComplexSample getCurrentVector()
 		{
-			return ComplexSample.fromAngle( mLoopPhase + THETA );
+			return ComplexSample.fromAngle( getCurrentAngle() );
+		}
+		
+		/**
+		 * Current angle of the loop rotated by THETA degrees, in radians
+		 */
+		public float getCurrentAngle()
+		{
+			return mLoopPhase + THETA;
 		}
 		
 		@Override
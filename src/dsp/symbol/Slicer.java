@@ -5,6 +5,7 @@ import instrument.tap.stream.SymbolEventTap;
 import java.util.BitSet;
 
 import sample.Listener;
+import bits.IBitListener;
 import dsp.symbol.SymbolEvent.Shift;
 
 /**
@@ -21,7 +22,7 @@ public class Slicer implements Listener<Boolean>
 	private SymbolEventTap mSymbolEventTap;
 	
 	private boolean mNormalOutput = true;
-	private Listener<Boolean> mListener;
+	private IBitListener mListener;
 	
 	public Slicer( Output output, int samplesPerSymbol )
 	{
@@ -112,12 +113,12 @@ public class Slicer implements Listener<Boolean>
 		mSampleCounter = 0;
 	}
 	
-	public void setListener( Listener<Boolean> listener)
+	public void setListener( IBitListener listener )
 	{
 		mListener = listener;
 	}
 	
-	public void removeListener( Listener<Boolean> listener )
+	public void removeListener( IBitListener listener )
 	{
 		mListener = null;
 	}
@@ -29,6 +29,20 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 {
 	private final static Logger mLog = LoggerFactory.getLogger( BCH_63_16_11.class );
 
+	/**
+	 * Binary BCH(63,16,23) generator polynomial g(x), degree 47 (octal
+	 * 6331141367235453), where bit n represents the coefficient of x^n.  
+	 * Generated as the product of the minimal polynomials of alpha^1 through
+	 * alpha^22 in the GF(2^6) field used by the Berlekamp-Massey decoder.
+	 */
+	public static final long GENERATOR = 0xCD930BDD3B2Bl;
+	
+	/**
+	 * Maximum bit error weight resolved by the syndrome lookup table.  Error
+	 * patterns with more errors are decoded by the Berlekamp-Massey decoder.
+	 */
+	public static final int MAX_TABLE_ERRORS = 3;
+
 	/**
 	 * BCH( 63,16,11) decoder
 	 */
@@ -43,12 +57,48 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 	 * message argument.  If the message is correctable, only the first 16 bits
 	 * (information bits) are corrected.
 	 * 
+	 * Error patterns with MAX_TABLE_ERRORS or fewer bit errors are corrected
+	 * from the syndrome lookup table.  All others are decoded with the 
+	 * Berlekamp-Massey decoder.
+	 * 
 	 * @return - true = success, false = failure
 	 */
 	public BinaryMessage correctNID( BinaryMessage message )
 	{
 		CRC status = CRC.PASSED;
 		
+		/* Codeword bit n is the coefficient of x^n, message bit 0 = x^62 */
+		long codeword = message.getLong( 0, 62 );
+		
+		long syndrome = getSyndrome( codeword );
+		
+		if( syndrome == 0 )
+		{
+			message.setCRC( status );
+			
+			return message;
+		}
+		
+		long errorPattern = SyndromeTable.getErrorPattern( syndrome );
+		
+		if( errorPattern != 0 )
+		{
+			/* Only correct the 16 information bits (x^62 - x^47) */
+			for( int x = 0; x < 16; x++ )
+			{
+				if( ( errorPattern & ( 1l << ( 62 - x ) ) ) != 0 )
+				{
+					status = CRC.CORRECTED;
+					
+					message.flip( x );
+				}
+			}
+			
+			message.setCRC( status );
+			
+			return message;
+		}
+		
 		int[] original = message.toReverseIntegerArray( 0, 62 );
 		int[] corrected = new int[ 63 ];
 
@@ -87,6 +137,103 @@ public class BCH_63_16_11 extends BerlekempMassey_63
 		return message;
 	}
 	
+	/**
+	 * Calculates the syndrome (remainder of the codeword divided by the 
+	 * generator polynomial) of a 63-bit codeword.  A valid codeword has a
+	 * syndrome of zero.
+	 */
+	public static long getSyndrome( long codeword )
+	{
+		for( int x = 62; x >= 47; x-- )
+		{
+			if( ( codeword & ( 1l << x ) ) != 0 )
+			{
+				codeword ^= ( GENERATOR << ( x - 47 ) );
+			}
+		}
+		
+		return codeword;
+	}
+
+	/**
+	 * Syndrome to error pattern lookup table for all error patterns with 
+	 * MAX_TABLE_ERRORS or fewer bit errors.  Built once, on first use, and 
+	 * shared by all decoder instances.  Open addressing hash table with 
+	 * linear probing - zero keys indicate empty slots since only the error 
+	 * free codeword has a zero syndrome.
+	 */
+	private static class SyndromeTable
+	{
+		private static final int SIZE = 65536;
+		private static final int MASK = SIZE - 1;
+		
+		private static final long[] SYNDROMES = new long[ SIZE ];
+		private static final long[] ERROR_PATTERNS = new long[ SIZE ];
+		
+		static
+		{
+			for( int a = 0; a < 63; a++ )
+			{
+				add( 1l << a );
+				
+				for( int b = a + 1; b < 63; b++ )
+				{
+					add( ( 1l << a ) | ( 1l << b ) );
+
+					for( int c = b + 1; c < 63; c++ )
+					{
+						add( ( 1l << a ) | ( 1l << b ) | ( 1l << c ) );
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Fibonacci hash of the syndrome.  Syndromes are a linear function of 
+		 * the error pattern, so simple shift/xor folding clusters badly.
+		 */
+		private static int slot( long syndrome )
+		{
+			return (int)( ( syndrome * 0x9E3779B97F4A7C15l ) >>> 48 );
+		}
+		
+		private static void add( long errorPattern )
+		{
+			long syndrome = getSyndrome( errorPattern );
+			
+			int slot = slot( syndrome );
+			
+			while( SYNDROMES[ slot ] != 0 )
+			{
+				slot = ( slot + 1 ) & MASK;
+			}
+			
+			SYNDROMES[ slot ] = syndrome;
+			ERROR_PATTERNS[ slot ] = errorPattern;
+		}
+
+		/**
+		 * Returns the error pattern for the syndrome, or 0 if the syndrome 
+		 * does not match an error pattern contained in the table
+		 */
+		public static long getErrorPattern( long syndrome )
+		{
+			int slot = slot( syndrome );
+			
+			while( SYNDROMES[ slot ] != 0 )
+			{
+				if( SYNDROMES[ slot ] == syndrome )
+				{
+					return ERROR_PATTERNS[ slot ];
+				}
+				
+				slot = ( slot + 1 ) & MASK;
+			}
+			
+			return 0;
+		}
+	}
+	
 	public static void main( String[] args )
 	{
 		String orig  = "0010011000000011010010100000000110000111110011101010001010110000";
@@ -17,8 +17,6 @@
  ******************************************************************************/
 package edac;
 
-import java.util.BitSet;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -147,7 +145,7 @@ public class CRCLJ
 	/**
 	 * Returns the integer value of the 16 bit crc checksum
 	 */
-    public static int getChecksum( BitSet msg )
+    public static int getChecksum( BinaryMessage msg )
     {
     	int retVal = 0;
     	
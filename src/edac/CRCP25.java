@@ -17,6 +17,10 @@
  ******************************************************************************/
 package edac;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +32,14 @@ import bits.BinaryMessage;
 public class CRCP25
 {
 	private final static Logger mLog = LoggerFactory.getLogger( CRCP25.class );
+
+	/**
+	 * Checksum error lookup indexes, keyed by checksum table instance.  Arrays
+	 * use identity equality, so each checksum table gets its own index, built
+	 * on first use and shared across all channels.
+	 */
+	private static final ConcurrentHashMap<Object,BitErrorIndex> 
+		BIT_ERROR_INDEXES = new ConcurrentHashMap<Object,BitErrorIndex>();
 	
 	/**
 	 * CRC-CCITT 16-bit checksums for a message length of 80 bits plus 16
@@ -427,15 +439,16 @@ public class CRCP25
      */
     public static int getBitError( long checksumError, long[] checksums )
     {
-		for( int x = 0; x < checksums.length; x++ )
-		{
-			if( checksums[ x ] == checksumError )
-			{
-				return x;
-			}
-		}
-
-		return -1;
+    	BitErrorIndex index = BIT_ERROR_INDEXES.get( checksums );
+    	
+    	if( index == null )
+    	{
+    		index = new BitErrorIndex( checksums );
+    		
+    		BIT_ERROR_INDEXES.putIfAbsent( checksums, index );
+    	}
+    	
+    	return index.getBitError( checksumError );
     }
     
     /**
@@ -443,15 +456,87 @@ public class CRCP25
      */
     public static int getBitError( int checksumError, int[] checksums )
     {
-		for( int x = 0; x < checksums.length; x++ )
-		{
-			if( checksums[ x ] == checksumError )
+    	BitErrorIndex index = BIT_ERROR_INDEXES.get( checksums );
+    	
+    	if( index == null )
+    	{
+    		long[] values = new long[ checksums.length ];
+    		
+    		for( int x = 0; x < checksums.length; x++ )
+    		{
+    			values[ x ] = checksums[ x ];
+    		}
+    		
+    		index = new BitErrorIndex( values );
+    		
+    		BIT_ERROR_INDEXES.putIfAbsent( checksums, index );
+    	}
+    	
+    	return index.getBitError( checksumError );
+    }
+    
+    /**
+     * Sorted checksum value to bit position index.  When a checksum value
+     * occurs more than once in the table, the lowest bit position is returned,
+     * matching a front-to-back scan of the table.
+     */
+    private static class BitErrorIndex
+    {
+    	private long[] mValues;
+    	private int[] mPositions;
+    	
+    	public BitErrorIndex( long[] checksums )
+    	{
+    		long[] keys = new long[ checksums.length ];
+    		
+    		/* Order the table positions by checksum value, then by position */
+    		Long[] order = new Long[ checksums.length ];
+    		
+    		for( int x = 0; x < checksums.length; x++ )
+    		{
+    			order[ x ] = (long)x;
+    		}
+    		
+    		final long[] values = checksums;
+    		
+    		Arrays.sort( order, new Comparator<Long>()
 			{
-				return x;
-			}
-		}
-
-		return -1;
+				@Override
+				public int compare( Long a, Long b )
+				{
+					int compare = Long.compare( values[ a.intValue() ], 
+												values[ b.intValue() ] );
+					
+					return compare != 0 ? compare : Long.compare( a, b );
+				}
+			} );
+    		
+    		int count = 0;
+    		int[] positions = new int[ checksums.length ];
+    		
+    		for( Long position: order )
+    		{
+    			long value = checksums[ position.intValue() ];
+    			
+    			/* Keep only the first (lowest) position for duplicate values */
+    			if( count == 0 || keys[ count - 1 ] != value )
+    			{
+    				keys[ count ] = value;
+    				positions[ count ] = position.intValue();
+    				count++;
+    			}
+    		}
+    		
+    		mValues = Arrays.copyOf( keys, count );
+    		mPositions = Arrays.copyOf( positions, count );
+    	}
+    	
+    	public int getBitError( long checksumError )
+    	{
+    		int index = Arrays.binarySearch( mValues, checksumError );
+    		
+    		return index >= 0 ? mPositions[ index ] : -1;
+    	}
     }
     
     public static void main( String[] args )
@@ -17,8 +17,6 @@
  ******************************************************************************/
 package edac;
 
-import java.util.BitSet;
-
 import bits.BinaryMessage;
 
 /**
@@ -97,7 +95,7 @@ public class CRCPassport
 	 * contained in bits 60 - 68, using a lookup table of CRC checksum values
 	 * derived from the CRC-7 value and the final parity bit
 	 */
-	public static CRC check( BitSet msg )
+	public static CRC check( BinaryMessage msg )
 	{
 		CRC crc = CRC.UNKNOWN;
 		
@@ -124,7 +122,7 @@ public class CRCPassport
 		return crc;
 	}
 	
-    public static byte getResidual( BitSet msg )
+    public static byte getResidual( BinaryMessage msg )
     {
         byte calculated = 0x0; //Initial fill of zero
 
@@ -147,7 +145,7 @@ public class CRCPassport
 	/**
 	 * Returns the integer value of the 7 bit crc checksum
 	 */
-    public static byte getChecksum( BitSet msg )
+    public static byte getChecksum( BinaryMessage msg )
     {
         byte retVal = 0x0;
     	
@@ -17,7 +17,7 @@
  ******************************************************************************/
 package edac;
 
-import java.util.BitSet;
+import bits.BinaryMessage;
 
 /**
  * Calculates a 7-bit checksum using an array of xor values from the 
@@ -25,14 +25,14 @@ import java.util.BitSet;
  */
 public class Checksum
 {
-	public static boolean validate7BitChecksum( BitSet message,
+	public static boolean validate7BitChecksum( BinaryMessage message,
 									byte messageChecksum,
 									ChecksumType checksumType )
 	{
 		return ( messageChecksum & get7BitChecksum( message, checksumType ) ) == 0;
 	}
 
-	public static byte get7BitChecksum( BitSet message, 
+	public static byte get7BitChecksum( BinaryMessage message, 
 									ChecksumType checksumType )
 	{
 		byte checksum = 0x00;
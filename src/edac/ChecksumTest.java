@@ -19,6 +19,8 @@ package edac;
 
 import java.util.BitSet;
 
+import bits.BinaryMessage;
+
 public class ChecksumTest
 {
 
@@ -30,7 +32,8 @@ public class ChecksumTest
         log( "START!" );
         
         String msg = "111000001000010010001110";
-        log(  msg + " check:" + String.format( "%02X", Checksum.get7BitChecksum( load( msg ), ChecksumType.LTR ) ) );
+        log(  msg + " check:" + String.format( "%02X", Checksum.get7BitChecksum( 
+        		new BinaryMessage( load( msg ), msg.length() ), ChecksumType.LTR ) ) );
         
         log( "DONE!" );
     }
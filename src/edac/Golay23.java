@@ -35,94 +35,90 @@ public class Golay23
 			return 0;
 		}
 		
-		BinaryMessage copy = frame.getSubMessage( startIndex, startIndex + 23 );
+		int errorPattern = getErrorPattern( syndrome );
+		
+		int errorCount = Integer.bitCount( errorPattern );
+		
+		if( errorCount <= MAX_CORRECTABLE_ERRORS )
+		{
+			frame.xor( startIndex, 23, errorPattern );
+		}
+
+		return errorCount;
+	}
 
-		int index = -1;
-		int syndromeWeight = MAX_CORRECTABLE_ERRORS;
-		int errors = 0;
+	/**
+	 * Calculates the syndrome of the 23-bit golay word that starts at the
+	 * start index.
+	 */
+	static int getSyndrome( BinaryMessage frame, int startIndex )
+	{
+		int word = frame.getInt( startIndex, startIndex + 22 );
 		
-		while( index < 23 )
+		return SyndromeTable.CHECKSUM[ word >>> 11 ] ^ ( word & 0x7FF );
+	}
+	
+	/**
+	 * Returns the 23-bit error pattern (MSB = first bit of the golay word) 
+	 * that produces the syndrome.  Golay(23,12,7) is a perfect code, so every
+	 * 11-bit syndrome maps to exactly one error pattern of weight 3 or less.
+	 */
+	static int getErrorPattern( int syndrome )
+	{
+		return SyndromeTable.ERROR_PATTERN[ syndrome ];
+	}
+
+	/**
+	 * Syndrome lookup tables.  Built once, on first use, and shared by all
+	 * decoder instances.
+	 */
+	private static class SyndromeTable
+	{
+		/* Checksum for each of the 4096 possible 12-bit data values */
+		private static final int[] CHECKSUM = new int[ 4096 ];
+		
+		/* Error pattern for each of the 2048 possible 11-bit syndromes */
+		private static final int[] ERROR_PATTERN = new int[ 2048 ];
+		
+		static
 		{
-			if( index != -1 )
+			for( int data = 0; data < 4096; data++ )
 			{
-				/* restore the previous flipped bit */
-				if( index > 0 )
+				int checksum = 0;
+				
+				for( int x = 0; x < 12; x++ )
 				{
-					copy.flip( index - 1 );
+					if( ( data & ( 1 << ( 11 - x ) ) ) != 0 )
+					{
+						checksum ^= CHECKSUMS[ x ];
+					}
 				}
 				
-				copy.flip( index );
-				
-				syndromeWeight = MAX_CORRECTABLE_ERRORS - 1;
+				CHECKSUM[ data ] = checksum;
 			}
-			
-			syndrome = getSyndrome( copy, 0 );
-			
-			if( syndrome > 0 )
+
+			/* Enumerate all error patterns with 1, 2 or 3 bit errors */
+			for( int a = 0; a < 23; a++ )
 			{
-				for( int i = 0; i < 23; i++ )
+				add( 1 << a );
+				
+				for( int b = a + 1; b < 23; b++ )
 				{
-					errors = Integer.bitCount( syndrome );
+					add( ( 1 << a ) | ( 1 << b ) );
 					
-					if( errors <= syndromeWeight )
+					for( int c = b + 1; c < 23; c++ )
 					{
-						copy.xor( 12, 11, syndrome );
-						
-						copy.rotateRight( i, 0, 22 );
-
-						if( index >= 0 )
-						{
-							errors ++;
-						}
-
-						int corrected = copy.getInt( 0, 22 );
-						int original = frame.getInt( startIndex, startIndex + 22 );
-						
-						int errorCount = Integer.bitCount( original ^ corrected );
-						
-						if( errorCount <= 3 )
-						{
-							frame.load( startIndex, 23, corrected );
-						}
-
-						return errorCount;
-					}
-					else
-					{
-						copy.rotateLeft( 0, 22 );
-						syndrome = getSyndrome( copy, 0 );
+						add( ( 1 << a ) | ( 1 << b ) | ( 1 << c ) );
 					}
 				}
-				
-				index++;
 			}
 		}
-
-		/* Return an error count greater than 3 to indicate failed correction attempt */
-		return 4;
-	}
-
-	private static int getSyndrome( BinaryMessage frame, int startIndex )
-	{
-		int calculated = calculateChecksum( frame, startIndex );
 		
-		int checksum = frame.getInt( startIndex + 12, startIndex + 22 );
-
-		return ( checksum ^ calculated );
-	}
-	
-	private static int calculateChecksum( BinaryMessage frame, int startIndex )
-	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 12; 
-				 i = frame.nextSetBit( i+1 ) ) 
+		private static void add( int errorPattern )
 		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
+			int syndrome = CHECKSUM[ errorPattern >>> 11 ] ^ ( errorPattern & 0x7FF );
+			
+			ERROR_PATTERN[ syndrome ] = errorPattern;
 		}
-		
-		return calculated;
 	}
 }
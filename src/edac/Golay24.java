@@ -45,21 +45,6 @@ public class Golay24
 	    0x040, 0x020, 0x010, 0x008, 0x004, 0x002, 0x001 
 	};
 
-	private static int calculateChecksum( BinaryMessage message, int startIndex )
-	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = message.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 12; 
-				 i = message.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
-		}
-		
-		return calculated;
-	}
-	
 	/**
 	 * Performs error detection and returns a corrected copy of the 24-bit
 	 * message that starts at the start index.
@@ -86,83 +71,17 @@ public class Golay24
 			return message;
 		}
 
-		/* Get original message value */
-		int original = message.getInt( 0, 22 );
-		
-		int index = -1;
-		int syndromeWeight = 3;
-		int errors = 0;
-		
-		while( index < 23 )
-		{
-			if( index != -1 )
-			{
-				/* restore the previous flipped bit */
-				if( index > 0 )
-				{
-					message.flip( index - 1 );
-				}
-				
-				message.flip( index );
-				
-				syndromeWeight = 2;
-			}
-			
-			syndrome = getSyndrome( message, startIndex );
-			
-			if( syndrome > 0 )
-			{
-				for( int i = 0; i < 23; i++ )
-				{
-				
-					errors = Integer.bitCount( syndrome );
-					
-					if( errors <= syndromeWeight )
-					{
-						message.xor( 12, 11, syndrome );
-						
-						message.rotateRight( i, startIndex, startIndex + 22 );
-
-						if( index >= 0 )
-						{
-							errors ++;
-						}
+		/* Golay(24,12,8) is the golay(23,12,7) code plus a parity bit, so
+		 * every non-zero syndrome maps to a correctable error pattern */
+		message.xor( startIndex, 23, Golay23.getErrorPattern( syndrome ) );
 
-						int corrected = message.getInt( 0, 22 );
-						
-						if( Integer.bitCount( original ^ corrected ) > 3 )
-						{
-							message.setCRC( CRC.FAILED_CRC );
-							
-							return message;
-						}
-						
-						message.setCRC( CRC.PASSED );
-						
-						return message;
-					}
-					else
-					{
-						message.rotateLeft( startIndex, startIndex + 22 );
-						syndrome = getSyndrome( message, startIndex );
-					}
-				}
-				
-				index++;
-			}
-		}
-
-		message.setCRC( CRC.FAILED_CRC );
+		message.setCRC( CRC.PASSED );
 		
 		return message;
 	}
 
 	private static int getSyndrome( BinaryMessage message, int startIndex )
 	{
-		int calculated = calculateChecksum( message, startIndex );
-		
-		int checksum = message.getInt( startIndex + 12, startIndex + 22 );
-
-		return ( checksum ^ calculated );
+		return Golay23.getSyndrome( message, startIndex );
 	}
 }
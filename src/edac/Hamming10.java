@@ -10,6 +10,23 @@ public class Hamming10
 	private final static Logger mLog = LoggerFactory.getLogger( Hamming10.class );
 	
 	private static int[] CHECKSUMS = new int[] { 0xE,0xD,0xB,0X7,0x3,0xC };
+	
+	/* Parity value for each possible 6-bit data value */
+	private static final int[] PARITY = new int[ 64 ];
+	
+	static
+	{
+		for( int data = 0; data < PARITY.length; data++ )
+		{
+			for( int x = 0; x < 6; x++ )
+			{
+				if( ( data & ( 1 << ( 5 - x ) ) ) != 0 )
+				{
+					PARITY[ data ] ^= CHECKSUMS[ x ];
+				}
+			}
+		}
+	}
 
 	/**
 	 * Performs error detection and correction of any single-bit errors.  This 
@@ -84,17 +101,7 @@ public class Hamming10
 	 */
 	private static int calculateChecksum( BinaryMessage frame, int startIndex )
 	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 6; 
-				 i = frame.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
-		}
-		
-		return calculated;
+		return PARITY[ frame.getInt( startIndex, startIndex + 5 ) ];
 	}
 
 	/**
@@ -6,6 +6,23 @@ public class Hamming15
 {
 	private static int[] CHECKSUMS = new int[] { 0xF,0xE,0xD,0xC,0xB,0XA,0x9,
 		0x7,0x6,0x5,0x3 };
+	
+	/* Parity value for each possible 11-bit data value */
+	private static final int[] PARITY = new int[ 2048 ];
+	
+	static
+	{
+		for( int data = 0; data < PARITY.length; data++ )
+		{
+			for( int x = 0; x < 11; x++ )
+			{
+				if( ( data & ( 1 << ( 10 - x ) ) ) != 0 )
+				{
+					PARITY[ data ] ^= CHECKSUMS[ x ];
+				}
+			}
+		}
+	}
 
 	/**
 	 * Performs error detection and correction of any single-bit errors.
@@ -85,17 +102,7 @@ public class Hamming15
 	 */
 	private static int calculateChecksum( BinaryMessage frame, int startIndex )
 	{
-		int calculated = 0; //Starting value
-
-		/* Iterate the set bits and XOR running checksum with lookup value */
-		for (int i = frame.nextSetBit( startIndex ); 
-				 i >= startIndex && i < startIndex + 11; 
-				 i = frame.nextSetBit( i+1 ) ) 
-		{
-			calculated ^= CHECKSUMS[ i - startIndex ];
-		}
-		
-		return calculated;
+		return PARITY[ frame.getInt( startIndex, startIndex + 10 ) ];
 	}
 
 	/**
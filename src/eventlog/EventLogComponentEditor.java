@@ -35,6 +35,7 @@ public class EventLogComponentEditor extends AbstractChannelEditor
     private JCheckBox mBinaryLogger = new JCheckBox( "Binary Messages" );
     private JCheckBox mDecodedLogger = new JCheckBox( "Decoded Messages" );
     private JCheckBox mCallEventLogger = new JCheckBox( "Call Events" );
+    private JCheckBox mEventStoreLogger = new JCheckBox( "Event Store" );
 
     public EventLogComponentEditor( ChannelNode channelNode )
 	{
@@ -43,6 +44,7 @@ public class EventLogComponentEditor extends AbstractChannelEditor
 		add( mBinaryLogger, "span" );
 		add( mDecodedLogger, "span" );
 		add( mCallEventLogger, "span" );
+		add( mEventStoreLogger, "span" );
     	
 		reset();
 	}
@@ -67,6 +69,8 @@ public class EventLogComponentEditor extends AbstractChannelEditor
         				mLoggers.contains( EventLogType.DECODED_MESSAGE ) );
         		mCallEventLogger.setSelected(
         				mLoggers.contains( EventLogType.CALL_EVENT ) );
+        		mEventStoreLogger.setSelected(
+        				mLoggers.contains( EventLogType.EVENT_STORE ) );
             }
         });
     }
@@ -95,5 +99,9 @@ public class EventLogComponentEditor extends AbstractChannelEditor
 		{
 			config.addLogger( EventLogType.CALL_EVENT );
 		}
+		if( mEventStoreLogger.isSelected() )
+		{
+			config.addLogger( EventLogType.EVENT_STORE );
+		}
     }
 }
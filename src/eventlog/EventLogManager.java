@@ -17,20 +17,47 @@
  ******************************************************************************/
 package eventlog;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import properties.SystemProperties;
 import controller.channel.ProcessingChain;
 import eventlog.MessageEventLogger.Type;
+import eventlog.store.EventStore;
 
 public class EventLogManager
 {
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( EventLogManager.class );
+
 	private Path mDirectory;
+	private EventStore mEventStore;
+	private int mQueueCapacity;
+	private long mMaximumFileSize;
+	private boolean mDailyRotation;
+	private boolean mCompression;
+	private long mEventStoreMaximumAge;
+	private long mEventStoreMaximumSize;
 	
 	public EventLogManager()
 	{
-		mDirectory = SystemProperties.getInstance()
-				.getApplicationFolder( "event_logs" );
+		SystemProperties props = SystemProperties.getInstance();
+		
+		mDirectory = props.getApplicationFolder( "event_logs" );
+		
+		mQueueCapacity = props.get( "eventlog.queue.capacity", 
+				EventLogWriter.DEFAULT_QUEUE_CAPACITY );
+		mMaximumFileSize = (long)props.get( "eventlog.rotate.size.mb", 100 ) 
+				* 1024l * 1024l;
+		mDailyRotation = props.get( "eventlog.rotate.daily", true );
+		mCompression = props.get( "eventlog.compress", false );
+		mEventStoreMaximumAge = (long)props.get( "eventstore.retention.days", 30 ) 
+				* 24l * 60l * 60l * 1000l;
+		mEventStoreMaximumSize = (long)props.get( "eventstore.retention.size.mb", 1024 ) 
+				* 1024l * 1024l;
 	}
 	
 	public EventLogger getLogger( ProcessingChain chain, EventLogType eventLogType )
@@ -45,16 +72,79 @@ public class EventLogManager
 		sb.append( eventLogType.getFileSuffix() );
 		sb.append( ".log" );
 
+		EventLogger logger;
+		
 		switch( eventLogType )
 		{
 			case BINARY_MESSAGE:
-				return new MessageEventLogger( mDirectory, sb.toString(), Type.BINARY );
+				logger = new MessageEventLogger( mDirectory, sb.toString(), Type.BINARY );
+				break;
 			case DECODED_MESSAGE:
-				return new MessageEventLogger( mDirectory, sb.toString(), Type.DECODED );
+				logger = new MessageEventLogger( mDirectory, sb.toString(), Type.DECODED );
+				break;
 			case CALL_EVENT:
-				return new CallEventLogger( mDirectory, sb.toString() );
+				logger = new CallEventLogger( mDirectory, sb.toString() );
+				break;
+			case EVENT_STORE:
+				EventStore store = getEventStore();
+				
+				if( store == null )
+				{
+					return null;
+				}
+				
+				return new EventStoreLogger( mDirectory, store, 
+						chain.getChannel().getChannelDisplayName() );
 			default:
 				return null;
 		}
+		
+		logger.setOptions( mQueueCapacity, mMaximumFileSize, mDailyRotation, 
+				mCompression );
+		
+		return logger;
+	}
+
+	/**
+	 * Writes queued event log entries, finishes pending log file compression
+	 * and closes the event store.  Invoke at application shutdown.
+	 */
+	public void dispose()
+	{
+		EventLogWriter.shutdown();
+		
+		synchronized( this )
+		{
+			if( mEventStore != null )
+			{
+				mEventStore.close();
+				mEventStore = null;
+			}
+		}
+	}
+
+	/**
+	 * Shared event store for all channels, opened on first use.  
+	 * 
+	 * @return event store or null if the event store couldn't be opened
+	 */
+	public synchronized EventStore getEventStore()
+	{
+		if( mEventStore == null )
+		{
+			try
+			{
+				mEventStore = new EventStore( mDirectory.resolve( "event_store" ), 
+					EventStore.DEFAULT_SEGMENT_SIZE, 
+					EventStore.DEFAULT_QUEUE_CAPACITY, 
+					mEventStoreMaximumAge, mEventStoreMaximumSize );
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Couldn't open event store", ioe );
+			}
+		}
+		
+		return mEventStore;
 	}
 }
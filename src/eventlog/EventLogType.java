@@ -22,7 +22,8 @@ public enum EventLogType
 {
     BINARY_MESSAGE( "Binary Messages", "_binary_messages" ),
     DECODED_MESSAGE( "Decoded Messages", "_decoded_messages" ),
-    CALL_EVENT( "Call Events", "_call_events" );
+    CALL_EVENT( "Call Events", "_call_events" ),
+    EVENT_STORE( "Event Store", "_event_store" );
     
     private String mDisplayString;
     private String mFileSuffix;
@@ -0,0 +1,594 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package eventlog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import util.TimeStamp;
+
+/**
+ * Asynchronous, batching event log file writer.  
+ * 
+ * Log entries are placed on a bounded queue by the producer (decoder) thread
+ * and are never written on the producer thread.  A single shared background
+ * thread drains the queues of all event log writers and writes each batch 
+ * through a buffered writer, flushing on a fixed interval, or sooner when a 
+ * queue reaches the batch size.  When a queue is full, the log entry is 
+ * discarded and counted as dropped, so that a slow disk cannot stall 
+ * decoding.
+ * 
+ * Log files are rotated when they reach the maximum file size or when the 
+ * day changes, and closed log files can optionally be gzip compressed.  
+ * Compression runs on a separate low priority thread, so that it doesn't 
+ * delay rotation, stop() or the writing of other event logs.
+ * 
+ * Invoke shutdown() when the application exits, to write queued log entries
+ * from the daemon writer thread and to finish pending compression.
+ */
+public class EventLogWriter
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( EventLogWriter.class );
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+	
+	/* Queue depth that triggers a write ahead of the flush interval */
+	private static final int BATCH_SIZE = 256;
+	private static final long FLUSH_INTERVAL_MS = 500;
+	private static final int WRITE_BUFFER_SIZE = 65536;
+	private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+	
+	private static volatile ScheduledExecutorService sExecutor;
+	private static ExecutorService sCompressionExecutor;
+	private static CopyOnWriteArrayList<EventLogWriter> sWriters = 
+			new CopyOnWriteArrayList<EventLogWriter>();
+	
+	private Path mDirectory;
+	private String mFileNameSuffix;
+	private String mHeader;
+	private long mMaximumFileSize;
+	private boolean mDailyRotation;
+	private boolean mCompression;
+
+	private ArrayBlockingQueue<String> mQueue;
+	private ArrayList<String> mBatch = new ArrayList<String>();
+	private AtomicBoolean mWritePending = new AtomicBoolean();
+	private AtomicLong mDroppedCount = new AtomicLong();
+	private long mReportedDroppedCount;
+	
+	private Writer mWriter;
+	private File mFile;
+	private long mFileSize;
+	private int mFileDay;
+	private boolean mRunning;
+
+	/**
+	 * Constructs an event log writer.  
+	 * 
+	 * @param directory - log file directory
+	 * @param fileNameSuffix - log file name suffix.  Each log file is named 
+	 * with a creation timestamp prefix and this suffix
+	 * @param header - header line(s) written at the start of each log file
+	 * @param queueCapacity - maximum number of log entries waiting to be 
+	 * written
+	 * @param maximumFileSize - rotate the log file after this many bytes, or
+	 * 0 to disable size based rotation
+	 * @param dailyRotation - rotate the log file when the day changes
+	 * @param compression - gzip compress log files once they are closed
+	 */
+	public EventLogWriter( Path directory, 
+						   String fileNameSuffix,
+						   String header,
+						   int queueCapacity,
+						   long maximumFileSize,
+						   boolean dailyRotation,
+						   boolean compression )
+	{
+		mDirectory = directory;
+		mFileNameSuffix = fileNameSuffix;
+		mHeader = header;
+		mQueue = new ArrayBlockingQueue<String>( queueCapacity );
+		mMaximumFileSize = maximumFileSize;
+		mDailyRotation = dailyRotation;
+		mCompression = compression;
+	}
+
+	/**
+	 * Opens the first log file and registers this writer with the background
+	 * writer thread
+	 */
+	public synchronized void start() throws IOException
+	{
+		if( !mRunning )
+		{
+			open();
+			
+			mRunning = true;
+			
+			sWriters.add( this );
+			
+			startExecutor();
+		}
+	}
+	
+	/**
+	 * Writes all queued log entries, closes the log file and unregisters this
+	 * writer from the background writer thread.
+	 */
+	public void stop()
+	{
+		sWriters.remove( this );
+		
+		synchronized( this )
+		{
+			if( mRunning )
+			{
+				drain();
+				
+				mRunning = false;
+				
+				close();
+			}
+		}
+	}
+	
+	/**
+	 * Queues the log entry for writing.  Does not block.
+	 * 
+	 * @return true if the entry was queued, or false if the queue was full 
+	 * and the entry was dropped
+	 */
+	public boolean write( String entry )
+	{
+		if( !mQueue.offer( entry ) )
+		{
+			mDroppedCount.incrementAndGet();
+			
+			return false;
+		}
+		
+		ScheduledExecutorService executor = sExecutor;
+		
+		if( executor != null && mQueue.size() >= BATCH_SIZE && 
+			mWritePending.compareAndSet( false, true ) )
+		{
+			try
+			{
+				executor.execute( new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						mWritePending.set( false );
+						
+						drain();
+					}
+				} );
+			}
+			catch( RejectedExecutionException ree )
+			{
+				/* Queued entries are written on the next flush interval */
+				mWritePending.set( false );
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Number of log entries discarded because the queue was full
+	 */
+	public long getDroppedCount()
+	{
+		return mDroppedCount.get();
+	}
+	
+	/**
+	 * Number of log entries waiting to be written
+	 */
+	public int getQueuedCount()
+	{
+		return mQueue.size();
+	}
+	
+	/**
+	 * Current log file
+	 */
+	public synchronized File getFile()
+	{
+		return mFile;
+	}
+	
+	/**
+	 * Drains the queue and writes the log entries as a batch, rotating the log
+	 * file as needed, then flushes the log file.  Invoked on the background 
+	 * writer thread.
+	 */
+	private synchronized void drain()
+	{
+		if( !mRunning )
+		{
+			return;
+		}
+		
+		long dropped = mDroppedCount.get();
+		
+		if( dropped != mReportedDroppedCount )
+		{
+			mLog.warn( "Event log [" + mFile.getName() + "] queue full - dropped " + 
+				( dropped - mReportedDroppedCount ) + " entries (" + 
+				dropped + " total)" );
+			
+			mReportedDroppedCount = dropped;
+		}
+
+		if( mQueue.isEmpty() )
+		{
+			return;
+		}
+
+		try
+		{
+			while( mQueue.drainTo( mBatch, BATCH_SIZE ) > 0 )
+			{
+				for( String entry: mBatch )
+				{
+					if( isRotationRequired() )
+					{
+						rotate();
+					}
+					
+					append( entry );
+				}
+				
+				mBatch.clear();
+			}
+			
+			mWriter.flush();
+		}
+		catch( IOException ioe )
+		{
+			mLog.error( "Error writing entries to event log file [" + 
+						mFile + "]", ioe );
+			
+			mBatch.clear();
+		}
+	}
+	
+	/**
+	 * Indicates if the current log file has reached the maximum size or if the
+	 * day has changed since the log file was opened
+	 */
+	private boolean isRotationRequired()
+	{
+		if( mMaximumFileSize > 0 && mFileSize >= mMaximumFileSize )
+		{
+			return true;
+		}
+		
+		return mDailyRotation && getDay() != mFileDay;
+	}
+	
+	private void rotate() throws IOException
+	{
+		close();
+		
+		open();
+	}
+	
+	private void append( String entry ) throws IOException
+	{
+		mWriter.write( entry );
+		mWriter.write( '\n' );
+		
+		/* Log entries are ASCII, so characters approximate bytes */
+		mFileSize += entry.length() + 1;
+	}
+
+	/**
+	 * Opens a new log file and writes the header
+	 */
+	private void open() throws IOException
+	{
+		mFile = getNextFile();
+		
+		mLog.info( "Creating log file:" + mFile );
+
+		mWriter = new BufferedWriter( new OutputStreamWriter( 
+				new FileOutputStream( mFile ), StandardCharsets.UTF_8 ), 
+				WRITE_BUFFER_SIZE );
+		
+		mFileSize = 0;
+		mFileDay = getDay();
+
+		if( mHeader != null )
+		{
+			append( mHeader );
+		}
+	}
+	
+	/**
+	 * Closes the current log file and schedules compression, if enabled
+	 */
+	private void close()
+	{
+		if( mWriter != null )
+		{
+			try
+			{
+				mWriter.flush();
+				mWriter.close();
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Couldn't close log file:" + mFile, ioe );
+			}
+			
+			mWriter = null;
+			
+			if( mCompression )
+			{
+				scheduleCompression( mFile );
+			}
+		}
+	}
+	
+	/**
+	 * Creates a log file name from the current timestamp and the file name
+	 * suffix.  Adds a sequence number when a log file with the same name 
+	 * already exists, for example when rotating more than once per second.
+	 */
+	private File getNextFile()
+	{
+		String prefix = mDirectory + File.separator + 
+				TimeStamp.getTimeStamp( "_" ) + "_";
+		
+		File file = new File( prefix + mFileNameSuffix );
+
+		int sequence = 1;
+
+		while( file.exists() || new File( file.getPath() + ".gz" ).exists() )
+		{
+			file = new File( prefix + sequence + "_" + mFileNameSuffix );
+			sequence++;
+		}
+		
+		return file;
+	}
+	
+	private static int getDay()
+	{
+		Calendar calendar = Calendar.getInstance();
+		
+		return calendar.get( Calendar.YEAR ) * 1000 + 
+				calendar.get( Calendar.DAY_OF_YEAR );
+	}
+	
+	/**
+	 * Queues the file for compression on the compression thread
+	 */
+	private static synchronized void scheduleCompression( final File file )
+	{
+		if( sCompressionExecutor == null )
+		{
+			sCompressionExecutor = Executors.newSingleThreadExecutor( 
+				new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable runnable )
+				{
+					Thread thread = new Thread( runnable, "event log compression" );
+					thread.setDaemon( true );
+					thread.setPriority( Thread.MIN_PRIORITY );
+					
+					return thread;
+				}
+			} );
+		}
+		
+		sCompressionExecutor.execute( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				compress( file );
+			}
+		} );
+	}
+	
+	/**
+	 * Writes the queued log entries of every running writer and flushes the 
+	 * log files, then waits for pending log file compression to finish.  
+	 * 
+	 * The writer and compression threads are daemon threads that don't keep
+	 * the application alive, so invoke this method at application shutdown.
+	 */
+	public static void shutdown()
+	{
+		for( EventLogWriter writer: sWriters )
+		{
+			try
+			{
+				writer.drain();
+			}
+			catch( Exception e )
+			{
+				mLog.error( "Error writing event log", e );
+			}
+		}
+		
+		ExecutorService compression;
+		
+		synchronized( EventLogWriter.class )
+		{
+			compression = sCompressionExecutor;
+			sCompressionExecutor = null;
+		}
+		
+		if( compression != null )
+		{
+			compression.shutdown();
+			
+			try
+			{
+				if( !compression.awaitTermination( SHUTDOWN_TIMEOUT_MS, 
+						TimeUnit.MILLISECONDS ) )
+				{
+					mLog.warn( "Event log compression didn't finish before "
+							+ "shutdown" );
+				}
+			}
+			catch( InterruptedException e )
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Gzip compresses the file to a file of the same name with a .gz suffix
+	 * and deletes the original file
+	 */
+	private static void compress( File file )
+	{
+		File compressed = new File( file.getPath() + ".gz" );
+		
+		InputStream in = null;
+		OutputStream out = null;
+
+		try
+		{
+			in = new FileInputStream( file );
+			out = new GZIPOutputStream( new FileOutputStream( compressed ) );
+			
+			byte[] buffer = new byte[ WRITE_BUFFER_SIZE ];
+			
+			int read;
+			
+			while( ( read = in.read( buffer ) ) > 0 )
+			{
+				out.write( buffer, 0, read );
+			}
+			
+			out.close();
+			out = null;
+			
+			in.close();
+			in = null;
+			
+			if( !file.delete() )
+			{
+				mLog.warn( "Couldn't delete log file after compression:" + file );
+			}
+		}
+		catch( IOException ioe )
+		{
+			mLog.error( "Couldn't compress log file:" + file, ioe );
+			
+			compressed.delete();
+		}
+		finally
+		{
+			closeQuietly( in );
+			closeQuietly( out );
+		}
+	}
+	
+	private static void closeQuietly( Closeable closeable )
+	{
+		if( closeable != null )
+		{
+			try
+			{
+				closeable.close();
+			}
+			catch( IOException ioe )
+			{
+				//Ignore
+			}
+		}
+	}
+
+	/**
+	 * Starts the shared background writer thread, if not already started
+	 */
+	private static synchronized void startExecutor()
+	{
+		if( sExecutor == null )
+		{
+			sExecutor = Executors.newSingleThreadScheduledExecutor( 
+				new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable runnable )
+				{
+					Thread thread = new Thread( runnable, "event log writer" );
+					thread.setDaemon( true );
+					
+					return thread;
+				}
+			} );
+			
+			sExecutor.scheduleAtFixedRate( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					for( EventLogWriter writer: sWriters )
+					{
+						try
+						{
+							writer.drain();
+						}
+						catch( Exception e )
+						{
+							mLog.error( "Error writing event log", e );
+						}
+					}
+				}
+			}, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS );
+		}
+	}
+}
@@ -17,19 +17,12 @@
  ******************************************************************************/
 package eventlog;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.file.Path;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import util.TimeStamp;
-
 public abstract class EventLogger
 {
 	private final static Logger mLog = 
@@ -42,8 +35,12 @@ public abstract class EventLogger
 	
 	private Path mLogDirectory;
 	private String mFileNameSuffix;
-	private String mLogFileName;
-	protected Writer mLogFile;
+	private volatile EventLogWriter mWriter;
+	
+	private int mQueueCapacity = EventLogWriter.DEFAULT_QUEUE_CAPACITY;
+	private long mMaximumFileSize = 0;
+	private boolean mDailyRotation = false;
+	private boolean mCompression = false;
 
 	public EventLogger( Path logDirectory, String fileNameSuffix )
 	{
@@ -53,9 +50,11 @@ public abstract class EventLogger
 	
 	public String toString()
 	{
-		if( mLogFileName != null )
+		EventLogWriter writer = mWriter;
+		
+		if( writer != null && writer.getFile() != null )
 		{
-			return mLogFileName;
+			return writer.getFile().toString();
 		}
 		else
 		{
@@ -65,26 +64,39 @@ public abstract class EventLogger
 	
 	public abstract String getHeader();
 	
+	/**
+	 * Sets the log file rotation and compression options.  Options are 
+	 * applied when the logger is started.
+	 * 
+	 * @param queueCapacity - maximum number of log entries waiting to be 
+	 * written before new entries are dropped
+	 * @param maximumFileSize - rotate the log file after this many bytes, or 0
+	 * to disable size based rotation
+	 * @param dailyRotation - rotate the log file at the start of each day
+	 * @param compression - gzip compress rotated and closed log files
+	 */
+	public void setOptions( int queueCapacity, long maximumFileSize, 
+			boolean dailyRotation, boolean compression )
+	{
+		mQueueCapacity = queueCapacity;
+		mMaximumFileSize = maximumFileSize;
+		mDailyRotation = dailyRotation;
+		mCompression = compression;
+	}
+	
     public void start()
     {
+    	EventLogWriter writer = new EventLogWriter( mLogDirectory, 
+    			replaceIllegalCharacters( mFileNameSuffix ), getHeader(), 
+    			mQueueCapacity, mMaximumFileSize, mDailyRotation, mCompression );
+
     	try 
     	{
-    		StringBuilder sb = new StringBuilder();
-    		sb.append( mLogDirectory );
-    		sb.append( File.separator );
-    		sb.append( TimeStamp.getTimeStamp( "_" ) );
-    		sb.append( "_" );
-    		sb.append( replaceIllegalCharacters( mFileNameSuffix ) );
-
-    		mLogFileName = sb.toString();
+    		writer.start();
     		
-    		mLog.info( "Creating log file:" + mLogFileName );
-    		
-			mLogFile = new OutputStreamWriter(new FileOutputStream( mLogFileName ) );
-			
-			write( getHeader() );
+    		mWriter = writer;
 		} 
-    	catch (FileNotFoundException e) 
+    	catch( IOException e ) 
     	{
     		mLog.error("Couldn't create log file in directory:" + mLogDirectory );
 		}    	
@@ -105,29 +117,38 @@ public abstract class EventLogger
 
     public void stop()
     {
-    	if( mLogFile != null )
+    	EventLogWriter writer = mWriter;
+    	
+    	if( writer != null )
     	{
-    		try
-    		{
-    	    	mLogFile.flush();
-    	    	mLogFile.close();
-    		}
-    		catch( Exception e )
-    		{
-    			mLog.error( "Couldn't close log file:" + mFileNameSuffix );
-    		}
+    		writer.stop();
+    		
+    		mWriter = null;
     	}
     }
     
+    /**
+     * Number of log entries discarded because the log writer could not keep
+     * up with the event rate
+     */
+    public long getDroppedCount()
+    {
+    	EventLogWriter writer = mWriter;
+    	
+    	return writer != null ? writer.getDroppedCount() : 0;
+    }
+    
+    /**
+     * Queues the log entry for writing on the event log writer thread.  Does
+     * not block - the entry is dropped when the writer queue is full.
+     */
     protected void write( String eventLogEntry )
     {
-		try
-        {
-	        mLogFile.write( eventLogEntry + "\n" );
-        }
-        catch ( IOException e )
-        {
-        	mLog.error( "Error writing entry to event log file", e );
-        }
+    	EventLogWriter writer = mWriter;
+    	
+    	if( writer != null )
+    	{
+    		writer.write( eventLogEntry );
+    	}
     }
 }
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package eventlog;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import message.Message;
+import sample.Listener;
+import controller.activity.CallEvent;
+import eventlog.store.EventRecord;
+import eventlog.store.EventRecord.Kind;
+import eventlog.store.EventStore;
+
+/**
+ * Event logger that appends decoded messages and call events for a channel
+ * to the shared binary event store.  Register this logger as the message 
+ * listener and the call event listener (getCallEventListener()).
+ * 
+ * Events are keyed by the channel display name (system/site/channel), so 
+ * that channels with the same name on different systems or sites can be 
+ * distinguished in queries.
+ */
+public class EventStoreLogger extends EventLogger implements Listener<Message>
+{
+	private EventStore mEventStore;
+	private String mChannel;
+	private volatile boolean mRunning;
+	private AtomicLong mDroppedCount = new AtomicLong();
+	
+	private Listener<CallEvent> mCallEventListener = new Listener<CallEvent>()
+	{
+		@Override
+		public void receive( CallEvent event )
+		{
+			if( mRunning )
+			{
+				append( new EventRecord( Kind.CALL_EVENT, 
+						true,
+						event.getEventStartTime(),
+						event.getEventEndTime(),
+						event.getFrequency(),
+						mChannel,
+						event.getDecoderType().toString(),
+						event.getCallEventType().toString(),
+						event.getFromID(),
+						event.getToID(),
+						event.getDetails() ) );
+			}
+		}
+	};
+	
+	/**
+	 * @param logDirectory - event log directory
+	 * @param eventStore - shared event store
+	 * @param channel - channel key (system/site/channel) stored with each 
+	 * event
+	 */
+	public EventStoreLogger( Path logDirectory, EventStore eventStore, 
+							 String channel )
+	{
+		super( logDirectory, channel );
+		
+		mEventStore = eventStore;
+		mChannel = channel;
+	}
+
+	/**
+	 * Listener to receive completed call events
+	 */
+	public Listener<CallEvent> getCallEventListener()
+	{
+		return mCallEventListener;
+	}
+	
+	@Override
+	public void receive( Message message )
+	{
+		if( mRunning )
+		{
+			append( new EventRecord( Kind.MESSAGE, 
+					message.isValid(),
+					message.getTimeReceived(),
+					0,
+					0,
+					mChannel,
+					message.getProtocol(),
+					message.getEventType(),
+					message.getFromID(),
+					message.getToID(),
+					message.getMessage() ) );
+		}
+	}
+	
+	/**
+	 * Queues the record for the event store writer thread.  Does not block.
+	 */
+	private void append( EventRecord record )
+	{
+		if( !mEventStore.append( record ) )
+		{
+			mDroppedCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Number of events from this channel discarded because the event store 
+	 * queue was full
+	 */
+	@Override
+	public long getDroppedCount()
+	{
+		return mDroppedCount.get();
+	}
+
+	@Override
+	public void start()
+	{
+		mRunning = true;
+	}
+
+	@Override
+	public void stop()
+	{
+		mRunning = false;
+		
+		mEventStore.flush();
+	}
+
+	@Override
+	public String getHeader()
+	{
+		return null;
+	}
+	
+	public String toString()
+	{
+		return mEventStore.getDirectory().toString();
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package eventlog.store;
+
+import util.TimeStamp;
+
+/**
+ * Call event or decoded message record stored in the event store
+ */
+public class EventRecord
+{
+	public enum Kind { CALL_EVENT, MESSAGE };
+	
+	private Kind mKind;
+	private boolean mValid;
+	private long mStartTime;
+	private long mEndTime;
+	private long mFrequency;
+	private String mChannel;
+	private String mProtocol;
+	private String mEventType;
+	private String mFromID;
+	private String mToID;
+	private String mDetails;
+	
+	public EventRecord( Kind kind, 
+						boolean valid,
+						long startTime, 
+						long endTime, 
+						long frequency,
+						String channel, 
+						String protocol, 
+						String eventType,
+						String fromID, 
+						String toID, 
+						String details )
+	{
+		mKind = kind;
+		mValid = valid;
+		mStartTime = startTime;
+		mEndTime = endTime;
+		mFrequency = frequency;
+		mChannel = channel;
+		mProtocol = protocol;
+		mEventType = eventType;
+		mFromID = fromID;
+		mToID = toID;
+		mDetails = details;
+	}
+
+	public Kind getKind()
+	{
+		return mKind;
+	}
+	
+	/**
+	 * Indicates if the message passed crc/integrity checks.  Call events are
+	 * always valid.
+	 */
+	public boolean isValid()
+	{
+		return mValid;
+	}
+
+	/**
+	 * Call event start time or message received time
+	 */
+	public long getStartTime()
+	{
+		return mStartTime;
+	}
+
+	/**
+	 * Call event end time, or 0 for messages and calls without an end time
+	 */
+	public long getEndTime()
+	{
+		return mEndTime;
+	}
+
+	public long getFrequency()
+	{
+		return mFrequency;
+	}
+
+	public String getChannel()
+	{
+		return mChannel;
+	}
+
+	/**
+	 * Decoder type or message protocol
+	 */
+	public String getProtocol()
+	{
+		return mProtocol;
+	}
+
+	public String getEventType()
+	{
+		return mEventType;
+	}
+
+	public String getFromID()
+	{
+		return mFromID;
+	}
+
+	public String getToID()
+	{
+		return mToID;
+	}
+
+	/**
+	 * Call event details or decoded message text
+	 */
+	public String getDetails()
+	{
+		return mDetails;
+	}
+	
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append( TimeStamp.getTimeStamp( mStartTime, " " ) );
+		sb.append( " " ).append( mKind );
+		sb.append( " [" ).append( mChannel ).append( "]" );
+		sb.append( " " ).append( mProtocol );
+		sb.append( " " ).append( mEventType );
+		sb.append( " FROM:" ).append( mFromID );
+		sb.append( " TO:" ).append( mToID );
+		sb.append( " " ).append( mDetails );
+		
+		return sb.toString();
+	}
+}
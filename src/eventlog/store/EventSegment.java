@@ -0,0 +1,932 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package eventlog.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eventlog.store.EventRecord.Kind;
+
+/**
+ * Append-only, memory-mapped event store segment file.
+ * 
+ * A segment is writable when it is created.  Once it is full, or the store is
+ * closed, the segment is sealed: the indexes are saved, the file is truncated
+ * to the written size and the mapping is released.  Sealed segments, 
+ * including segments opened from existing files, hold their header values 
+ * and, once queried, their indexes in memory.  The file is mapped read-only
+ * for the duration of each query that overlaps the segment.  The store 
+ * releases the indexes of the least recently queried sealed segments with 
+ * releaseIndexes().
+ * 
+ * Segment layout:
+ * 
+ * 	Header (64 bytes): magic, version, record count, write position, minimum
+ * 	event time and maximum event time.  The write position is updated after
+ * 	each record is written, so a partially written record is ignored when the
+ * 	segment is reopened.
+ * 
+ * 	Records: record length (int), kind (byte), valid (byte), start time, end
+ * 	time and frequency (longs), followed by the channel, protocol, event 
+ * 	type, from ID, to ID and details strings, each as a UTF-8 byte count 
+ * 	(short, -1 for null) and bytes.
+ * 
+ * Each segment maintains two in-memory indexes, built as records are 
+ * appended.  The indexes are saved to an index file next to the segment file
+ * when the segment is sealed, and are loaded from the index file, or rebuilt
+ * by scanning the segment, when a sealed segment is queried:
+ * 
+ * 	Sparse time index - minimum and maximum event time for each block of 
+ * 	BLOCK_SIZE records.  Call events are stored when they complete, so event
+ * 	times are not in append order and each block carries a time range.
+ * 
+ * 	ID index - record offsets for each from/to identifier (talkgroup, radio
+ * 	ID, etc.)
+ */
+public class EventSegment
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( EventSegment.class );
+
+	private static final int MAGIC = 0x53445245; //SDRE
+	private static final int INDEX_MAGIC = 0x53444958; //SDIX
+	private static final String INDEX_SUFFIX = ".index";
+	private static final int VERSION = 1;
+	
+	private static final int HEADER_SIZE = 64;
+	private static final int HEADER_RECORD_COUNT = 8;
+	private static final int HEADER_WRITE_POSITION = 12;
+	private static final int HEADER_MIN_TIME = 16;
+	private static final int HEADER_MAX_TIME = 24;
+	
+	/* Fixed portion of each record: length, kind, valid, 3 longs */
+	private static final int RECORD_FIXED_SIZE = 4 + 1 + 1 + 8 + 8 + 8;
+	private static final int STRING_COUNT = 6;
+	private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+
+	/* Number of records per sparse time index block */
+	public static final int BLOCK_SIZE = 128;
+	
+	private File mFile;
+	private RandomAccessFile mRandomAccessFile;
+	private MappedByteBuffer mBuffer;
+	private boolean mWritable;
+	
+	private int mRecordCount;
+	private int mWritePosition;
+	private long mMinTime = Long.MAX_VALUE;
+	private long mMaxTime = Long.MIN_VALUE;
+
+	private boolean mIndexed = false;
+	private int[] mBlockOffsets = new int[ 16 ];
+	private long[] mBlockMinTimes = new long[ 16 ];
+	private long[] mBlockMaxTimes = new long[ 16 ];
+	private int mBlockCount;
+	private HashMap<String,int[]> mIDIndex = new HashMap<String,int[]>();
+	
+	private byte[][] mStringBytes = new byte[ STRING_COUNT ][];
+	
+	private EventSegment( File file, RandomAccessFile randomAccessFile, 
+						  MappedByteBuffer buffer )
+	{
+		mFile = file;
+		mRandomAccessFile = randomAccessFile;
+		mBuffer = buffer;
+		mWritable = buffer != null;
+	}
+	
+	/**
+	 * Creates a new, empty segment file
+	 * 
+	 * @param file - segment file
+	 * @param capacity - segment file size in bytes
+	 */
+	public static EventSegment create( File file, int capacity ) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+		
+		try
+		{
+			raf.setLength( capacity );
+
+			MappedByteBuffer buffer = raf.getChannel()
+					.map( FileChannel.MapMode.READ_WRITE, 0, capacity );
+			
+			EventSegment segment = new EventSegment( file, raf, buffer );
+			
+			segment.mWritePosition = HEADER_SIZE;
+			segment.mIndexed = true;
+			
+			buffer.putInt( 0, MAGIC );
+			buffer.putInt( 4, VERSION );
+			segment.writeHeader();
+			
+			return segment;
+		}
+		catch( IOException ioe )
+		{
+			raf.close();
+			
+			throw ioe;
+		}
+	}
+	
+	/**
+	 * Opens an existing segment file as a sealed segment.  Only the header is
+	 * read - the file is not mapped until it is queried.  A segment file that
+	 * wasn't sealed, for example after a crash, is truncated to the written 
+	 * size.
+	 */
+	public static EventSegment open( File file ) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+		
+		try
+		{
+			ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+			
+			raf.getChannel().read( header, 0 );
+			
+			if( header.position() < HEADER_SIZE || 
+				header.getInt( 0 ) != MAGIC || 
+				header.getInt( 4 ) != VERSION )
+			{
+				throw new IOException( "Not an event store segment file:" + file );
+			}
+			
+			EventSegment segment = new EventSegment( file, null, null );
+			
+			segment.mRecordCount = header.getInt( HEADER_RECORD_COUNT );
+			segment.mWritePosition = header.getInt( HEADER_WRITE_POSITION );
+			segment.mMinTime = header.getLong( HEADER_MIN_TIME );
+			segment.mMaxTime = header.getLong( HEADER_MAX_TIME );
+			
+			if( segment.mWritePosition < HEADER_SIZE || 
+				segment.mWritePosition > raf.length() )
+			{
+				throw new IOException( "Invalid write position in event store "
+						+ "segment file:" + file );
+			}
+			
+			if( raf.length() > segment.mWritePosition )
+			{
+				raf.setLength( segment.mWritePosition );
+			}
+			
+			return segment;
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+	
+	public File getFile()
+	{
+		return mFile;
+	}
+	
+	public synchronized int getRecordCount()
+	{
+		return mRecordCount;
+	}
+	
+	/**
+	 * Earliest event time in this segment, or Long.MAX_VALUE if empty
+	 */
+	public synchronized long getMinTime()
+	{
+		return mMinTime;
+	}
+	
+	/**
+	 * Latest event time in this segment, or Long.MIN_VALUE if empty
+	 */
+	public synchronized long getMaxTime()
+	{
+		return mMaxTime;
+	}
+	
+	/**
+	 * Indicates if any event in this segment overlaps the time range
+	 */
+	public synchronized boolean overlaps( long start, long end )
+	{
+		return mRecordCount > 0 && mMinTime <= end && mMaxTime >= start;
+	}
+	
+	/**
+	 * Appends the record to this segment.
+	 * 
+	 * @return true if the record was appended, or false if the segment does 
+	 * not have enough space remaining for the record
+	 */
+	public synchronized boolean append( EventRecord record )
+	{
+		if( !mWritable )
+		{
+			return false;
+		}
+		
+		mStringBytes[ 0 ] = getBytes( record.getChannel() );
+		mStringBytes[ 1 ] = getBytes( record.getProtocol() );
+		mStringBytes[ 2 ] = getBytes( record.getEventType() );
+		mStringBytes[ 3 ] = getBytes( record.getFromID() );
+		mStringBytes[ 4 ] = getBytes( record.getToID() );
+		mStringBytes[ 5 ] = getBytes( record.getDetails() );
+		
+		int length = RECORD_FIXED_SIZE;
+		
+		for( byte[] bytes: mStringBytes )
+		{
+			length += 2 + ( bytes != null ? bytes.length : 0 );
+		}
+		
+		if( mWritePosition + length > mBuffer.capacity() )
+		{
+			return false;
+		}
+		
+		int offset = mWritePosition;
+		
+		mBuffer.position( offset );
+		mBuffer.putInt( length );
+		mBuffer.put( (byte)record.getKind().ordinal() );
+		mBuffer.put( (byte)( record.isValid() ? 1 : 0 ) );
+		mBuffer.putLong( record.getStartTime() );
+		mBuffer.putLong( record.getEndTime() );
+		mBuffer.putLong( record.getFrequency() );
+		
+		for( byte[] bytes: mStringBytes )
+		{
+			if( bytes == null )
+			{
+				mBuffer.putShort( (short)-1 );
+			}
+			else
+			{
+				mBuffer.putShort( (short)bytes.length );
+				mBuffer.put( bytes );
+			}
+		}
+
+		mWritePosition += length;
+		mRecordCount++;
+		
+		long start = record.getStartTime();
+		long end = getEndTime( record.getStartTime(), record.getEndTime() );
+		
+		mMinTime = Math.min( mMinTime, start );
+		mMaxTime = Math.max( mMaxTime, end );
+		
+		writeHeader();
+		
+		if( mIndexed )
+		{
+			index( offset, mRecordCount - 1, start, end, 
+				record.getFromID(), record.getToID() );
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Finds the records that match the query arguments and adds them to the 
+	 * results list.
+	 * 
+	 * @param start - start of the time range (inclusive)
+	 * @param end - end of the time range (inclusive)
+	 * @param id - from or to identifier, or null for any identifier
+	 * @param channel - channel name, or null for any channel
+	 * @param results - list to receive the matching records
+	 */
+	public synchronized void query( long start, long end, String id, 
+			String channel, List<EventRecord> results )
+	{
+		if( !overlaps( start, end ) )
+		{
+			return;
+		}
+		
+		if( mBuffer == null )
+		{
+			try
+			{
+				map();
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Couldn't map event store segment:" + mFile, ioe );
+				
+				return;
+			}
+		}
+		
+		try
+		{
+			query( mBuffer.duplicate(), start, end, id, channel, results );
+		}
+		finally
+		{
+			if( !mWritable )
+			{
+				unmap();
+			}
+		}
+	}
+	
+	/**
+	 * Finds the matching records in the mapped segment, loading or building
+	 * the indexes as needed
+	 */
+	private void query( ByteBuffer buffer, long start, long end, String id, 
+			String channel, List<EventRecord> results )
+	{
+		if( !mIndexed && !loadIndexes() )
+		{
+			buildIndexes();
+		}
+		
+		
+		if( id != null )
+		{
+			int[] offsets = mIDIndex.get( id );
+			
+			if( offsets != null )
+			{
+				/* Element 0 is the offset count */
+				for( int x = 1; x <= offsets[ 0 ]; x++ )
+				{
+					EventRecord record = read( buffer, offsets[ x ] );
+					
+					if( matches( record, start, end, id, channel ) )
+					{
+						results.add( record );
+					}
+				}
+			}
+		}
+		else
+		{
+			for( int block = 0; block < mBlockCount; block++ )
+			{
+				if( mBlockMinTimes[ block ] <= end && 
+					mBlockMaxTimes[ block ] >= start )
+				{
+					int offset = mBlockOffsets[ block ];
+					int blockEnd = block + 1 < mBlockCount ? 
+							mBlockOffsets[ block + 1 ] : mWritePosition;
+					
+					while( offset < blockEnd )
+					{
+						EventRecord record = read( buffer, offset );
+						
+						if( matches( record, start, end, null, channel ) )
+						{
+							results.add( record );
+						}
+						
+						offset += buffer.getInt( offset );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Seals a writable segment: flushes changes to disk, saves the indexes, 
+	 * closes the segment file and truncates it to the written size.  The 
+	 * segment can still be queried.
+	 */
+	public synchronized void seal()
+	{
+		if( !mWritable )
+		{
+			return;
+		}
+		
+		try
+		{
+			mBuffer.force();
+			
+			saveIndexes();
+		}
+		catch( IOException ioe )
+		{
+			mLog.error( "Error sealing event store segment:" + mFile, ioe );
+		}
+
+		mWritable = false;
+		
+		unmap();
+
+		/* Truncation can fail while the released mapping is still open, on 
+		 * some platforms.  The file is then truncated when it is reopened. */
+		RandomAccessFile raf = null;
+		
+		try
+		{
+			raf = new RandomAccessFile( mFile, "rw" );
+			raf.setLength( mWritePosition );
+		}
+		catch( IOException ioe )
+		{
+			mLog.debug( "Couldn't truncate event store segment:" + mFile );
+		}
+		finally
+		{
+			closeQuietly( raf );
+		}
+	}
+	
+	/**
+	 * Seals the segment, if writable
+	 */
+	public synchronized void close()
+	{
+		seal();
+	}
+	
+	/**
+	 * Deletes the segment file and index file.  Only sealed segments can be
+	 * deleted.
+	 * 
+	 * @return true if the segment file was deleted
+	 */
+	public synchronized boolean delete()
+	{
+		if( mWritable )
+		{
+			return false;
+		}
+		
+		unmap();
+		releaseIndexes();
+		
+		getIndexFile().delete();
+		
+		return mFile.delete() || !mFile.exists();
+	}
+
+	/**
+	 * Flushes changes to disk
+	 */
+	public synchronized void flush()
+	{
+		if( mWritable )
+		{
+			mBuffer.force();
+		}
+	}
+	
+	/**
+	 * Indicates if this segment accepts new records
+	 */
+	public synchronized boolean isWritable()
+	{
+		return mWritable;
+	}
+	
+	/**
+	 * Segment file size in bytes
+	 */
+	public synchronized long getSize()
+	{
+		return mWritable ? mBuffer.capacity() : mWritePosition;
+	}
+	
+	/**
+	 * Maps the written portion of a sealed segment file read-only
+	 */
+	private void map() throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile( mFile, "r" );
+		
+		try
+		{
+			/* The mapping remains valid after the file is closed */
+			mBuffer = raf.getChannel().map( FileChannel.MapMode.READ_ONLY, 0, 
+					mWritePosition );
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Releases the mapping and file of a sealed segment.  The mapped memory is
+	 * returned once the buffer is garbage collected.
+	 */
+	private void unmap()
+	{
+		closeQuietly( mRandomAccessFile );
+		
+		mRandomAccessFile = null;
+		mBuffer = null;
+	}
+	
+	/**
+	 * Releases the in-memory indexes of a sealed segment.  The indexes are 
+	 * loaded again from the index file when the segment is next queried.
+	 */
+	public synchronized void releaseIndexes()
+	{
+		if( mWritable )
+		{
+			return;
+		}
+		
+		mIndexed = false;
+		mBlockOffsets = new int[ 16 ];
+		mBlockMinTimes = new long[ 16 ];
+		mBlockMaxTimes = new long[ 16 ];
+		mBlockCount = 0;
+		mIDIndex = new HashMap<String,int[]>();
+	}
+	
+	private static void closeQuietly( Closeable closeable )
+	{
+		if( closeable != null )
+		{
+			try
+			{
+				closeable.close();
+			}
+			catch( IOException ioe )
+			{
+				//Ignore
+			}
+		}
+	}
+	
+	private static boolean matches( EventRecord record, long start, long end, 
+			String id, String channel )
+	{
+		if( record.getStartTime() > end || 
+			getEndTime( record.getStartTime(), record.getEndTime() ) < start )
+		{
+			return false;
+		}
+		
+		if( id != null && !id.equals( record.getFromID() ) && 
+			!id.equals( record.getToID() ) )
+		{
+			return false;
+		}
+		
+		return channel == null || channel.equals( record.getChannel() );
+	}
+	
+	private static long getEndTime( long start, long end )
+	{
+		return end > start ? end : start;
+	}
+	
+	private void writeHeader()
+	{
+		mBuffer.putInt( HEADER_RECORD_COUNT, mRecordCount );
+		mBuffer.putLong( HEADER_MIN_TIME, mMinTime );
+		mBuffer.putLong( HEADER_MAX_TIME, mMaxTime );
+
+		/* Write position last - it commits the record */
+		mBuffer.putInt( HEADER_WRITE_POSITION, mWritePosition );
+	}
+
+	private File getIndexFile()
+	{
+		return new File( mFile.getPath() + INDEX_SUFFIX );
+	}
+	
+	/**
+	 * Saves the time and ID indexes to the index file.  Indexes are only 
+	 * saved when they are complete (built or loaded).
+	 */
+	public synchronized void saveIndexes() throws IOException
+	{
+		if( !mIndexed )
+		{
+			return;
+		}
+		
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( 
+				new FileOutputStream( getIndexFile() ), 65536 ) );
+		
+		try
+		{
+			out.writeInt( INDEX_MAGIC );
+			out.writeInt( mWritePosition );
+			out.writeInt( mBlockCount );
+			
+			for( int x = 0; x < mBlockCount; x++ )
+			{
+				out.writeInt( mBlockOffsets[ x ] );
+				out.writeLong( mBlockMinTimes[ x ] );
+				out.writeLong( mBlockMaxTimes[ x ] );
+			}
+			
+			out.writeInt( mIDIndex.size() );
+			
+			for( Map.Entry<String,int[]> entry: mIDIndex.entrySet() )
+			{
+				int[] offsets = entry.getValue();
+				
+				out.writeUTF( entry.getKey() );
+				out.writeInt( offsets[ 0 ] );
+				
+				for( int x = 1; x <= offsets[ 0 ]; x++ )
+				{
+					out.writeInt( offsets[ x ] );
+				}
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Loads the time and ID indexes from the index file.
+	 * 
+	 * @return true if the indexes were loaded, or false if the index file 
+	 * doesn't exist or doesn't match the current segment contents
+	 */
+	private boolean loadIndexes()
+	{
+		File file = getIndexFile();
+		
+		if( !file.exists() )
+		{
+			return false;
+		}
+		
+		DataInputStream in = null;
+		
+		try
+		{
+			in = new DataInputStream( new BufferedInputStream( 
+					new FileInputStream( file ), 65536 ) );
+			
+			if( in.readInt() != INDEX_MAGIC || in.readInt() != mWritePosition )
+			{
+				return false;
+			}
+			
+			int blockCount = in.readInt();
+			
+			int[] blockOffsets = new int[ Math.max( blockCount, 16 ) ];
+			long[] blockMinTimes = new long[ blockOffsets.length ];
+			long[] blockMaxTimes = new long[ blockOffsets.length ];
+			
+			for( int x = 0; x < blockCount; x++ )
+			{
+				blockOffsets[ x ] = in.readInt();
+				blockMinTimes[ x ] = in.readLong();
+				blockMaxTimes[ x ] = in.readLong();
+			}
+			
+			int idCount = in.readInt();
+			
+			HashMap<String,int[]> idIndex = new HashMap<String,int[]>( idCount * 2 );
+			
+			for( int x = 0; x < idCount; x++ )
+			{
+				String id = in.readUTF();
+				int count = in.readInt();
+				
+				int[] offsets = new int[ count + 1 ];
+				offsets[ 0 ] = count;
+				
+				for( int y = 1; y <= count; y++ )
+				{
+					offsets[ y ] = in.readInt();
+				}
+				
+				idIndex.put( id, offsets );
+			}
+			
+			mBlockOffsets = blockOffsets;
+			mBlockMinTimes = blockMinTimes;
+			mBlockMaxTimes = blockMaxTimes;
+			mBlockCount = blockCount;
+			mIDIndex = idIndex;
+			mIndexed = true;
+			
+			return true;
+		}
+		catch( IOException ioe )
+		{
+			mLog.warn( "Couldn't load event store index file:" + file, ioe );
+			
+			return false;
+		}
+		finally
+		{
+			if( in != null )
+			{
+				try
+				{
+					in.close();
+				}
+				catch( IOException ioe )
+				{
+					//Ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the time and ID indexes by scanning all records in the segment
+	 */
+	private void buildIndexes()
+	{
+		ByteBuffer buffer = mBuffer.duplicate();
+
+		int offset = HEADER_SIZE;
+		int recordIndex = 0;
+		
+		while( offset < mWritePosition )
+		{
+			/* Only decode the times and the from/to identifiers */
+			long start = buffer.getLong( offset + 6 );
+			long end = getEndTime( start, buffer.getLong( offset + 14 ) );
+
+			buffer.position( offset + RECORD_FIXED_SIZE );
+			
+			skipString( buffer ); //Channel
+			skipString( buffer ); //Protocol
+			skipString( buffer ); //Event Type
+			
+			String fromID = readString( buffer );
+			String toID = readString( buffer );
+			
+			index( offset, recordIndex++, start, end, fromID, toID );
+			
+			offset += buffer.getInt( offset );
+		}
+		
+		mIndexed = true;
+	}
+	
+	private void index( int offset, int recordIndex, long start, long end, 
+			String fromID, String toID )
+	{
+		if( recordIndex % BLOCK_SIZE == 0 )
+		{
+			if( mBlockCount == mBlockOffsets.length )
+			{
+				int size = mBlockCount * 2;
+				
+				mBlockOffsets = Arrays.copyOf( mBlockOffsets, size );
+				mBlockMinTimes = Arrays.copyOf( mBlockMinTimes, size );
+				mBlockMaxTimes = Arrays.copyOf( mBlockMaxTimes, size );
+			}
+			
+			mBlockOffsets[ mBlockCount ] = offset;
+			mBlockMinTimes[ mBlockCount ] = start;
+			mBlockMaxTimes[ mBlockCount ] = end;
+			mBlockCount++;
+		}
+		else
+		{
+			int block = mBlockCount - 1;
+			
+			mBlockMinTimes[ block ] = Math.min( mBlockMinTimes[ block ], start );
+			mBlockMaxTimes[ block ] = Math.max( mBlockMaxTimes[ block ], end );
+		}
+		
+		indexID( fromID, offset );
+		
+		if( toID != null && !toID.equals( fromID ) )
+		{
+			indexID( toID, offset );
+		}
+	}
+	
+	/**
+	 * Adds the record offset to the ID index.  Offsets are stored in a 
+	 * growable int array where element 0 holds the offset count.
+	 */
+	private void indexID( String id, int offset )
+	{
+		if( id == null || id.isEmpty() )
+		{
+			return;
+		}
+		
+		int[] offsets = mIDIndex.get( id );
+		
+		if( offsets == null )
+		{
+			offsets = new int[ 4 ];
+			mIDIndex.put( id, offsets );
+		}
+		else if( offsets[ 0 ] + 1 == offsets.length )
+		{
+			offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+			mIDIndex.put( id, offsets );
+		}
+		
+		offsets[ 0 ]++;
+		offsets[ offsets[ 0 ] ] = offset;
+	}
+	
+	private static EventRecord read( ByteBuffer buffer, int offset )
+	{
+		buffer.position( offset + 4 );
+		
+		Kind kind = Kind.values()[ buffer.get() ];
+		boolean valid = buffer.get() == 1;
+		long start = buffer.getLong();
+		long end = buffer.getLong();
+		long frequency = buffer.getLong();
+		
+		String channel = readString( buffer );
+		String protocol = readString( buffer );
+		String eventType = readString( buffer );
+		String fromID = readString( buffer );
+		String toID = readString( buffer );
+		String details = readString( buffer );
+		
+		return new EventRecord( kind, valid, start, end, frequency, channel, 
+				protocol, eventType, fromID, toID, details );
+	}
+	
+	private static String readString( ByteBuffer buffer )
+	{
+		short length = buffer.getShort();
+		
+		if( length < 0 )
+		{
+			return null;
+		}
+		
+		byte[] bytes = new byte[ length ];
+		buffer.get( bytes );
+		
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+	
+	private static void skipString( ByteBuffer buffer )
+	{
+		short length = buffer.getShort();
+		
+		if( length > 0 )
+		{
+			buffer.position( buffer.position() + length );
+		}
+	}
+	
+	private static byte[] getBytes( String value )
+	{
+		if( value == null )
+		{
+			return null;
+		}
+		
+		byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		
+		if( bytes.length > MAX_STRING_BYTES )
+		{
+			bytes = Arrays.copyOf( bytes, MAX_STRING_BYTES );
+		}
+		
+		return bytes;
+	}
+}
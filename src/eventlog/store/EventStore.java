@@ -0,0 +1,587 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package eventlog.store;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent, append-only store of call events and decoded messages for 
+ * historical queries by time range, identifier (talkgroup, radio ID, etc.) 
+ * and channel.
+ * 
+ * Events are placed on a bounded queue by the producer (decoder) threads 
+ * and are written by a background writer thread, in batches, so that disk 
+ * access never stalls decoding.  When the queue is full, the event is 
+ * discarded and counted as dropped.  Queries see an event once the writer 
+ * thread has written it, within the flush interval.
+ * 
+ * Events are written to fixed size, memory-mapped segment files in the 
+ * store directory.  When the current segment is full, it is sealed and a new
+ * segment is started.  A new segment is also started each time the store is
+ * opened - existing segment files are only read for their header values, and
+ * sealed segments are mapped only while they are queried.  Queries skip 
+ * segments whose time range does not overlap the query and use the 
+ * per-segment time and ID indexes to locate records.  The indexes of the most
+ * recently sealed or queried segments are held in memory, so that repeated 
+ * queries don't reload the index files.
+ * 
+ * Sealed segments are deleted, oldest first, once their newest event is older
+ * than the maximum age or while the store exceeds the maximum size.  
+ * Retention is applied when the store is opened, when a segment is sealed and
+ * on a fixed interval.
+ * 
+ * Thread safe - events can be appended from multiple decoder threads while
+ * queries run on other threads.
+ */
+public class EventStore
+{
+	private final static Logger mLog = LoggerFactory.getLogger( EventStore.class );
+
+	public static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+	public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+	public static final long DEFAULT_MAXIMUM_AGE = TimeUnit.DAYS.toMillis( 30 );
+	public static final long DEFAULT_MAXIMUM_SIZE = 1024l * 1024l * 1024l;
+	
+	private static final String SEGMENT_PREFIX = "events_";
+	private static final String SEGMENT_SUFFIX = ".segment";
+	
+	/* Queue depth that triggers a write ahead of the flush interval */
+	private static final int BATCH_SIZE = 256;
+	private static final long FLUSH_INTERVAL_MS = 500;
+	private static final long RETENTION_INTERVAL_MS = TimeUnit.HOURS.toMillis( 1 );
+	/* Number of sealed segments that hold their indexes in memory */
+	private static final int INDEXED_SEGMENT_COUNT = 8;
+	
+	private Path mDirectory;
+	private int mSegmentSize;
+	private long mMaximumAge;
+	private long mMaximumSize;
+	private boolean mClosed;
+	
+	private ArrayBlockingQueue<EventRecord> mQueue;
+	private ArrayList<EventRecord> mBatch = new ArrayList<EventRecord>();
+	private AtomicBoolean mWritePending = new AtomicBoolean();
+	private AtomicLong mDroppedCount = new AtomicLong();
+	private long mReportedDroppedCount;
+	private volatile ScheduledExecutorService mExecutor;
+
+	private CopyOnWriteArrayList<EventSegment> mSegments = 
+			new CopyOnWriteArrayList<EventSegment>();
+	private EventSegment mCurrentSegment;
+	private int mNextSequence = 1;
+	
+	/* Sealed segments holding their indexes, least recently used first */
+	private LinkedHashMap<EventSegment,EventSegment> mIndexedSegments = 
+		new LinkedHashMap<EventSegment,EventSegment>( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( 
+					Map.Entry<EventSegment,EventSegment> eldest )
+			{
+				if( size() > INDEXED_SEGMENT_COUNT )
+				{
+					eldest.getKey().releaseIndexes();
+					
+					return true;
+				}
+				
+				return false;
+			}
+		};
+	
+	/**
+	 * Opens, or creates, the event store in the directory
+	 */
+	public EventStore( Path directory ) throws IOException
+	{
+		this( directory, DEFAULT_SEGMENT_SIZE, DEFAULT_QUEUE_CAPACITY, 
+				DEFAULT_MAXIMUM_AGE, DEFAULT_MAXIMUM_SIZE );
+	}
+	
+	/**
+	 * Opens, or creates, the event store in the directory and starts the 
+	 * background writer thread
+	 * 
+	 * @param directory - event store directory
+	 * @param segmentSize - size in bytes of each new segment file
+	 * @param queueCapacity - maximum number of events waiting to be written
+	 * @param maximumAge - delete segments once their newest event is older 
+	 * than this many milliseconds, or 0 to disable age based retention
+	 * @param maximumSize - delete the oldest segments while the total size 
+	 * of the segment files exceeds this many bytes, or 0 to disable size 
+	 * based retention
+	 */
+	public EventStore( Path directory, int segmentSize, int queueCapacity,
+					   long maximumAge, long maximumSize ) throws IOException
+	{
+		mDirectory = directory;
+		mSegmentSize = segmentSize;
+		mQueue = new ArrayBlockingQueue<EventRecord>( queueCapacity );
+		mMaximumAge = maximumAge;
+		mMaximumSize = maximumSize;
+		
+		Files.createDirectories( directory );
+		
+		File[] files = directory.toFile().listFiles( new FilenameFilter()
+		{
+			@Override
+			public boolean accept( File dir, String name )
+			{
+				return name.startsWith( SEGMENT_PREFIX ) && 
+					   name.endsWith( SEGMENT_SUFFIX );
+			}
+		} );
+		
+		if( files != null )
+		{
+			/* Zero padded sequence numbers sort in creation order */
+			Arrays.sort( files );
+			
+			for( File file: files )
+			{
+				mNextSequence = Math.max( mNextSequence, 
+						getSequence( file.getName() ) + 1 );
+				
+				try
+				{
+					mSegments.add( EventSegment.open( file ) );
+				}
+				catch( IOException ioe )
+				{
+					mLog.error( "Couldn't open event store segment:" + file, ioe );
+				}
+			}
+		}
+		
+		mCurrentSegment = createSegment();
+		
+		applyRetention();
+		
+		mLog.info( "Event store [" + directory + "] opened with " + 
+				mSegments.size() + " segment(s)" );
+		
+		startExecutor();
+	}
+	
+	/**
+	 * Queues the event record for writing to the store.  Does not block.
+	 * 
+	 * @return true if the record was queued, or false if the queue was full
+	 * and the record was dropped
+	 */
+	public boolean append( EventRecord record )
+	{
+		if( !mQueue.offer( record ) )
+		{
+			mDroppedCount.incrementAndGet();
+			
+			return false;
+		}
+		
+		ScheduledExecutorService executor = mExecutor;
+		
+		if( executor != null && mQueue.size() >= BATCH_SIZE && 
+			mWritePending.compareAndSet( false, true ) )
+		{
+			try
+			{
+				executor.execute( new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						mWritePending.set( false );
+						
+						drain();
+					}
+				} );
+			}
+			catch( RejectedExecutionException ree )
+			{
+				/* Queued records are written on the next flush interval */
+				mWritePending.set( false );
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Number of event records discarded because the queue was full
+	 */
+	public long getDroppedCount()
+	{
+		return mDroppedCount.get();
+	}
+	
+	/**
+	 * Number of event records waiting to be written
+	 */
+	public int getQueuedCount()
+	{
+		return mQueue.size();
+	}
+	
+	/**
+	 * Drains the queue and writes the event records as a batch.  Invoked on
+	 * the background writer thread.
+	 */
+	private synchronized void drain()
+	{
+		if( mClosed )
+		{
+			return;
+		}
+		
+		long dropped = mDroppedCount.get();
+		
+		if( dropped != mReportedDroppedCount )
+		{
+			mLog.warn( "Event store queue full - dropped " + 
+				( dropped - mReportedDroppedCount ) + " events (" + 
+				dropped + " total)" );
+			
+			mReportedDroppedCount = dropped;
+		}
+
+		while( mQueue.drainTo( mBatch, BATCH_SIZE ) > 0 )
+		{
+			try
+			{
+				for( EventRecord record: mBatch )
+				{
+					write( record );
+				}
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Error writing events to event store [" + 
+						mDirectory + "]", ioe );
+			}
+			
+			mBatch.clear();
+		}
+	}
+	
+	/**
+	 * Writes the event record to the current segment, starting a new segment
+	 * when the current segment is full
+	 */
+	private void write( EventRecord record ) throws IOException
+	{
+		if( !mCurrentSegment.append( record ) )
+		{
+			/* Seal the full segment - it is mapped again when queried */
+			mCurrentSegment.seal();
+			
+			indexed( mCurrentSegment );
+			
+			mCurrentSegment = createSegment();
+			
+			applyRetention();
+			
+			if( !mCurrentSegment.append( record ) )
+			{
+				throw new IOException( "Event record exceeds segment size" );
+			}
+		}
+	}
+	
+	/**
+	 * Deletes sealed segments, oldest first, whose newest event is older than
+	 * the maximum age, or while the total size of the segment files exceeds 
+	 * the maximum size
+	 */
+	private synchronized void applyRetention()
+	{
+		long cutoff = System.currentTimeMillis() - mMaximumAge;
+		long size = getSize();
+		
+		for( EventSegment segment: mSegments )
+		{
+			if( segment.isWritable() )
+			{
+				continue;
+			}
+			
+			boolean expired = mMaximumAge > 0 && segment.getMaxTime() < cutoff;
+			boolean oversize = mMaximumSize > 0 && size > mMaximumSize;
+			
+			if( expired || oversize )
+			{
+				long segmentSize = segment.getSize();
+				
+				if( segment.delete() )
+				{
+					mSegments.remove( segment );
+					
+					synchronized( mIndexedSegments )
+					{
+						mIndexedSegments.remove( segment );
+					}
+					
+					size -= segmentSize;
+					
+					mLog.info( "Event store - deleted segment [" + 
+						segment.getFile().getName() + "] - " + 
+						( expired ? "maximum age" : "maximum size" ) );
+				}
+				else
+				{
+					mLog.warn( "Couldn't delete event store segment:" + 
+						segment.getFile() );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Finds all events that occur within the time range and match the 
+	 * identifier and channel.  Results are ordered by event start time.
+	 * 
+	 * @param start - start of the time range (inclusive)
+	 * @param end - end of the time range (inclusive)
+	 * @param id - from or to identifier to match, or null for any identifier
+	 * @param channel - channel name to match, or null for any channel
+	 */
+	public List<EventRecord> query( long start, long end, String id, 
+									String channel )
+	{
+		List<EventRecord> results = new ArrayList<EventRecord>();
+		
+		for( EventSegment segment: mSegments )
+		{
+			segment.query( start, end, id, channel, results );
+			
+			if( !segment.isWritable() && segment.overlaps( start, end ) )
+			{
+				indexed( segment );
+			}
+		}
+		
+		Collections.sort( results, new Comparator<EventRecord>()
+		{
+			@Override
+			public int compare( EventRecord a, EventRecord b )
+			{
+				return Long.compare( a.getStartTime(), b.getStartTime() );
+			}
+		} );
+		
+		return results;
+	}
+	
+	/**
+	 * Records that the sealed segment holds its indexes in memory and 
+	 * releases the indexes of the least recently used segment once more than
+	 * INDEXED_SEGMENT_COUNT segments hold their indexes
+	 */
+	private void indexed( EventSegment segment )
+	{
+		synchronized( mIndexedSegments )
+		{
+			mIndexedSegments.put( segment, segment );
+		}
+	}
+	
+	/**
+	 * Finds all events that occur within the time range
+	 */
+	public List<EventRecord> query( long start, long end )
+	{
+		return query( start, end, null, null );
+	}
+	
+	/**
+	 * Number of segment files in the store
+	 */
+	public int getSegmentCount()
+	{
+		return mSegments.size();
+	}
+	
+	/**
+	 * Total size in bytes of the segment files in the store
+	 */
+	public long getSize()
+	{
+		long size = 0;
+		
+		for( EventSegment segment: mSegments )
+		{
+			size += segment.getSize();
+		}
+		
+		return size;
+	}
+	
+	public Path getDirectory()
+	{
+		return mDirectory;
+	}
+	
+	/**
+	 * Writes all queued event records and flushes the current segment to disk
+	 */
+	public synchronized void flush()
+	{
+		drain();
+		
+		if( !mClosed )
+		{
+			mCurrentSegment.flush();
+		}
+	}
+	
+	/**
+	 * Stops the background writer thread, writes all queued event records, 
+	 * then seals the current segment.  Events appended after the store is 
+	 * closed are discarded.
+	 */
+	public synchronized void close()
+	{
+		if( mClosed )
+		{
+			return;
+		}
+		
+		if( mExecutor != null )
+		{
+			mExecutor.shutdown();
+			mExecutor = null;
+		}
+		
+		drain();
+		
+		mClosed = true;
+		
+		for( EventSegment segment: mSegments )
+		{
+			segment.close();
+		}
+		
+		mSegments.clear();
+		
+		synchronized( mIndexedSegments )
+		{
+			mIndexedSegments.clear();
+		}
+	}
+
+	/**
+	 * Starts the background writer thread
+	 */
+	private void startExecutor()
+	{
+		mExecutor = Executors.newSingleThreadScheduledExecutor( 
+			new ThreadFactory()
+		{
+			@Override
+			public Thread newThread( Runnable runnable )
+			{
+				Thread thread = new Thread( runnable, "event store writer" );
+				thread.setDaemon( true );
+				
+				return thread;
+			}
+		} );
+		
+		mExecutor.scheduleAtFixedRate( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					drain();
+				}
+				catch( Exception e )
+				{
+					mLog.error( "Error writing event store", e );
+				}
+			}
+		}, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS );
+		
+		mExecutor.scheduleAtFixedRate( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					applyRetention();
+				}
+				catch( Exception e )
+				{
+					mLog.error( "Error applying event store retention", e );
+				}
+			}
+		}, RETENTION_INTERVAL_MS, RETENTION_INTERVAL_MS, TimeUnit.MILLISECONDS );
+	}
+
+	private EventSegment createSegment() throws IOException
+	{
+		String name = String.format( "%s%08d%s", SEGMENT_PREFIX, 
+				mNextSequence++, SEGMENT_SUFFIX );
+		
+		EventSegment segment = EventSegment.create( 
+				mDirectory.resolve( name ).toFile(), mSegmentSize );
+		
+		mSegments.add( segment );
+		
+		return segment;
+	}
+	
+	private static int getSequence( String name )
+	{
+		try
+		{
+			return Integer.parseInt( name.substring( SEGMENT_PREFIX.length(), 
+					name.length() - SEGMENT_SUFFIX.length() ) );
+		}
+		catch( NumberFormatException nfe )
+		{
+			return 0;
+		}
+	}
+}
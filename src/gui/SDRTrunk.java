@@ -46,12 +46,14 @@ import javax.swing.JSeparator;
 
 import net.miginfocom.swing.MigLayout;
 
+import org.jtransforms.utils.ConcurrencyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import properties.SystemProperties;
 import source.tuner.Tuner;
 import source.tuner.TunerSelectionListener;
+import spectrum.DFTProcessor;
 import spectrum.SpectralDisplayPanel;
 import util.TimeStamp;
 
@@ -98,6 +100,8 @@ public class SDRTrunk
 		
 		//Log current properties setting
 		SystemProperties.getInstance().logCurrentSettings();
+		
+		configureFFTThreads();
 
 		/** 
 		 * Construct the resource manager now, so that it can use the system
@@ -105,6 +109,16 @@ public class SDRTrunk
 		 */
 		mResourceManager = new ResourceManager();
 		
+		/* Flush event logs when the application exits */
+		Runtime.getRuntime().addShutdownHook( new Thread( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				mResourceManager.getEventLogManager().dispose();
+			}
+		}, "shutdown" ) );
+		
 		/* Log any available audio converter plugins */
 		logAvailableAudioPlugins();
 		
@@ -132,6 +146,20 @@ public class SDRTrunk
         } );
     }
 
+    /**
+     * Limits JTransforms multi-threading to large FFTs, so that the spectral
+     * display FFTs run on the calculation thread only.  JTransforms uses 2 
+     * threads for FFTs at or above the first width and 4 threads at or above
+     * the second width, when the processor count allows.
+     */
+    private void configureFFTThreads()
+    {
+    	ConcurrencyUtils.setThreadsBeginN_1D_FFT_2Threads( 
+    			DFTProcessor.MULTITHREADED_FFT_WIDTH );
+    	ConcurrencyUtils.setThreadsBeginN_1D_FFT_4Threads( 
+    			DFTProcessor.MULTITHREADED_FFT_WIDTH * 2 );
+    }
+
     /**
      * Launch the application.
      */
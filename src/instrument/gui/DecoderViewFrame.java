@@ -57,9 +57,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sample.Listener;
+import sample.complex.ComplexBuffer;
 import source.Source.SampleType;
 import source.wave.ComplexWaveSource;
 import source.wave.FloatWaveSource;
+import source.wave.MappedComplexWaveSource;
 import source.wave.WaveSource;
 import source.wave.WaveSource.PositionListener;
 import decode.Decoder;
@@ -82,7 +84,19 @@ public class DecoderViewFrame extends JInternalFrame
 		mDecoder = decoder;
 		mWaveSource = source;
 
-		if( source.getSampleType() == SampleType.COMPLEX )
+		if( source instanceof MappedComplexWaveSource )
+		{
+			MappedComplexWaveSource mcws = (MappedComplexWaveSource)mWaveSource;
+			mcws.setListener( new Listener<ComplexBuffer>()
+			{
+				@Override
+				public void receive( ComplexBuffer buffer )
+				{
+					mDecoder.getComplexBufferReceiver().receive( buffer );
+				}
+			} );
+		}
+		else if( source.getSampleType() == SampleType.COMPLEX )
 		{
 			ComplexWaveSource cws = (ComplexWaveSource)mWaveSource;
 			cws.addListener( mDecoder.getComplexReceiver() );
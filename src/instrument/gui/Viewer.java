@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import source.Source;
 import source.wave.ComplexWaveSource;
 import source.wave.FloatWaveSource;
+import source.wave.MappedComplexWaveSource;
 import source.wave.WaveSource;
 
 public class Viewer
@@ -143,6 +144,26 @@ public class Viewer
     		mLog.error( "Couldn't open file as float single-channel source" );
     	}
     	
+    	if( source == null )
+    	{
+        	/* Attempt to open file as a 2-channel 16-bit or float complex 
+        	 * memory-mapped source */
+        	try
+        	{
+        		MappedComplexWaveSource complex = 
+        				new MappedComplexWaveSource( file, false );
+        		complex.open();
+        		
+        		source = complex;
+
+        		mLog.info( "File opened as memory-mapped complex wave file" );
+        	}
+        	catch( Exception e )
+        	{
+        		mLog.error( "Couldn't open file as memory-mapped complex source" );
+        	}
+    	}
+    	
     	if( source == null )
     	{
         	/* Attempt to open file as a 2-channel complex source */
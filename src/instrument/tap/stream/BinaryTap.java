@@ -20,8 +20,10 @@ package instrument.tap.stream;
 import instrument.tap.TapListener;
 import instrument.tap.TapType;
 import sample.Listener;
+import bits.IBitListener;
 
-public class BinaryTap extends StreamTap implements Listener<Boolean>
+public class BinaryTap extends StreamTap implements Listener<Boolean>, 
+												IBitListener
 												
 {
 	private Listener<Boolean> mListener;
@@ -47,6 +49,12 @@ public class BinaryTap extends StreamTap implements Listener<Boolean>
 		}
     }
 
+	@Override
+    public void receive( boolean bit )
+    {
+		receive( Boolean.valueOf( bit ) );
+    }
+
     public void setListener( Listener<Boolean> listener )
     {
 		mListener = listener;
@@ -29,8 +29,13 @@ import org.jdesktop.swingx.input.PanKeyListener;
 import org.jdesktop.swingx.input.ZoomMouseWheelListenerCursor;
 import org.jdesktop.swingx.mapviewer.DefaultTileFactory;
 import org.jdesktop.swingx.mapviewer.GeoPosition;
+import org.jdesktop.swingx.mapviewer.TileCache;
 import org.jdesktop.swingx.mapviewer.TileFactoryInfo;
 
+import metrics.Gauge;
+import metrics.MetricGroup;
+import metrics.MetricsRegistry;
+import properties.SystemProperties;
 import settings.MapViewSetting;
 import settings.SettingsManager;
 import controller.ResourceManager;
@@ -39,6 +44,11 @@ public class MapPanel extends JPanel implements PlottableUpdateListener
 {
     private static final long serialVersionUID = 1L;
 
+    public static final String TILE_CACHE_IMAGE_PROPERTY = "map.tile.cache.image.mb";
+    public static final String TILE_CACHE_COMPRESSED_PROPERTY = "map.tile.cache.compressed.mb";
+    public static final String TILE_CACHE_DISK_PROPERTY = "map.tile.cache.disk.mb";
+    private static final long MEGABYTE = 1000 * 1000;
+
     private SettingsManager mSettingsManager;
     private MapService mMapService;
     private JXMapViewer mMapViewer = new JXMapViewer();
@@ -69,6 +79,7 @@ public class MapPanel extends JPanel implements PlottableUpdateListener
     	 */
     	TileFactoryInfo info = new OSMTileFactoryInfo();
 		DefaultTileFactory tileFactory = new DefaultTileFactory( info );
+		tileFactory.setTileCache( createTileCache() );
 		mMapViewer.setTileFactory( tileFactory );
 
 		/**
@@ -117,6 +128,73 @@ public class MapPanel extends JPanel implements PlottableUpdateListener
     	add(  mMapViewer, "span" );
     }
 
+	/**
+	 * Creates the map tile cache, sized from the system properties, with a
+	 * disk tier in the map_tiles application folder, and publishes the cache
+	 * statistics to the metrics registry
+	 */
+	private TileCache createTileCache()
+	{
+		SystemProperties props = SystemProperties.getInstance();
+
+		final TileCache cache = new TileCache(
+			props.get( TILE_CACHE_IMAGE_PROPERTY, 50 ) * MEGABYTE,
+			props.get( TILE_CACHE_COMPRESSED_PROPERTY, 50 ) * MEGABYTE,
+			props.getApplicationFolder( "map_tiles" ).toFile(),
+			props.get( TILE_CACHE_DISK_PROPERTY, 500 ) * MEGABYTE );
+
+		MetricGroup group = MetricsRegistry.getInstance().getGroup( "map.tiles" );
+
+		group.gauge( "image.hits", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return cache.getImageHitCount();
+			}
+		} );
+
+		group.gauge( "compressed.hits", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return cache.getCompressedHitCount();
+			}
+		} );
+
+		group.gauge( "disk.hits", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return cache.getDiskHitCount();
+			}
+		} );
+
+		group.gauge( "misses", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return cache.getMissCount();
+			}
+		} );
+
+		group.gauge( "evictions", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return cache.getImageEvictionCount() +
+					   cache.getCompressedEvictionCount() +
+					   cache.getDiskEvictionCount();
+			}
+		} );
+
+		return cache;
+	}
+
 	@Override
     public void entitiesUpdated()
     {
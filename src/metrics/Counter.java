@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic event counter.  The metrics registry periodically updates the
+ * per-second rate of the counter.
+ */
+public class Counter implements Metric
+{
+	private String mName;
+	private AtomicLong mCount = new AtomicLong();
+	
+	private long mPreviousCount;
+	private volatile double mRate;
+	
+	public Counter( String name )
+	{
+		mName = name;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return mName;
+	}
+	
+	public void increment()
+	{
+		mCount.incrementAndGet();
+	}
+	
+	public void add( long count )
+	{
+		mCount.addAndGet( count );
+	}
+	
+	public long getCount()
+	{
+		return mCount.get();
+	}
+
+	/**
+	 * Count per second over the most recent rate interval
+	 */
+	public double getRate()
+	{
+		return mRate;
+	}
+	
+	/**
+	 * Updates the rate from the count accumulated since the previous update
+	 * 
+	 * @param seconds - elapsed time since the previous update
+	 */
+	void updateRate( double seconds )
+	{
+		long count = mCount.get();
+		
+		if( seconds > 0.0d )
+		{
+			mRate = (double)( count - mPreviousCount ) / seconds;
+		}
+		
+		mPreviousCount = count;
+	}
+	
+	@Override
+	public Map<String,Number> getValues()
+	{
+		Map<String,Number> values = new LinkedHashMap<String,Number>();
+		
+		values.put( "count", getCount() );
+		values.put( "rate", Math.round( getRate() ) );
+		
+		return values;
+	}
+}
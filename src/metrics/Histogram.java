@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, like nanoseconds per buffer, 
+ * using power of 2 buckets.  Percentiles are approximate and are reported as
+ * the upper bound of the bucket that contains the percentile.
+ */
+public class Histogram implements Metric
+{
+	private static final int BUCKET_COUNT = 64;
+	
+	private String mName;
+	private AtomicLongArray mBuckets = new AtomicLongArray( BUCKET_COUNT );
+	private AtomicLong mCount = new AtomicLong();
+	private AtomicLong mSum = new AtomicLong();
+	private AtomicLong mMaximum = new AtomicLong();
+	
+	public Histogram( String name )
+	{
+		mName = name;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return mName;
+	}
+	
+	public void update( long value )
+	{
+		if( value < 0 )
+		{
+			value = 0;
+		}
+		
+		int bucket = BUCKET_COUNT - Long.numberOfLeadingZeros( value );
+		
+		if( bucket >= BUCKET_COUNT )
+		{
+			bucket = BUCKET_COUNT - 1;
+		}
+		
+		mBuckets.incrementAndGet( bucket );
+		mCount.incrementAndGet();
+		mSum.addAndGet( value );
+		
+		long maximum = mMaximum.get();
+		
+		while( value > maximum && !mMaximum.compareAndSet( maximum, value ) )
+		{
+			maximum = mMaximum.get();
+		}
+	}
+	
+	public long getCount()
+	{
+		return mCount.get();
+	}
+	
+	public long getMean()
+	{
+		long count = mCount.get();
+		
+		if( count == 0 )
+		{
+			return 0;
+		}
+		
+		return mSum.get() / count;
+	}
+	
+	public long getMaximum()
+	{
+		return mMaximum.get();
+	}
+	
+	/**
+	 * Approximate value at the percentile
+	 * 
+	 * @param percentile - 0.0 to 1.0
+	 */
+	public long getPercentile( double percentile )
+	{
+		long count = mCount.get();
+		
+		if( count == 0 )
+		{
+			return 0;
+		}
+		
+		long target = (long)Math.ceil( percentile * (double)count );
+		long accumulated = 0;
+		
+		for( int x = 0; x < BUCKET_COUNT; x++ )
+		{
+			accumulated += mBuckets.get( x );
+			
+			if( accumulated >= target )
+			{
+				long upper = x == 0 ? 0 : ( 1l << x ) - 1;
+				
+				return Math.min( upper, getMaximum() );
+			}
+		}
+		
+		return getMaximum();
+	}
+	
+	@Override
+	public Map<String,Number> getValues()
+	{
+		Map<String,Number> values = new LinkedHashMap<String,Number>();
+		
+		values.put( "count", getCount() );
+		values.put( "mean", getMean() );
+		values.put( "p50", getPercentile( 0.5d ) );
+		values.put( "p99", getPercentile( 0.99d ) );
+		values.put( "max", getMaximum() );
+		
+		return values;
+	}
+}
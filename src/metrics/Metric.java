@@ -0,0 +1,36 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+import java.util.Map;
+
+/**
+ * Named measurement that can be read by the metrics registry
+ */
+public interface Metric
+{
+	/**
+	 * Full metric name, including the metric group prefix
+	 */
+	public String getName();
+	
+	/**
+	 * Current values of the metric, keyed by value name, in display order
+	 */
+	public Map<String,Number> getValues();
+}
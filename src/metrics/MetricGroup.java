@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+/**
+ * Set of metrics that share a name prefix, like the metrics for a single 
+ * channel.  Metric names are the group prefix followed by a dot and the
+ * metric name.
+ */
+public class MetricGroup
+{
+	private MetricsRegistry mRegistry;
+	private String mPrefix;
+	
+	MetricGroup( MetricsRegistry registry, String prefix )
+	{
+		mRegistry = registry;
+		mPrefix = prefix;
+	}
+	
+	public String getPrefix()
+	{
+		return mPrefix;
+	}
+	
+	public Counter counter( String name )
+	{
+		return mRegistry.counter( mPrefix + "." + name );
+	}
+	
+	public Histogram histogram( String name )
+	{
+		return mRegistry.histogram( mPrefix + "." + name );
+	}
+	
+	public void gauge( String name, Gauge gauge )
+	{
+		mRegistry.gauge( mPrefix + "." + name, gauge );
+	}
+	
+	/**
+	 * Removes all metrics in this group from the registry
+	 */
+	public void dispose()
+	{
+		mRegistry.removeGroup( this );
+	}
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import net.miginfocom.swing.MigLayout;
+import controller.channel.Channel;
+import controller.channel.ChannelEvent;
+import controller.channel.ChannelEvent.Event;
+import controller.channel.ChannelEventListener;
+
+/**
+ * Displays the processing metrics for the selected channel.  The table is
+ * refreshed once a second while the panel is showing.
+ */
+public class MetricsPanel extends JPanel implements ChannelEventListener
+{
+    private static final long serialVersionUID = 1L;
+    
+    private static final int REFRESH_INTERVAL_MS = 1000;
+
+    private MetricsTableModel mModel = new MetricsTableModel();
+    private Channel mDisplayedChannel;
+    private Timer mTimer;
+    
+	public MetricsPanel()
+	{
+    	setLayout( new MigLayout("insets 0 0 0 0", "[grow,fill]", "[grow,fill]") );
+
+    	add( new JScrollPane( new JTable( mModel ) ) );
+    	
+    	mTimer = new Timer( REFRESH_INTERVAL_MS, new ActionListener()
+		{
+			@Override
+			public void actionPerformed( ActionEvent e )
+			{
+				if( isShowing() )
+				{
+					mModel.refresh();
+				}
+			}
+		} );
+    	
+    	mTimer.start();
+	}
+
+	@Override
+    public void channelChanged( ChannelEvent event )
+    {
+		if( event.getEvent() == Event.CHANGE_SELECTED && 
+			event.getChannel().isSelected() )
+		{
+			if( mDisplayedChannel != event.getChannel() &&
+				event.getChannel().getProcessingChain() != null )
+			{
+				mDisplayedChannel = event.getChannel();
+				
+				mModel.setGroup( mDisplayedChannel.getProcessingChain()
+						.getMetricGroup() );
+			}
+		}
+		else if( event.getEvent() == Event.PROCESSING_STOPPED ||
+				 event.getEvent() == Event.CHANNEL_DELETED )
+		{
+			if( mDisplayedChannel != null && 
+				mDisplayedChannel == event.getChannel() )
+			{
+				mDisplayedChannel = null;
+
+				mModel.setGroup( null );
+			}
+		}
+    }
+	
+	/**
+	 * Table model with one row per metric value in the displayed group
+	 */
+	public class MetricsTableModel extends AbstractTableModel
+	{
+        private static final long serialVersionUID = 1L;
+        
+        private static final int METRIC = 0;
+        private static final int VALUE = 1;
+        private static final int READING = 2;
+
+        private MetricGroup mGroup;
+        private List<String[]> mRows = new ArrayList<String[]>();
+        
+        public void setGroup( MetricGroup group )
+        {
+        	mGroup = group;
+        	
+        	refresh();
+        }
+        
+        public void refresh()
+        {
+        	List<String[]> rows = new ArrayList<String[]>();
+        	
+        	MetricGroup group = mGroup;
+        	
+        	if( group != null )
+        	{
+        		int start = group.getPrefix().length() + 1;
+        		
+        		for( Metric metric: MetricsRegistry.getInstance()
+        								.getMetrics( group ) )
+        		{
+        			String name = metric.getName().substring( start );
+        			
+        			for( Map.Entry<String,Number> entry: 
+        							metric.getValues().entrySet() )
+        			{
+        				rows.add( new String[] { name, entry.getKey(), 
+        						String.valueOf( entry.getValue() ) } );
+        			}
+        		}
+        	}
+        	
+        	boolean structureChanged = rows.size() != mRows.size();
+        	
+        	mRows = rows;
+        	
+        	if( structureChanged )
+        	{
+        		fireTableDataChanged();
+        	}
+        	else if( !rows.isEmpty() )
+        	{
+        		fireTableRowsUpdated( 0, rows.size() - 1 );
+        	}
+        }
+
+		@Override
+        public int getRowCount()
+        {
+	        return mRows.size();
+        }
+
+		@Override
+        public int getColumnCount()
+        {
+	        return 3;
+        }
+		
+		@Override
+		public String getColumnName( int column )
+		{
+			switch( column )
+			{
+				case METRIC:
+					return "Metric";
+				case VALUE:
+					return "Value";
+				case READING:
+					return "Reading";
+			}
+			
+			return null;
+		}
+
+		@Override
+        public Object getValueAt( int rowIndex, int columnIndex )
+        {
+	        return mRows.get( rowIndex )[ columnIndex ];
+        }
+	}
+}
@@ -0,0 +1,404 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-wide registry of counters, histograms and gauges.  Metrics are
+ * organized into groups (like one group per channel) by name prefix.
+ * 
+ * Counter rates are updated once a second and a summary line for each metric
+ * group is logged once a minute.  All metric values are also published via
+ * JMX as attributes of the sdrtrunk:type=Metrics MBean, named as 
+ * metric.value (e.g. channel.Control.messages.count).
+ */
+public class MetricsRegistry implements DynamicMBean
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( MetricsRegistry.class );
+
+	public static final String OBJECT_NAME = "sdrtrunk:type=Metrics";
+	
+	private static final long RATE_INTERVAL_MS = 1000;
+	private static final long LOG_INTERVAL_MS = 60000;
+	
+	private static MetricsRegistry mInstance;
+	
+	private ConcurrentSkipListMap<String,Metric> mMetrics = 
+				new ConcurrentSkipListMap<String,Metric>();
+	
+	private ConcurrentSkipListMap<String,MetricGroup> mGroups = 
+				new ConcurrentSkipListMap<String,MetricGroup>();
+	
+	private ScheduledExecutorService mExecutor;
+	private long mLastRateUpdate = System.currentTimeMillis();
+	private long mLastLog = System.currentTimeMillis();
+	
+	private MetricsRegistry()
+	{
+		mExecutor = Executors.newSingleThreadScheduledExecutor( 
+			new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable runnable )
+				{
+					Thread thread = new Thread( runnable, "sdrtrunk metrics" );
+					thread.setDaemon( true );
+					return thread;
+				}
+			} );
+		
+		mExecutor.scheduleAtFixedRate( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					update();
+				}
+				catch( Exception e )
+				{
+					mLog.error( "error while updating metrics", e );
+				}
+			}
+		}, RATE_INTERVAL_MS, RATE_INTERVAL_MS, TimeUnit.MILLISECONDS );
+		
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			
+			server.registerMBean( this, new ObjectName( OBJECT_NAME ) );
+		}
+		catch( Exception e )
+		{
+			mLog.error( "couldn't register metrics with JMX", e );
+		}
+	}
+	
+	public static synchronized MetricsRegistry getInstance()
+	{
+		if( mInstance == null )
+		{
+			mInstance = new MetricsRegistry();
+		}
+		
+		return mInstance;
+	}
+	
+	/**
+	 * Returns the metric group with the prefix, creating it if necessary
+	 */
+	public MetricGroup getGroup( String prefix )
+	{
+		MetricGroup group = mGroups.get( prefix );
+		
+		if( group == null )
+		{
+			MetricGroup created = new MetricGroup( this, prefix );
+			
+			group = mGroups.putIfAbsent( prefix, created );
+			
+			if( group == null )
+			{
+				group = created;
+			}
+		}
+		
+		return group;
+	}
+	
+	/**
+	 * Returns the existing counter with the name, or creates a new counter
+	 */
+	public Counter counter( String name )
+	{
+		Metric metric = mMetrics.get( name );
+		
+		if( metric instanceof Counter )
+		{
+			return (Counter)metric;
+		}
+		
+		Counter counter = new Counter( name );
+		
+		mMetrics.put( name, counter );
+		
+		return counter;
+	}
+	
+	/**
+	 * Returns the existing histogram with the name, or creates a new histogram
+	 */
+	public Histogram histogram( String name )
+	{
+		Metric metric = mMetrics.get( name );
+		
+		if( metric instanceof Histogram )
+		{
+			return (Histogram)metric;
+		}
+		
+		Histogram histogram = new Histogram( name );
+		
+		mMetrics.put( name, histogram );
+		
+		return histogram;
+	}
+	
+	/**
+	 * Registers the gauge under the name, replacing any existing metric
+	 */
+	public void gauge( final String name, final Gauge gauge )
+	{
+		mMetrics.put( name, new Metric()
+		{
+			@Override
+			public String getName()
+			{
+				return name;
+			}
+
+			@Override
+			public Map<String,Number> getValues()
+			{
+				Map<String,Number> values = new LinkedHashMap<String,Number>();
+				
+				values.put( "value", gauge.getValue() );
+				
+				return values;
+			}
+		} );
+	}
+	
+	/**
+	 * Removes the group and all metrics that start with the group prefix
+	 */
+	void removeGroup( MetricGroup group )
+	{
+		mGroups.remove( group.getPrefix(), group );
+		
+		String prefix = group.getPrefix() + ".";
+		
+		Iterator<String> it = mMetrics.tailMap( prefix ).keySet().iterator();
+		
+		while( it.hasNext() )
+		{
+			if( it.next().startsWith( prefix ) )
+			{
+				it.remove();
+			}
+			else
+			{
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Returns all metrics whose names start with the group prefix, ordered by
+	 * name
+	 */
+	public List<Metric> getMetrics( MetricGroup group )
+	{
+		List<Metric> metrics = new ArrayList<Metric>();
+		
+		String prefix = group.getPrefix() + ".";
+		
+		for( Map.Entry<String,Metric> entry: 
+						mMetrics.tailMap( prefix ).entrySet() )
+		{
+			if( !entry.getKey().startsWith( prefix ) )
+			{
+				break;
+			}
+			
+			metrics.add( entry.getValue() );
+		}
+		
+		return metrics;
+	}
+	
+	/**
+	 * Updates the counter rates and periodically logs the metric groups
+	 */
+	private void update()
+	{
+		long now = System.currentTimeMillis();
+		
+		double seconds = (double)( now - mLastRateUpdate ) / 1000.0d;
+		
+		mLastRateUpdate = now;
+		
+		for( Metric metric: mMetrics.values() )
+		{
+			if( metric instanceof Counter )
+			{
+				((Counter)metric).updateRate( seconds );
+			}
+		}
+		
+		if( now - mLastLog >= LOG_INTERVAL_MS )
+		{
+			mLastLog = now;
+			
+			for( MetricGroup group: mGroups.values() )
+			{
+				mLog.info( getSummary( group ) );
+			}
+		}
+	}
+	
+	/**
+	 * Single line summary of the metric values in the group
+	 */
+	public String getSummary( MetricGroup group )
+	{
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append( group.getPrefix() );
+		
+		int start = group.getPrefix().length() + 1;
+		
+		for( Metric metric: getMetrics( group ) )
+		{
+			sb.append( " " );
+			sb.append( metric.getName().substring( start ) );
+			sb.append( " " );
+			sb.append( metric.getValues() );
+		}
+		
+		return sb.toString();
+	}
+
+	/**
+	 * JMX attribute value lookup - attribute names are the metric name 
+	 * followed by a dot and the value name
+	 */
+	@Override
+	public Object getAttribute( String attribute ) 
+			throws AttributeNotFoundException
+	{
+		int split = attribute.lastIndexOf( '.' );
+		
+		if( split > 0 )
+		{
+			Metric metric = mMetrics.get( attribute.substring( 0, split ) );
+			
+			if( metric != null )
+			{
+				Number value = metric.getValues()
+						.get( attribute.substring( split + 1 ) );
+				
+				if( value != null )
+				{
+					return value.longValue();
+				}
+			}
+		}
+		
+		throw new AttributeNotFoundException( "Metric [" + attribute + 
+				"] not found" );
+	}
+
+	@Override
+	public AttributeList getAttributes( String[] attributes )
+	{
+		AttributeList list = new AttributeList();
+		
+		for( String attribute: attributes )
+		{
+			try
+			{
+				list.add( new Attribute( attribute, getAttribute( attribute ) ) );
+			}
+			catch( AttributeNotFoundException e )
+			{
+				/* Metric was removed - skip it */
+			}
+		}
+		
+		return list;
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo()
+	{
+		List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+		
+		for( Metric metric: mMetrics.values() )
+		{
+			for( String key: metric.getValues().keySet() )
+			{
+				attributes.add( new MBeanAttributeInfo( 
+					metric.getName() + "." + key, "java.lang.Long", 
+					metric.getName() + " " + key, true, false, false ) );
+			}
+		}
+		
+		return new MBeanInfo( getClass().getName(), 
+			"SDRTrunk processing metrics", 
+			attributes.toArray( new MBeanAttributeInfo[ attributes.size() ] ),
+			null, new MBeanOperationInfo[ 0 ], new MBeanNotificationInfo[ 0 ] );
+	}
+
+	@Override
+	public void setAttribute( Attribute attribute ) 
+			throws AttributeNotFoundException
+	{
+		throw new AttributeNotFoundException( "Metrics are read-only" );
+	}
+
+	@Override
+	public AttributeList setAttributes( AttributeList attributes )
+	{
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke( String actionName, Object[] params, 
+			String[] signature )
+	{
+		throw new UnsupportedOperationException( "Metrics have no operations" );
+	}
+}
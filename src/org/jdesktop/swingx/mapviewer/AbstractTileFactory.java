@@ -345,7 +345,6 @@ public abstract class AbstractTileFactory extends TileFactory
 						// img = PaintUtils.loadCompatibleImage(new ByteArrayInputStream(bimg));
 						img = ImageIO.read(new ByteArrayInputStream(bimg));
 						cache.put(uri, bimg, img);
-						img = cache.get(uri);
 					}
 					if (img == null)
 					{
@@ -97,7 +97,18 @@ public class LocalResponseCache extends ResponseCache
 			}
 		}
 		
-		
+		return getLocalFile(cacheDir, remoteUri);
+	}
+
+	/**
+	 * Returns the File in the cache directory corresponding to the given remote URI.  Also used by the TileCache disk
+	 * tier, so that both caches use the same file layout.
+	 * @param cacheDir the cache directory
+	 * @param remoteUri the remote URI
+	 * @return the corresponding local file
+	 */
+	public static File getLocalFile(File cacheDir, URI remoteUri)
+	{
 		StringBuilder sb = new StringBuilder();
 		
 	    String host = remoteUri.getHost();
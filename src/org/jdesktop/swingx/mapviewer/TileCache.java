@@ -1,141 +1,575 @@
-/*
- * TileCache.java
- *
- * Created on January 2, 2007, 7:17 PM
- *
- * To change this template, choose Tools | Template Manager
- * and open the template in the editor.
- */
-
-package org.jdesktop.swingx.mapviewer;
-
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.net.URI;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
-
-import javax.imageio.ImageIO;
-
-/**
- * An implementation only class for now. For internal use only.
- * @author joshua.marinacci@sun.com
- */
-public class TileCache
-{
-	private Map<URI, BufferedImage> imgmap = new HashMap<URI, BufferedImage>();
-	private LinkedList<URI> imgmapAccessQueue = new LinkedList<URI>();
-	private int imagesize = 0;
-	private Map<URI, byte[]> bytemap = new HashMap<URI, byte[]>();
-	private LinkedList<URI> bytemapAccessQueue = new LinkedList<URI>();
-	private int bytesize = 0;
-
-	/**
-	 * Default constructor - Empty
-	 */
-	public TileCache()
-	{
-	}
-
-	/**
-	 * Put a tile image into the cache. This puts both a buffered image and array of bytes that make up the compressed
-	 * image.
-	 * @param uri URI of image that is being stored in the cache
-	 * @param bimg bytes of the compressed image, ie: the image file that was loaded over the network
-	 * @param img image to store in the cache
-	 */
-	public void put(URI uri, byte[] bimg, BufferedImage img)
-	{
-		synchronized (bytemap)
-		{
-			while (bytesize > 1000 * 1000 * 50)
-			{
-				URI olduri = bytemapAccessQueue.removeFirst();
-				byte[] oldbimg = bytemap.remove(olduri);
-				bytesize -= oldbimg.length;
-				log("removed 1 img from byte cache");
-			}
-
-			bytemap.put(uri, bimg);
-			bytesize += bimg.length;
-			bytemapAccessQueue.addLast(uri);
-		}
-		addToImageCache(uri, img);
-	}
-
-	/**
-	 * Returns a buffered image for the requested URI from the cache. This method must return null if the image is not
-	 * in the cache. If the image is unavailable but it's compressed version *is* available, then the compressed version
-	 * will be expanded and returned.
-	 * @param uri URI of the image previously put in the cache
-	 * @return the image matching the requested URI, or null if not available
-	 * @throws IOException if retrieval fails 
-	 */
-	public BufferedImage get(URI uri) throws IOException
-	{
-		synchronized (imgmap)
-		{
-			if (imgmap.containsKey(uri))
-			{
-				imgmapAccessQueue.remove(uri);
-				imgmapAccessQueue.addLast(uri);
-				return imgmap.get(uri);
-			}
-		}
-		synchronized (bytemap)
-		{
-			if (bytemap.containsKey(uri))
-			{
-				log("retrieving from bytes");
-				bytemapAccessQueue.remove(uri);
-				bytemapAccessQueue.addLast(uri);
-				BufferedImage img = ImageIO.read(new ByteArrayInputStream(bytemap.get(uri)));
-				addToImageCache(uri, img);
-				return img;
-			}
-		}
-		return null;
-	}
-
-	/**
-	 * Request that the cache free up some memory. How this happens or how much memory is freed is up to the TileCache
-	 * implementation. Subclasses can implement their own strategy. The default strategy is to clear out all buffered
-	 * images but retain the compressed versions.
-	 */
-	public void needMoreMemory()
-	{
-		imgmap.clear();
-		log("HACK! need more memory: freeing up memory");
-	}
-
-	private void addToImageCache(final URI uri, final BufferedImage img)
-	{
-		synchronized (imgmap)
-		{
-			try {
-                            while (imagesize > 1000 * 1000 * 50)
-                            {
-                                    URI olduri = imgmapAccessQueue.removeFirst();
-                                    BufferedImage oldimg = imgmap.remove(olduri);
-                                    imagesize -= oldimg.getWidth() * oldimg.getHeight() * 4;
-                                    log("removed 1 img from image cache");
-                            }
-                            imgmap.put(uri, img);
-                            imagesize += img.getWidth() * img.getHeight() * 4;
-                            imgmapAccessQueue.addLast(uri);
-                        } catch (Exception ex) {
-                            log("Failed to load tile at URL. Tile is null");
-                        }
-		}
-//		log("added to cache: " + " uncompressed = " + imgmap.keySet().size() + " / " + imagesize / 1000 + "k"
-//				+ " compressed = " + bytemap.keySet().size() + " / " + bytesize / 1000 + "k");
-	}
-
-	private void log(String string)
-	{
-//		Log.debug( string );
-	}
-
-}
+/*
+ * TileCache.java
+ *
+ * Created on January 2, 2007, 7:17 PM
+ *
+ * To change this template, choose Tools | Template Manager
+ * and open the template in the editor.
+ */
+
+package org.jdesktop.swingx.mapviewer;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tile cache with three tiers: decoded images, compressed image bytes and an optional on-disk tier of compressed
+ * image files.
+ *
+ * Each memory tier is an access ordered LinkedHashMap, so lookups, inserts and least recently used evictions are all
+ * O(1).  Tiers are bounded by weight in bytes rather than by tile count: compressed tiles weigh their byte length and
+ * decoded images weigh 4 bytes per pixel.
+ *
+ * The disk tier stores the compressed bytes using the LocalResponseCache file layout and is bounded by total file
+ * size.  Its index is loaded lazily on first use, from the tile loader threads.
+ *
+ * @author joshua.marinacci@sun.com
+ */
+public class TileCache
+{
+	private final static Logger mLog = LoggerFactory.getLogger(TileCache.class);
+
+	public static final long DEFAULT_IMAGE_CACHE_SIZE = 1000 * 1000 * 50;
+	public static final long DEFAULT_BYTE_CACHE_SIZE = 1000 * 1000 * 50;
+
+	private WeightedCache<BufferedImage> imageCache;
+	private WeightedCache<byte[]> byteCache;
+
+	private File diskCacheDir;
+	private final Object diskLock = new Object();
+	private long diskCacheSize;
+	private LinkedHashMap<File, Long> diskIndex;
+	private long diskWeight = 0;
+
+	private AtomicLong imageHits = new AtomicLong();
+	private AtomicLong byteHits = new AtomicLong();
+	private AtomicLong diskHits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong diskEvictions = new AtomicLong();
+
+	/**
+	 * Default constructor - memory only cache with 50 MB image and 50 MB compressed tiers
+	 */
+	public TileCache()
+	{
+		this(DEFAULT_IMAGE_CACHE_SIZE, DEFAULT_BYTE_CACHE_SIZE, null, 0);
+	}
+
+	/**
+	 * @param imageCacheSize maximum size in bytes of the decoded images
+	 * @param byteCacheSize maximum size in bytes of the compressed images
+	 * @param diskCacheDir directory for the on-disk tier, or null for no disk tier
+	 * @param diskCacheSize maximum size in bytes of the on-disk tier.  Use 0 for no disk tier
+	 */
+	public TileCache(long imageCacheSize, long byteCacheSize, File diskCacheDir, long diskCacheSize)
+	{
+		imageCache = new WeightedCache<BufferedImage>(imageCacheSize)
+		{
+			@Override
+			protected long weigh(BufferedImage image)
+			{
+				return (long) image.getWidth() * image.getHeight() * 4;
+			}
+		};
+
+		byteCache = new WeightedCache<byte[]>(byteCacheSize)
+		{
+			@Override
+			protected long weigh(byte[] bytes)
+			{
+				return bytes.length;
+			}
+		};
+
+		if (diskCacheDir != null && diskCacheSize > 0)
+		{
+			this.diskCacheDir = diskCacheDir;
+			this.diskCacheSize = diskCacheSize;
+		}
+	}
+
+	/**
+	 * Put a tile image into the cache. This puts both a buffered image and array of bytes that make up the compressed
+	 * image.  The compressed image is also written to the disk tier, if enabled.
+	 * @param uri URI of image that is being stored in the cache
+	 * @param bimg bytes of the compressed image, ie: the image file that was loaded over the network
+	 * @param img image to store in the cache
+	 */
+	public void put(URI uri, byte[] bimg, BufferedImage img)
+	{
+		byteCache.put(uri, bimg);
+
+		if (img != null)
+		{
+			imageCache.put(uri, img);
+		}
+		else
+		{
+			log("Failed to load tile at URL. Tile is null");
+		}
+
+		if (diskCacheDir != null)
+		{
+			writeDisk(uri, bimg);
+		}
+	}
+
+	/**
+	 * Returns a buffered image for the requested URI from the cache. This method must return null if the image is not
+	 * in the cache. If the image is unavailable but it's compressed version *is* available, either in memory or on
+	 * disk, then the compressed version will be expanded and returned.
+	 * @param uri URI of the image previously put in the cache
+	 * @return the image matching the requested URI, or null if not available
+	 * @throws IOException if retrieval fails
+	 */
+	public BufferedImage get(URI uri) throws IOException
+	{
+		BufferedImage img = imageCache.get(uri);
+
+		if (img != null)
+		{
+			imageHits.incrementAndGet();
+			return img;
+		}
+
+		byte[] bimg = byteCache.get(uri);
+
+		if (bimg != null)
+		{
+			log("retrieving from bytes");
+			byteHits.incrementAndGet();
+		}
+		else if (diskCacheDir != null)
+		{
+			bimg = readDisk(uri);
+
+			if (bimg != null)
+			{
+				log("retrieving from disk");
+				diskHits.incrementAndGet();
+				byteCache.put(uri, bimg);
+			}
+		}
+
+		if (bimg == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+
+		/* Decode outside of any cache lock */
+		img = ImageIO.read(new ByteArrayInputStream(bimg));
+
+		if (img != null)
+		{
+			imageCache.put(uri, img);
+		}
+
+		return img;
+	}
+
+	/**
+	 * Request that the cache free up some memory. How this happens or how much memory is freed is up to the TileCache
+	 * implementation. Subclasses can implement their own strategy. The default strategy is to clear out all buffered
+	 * images but retain the compressed versions.
+	 */
+	public void needMoreMemory()
+	{
+		imageCache.clear();
+		log("need more memory: freeing up memory");
+	}
+
+	/**
+	 * Reads the compressed image from the disk tier
+	 * @return compressed image bytes or null if the image is not on disk
+	 */
+	private byte[] readDisk(URI uri)
+	{
+		File file = LocalResponseCache.getLocalFile(diskCacheDir, uri);
+
+		synchronized (diskLock)
+		{
+			if (getDiskIndex().get(file) == null)
+			{
+				return null;
+			}
+		}
+
+		try
+		{
+			byte[] bimg = Files.readAllBytes(file.toPath());
+
+			/* Persist the access order across restarts */
+			file.setLastModified(System.currentTimeMillis());
+
+			return bimg;
+		}
+		catch (IOException e)
+		{
+			mLog.error("Couldn't read map tile from disk cache [" + file.getPath() + "]", e);
+
+			synchronized (diskLock)
+			{
+				removeFromDiskIndex(file);
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the compressed image to the disk tier and removes the least recently used files when the disk tier
+	 * exceeds its maximum size
+	 */
+	private void writeDisk(URI uri, byte[] bimg)
+	{
+		File file = LocalResponseCache.getLocalFile(diskCacheDir, uri);
+
+		synchronized (diskLock)
+		{
+			if (getDiskIndex().containsKey(file))
+			{
+				return;
+			}
+		}
+
+		FileOutputStream out = null;
+		boolean written = false;
+
+		try
+		{
+			file.getParentFile().mkdirs();
+
+			out = new FileOutputStream(file);
+			out.write(bimg);
+
+			written = true;
+		}
+		catch (IOException e)
+		{
+			mLog.error("Couldn't write map tile to disk cache [" + file.getPath() + "]", e);
+		}
+		finally
+		{
+			if (out != null)
+			{
+				try
+				{
+					out.close();
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		}
+
+		if (!written)
+		{
+			file.delete();
+			return;
+		}
+
+		synchronized (diskLock)
+		{
+			Long previous = diskIndex.put(file, (long) bimg.length);
+
+			diskWeight += bimg.length - (previous != null ? previous : 0);
+
+			Iterator<Map.Entry<File, Long>> it = diskIndex.entrySet().iterator();
+
+			while (diskWeight > diskCacheSize && it.hasNext())
+			{
+				Map.Entry<File, Long> eldest = it.next();
+
+				if (!eldest.getKey().equals(file))
+				{
+					it.remove();
+					diskWeight -= eldest.getValue();
+					eldest.getKey().delete();
+					diskEvictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	private void removeFromDiskIndex(File file)
+	{
+		Long size = diskIndex.remove(file);
+
+		if (size != null)
+		{
+			diskWeight -= size;
+		}
+	}
+
+	/**
+	 * Returns the disk tier index, loading it from the files in the disk cache directory ordered from oldest to newest
+	 * modification time, on first use.  Must be called while holding the disk lock.
+	 */
+	private LinkedHashMap<File, Long> getDiskIndex()
+	{
+		if (diskIndex == null)
+		{
+			diskIndex = new LinkedHashMap<File, Long>(1024, 0.75f, true);
+
+			final List<File> files = new ArrayList<File>();
+
+			collectFiles(diskCacheDir, files);
+
+			final Map<File, Long> modified = new LinkedHashMap<File, Long>();
+
+			for (File file : files)
+			{
+				modified.put(file, file.lastModified());
+			}
+
+			Collections.sort(files, new Comparator<File>()
+			{
+				@Override
+				public int compare(File a, File b)
+				{
+					return Long.compare(modified.get(a), modified.get(b));
+				}
+			});
+
+			for (File file : files)
+			{
+				long length = file.length();
+
+				diskIndex.put(file, length);
+				diskWeight += length;
+			}
+
+			mLog.info("Map tile disk cache [" + diskCacheDir.getPath() + "] contains " + diskIndex.size()
+					+ " tiles / " + diskWeight / 1000 + "k");
+		}
+
+		return diskIndex;
+	}
+
+	private static void collectFiles(File dir, List<File> files)
+	{
+		File[] children = dir.listFiles();
+
+		if (children != null)
+		{
+			for (File child : children)
+			{
+				if (child.isDirectory())
+				{
+					collectFiles(child, files);
+				}
+				else
+				{
+					files.add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of requests satisfied from the decoded image tier
+	 */
+	public long getImageHitCount()
+	{
+		return imageHits.get();
+	}
+
+	/**
+	 * Number of requests satisfied by expanding an image from the compressed tier
+	 */
+	public long getCompressedHitCount()
+	{
+		return byteHits.get();
+	}
+
+	/**
+	 * Number of requests satisfied by expanding an image from the disk tier
+	 */
+	public long getDiskHitCount()
+	{
+		return diskHits.get();
+	}
+
+	/**
+	 * Number of requests for images that were not in any tier
+	 */
+	public long getMissCount()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * Number of least recently used images evicted from the decoded image tier
+	 */
+	public long getImageEvictionCount()
+	{
+		return imageCache.getEvictionCount();
+	}
+
+	/**
+	 * Number of least recently used images evicted from the compressed tier
+	 */
+	public long getCompressedEvictionCount()
+	{
+		return byteCache.getEvictionCount();
+	}
+
+	/**
+	 * Number of least recently used files deleted from the disk tier
+	 */
+	public long getDiskEvictionCount()
+	{
+		return diskEvictions.get();
+	}
+
+	/**
+	 * Current size in bytes of the decoded image tier
+	 */
+	public long getImageCacheSize()
+	{
+		return imageCache.getWeight();
+	}
+
+	/**
+	 * Current size in bytes of the compressed tier
+	 */
+	public long getCompressedCacheSize()
+	{
+		return byteCache.getWeight();
+	}
+
+	/**
+	 * Current size in bytes of the disk tier, or 0 if the disk tier is disabled or not yet loaded
+	 */
+	public long getDiskCacheSize()
+	{
+		if (diskCacheDir == null)
+		{
+			return 0;
+		}
+
+		synchronized (diskLock)
+		{
+			return diskWeight;
+		}
+	}
+
+	public String getStatistics()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("image hits [").append(getImageHitCount());
+		sb.append("] compressed hits [").append(getCompressedHitCount());
+		sb.append("] disk hits [").append(getDiskHitCount());
+		sb.append("] misses [").append(getMissCount());
+		sb.append("] evictions image/compressed/disk [").append(getImageEvictionCount());
+		sb.append("/").append(getCompressedEvictionCount());
+		sb.append("/").append(getDiskEvictionCount());
+		sb.append("] size image/compressed/disk [").append(getImageCacheSize() / 1000);
+		sb.append("k/").append(getCompressedCacheSize() / 1000);
+		sb.append("k/").append(getDiskCacheSize() / 1000);
+		sb.append("k]");
+
+		return sb.toString();
+	}
+
+	private void log(String string)
+	{
+//		Log.debug( string );
+	}
+
+	/**
+	 * Access ordered, least recently used cache that is bounded by the total weight of its values
+	 */
+	private abstract static class WeightedCache<V>
+	{
+		private LinkedHashMap<URI, V> map = new LinkedHashMap<URI, V>(256, 0.75f, true);
+		private long maximumWeight;
+		private long weight = 0;
+		private long evictions = 0;
+
+		public WeightedCache(long maximumWeight)
+		{
+			this.maximumWeight = maximumWeight;
+		}
+
+		/**
+		 * Weight of the value in bytes
+		 */
+		protected abstract long weigh(V value);
+
+		public synchronized V get(URI uri)
+		{
+			return map.get(uri);
+		}
+
+		/**
+		 * Adds the value as the most recently used entry and evicts least recently used entries until the cache is
+		 * within its maximum weight.  Values heavier than the maximum weight are not cached.
+		 */
+		public synchronized void put(URI uri, V value)
+		{
+			long valueWeight = weigh(value);
+
+			if (valueWeight > maximumWeight)
+			{
+				return;
+			}
+
+			V previous = map.put(uri, value);
+
+			weight += valueWeight;
+
+			if (previous != null)
+			{
+				weight -= weigh(previous);
+			}
+
+			Iterator<V> it = map.values().iterator();
+
+			while (weight > maximumWeight && it.hasNext())
+			{
+				V eldest = it.next();
+				it.remove();
+				weight -= weigh(eldest);
+				evictions++;
+			}
+		}
+
+		public synchronized void clear()
+		{
+			map.clear();
+			weight = 0;
+		}
+
+		public synchronized long getWeight()
+		{
+			return weight;
+		}
+
+		public synchronized long getEvictionCount()
+		{
+			return evictions;
+		}
+	}
+}
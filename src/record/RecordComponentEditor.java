@@ -32,6 +32,8 @@ public class RecordComponentEditor extends AbstractChannelEditor
     
     private JCheckBox mAudioRecorder = new JCheckBox( "Audio" );
     private JCheckBox mBasebandRecorder = new JCheckBox( "Baseband I/Q" );
+    private JCheckBox mMappedBasebandRecorder = 
+    		new JCheckBox( "Baseband I/Q Float (memory-mapped)" );
 
     public RecordComponentEditor( ChannelNode channelNode )
 	{
@@ -39,6 +41,7 @@ public class RecordComponentEditor extends AbstractChannelEditor
 		
 		add( mAudioRecorder, "span" );
 		add( mBasebandRecorder, "span" );
+		add( mMappedBasebandRecorder, "span" );
     	
 		reset();
 	}
@@ -60,6 +63,11 @@ public class RecordComponentEditor extends AbstractChannelEditor
 		{
 			config.addRecorder( RecorderType.BASEBAND );
 		}
+		
+		if( mMappedBasebandRecorder.isSelected() )
+		{
+			config.addRecorder( RecorderType.BASEBAND_MAPPED );
+		}
     }
 
 	@Override
@@ -78,6 +86,9 @@ public class RecordComponentEditor extends AbstractChannelEditor
 
     			mBasebandRecorder.setSelected( config.getRecorders()
     					.contains( RecorderType.BASEBAND ) );
+
+    			mMappedBasebandRecorder.setSelected( config.getRecorders()
+    					.contains( RecorderType.BASEBAND_MAPPED ) );
             }
         });
     }
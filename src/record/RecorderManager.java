@@ -25,6 +25,7 @@ import properties.SystemProperties;
 import record.config.RecordConfiguration;
 import record.wave.ComplexWaveRecorder;
 import record.wave.FloatWaveRecorder;
+import record.wave.MappedComplexWaveRecorder;
 import util.TimeStamp;
 import controller.channel.ProcessingChain;
 
@@ -65,6 +66,10 @@ public class RecorderManager
 					retVal.add( new ComplexWaveRecorder( sSAMPLE_RATE, 
 							sb.toString() + "_baseband" ) );
 					break;
+				case BASEBAND_MAPPED:
+					retVal.add( new MappedComplexWaveRecorder( sSAMPLE_RATE, 
+							sb.toString() + "_baseband_float" ) );
+					break;
 			}
 		}
 
@@ -20,7 +20,8 @@ package record;
 public enum RecorderType
 {
 	AUDIO( "Audio (.wav)"),
-	BASEBAND( "Baseband I/Q (.wav)");
+	BASEBAND( "Baseband I/Q (.wav)"),
+	BASEBAND_MAPPED( "Baseband I/Q Float (.wav)");
 	
     private String mDisplayString;
     
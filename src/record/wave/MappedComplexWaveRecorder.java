@@ -0,0 +1,369 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package record.wave;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import record.Recorder;
+import record.RecorderType;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferListener;
+
+/**
+ * Complex (I&Q) sample buffer recorder that writes 32-bit float stereo WAVE 
+ * files through a memory-mapped file window.
+ * 
+ * Sample buffers are written directly into the mapped file on the producer's
+ * thread with a single bulk copy, so there is no buffer queue to overflow and
+ * no per-sample conversion, making this recorder suitable for recording the 
+ * full tuner bandwidth.  
+ * 
+ * The file is extended one mapped window at a time and the WAVE header sizes 
+ * are updated each time a new window is mapped, so that a recording is 
+ * readable up to the last completed window if the application terminates 
+ * without stopping the recorder.  On stop, the file is truncated to the end 
+ * of the recorded samples.
+ * 
+ * Recordings are rolled over to a new file before reaching the 4 GB WAVE 
+ * file size limit.
+ */
+public class MappedComplexWaveRecorder extends Recorder 
+			implements Listener<ComplexBuffer>, ComplexBufferListener
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( MappedComplexWaveRecorder.class );
+
+	/* WAVE_FORMAT_IEEE_FLOAT, 2 channels, 32 bits per sample */
+	public static final int HEADER_SIZE = 44;
+	private static final int FORMAT_IEEE_FLOAT = 3;
+	private static final int CHANNELS = 2;
+	private static final int BYTES_PER_FRAME = 8;
+	
+	/* Mapped window size - 64 MB */
+	private static final long WINDOW_SIZE = 64l * 1024l * 1024l;
+
+	/* Maximum data chunk size, leaving room for the header, rounded down to
+	 * a whole number of mapped windows */
+	private static final long MAXIMUM_DATA_SIZE = 
+			( ( 0xFFFFFFFFl - HEADER_SIZE ) / WINDOW_SIZE ) * WINDOW_SIZE;
+	
+	private int mSampleRate;
+	private String mFileName;
+	private int mFileRolloverCounter = 0;
+	
+	private boolean mRunning = false;
+	private boolean mPaused = false;
+
+	private RandomAccessFile mFile;
+	private FileChannel mChannel;
+	private MappedByteBuffer mWindow;
+	private FloatBuffer mWindowFloats;
+	private long mWindowStart;
+	private long mDataSize;
+	
+	/**
+	 * @param sampleRate - sample rate of the complex sample buffers
+	 * @param filename - base filename, without the .wav suffix
+	 */
+	public MappedComplexWaveRecorder( int sampleRate, String filename )
+	{
+		super( RecorderType.BASEBAND_MAPPED );
+		
+		mSampleRate = sampleRate;
+		mFileName = filename;
+	}
+
+	@Override
+	public String getFileName()
+	{
+		return getFileName( mFileRolloverCounter );
+	}
+	
+	private String getFileName( int rolloverCounter )
+	{
+		if( rolloverCounter > 0 )
+		{
+			return mFileName + "_" + rolloverCounter + ".wav";
+		}
+		
+		return mFileName + ".wav";
+	}
+
+	/**
+	 * Number of complex samples written to the current recording file
+	 */
+	public synchronized long getSampleCount()
+	{
+		return mDataSize / BYTES_PER_FRAME;
+	}
+	
+	@Override
+	public synchronized void start() throws IOException
+	{
+		if( !mRunning )
+		{
+			openFile();
+			
+			mRunning = true;
+		}
+	}
+	
+	@Override
+	public synchronized void stop() throws IOException
+	{
+		if( mRunning )
+		{
+			mRunning = false;
+
+			closeFile();
+			
+			//Increment file rollover count, in case we re-start the recorder
+			mFileRolloverCounter++;
+		}
+	}
+	
+	@Override
+	public void pause()
+	{
+		mPaused = true;
+	}
+	
+	@Override
+	public void resume()
+	{
+		mPaused = false;
+	}
+	
+	/**
+	 * Writes the interleaved I/Q samples into the mapped file.  Buffers are 
+	 * not retained beyond this method call.
+	 */
+	@Override
+	public void receive( ComplexBuffer buffer )
+	{
+		float[] samples = buffer.getSamples();
+		
+		write( samples, 0, samples.length );
+	}
+	
+	/**
+	 * Writes interleaved I/Q samples from the array into the mapped file.
+	 * 
+	 * @param samples - interleaved I/Q sample array
+	 * @param offset - array offset of the first I sample
+	 * @param length - number of array elements (ie 2 x number of I/Q samples)
+	 */
+	public synchronized void write( float[] samples, int offset, int length )
+	{
+		if( mRunning && !mPaused )
+		{
+			try
+			{
+				int end = offset + length;
+				
+				while( offset < end )
+				{
+					if( !mWindowFloats.hasRemaining() )
+					{
+						nextWindow();
+					}
+					
+					int count = Math.min( end - offset, 
+										  mWindowFloats.remaining() );
+					
+					mWindowFloats.put( samples, offset, count );
+					
+					offset += count;
+					mDataSize += count * 4;
+				}
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Error writing to baseband recording [" + 
+						getFileName() + "] - stopping recorder", ioe );
+
+				try
+				{
+					stop();
+				}
+				catch( IOException ioe2 )
+				{
+					mLog.error( "Error closing baseband recording [" + 
+							getFileName() + "]", ioe2 );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Maps the next file window, or rolls over to a new file when the current
+	 * file has reached the maximum WAVE file size
+	 */
+	private void nextWindow() throws IOException
+	{
+		if( mDataSize >= MAXIMUM_DATA_SIZE )
+		{
+			closeFile();
+			
+			mFileRolloverCounter++;
+			
+			openFile();
+		}
+		else
+		{
+			mWindowStart += WINDOW_SIZE;
+			
+			mapWindow();
+		}
+	}
+	
+	private void mapWindow() throws IOException
+	{
+		mWindow = mChannel.map( MapMode.READ_WRITE, mWindowStart, WINDOW_SIZE );
+		mWindow.order( ByteOrder.LITTLE_ENDIAN );
+		mWindowFloats = mWindow.asFloatBuffer();
+		
+		/* Keep the header current with each new window so that the file is
+		 * readable if it is never closed */
+		writeHeader();
+	}
+	
+	private void openFile() throws IOException
+	{
+		String filename = getFileName();
+
+		File file = new File( filename );
+		
+		if( file.exists() )
+		{
+			file.delete();
+		}
+		
+		mFile = new RandomAccessFile( file, "rw" );
+		mChannel = mFile.getChannel();
+		
+		mDataSize = 0;
+		mWindowStart = HEADER_SIZE;
+
+		mapWindow();
+		
+		mLog.info( "Started baseband recording [" + filename + "] sample rate [" + 
+				mSampleRate + "]" );
+	}
+	
+	private void closeFile() throws IOException
+	{
+		if( mChannel == null )
+		{
+			return;
+		}
+		
+		String filename = getFileName();
+
+		try
+		{
+			mWindow.force();
+
+			writeHeader();
+			
+			mWindow = null;
+			mWindowFloats = null;
+			
+			try
+			{
+				mChannel.truncate( HEADER_SIZE + mDataSize );
+			}
+			catch( IOException ioe )
+			{
+				/* Some platforms don't allow truncating a file that is still
+				 * mapped.  The header data size excludes the unused tail */
+				mLog.warn( "Couldn't truncate baseband recording [" + filename + 
+						"] - file contains unused space after the sample data" );
+			}
+		}
+		finally
+		{
+			mChannel.close();
+			mFile.close();
+			
+			mChannel = null;
+			mFile = null;
+		}
+		
+		mLog.info( "Closing baseband recording [" + filename + 
+				"] amending data size to:" + mDataSize );
+	}
+
+	/**
+	 * Writes the WAVE header with the current data size
+	 */
+	private void writeHeader() throws IOException
+	{
+		ByteBuffer header = getHeader( mSampleRate, mDataSize );
+		
+		while( header.hasRemaining() )
+		{
+			mChannel.write( header, header.position() );
+		}
+	}
+
+	/**
+	 * Creates a 32-bit float stereo WAVE header for the sample rate and data
+	 * chunk size in bytes
+	 */
+	public static ByteBuffer getHeader( int sampleRate, long dataSize )
+	{
+		ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+		header.order( ByteOrder.LITTLE_ENDIAN );
+		
+		/* RIFF chunk descriptor */
+		header.putInt( 0x46464952 );
+		header.putInt( (int)( dataSize + HEADER_SIZE - 8 ) );
+		header.putInt( 0x45564157 );
+		
+		/* Format chunk */
+		header.putInt( 0x20746D66 );
+		header.putInt( 16 );
+		header.putShort( (short)FORMAT_IEEE_FLOAT );
+		header.putShort( (short)CHANNELS );
+		header.putInt( sampleRate );
+		header.putInt( sampleRate * BYTES_PER_FRAME );
+		header.putShort( (short)BYTES_PER_FRAME );
+		header.putShort( (short)32 );
+		
+		/* Data chunk */
+		header.putInt( 0x61746164 );
+		header.putInt( (int)dataSize );
+		
+		header.flip();
+		
+		return header;
+	}
+}
@@ -38,17 +38,18 @@ public class ByteSampleAdapter extends SampleAdapter
 	}
 
 	@Override
-    public float[] convert( byte[] samples )
+    public void convert( byte[] samples, float[] converted )
     {
-		float[] convertedSamples = new float[ samples.length ];
-		int pointer = 0;
-		
-		for( byte sample: samples )
+		for( int x = 0; x < samples.length; x++ )
 		{
 			/* Convert byte value into float from the lookup table */
-			convertedSamples[ pointer++ ] = LOOKUP_VALUES[ ( sample & 0xFF ) ];
+			converted[ x ] = LOOKUP_VALUES[ ( samples[ x ] & 0xFF ) ];
 		}
-		
-	    return convertedSamples;
     }
+
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount;
+	}
 }
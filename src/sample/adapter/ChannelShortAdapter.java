@@ -40,10 +40,8 @@ public class ChannelShortAdapter extends SampleAdapter
 	}
 			
 	@Override
-    public float[] convert( byte[] samples )
+    public void convert( byte[] samples, float[] processed )
     {
-		float[] processed = new float[ samples.length / 4 ];
-
 		int pointer = 0;
 
 		/* Wrap byte array in a byte buffer so we can process them as shorts */
@@ -71,10 +69,14 @@ public class ChannelShortAdapter extends SampleAdapter
         	
         	pointer++;
         }
-        
-        return processed;
     }
 
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount / 4;
+	}
+
 	/**
 	 * Set byte interpretation to little or big endian.  Defaults to LITTLE
 	 * endian
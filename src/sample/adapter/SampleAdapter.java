@@ -23,5 +23,27 @@ package sample.adapter;
  */
 public abstract class SampleAdapter
 {
-	public abstract float[] convert( byte[] samples );
+	/**
+	 * Converts the byte samples into a new float sample array
+	 */
+	public float[] convert( byte[] samples )
+	{
+		float[] converted = new float[ getConvertedLength( samples.length ) ];
+		
+		convert( samples, converted );
+		
+		return converted;
+	}
+
+	/**
+	 * Converts the byte samples into the converted float array, so that the
+	 * caller can reuse float arrays.  The converted array must be at least 
+	 * getConvertedLength( samples.length ) long.
+	 */
+	public abstract void convert( byte[] samples, float[] converted );
+	
+	/**
+	 * Number of float samples produced from the number of bytes
+	 */
+	public abstract int getConvertedLength( int byteCount );
 }
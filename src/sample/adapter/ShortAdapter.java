@@ -29,10 +29,8 @@ public class ShortAdapter extends SampleAdapter
 	private ByteOrder mByteOrder = ByteOrder.LITTLE_ENDIAN;
 	
 	@Override
-    public float[] convert( byte[] samples )
+    public void convert( byte[] samples, float[] processed )
     {
-		float[] processed = new float[ samples.length / 2 ];
-
 		int pointer = 0;
 
 		/* Wrap byte array in a byte buffer so we can process them as shorts */
@@ -47,10 +45,14 @@ public class ShortAdapter extends SampleAdapter
 
         	pointer++;
         }
-        
-        return processed;
     }
 
+	@Override
+	public int getConvertedLength( int byteCount )
+	{
+		return byteCount / 2;
+	}
+
 	/**
 	 * Set byte interpretation to little or big endian.  Defaults to LITTLE
 	 * endian
@@ -1,10 +1,13 @@
 package sample.complex;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ComplexBuffer
 {
 	private float[] mSamples;
+	private ComplexBufferPool mPool;
+	private AtomicInteger mUserCount = new AtomicInteger( 1 );
 
 	/**
 	 * Wrapper around float array containing interleaved I/Q samples
@@ -14,6 +17,17 @@ public class ComplexBuffer
 		mSamples = samples;
 	}
 
+	/**
+	 * Wrapper around float array containing interleaved I/Q samples that is
+	 * returned to the pool when the last user releases the buffer
+	 */
+	ComplexBuffer( float[] samples, ComplexBufferPool pool )
+	{
+		this( samples );
+		
+		mPool = pool;
+	}
+
 	/**
 	 * Creates a deep copy of the buffer 
 	 */
@@ -32,6 +46,52 @@ public class ComplexBuffer
 		return mSamples;
 	}
 
+	/**
+	 * Registers an additional user of this buffer.  Listeners that hold the
+	 * buffer beyond the receive() method call must retain the buffer and then
+	 * release it when finished.
+	 */
+	public void retain()
+	{
+		mUserCount.incrementAndGet();
+	}
+	
+	/**
+	 * Unregisters a user of this buffer.  When the last user releases the 
+	 * buffer, a pooled buffer is returned to its pool for reuse.
+	 */
+	public void release()
+	{
+		if( mUserCount.decrementAndGet() == 0 && mPool != null )
+		{
+			mPool.recycle( this );
+		}
+	}
+	
+	/**
+	 * Current number of users of this buffer
+	 */
+	public int getUserCount()
+	{
+		return mUserCount.get();
+	}
+
+	/**
+	 * Indicates if this buffer is managed by a buffer pool
+	 */
+	public boolean isPooled()
+	{
+		return mPool != null;
+	}
+
+	/**
+	 * Resets the user count when a pooled buffer is reused
+	 */
+	void reset()
+	{
+		mUserCount.set( 1 );
+	}
+
 	/**
 	 * Cleanup method to nullify all data and references
 	 */
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package sample.complex;
+
+import buffer.BufferPool;
+
+/**
+ * Pool of reusable, reference counted complex sample buffers.  
+ * 
+ * Buffers obtained from the pool have a user count of one, held by the 
+ * producer.  Listeners that hold a buffer beyond the scope of the receive() 
+ * method (ie queue the buffer for processing on another thread) must invoke 
+ * retain() on the buffer and then release() when finished.  The producer
+ * invokes release() after the buffer has been dispatched to all listeners.  
+ * When the user count reaches zero, the buffer returns to the pool.
+ * 
+ * Pooled buffers are shared across all listeners and must be treated as read 
+ * only.
+ */
+public class ComplexBufferPool extends BufferPool<ComplexBuffer>
+{
+	/**
+	 * @param maximumPoolSize - maximum number of recycled buffers to retain
+	 */
+	public ComplexBufferPool( int maximumPoolSize )
+	{
+		super( maximumPoolSize );
+	}
+
+	/**
+	 * Returns a buffer with a sample array of the requested length and a user
+	 * count of one.  Sample array contents are not cleared.
+	 * 
+	 * @param length - float array length (ie 2 x number of I/Q samples)
+	 */
+	public ComplexBuffer getBuffer( int length )
+	{
+		ComplexBuffer buffer = poll( length );
+		
+		if( buffer != null )
+		{
+			buffer.reset();
+
+			hit();
+			
+			return buffer;
+		}
+		
+		miss();
+		
+		return new ComplexBuffer( new float[ length ], this );
+	}
+
+	@Override
+	protected int getLength( ComplexBuffer buffer )
+	{
+		return buffer.getSamples() != null ? buffer.getSamples().length : -1;
+	}
+
+	/**
+	 * Returns the buffer to the pool.  Invoked by the buffer when the user
+	 * count reaches zero.
+	 */
+	void recycle( ComplexBuffer buffer )
+	{
+		recycle( buffer, buffer.getSamples() != null );
+	}
+}
@@ -46,6 +46,11 @@ public class RealSampleBroadcaster implements RealSampleListener
 		return !mListeners.isEmpty();
 	}
 	
+	public boolean hasListener( RealSampleListener listener )
+	{
+		return mListeners.contains( listener );
+	}
+	
 	public int getListenerCount()
 	{
 		return mListeners.size();
@@ -1,12 +1,10 @@
 package source;
 
-import java.util.List;
-
 import sample.Provider;
-import sample.complex.ComplexSample;
+import sample.complex.ComplexBuffer;
 
 public abstract class ComplexSource extends Source 
-				implements Provider<List<ComplexSample>>
+				implements Provider<ComplexBuffer>
 {
 	public ComplexSource( String name )
 	{
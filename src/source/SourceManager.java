@@ -53,6 +53,12 @@ public class SourceManager {
 					retVal = MixerManager.getInstance().getSource( channel ); 
 					break;
 				case TUNER:
+					if( mResourceManager.getTunerManager() == null )
+					{
+						throw new SourceException( "Tuner sources are not "
+								+ "available - no tuner manager" );
+					}
+					
 					retVal = mResourceManager.getTunerManager().getSource( channel );
 					break;
 				case RECORDING:
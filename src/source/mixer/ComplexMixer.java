@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import sample.Listener;
 import sample.adapter.SampleAdapter;
 import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
 import sample.complex.ComplexSample;
 import source.SourceException;
 
@@ -40,6 +41,8 @@ public class ComplexMixer
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( ComplexMixer.class );
 
+	public final static int BUFFER_POOL_SIZE = 16;
+
 	private long mFrequency = 0;
 	private int mBufferSize = 16384;
 	
@@ -50,6 +53,8 @@ public class ComplexMixer
 	private int mBytesPerFrame = 0;
 	private SampleAdapter mSampleAdapter;
 	private Listener<ComplexBuffer> mListener;
+	private ComplexBufferPool mComplexBufferPool = 
+						new ComplexBufferPool( BUFFER_POOL_SIZE );
     
 	/**
 	 * Complex Mixer - constructs a reader on the mixer/sound card target 
@@ -81,6 +86,14 @@ public class ComplexMixer
         mListener = listener;
     }
     
+    /**
+     * Pool of complex sample buffers dispatched by this mixer
+     */
+    public ComplexBufferPool getComplexBufferPool()
+    {
+    	return mComplexBufferPool;
+    }
+    
     public TargetDataLine getTargetDataLine()
     {
     	return mTargetDataLine;
@@ -212,15 +225,22 @@ public class ComplexMixer
             				/* Blocking read - waits until the buffer fills */
         					mTargetDataLine.read( buffer, 0, buffer.length );
 
-	                        /* Convert samples to float array */
-        					float[] samples =  
-	            					mSampleAdapter.convert( buffer );
+	                        /* Convert samples into a pooled buffer */
+        					ComplexBuffer complexBuffer = 
+        						mComplexBufferPool.getBuffer( mSampleAdapter
+        							.getConvertedLength( buffer.length ) );
+        					
+        					mSampleAdapter.convert( buffer, 
+        							complexBuffer.getSamples() );
 	            			
 	            			/* Dispatch samples to registered listeners */
         					if( mListener != null )
         					{
-        						mListener.receive( new ComplexBuffer( samples ) );
+        						mListener.receive( complexBuffer );
         					}
+        					
+        					/* Release the reader's hold on the buffer */
+        					complexBuffer.release();
                         }
                         catch ( Exception e )
                         {
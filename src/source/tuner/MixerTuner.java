@@ -59,6 +59,9 @@ public abstract class MixerTuner extends Tuner implements Listener<ComplexBuffer
         								  name,
         								  sampleAdapter,
         								  (Listener<ComplexBuffer>)this );
+        
+        mComplexMixer.getComplexBufferPool()
+        		.setMetricGroup( getMetricGroup(), "buffer.pool" );
 	}
 	
 	public MixerTuner( String name, 
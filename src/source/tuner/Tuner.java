@@ -22,6 +22,9 @@ import java.util.concurrent.RejectedExecutionException;
 
 import javax.swing.JPanel;
 
+import metrics.MetricGroup;
+import metrics.MetricsRegistry;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +35,8 @@ import source.tuner.frequency.FrequencyChangeBroadcaster;
 import source.tuner.frequency.FrequencyChangeEvent;
 import source.tuner.frequency.FrequencyChangeListener;
 import source.tuner.frequency.FrequencyChangeEvent.Attribute;
+import spectrum.history.SpectrumHistory;
+import properties.SystemProperties;
 import controller.ResourceManager;
 import controller.ThreadPoolManager;
 
@@ -43,8 +48,20 @@ public abstract class Tuner implements FrequencyChangeBroadcaster,
 									   TunerChannelProvider
 {
 	private final static Logger mLog = LoggerFactory.getLogger( Tuner.class );
+
+	public static final String CHANNELIZER_PROPERTY = "tuner.channelizer.enabled";
 	
 	private String mName;
+	
+	private TunerChannelizer mChannelizer;
+	
+	private TunerRingBuffer mRingBuffer;
+	private boolean mRingBufferChecked;
+	
+	private SpectrumHistory mSpectrumHistory;
+	private boolean mSpectrumHistoryChecked;
+	
+	private MetricGroup mMetricGroup;
 
 	/**
 	 * Sample Listeners - these will typically be the DFT processor for spectral
@@ -68,6 +85,30 @@ public abstract class Tuner implements FrequencyChangeBroadcaster,
 	
 	public void dispose()
 	{
+		if( mChannelizer != null )
+		{
+			mChannelizer.dispose();
+			mChannelizer = null;
+		}
+		
+		if( mRingBuffer != null )
+		{
+			mRingBuffer.dispose();
+			mRingBuffer = null;
+		}
+		
+		if( mSpectrumHistory != null )
+		{
+			mSpectrumHistory.dispose();
+			mSpectrumHistory = null;
+		}
+		
+		if( mMetricGroup != null )
+		{
+			mMetricGroup.dispose();
+			mMetricGroup = null;
+		}
+		
 		mSampleListeners.clear();
 		mFrequencyChangeListeners.clear();
 	}
@@ -77,6 +118,21 @@ public abstract class Tuner implements FrequencyChangeBroadcaster,
 		mName = name;
 	}
 	
+	/**
+	 * Metric group for the tuner metrics, like the sample buffer pool 
+	 * statistics.  Created on first use.
+	 */
+	public synchronized MetricGroup getMetricGroup()
+	{
+		if( mMetricGroup == null )
+		{
+			mMetricGroup = MetricsRegistry.getInstance()
+					.getGroup( "tuner." + mName );
+		}
+		
+		return mMetricGroup;
+	}
+	
 	/**
 	 * Return an editor panel for the tuner
 	 */
@@ -145,6 +201,69 @@ public abstract class Tuner implements FrequencyChangeBroadcaster,
 	public abstract TunerChannelSource getChannel( ThreadPoolManager threadPoolManager,
 		TunerChannel channel ) throws RejectedExecutionException, SourceException;
 	
+	/**
+	 * Returns the polyphase channelizer that serves the tuner channel sources
+	 * for this tuner, or null if the channelizer is not enabled.  Enable the 
+	 * channelizer with the tuner.channelizer.enabled system property.
+	 */
+	public synchronized TunerChannelizer getChannelizer()
+	{
+		if( mChannelizer == null && SystemProperties.getInstance()
+				.get( CHANNELIZER_PROPERTY, false ) )
+		{
+			mChannelizer = new TunerChannelizer( this );
+		}
+		
+		return mChannelizer;
+	}
+	
+	/**
+	 * Returns the off-heap ring buffer that retains the most recent tuner 
+	 * samples for retroactive recording, or null if tuner ring buffers are not
+	 * enabled.  Enable the ring buffer by setting the tuner.ring.buffer.seconds
+	 * system property.  
+	 * 
+	 * Note: the ring buffer registers as a sample listener when it is created, 
+	 * so that the tuner produces samples continuously.
+	 */
+	public synchronized TunerRingBuffer getRingBuffer()
+	{
+		if( !mRingBufferChecked )
+		{
+			mRingBufferChecked = true;
+			
+			mRingBuffer = TunerRingBuffer.create( this );
+			
+			if( mRingBuffer != null )
+			{
+				addListener( (FrequencyChangeListener)mRingBuffer );
+				addListener( (Listener<ComplexBuffer>)mRingBuffer );
+			}
+		}
+		
+		return mRingBuffer;
+	}
+	
+	/**
+	 * Returns the headless spectrum and waterfall history for this tuner, or
+	 * null if spectrum histories are not enabled.  Enable the history with the
+	 * spectrum.history.enabled system property.
+	 * 
+	 * Note: the history registers as a sample listener when it is created, so
+	 * that the tuner produces samples continuously.
+	 */
+	public synchronized SpectrumHistory getSpectrumHistory()
+	{
+		if( !mSpectrumHistoryChecked )
+		{
+			mSpectrumHistoryChecked = true;
+			
+			mSpectrumHistory = SpectrumHistory.create( this );
+		}
+		
+		return mSpectrumHistory;
+	}
+	
 	/**
 	 * Releases the tuned channel resources
 	 * 
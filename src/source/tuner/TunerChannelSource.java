@@ -17,27 +17,26 @@
  ******************************************************************************/
 package source.tuner;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import metrics.Counter;
+import metrics.Gauge;
+import metrics.Histogram;
+import metrics.MetricGroup;
 import sample.Listener;
 import sample.complex.ComplexBuffer;
-import sample.complex.ComplexSample;
-import sample.complex.ComplexSampleAssembler;
 import source.ComplexSource;
 import source.SourceException;
 import source.tuner.frequency.FrequencyChangeEvent;
 import source.tuner.frequency.FrequencyChangeListener;
 import source.tuner.frequency.FrequencyChangeEvent.Attribute;
 import util.Oscillator;
+import buffer.RingBuffer;
 import controller.ThreadPoolManager;
+import controller.ThreadPoolManager.SignalledTask;
 import controller.ThreadPoolManager.ThreadType;
 import dsp.filter.ComplexPrimeCICDecimate;
 import dsp.filter.FilterFactory;
@@ -53,37 +52,69 @@ public class TunerChannelSource extends ComplexSource
 	private static int CHANNEL_RATE = 48000;
 	private static int CHANNEL_PASS_FREQUENCY = 12000;
 	
-	private LinkedTransferQueue<ComplexBuffer> mBuffer =
-							new LinkedTransferQueue<ComplexBuffer>();
+	/* Tuner buffers waiting for decimation -- about 1 second at 2.4 MHz */
+	private static final int BUFFER_CAPACITY = 32;
+	
+	private RingBuffer<ComplexBuffer> mBuffer = 
+							new RingBuffer<ComplexBuffer>( BUFFER_CAPACITY );
 	private Tuner mTuner;
+	private TunerChannelizer mChannelizer;
 	private TunerChannel mTunerChannel;
 	private Oscillator mSineWaveGenerator;
 	private ComplexPrimeCICDecimate mDecimationFilter;
 
-	private ComplexSampleAssembler mBufferAssembler = 
-								new ComplexSampleAssembler( 3000 );
+	private Listener<ComplexBuffer> mListener;
 	private long mTunerFrequency = 0;
 	private int mTunerFrequencyError = 0;
 	private int mTunerSampleRate;
 	private FrequencyChangeListener mFrequencyChangeListener;
 	private ThreadPoolManager mThreadPoolManager;
-	private ScheduledFuture<?> mTaskHandle;
+	private DecimationProcessor mDecimationProcessor = 
+							new DecimationProcessor();
+	private SignalledTask mDecimationTask;
+	
+	private Counter mSampleCounter;
+	private Histogram mDecimationTimer;
 	
 	public TunerChannelSource( ThreadPoolManager threadPoolManager,
 							   Tuner tuner, 
 							   TunerChannel tunerChannel )
 				   throws RejectedExecutionException, SourceException
+	{
+		this( threadPoolManager, tuner, tunerChannel, null );
+	}
+	
+	/**
+	 * Tuner channel source.  When a channelizer is provided, the source 
+	 * receives samples and sample rate/frequency change events for the
+	 * channelizer sub-band that contains the tuner channel, instead of the 
+	 * full tuner bandwidth.
+	 * 
+	 * @param threadPoolManager - for scheduling the decimation task
+	 * @param tuner - source tuner
+	 * @param tunerChannel - channel frequency and bandwidth
+	 * @param channelizer - tuner channelizer, or null to process the full 
+	 * bandwidth tuner samples
+	 */
+	public TunerChannelSource( ThreadPoolManager threadPoolManager,
+							   Tuner tuner, 
+							   TunerChannel tunerChannel,
+							   TunerChannelizer channelizer )
+				   throws RejectedExecutionException, SourceException
     {
 	    super( "Tuner Channel Source" );
 
 	    mThreadPoolManager = threadPoolManager;
 
-	    
 	    mTuner = tuner;
-	    mTuner.addListener( (FrequencyChangeListener)this );
-	    
+	    mChannelizer = channelizer;
 	    mTunerChannel = tunerChannel;
 
+	    if( mChannelizer == null )
+	    {
+		    mTuner.addListener( (FrequencyChangeListener)this );
+	    }
+	    
 	    mTunerFrequency = mTuner.getFrequency();
 	    
 	    /* Setup the frequency translator to the current source frequency */
@@ -95,12 +126,22 @@ public class TunerChannelSource extends ComplexSource
 		frequencyChanged( new FrequencyChangeEvent( 
 					Attribute.SAMPLE_RATE, mTuner.getSampleRate() ) );
 	    
-		/* Schedule the decimation task to run 50 times a second */
-	    mTaskHandle = mThreadPoolManager.scheduleFixedRate( ThreadType.DECIMATION, 
-	    		new DecimationProcessor(), 20, TimeUnit.MILLISECONDS );
+		/* Create the decimation task that runs each time a tuner buffer
+		 * arrives, pinned to the worker that runs the decoder processing for 
+		 * this source */
+	    mDecimationTask = mThreadPoolManager.scheduleSignalled( 
+	    		ThreadType.DECIMATION, this, mDecimationProcessor );
 
-	    /* Finally, register to receive samples from the tuner */
-		mTuner.addListener( (Listener<ComplexBuffer>)this );
+	    /* Finally, register to receive samples from the tuner, or from the
+	     * channelizer which also updates the sub-band rate and frequency */
+	    if( mChannelizer != null )
+	    {
+	    	mChannelizer.addChannel( this );
+	    }
+	    else
+	    {
+	    	mTuner.addListener( (Listener<ComplexBuffer>)this );
+	    }
     }
 	
     @Override
@@ -108,22 +149,28 @@ public class TunerChannelSource extends ComplexSource
     {
     	mFrequencyChangeListener = null;
     	
+		if( mChannelizer != null )
+		{
+			mChannelizer.removeChannel( this );
+			mChannelizer = null;
+		}
+		
 		//Tell the tuner to release our resources
 		mTuner.removeListener( (FrequencyChangeListener)this );
 		mTuner.releaseChannel( this );
 
-		if( mTaskHandle != null )
+		if( mDecimationTask != null )
 		{
-			mThreadPoolManager.cancel( mTaskHandle );
+			mThreadPoolManager.cancel( mDecimationTask );
 		}
 		
-		mBuffer.clear();
-		mBuffer = null;
+		/* Release any buffers that were queued but never processed */
+		mDecimationProcessor.clear();
 
 //		mDecimationFilter.dispose();
 		mDecimationFilter = null;
 		
-		mBufferAssembler.dispose();
+		mListener = null;
 		
 		mTuner = null;
 		
@@ -146,19 +193,77 @@ public class TunerChannelSource extends ComplexSource
 	@Override
     public void receive( ComplexBuffer sampleArray )
     {
-		mBuffer.add( sampleArray );
+		/* Retain the shared tuner buffer until the decimation processor is
+		 * finished with it */
+		sampleArray.retain();
+		
+		if( mBuffer.offer( sampleArray ) )
+		{
+			mDecimationTask.signal();
+		}
+		else
+		{
+			/* Queue is full - the drop is counted by the ring buffer */
+			sampleArray.release();
+		}
     }
+	
+	/**
+	 * Registers the source metrics with the metric group: tuner samples in,
+	 * decimation queue depth and drops and nanoseconds per decimated buffer
+	 */
+	public void setMetricGroup( MetricGroup group )
+	{
+		group.gauge( "source.queue.depth", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return mBuffer.size();
+			}
+		} );
+		
+		group.gauge( "source.queue.dropped", new Gauge()
+		{
+			@Override
+			public long getValue()
+			{
+				return mBuffer.getDropCount();
+			}
+		} );
+
+		mDecimationTimer = group.histogram( "source.decimation.ns" );
+		mSampleCounter = group.counter( "source.samples" );
+	}
+	
+	/**
+	 * Number of tuner buffers dropped because the decimation queue was full
+	 */
+	public long getDroppedBufferCount()
+	{
+		return mBuffer.getDropCount();
+	}
 
 	@Override
-    public void setListener( Listener<List<ComplexSample>> listener )
+    public void setListener( Listener<ComplexBuffer> listener )
     {
-		mBufferAssembler.setListener( listener );
+		mListener = listener;
+		
+		if( mDecimationFilter != null )
+		{
+			mDecimationFilter.setListener( listener );
+		}
     }
 	
 	@Override
-    public void removeListener( Listener<List<ComplexSample>> listener )
+    public void removeListener( Listener<ComplexBuffer> listener )
     {
-		mBufferAssembler.removeListener( listener );
+		mListener = null;
+		
+		if( mDecimationFilter != null )
+		{
+			mDecimationFilter.removeListener( listener );
+		}
     }
 	
 	@Override
@@ -192,7 +297,7 @@ public class TunerChannelSource extends ComplexSource
 												  WindowType.HAMMING );
 					
 					/* re-add the original output listener */
-					mDecimationFilter.setListener( mBufferAssembler );
+					mDecimationFilter.setListener( mListener );
 
 					mTunerSampleRate = sampleRate;
 				}
@@ -234,48 +339,74 @@ public class TunerChannelSource extends ComplexSource
 	    return mTuner.getFrequency();
     }
 	
+	/**
+	 * Translates and decimates the queued tuner buffers.  Runs each time the 
+	 * decimation task is signalled by the arrival of a tuner buffer.
+	 */
 	public class DecimationProcessor implements Runnable 
 	{
+		/* Maximum buffers processed per run, so that a busy channel doesn't
+		 * starve other tasks that share the worker thread */
+		private static final int MAX_BUFFERS_PER_RUN = 8;
+		
+		private float[] mTranslated;
+		
 		@Override
-        public void run()
+        public synchronized void run()
         {
 			/* General exception handler so that any errors won't kill the
 			 * decimation thread and cause the input buffers to fill up and
 			 * run the program out of memory */
 			try
 			{
-				List<ComplexBuffer> sampleBuffers = 
-						new ArrayList<ComplexBuffer>();
-	
-				if( mBuffer != null )
+				int count = 0;
+				
+				ComplexBuffer buffer = mBuffer.poll();
+				
+				Counter sampleCounter = mSampleCounter;
+				Histogram decimationTimer = mDecimationTimer;
+				
+				while( buffer != null )
 				{
-					/* Limit to 4, so that after a garbage collect we don't
-					 * induce wild swings as it tries to take tons of samples
-					 * and process them, causing delays and buffer refill */
-					mBuffer.drainTo( sampleBuffers, 4 );
-			
-					for( ComplexBuffer buffer: sampleBuffers )
+					long start = System.nanoTime();
+					
+					float[] samples = buffer.getSamples();
+
+					/* Reuse the translation array -- the decimation filter
+					 * doesn't hold a reference to its input array */
+					if( mTranslated == null || 
+						mTranslated.length != samples.length )
 					{
-						float[] samples = buffer.getSamples();
-						float[] translated = new float[ samples.length ];
+						mTranslated = new float[ samples.length ];
+					}
+					
+					/* Perform frequency translation */
+					mSineWaveGenerator.mix( samples, mTranslated );
+					
+					buffer.release();
 
-						/* Perform frequency translation */
-						for( int x = 0; x < samples.length; x += 2 )
-						{
-							ComplexSample multiplier = 
-									mSineWaveGenerator.nextComplex();
-							
-							translated[ x ] = ( samples[ x ] * multiplier.inphase() ) - 
-									( samples[ x + 1 ] * multiplier.quadrature() );
+					ComplexPrimeCICDecimate decimationFilter = mDecimationFilter;
+					
+					if( decimationFilter != null )
+					{
+						decimationFilter.receive( mTranslated );
+					}
 					
-							translated[ x + 1 ] = ( samples[ x + 1 ] * multiplier.inphase() ) + 
-									( samples[ x ] * multiplier.quadrature() );
-						}
-						
-						mDecimationFilter.receive( translated );
+					if( decimationTimer != null )
+					{
+						decimationTimer.update( System.nanoTime() - start );
+						sampleCounter.add( samples.length / 2 );
 					}
 					
-					sampleBuffers.clear();
+					count++;
+					
+					buffer = count < MAX_BUFFERS_PER_RUN ? mBuffer.poll() : null;
+				}
+				
+				/* Reschedule to process the remaining buffers */
+				if( !mBuffer.isEmpty() )
+				{
+					mDecimationTask.signal();
 				}
 			}
 			catch( Exception e )
@@ -283,6 +414,21 @@ public class TunerChannelSource extends ComplexSource
 				mLog.error( "encountered an error during decimation process", e );
 			}
         }
+		
+		/**
+		 * Releases all queued buffers.  Synchronized with run() so that the 
+		 * buffer queue only has one consumer at a time.
+		 */
+		public synchronized void clear()
+		{
+			ComplexBuffer queued = mBuffer.poll();
+			
+			while( queued != null )
+			{
+				queued.release();
+				queued = mBuffer.poll();
+			}
+		}
 	}
 
     public void addListener( FrequencyChangeListener listener )
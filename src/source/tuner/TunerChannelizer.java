@@ -0,0 +1,457 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package source.tuner;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
+import source.SourceException;
+import source.tuner.frequency.FrequencyChangeEvent;
+import source.tuner.frequency.FrequencyChangeEvent.Attribute;
+import source.tuner.frequency.FrequencyChangeListener;
+import dsp.filter.Window;
+import dsp.filter.channelizer.PolyphaseChannelizer;
+
+/**
+ * Tuner channelizer - splits the wideband tuner sample stream once into 
+ * fixed, overlapping sub-bands using a polyphase filter bank and delivers
+ * each tuner channel source the sub-band that contains its channel.  Each
+ * channel source then only has to apply a small fine-tune frequency offset 
+ * and decimate the sub-band down to the channel rate, so the per-tuner cost 
+ * stays nearly constant as channels are added.
+ * 
+ * The tuner channel sources see the channelizer as their tuner: each source
+ * receives sample rate and frequency change events describing its assigned
+ * sub-band instead of the tuner.  
+ * 
+ * Sub-bands are spaced at half of the sub-band sample rate, and the sub-band
+ * sample rate is an integer multiple of the 48 kHz channel rate.  When the 
+ * tuner sample rate is not a multiple of 48 kHz, the channelizer passes the 
+ * wideband tuner samples through to each channel source unchanged.
+ */
+public class TunerChannelizer implements FrequencyChangeListener,
+										 Listener<ComplexBuffer>
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( TunerChannelizer.class );
+
+	private static final int CHANNEL_RATE = 48000;
+	private static final int CHANNEL_HALF_BANDWIDTH = 12500;
+	/* Stop band attenuation in dB at the prototype filter stop frequency.  The
+	 * stop frequency is the lowest frequency that aliases into a sub-band 
+	 * channel pass band after decimation */
+	private static final int ATTENUATION = 80;
+	/* The kaiser window length and beta estimates are approximate and the
+	 * largest stop band lobe lands 0.5 - 1.5 dB short of the design value, so
+	 * the prototype is designed with a small margin over the target */
+	private static final int ATTENUATION_MARGIN = 3;
+	/* Sub-band buffers are queued by each channel source, so the pool retains
+	 * enough buffers for several queued buffers per requested sub-band */
+	private static final int BUFFER_POOL_SIZE = 64;
+	
+	private Tuner mTuner;
+
+	private CopyOnWriteArrayList<Registration> mRegistrations = 
+			new CopyOnWriteArrayList<Registration>();
+	
+	private PolyphaseChannelizer mChannelizer;
+	private ComplexBufferPool mBufferPool = 
+			new ComplexBufferPool( BUFFER_POOL_SIZE );
+	private int[] mChannels = new int[ 0 ];
+	private ComplexBuffer[] mBuffers = new ComplexBuffer[ 0 ];
+	private float[][] mOutputs = new float[ 0 ][];
+	private int mSampleRate;
+	private int mSubbandSpacing;
+	private long mFrequency;
+
+	public TunerChannelizer( Tuner tuner )
+	{
+		mTuner = tuner;
+	}
+
+	public void dispose()
+	{
+		mTuner.removeListener( (FrequencyChangeListener)this );
+		mTuner.removeListener( (Listener<ComplexBuffer>)this );
+		
+		mRegistrations.clear();
+		mChannelizer = null;
+		mBufferPool.clear();
+	}
+	
+	/**
+	 * Registers the tuner channel source to receive the sub-band that contains
+	 * the source's tuner channel.  The source is immediately sent sample rate
+	 * and frequency change events for the assigned sub-band.  The channelizer 
+	 * registers with the tuner when the first channel is added.
+	 */
+	public synchronized void addChannel( TunerChannelSource source ) 
+			throws SourceException
+	{
+		if( mRegistrations.isEmpty() )
+		{
+			mSampleRate = mTuner.getSampleRate();
+			mFrequency = mTuner.getFrequency();
+			
+			update();
+			
+			mTuner.addListener( (FrequencyChangeListener)this );
+			mTuner.addListener( (Listener<ComplexBuffer>)this );
+		}
+
+		mRegistrations.add( new Registration( source ) );
+
+		configure();
+	}
+
+	/**
+	 * Removes the tuner channel source.  The channelizer unregisters from the
+	 * tuner when the last channel is removed.
+	 */
+	public synchronized void removeChannel( TunerChannelSource source )
+	{
+		for( Registration registration: mRegistrations )
+		{
+			if( registration.getSource() == source )
+			{
+				mRegistrations.remove( registration );
+			}
+		}
+		
+		if( mRegistrations.isEmpty() )
+		{
+			mTuner.removeListener( (FrequencyChangeListener)this );
+			mTuner.removeListener( (Listener<ComplexBuffer>)this );
+			
+			mChannelizer = null;
+		}
+		else
+		{
+			configure();
+		}
+	}
+
+	/**
+	 * Sample rate of the sub-band samples delivered to each channel source
+	 */
+	public int getSubbandSampleRate()
+	{
+		if( mChannelizer != null )
+		{
+			return mSampleRate / mChannelizer.getDecimation();
+		}
+		
+		return mSampleRate;
+	}
+
+	/**
+	 * Channelizes the tuner samples and dispatches each requested sub-band to
+	 * the registered channel sources.
+	 */
+	@Override
+	public synchronized void receive( ComplexBuffer buffer )
+	{
+		if( mChannelizer == null )
+		{
+			for( Registration registration: mRegistrations )
+			{
+				registration.getSource().receive( buffer );
+			}
+		}
+		else
+		{
+			float[] samples = buffer.getSamples();
+			
+			int length = mChannelizer.getOutputCount( samples.length / 2 ) * 2;
+			
+			for( int x = 0; x < mChannels.length; x++ )
+			{
+				mBuffers[ x ] = mBufferPool.getBuffer( length );
+				mOutputs[ x ] = mBuffers[ x ].getSamples();
+			}
+			
+			mChannelizer.filter( samples, mChannels, mOutputs );
+			
+			for( Registration registration: mRegistrations )
+			{
+				registration.getSource()
+						.receive( mBuffers[ registration.getSlot() ] );
+			}
+			
+			/* Release the channelizer's hold on the sub-band buffers */
+			for( int x = 0; x < mChannels.length; x++ )
+			{
+				mBuffers[ x ].release();
+				mBuffers[ x ] = null;
+				mOutputs[ x ] = null;
+			}
+		}
+	}
+
+	/**
+	 * Tuner sample rate and frequency changes are applied to the channelizer 
+	 * and the sub-band assignments, and the channel sources are notified of 
+	 * their updated sub-band.  All other events pass through to the channel
+	 * sources.
+	 */
+	@Override
+	public synchronized void frequencyChanged( FrequencyChangeEvent event )
+	{
+		switch( event.getAttribute() )
+		{
+			case SAMPLE_RATE:
+				int sampleRate = event.getValue().intValue();
+				
+				if( sampleRate != mSampleRate )
+				{
+					mSampleRate = sampleRate;
+					
+					update();
+					configure();
+				}
+				break;
+			case FREQUENCY:
+				mFrequency = event.getValue().longValue();
+				
+				configure();
+				break;
+			default:
+				for( Registration registration: mRegistrations )
+				{
+					registration.getSource().frequencyChanged( event );
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Constructs the polyphase channelizer for the current tuner sample rate.
+	 * 
+	 * The sub-band decimation is the largest divisor of the tuner sample rate
+	 * multiple of 48 kHz that leaves a sub-band sample rate of at least 96 kHz.
+	 * Sub-bands are 2x oversampled, so a channel centered anywhere between two
+	 * sub-band centers remains within the pass band of the nearest sub-band.
+	 */
+	private void update()
+	{
+		mChannelizer = null;
+		
+		if( mSampleRate % CHANNEL_RATE == 0 )
+		{
+			int multiple = mSampleRate / CHANNEL_RATE;
+			
+			int decimation = multiple / 2;
+			
+			while( decimation > 1 && multiple % decimation != 0 )
+			{
+				decimation--;
+			}
+			
+			if( decimation > 1 )
+			{
+				int channelCount = decimation * 2;
+				
+				mSubbandSpacing = mSampleRate / channelCount;
+				
+				int passFrequency = ( mSubbandSpacing / 2 ) + 
+						CHANNEL_HALF_BANDWIDTH;
+				
+				int stopFrequency = ( mSubbandSpacing * 2 ) - passFrequency;
+				
+				double[] coefficients = getPrototypeFilter( mSampleRate, 
+						passFrequency, stopFrequency );
+				
+				mChannelizer = new PolyphaseChannelizer( channelCount, 
+						decimation, coefficients );
+				
+				mLog.info( "Channelizer - sample rate [" + mSampleRate + 
+					"] sub-bands [" + channelCount + "] spacing [" + 
+					mSubbandSpacing + "] sub-band rate [" + 
+					getSubbandSampleRate() + "] filter taps [" + 
+					coefficients.length + "]" );
+			}
+		}
+		
+		if( mChannelizer == null )
+		{
+			mLog.info( "Channelizer - sample rate [" + mSampleRate + 
+				"] is not supported - passing tuner samples to channels" );
+		}
+	}
+
+	/**
+	 * Designs the prototype low pass filter as a kaiser windowed sinc with the
+	 * cutoff centered in the transition band and the window sized so that the
+	 * attenuation target holds from the stop frequency upward.  The filter is 
+	 * normalized to unity gain at DC so that sub-band sample levels match the 
+	 * tuner sample levels.
+	 */
+	private static double[] getPrototypeFilter( int sampleRate, 
+												int passFrequency,
+												int stopFrequency )
+	{
+		double transition = (double)( stopFrequency - passFrequency ) / 
+				(double)sampleRate;
+		
+		int attenuation = ATTENUATION + ATTENUATION_MARGIN;
+		
+		int tapCount = Window.getKaiserLength( attenuation, transition );
+
+		if( tapCount % 2 == 0 )
+		{
+			tapCount++;
+		}
+		
+		double[] window = Window.getKaiserWindow( tapCount, attenuation );
+		
+		double cutoff = (double)( passFrequency + stopFrequency ) / 
+				( 2.0d * (double)sampleRate );
+		
+		int half = tapCount / 2;
+		
+		double[] coefficients = new double[ tapCount ];
+		
+		for( int x = 0; x < tapCount; x++ )
+		{
+			int index = x - half;
+			
+			if( index == 0 )
+			{
+				coefficients[ x ] = 2.0d * cutoff;
+			}
+			else
+			{
+				coefficients[ x ] = Math.sin( 2.0d * Math.PI * cutoff * index ) / 
+						( Math.PI * index );
+			}
+			
+			coefficients[ x ] *= window[ x ];
+		}
+		
+		double gain = 0.0d;
+		
+		for( double coefficient: coefficients )
+		{
+			gain += coefficient;
+		}
+		
+		for( int x = 0; x < coefficients.length; x++ )
+		{
+			coefficients[ x ] /= gain;
+		}
+		
+		return coefficients;
+	}
+
+	/**
+	 * Assigns each registered channel source to the sub-band nearest to its
+	 * channel frequency, rebuilds the requested sub-band list, and notifies 
+	 * each source of its sub-band sample rate and center frequency.
+	 */
+	private void configure()
+	{
+		int[] channels = new int[ mRegistrations.size() ];
+		int count = 0;
+		
+		for( Registration registration: mRegistrations )
+		{
+			long center = mFrequency;
+			
+			if( mChannelizer != null )
+			{
+				long offset = registration.getSource().getTunerChannel()
+						.getFrequency() - mFrequency;
+				
+				int subband = (int)Math.round( (double)offset / 
+						(double)mSubbandSpacing );
+				
+				center = mFrequency + ( subband * mSubbandSpacing );
+
+				int channelCount = mChannelizer.getChannelCount();
+				
+				int index = ( ( subband % channelCount ) + channelCount ) % 
+						channelCount;
+
+				int slot = 0;
+				
+				while( slot < count && channels[ slot ] != index )
+				{
+					slot++;
+				}
+				
+				if( slot == count )
+				{
+					channels[ count++ ] = index;
+				}
+				
+				registration.setSlot( slot );
+			}
+			
+			TunerChannelSource source = registration.getSource();
+			
+			source.frequencyChanged( new FrequencyChangeEvent( 
+					Attribute.SAMPLE_RATE, getSubbandSampleRate() ) );
+			
+			source.frequencyChanged( new FrequencyChangeEvent( 
+					Attribute.FREQUENCY, center ) );
+		}
+		
+		int[] requested = new int[ count ];
+		
+		System.arraycopy( channels, 0, requested, 0, count );
+		
+		mChannels = requested;
+		mBuffers = new ComplexBuffer[ count ];
+		mOutputs = new float[ count ][];
+	}
+	
+	/**
+	 * Channel source and the index of its sub-band in the requested sub-band
+	 * list
+	 */
+	public class Registration
+	{
+		private TunerChannelSource mSource;
+		private int mSlot;
+		
+		public Registration( TunerChannelSource source )
+		{
+			mSource = source;
+		}
+		
+		public TunerChannelSource getSource()
+		{
+			return mSource;
+		}
+		
+		public int getSlot()
+		{
+			return mSlot;
+		}
+		
+		public void setSlot( int slot )
+		{
+			mSlot = slot;
+		}
+	}
+}
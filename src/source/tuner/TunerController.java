@@ -169,7 +169,7 @@ public abstract class TunerController implements Tunable
 			updateLOFrequency();
 			
 			source = new TunerChannelSource( threadPoolManager, 
-					tuner, tunerChannel );
+					tuner, tunerChannel, tuner.getChannelizer() );
 		}
 
 		return source;
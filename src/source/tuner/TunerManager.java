@@ -182,6 +182,11 @@ public class TunerManager
 					sb.append( "] LOADED: "  );
 					sb.append( tuner.toString() );
 					mTuners.add( tuner );
+					
+					/* Start the retroactive recording ring buffer and the 
+					 * headless spectrum history, if enabled */
+					tuner.getRingBuffer();
+					tuner.getSpectrumHistory();
 				}
 				else
 				{
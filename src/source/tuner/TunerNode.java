@@ -19,6 +19,8 @@ package source.tuner;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
 import java.text.DecimalFormat;
 
 import javax.swing.JMenuItem;
@@ -28,10 +30,13 @@ import javax.swing.JPopupMenu;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import properties.SystemProperties;
+import record.wave.MappedComplexWaveRecorder;
 import source.SourceException;
 import source.tuner.frequency.FrequencyChangeEvent;
 import source.tuner.frequency.FrequencyChangeListener;
 import spectrum.SpectrumFrame;
+import util.TimeStamp;
 import controller.BaseNode;
 
 public class TunerNode extends BaseNode implements FrequencyChangeListener
@@ -45,6 +50,7 @@ public class TunerNode extends BaseNode implements FrequencyChangeListener
     
     private long mFrequency;
     private int mSampleRate;
+    private MappedComplexWaveRecorder mBasebandRecorder;
 
 	public TunerNode( Tuner tuner )
 	{
@@ -120,9 +126,118 @@ public class TunerNode extends BaseNode implements FrequencyChangeListener
 		
 		retVal.add( newSpectrumItem );
 		
+		retVal.addSeparator();
+		
+		if( mBasebandRecorder == null )
+		{
+			JMenuItem recordItem = new JMenuItem( "Record Baseband I/Q" );
+			recordItem.addActionListener( new ActionListener() 
+			{
+				@Override
+	            public void actionPerformed( ActionEvent e )
+	            {
+					startBasebandRecording();
+	            }
+			} );
+			
+			retVal.add( recordItem );
+		}
+		else
+		{
+			JMenuItem stopRecordItem = new JMenuItem( "Stop Baseband Recording" );
+			stopRecordItem.addActionListener( new ActionListener() 
+			{
+				@Override
+	            public void actionPerformed( ActionEvent e )
+	            {
+					stopBasebandRecording();
+	            }
+			} );
+			
+			retVal.add( stopRecordItem );
+		}
+		
+		final TunerRingBuffer ringBuffer = getTuner().getRingBuffer();
+		
+		if( ringBuffer != null )
+		{
+			JMenuItem snapshotItem = new JMenuItem( "Save Ring Buffer Snapshot" );
+			snapshotItem.addActionListener( new ActionListener() 
+			{
+				@Override
+	            public void actionPerformed( ActionEvent e )
+	            {
+					ringBuffer.snapshot( null, 0 );
+	            }
+			} );
+			
+			retVal.add( snapshotItem );
+		}
+		
 		return retVal;
 	}
 
+	/**
+	 * Starts recording the full bandwidth tuner sample stream to a 
+	 * memory-mapped 32-bit float wave file in the recordings folder
+	 */
+	private synchronized void startBasebandRecording()
+	{
+		if( mBasebandRecorder == null )
+		{
+			StringBuilder sb = new StringBuilder();
+			sb.append( SystemProperties.getInstance()
+								.getApplicationFolder( "recordings" ) );
+			sb.append( File.separator );
+			sb.append( TimeStamp.getTimeStamp( "_" ) );
+			sb.append( "_" );
+			sb.append( getTuner().getName().replaceAll( "[^A-Za-z0-9_-]", "_" ) );
+			sb.append( "_" );
+			sb.append( mFrequency );
+			sb.append( "_baseband" );
+			
+			MappedComplexWaveRecorder recorder = 
+					new MappedComplexWaveRecorder( mSampleRate, sb.toString() );
+			
+			try
+			{
+				recorder.start();
+				
+				getTuner().addListener( recorder );
+				
+				mBasebandRecorder = recorder;
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Couldn't start baseband recording for tuner [" + 
+						getTuner().getName() + "]", ioe );
+			}
+		}
+	}
+	
+	/**
+	 * Stops the full bandwidth tuner sample stream recording
+	 */
+	private synchronized void stopBasebandRecording()
+	{
+		if( mBasebandRecorder != null )
+		{
+			getTuner().removeListener( mBasebandRecorder );
+			
+			try
+			{
+				mBasebandRecorder.stop();
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Error stopping baseband recording [" + 
+						mBasebandRecorder.getFileName() + "]", ioe );
+			}
+			
+			mBasebandRecorder = null;
+		}
+	}
+
 	@Override
     public void frequencyChanged( FrequencyChangeEvent event )
     {
@@ -144,6 +259,17 @@ public class TunerNode extends BaseNode implements FrequencyChangeListener
 				{
 					mSampleRate = sampleRate;
 					getModel().nodeChanged( TunerNode.this );
+					
+					/* Restart an active baseband recording in a new file at
+					 * the new sample rate */
+					synchronized( this )
+					{
+						if( mBasebandRecorder != null )
+						{
+							stopBasebandRecording();
+							startBasebandRecording();
+						}
+					}
 				}
 				break;
 			default:
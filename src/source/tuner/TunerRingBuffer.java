@@ -0,0 +1,473 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package source.tuner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import properties.SystemProperties;
+import record.wave.MappedComplexWaveRecorder;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import source.tuner.frequency.FrequencyChangeEvent;
+import source.tuner.frequency.FrequencyChangeListener;
+import util.TimeStamp;
+
+/**
+ * Off-heap ring buffer holding the most recent seconds of the full bandwidth 
+ * tuner sample stream, for retroactive baseband recording.  
+ * 
+ * The ring is allocated once from direct (off-heap) memory, sized from the 
+ * tuner sample rate and the configured duration and limited to a configured 
+ * maximum size per tuner.  Each inbound sample buffer is bulk copied into the 
+ * ring, without any allocation.
+ * 
+ * A snapshot writes the ring contents, plus a post-trigger period of new 
+ * samples, to a memory-mapped float wave file.  The snapshot writer runs on 
+ * its own thread and reads the ring oldest-first, while the ring continues to
+ * receive samples.  The ring holds an extra 1/8th of the configured duration
+ * as a guard, so that the writer can stay ahead of the samples being 
+ * overwritten.
+ * 
+ * The ring is cleared when the tuner frequency or sample rate changes, and 
+ * any snapshot in progress is ended, since the samples no longer form a 
+ * continuous recording.
+ */
+public class TunerRingBuffer implements Listener<ComplexBuffer>, 
+										FrequencyChangeListener
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( TunerRingBuffer.class );
+
+	public static final String SECONDS_PROPERTY = "tuner.ring.buffer.seconds";
+	public static final String MAXIMUM_SIZE_PROPERTY = "tuner.ring.buffer.max.mb";
+	public static final int DEFAULT_MAXIMUM_SIZE_MB = 256;
+	
+	/* Snapshot writer transfer size - samples */
+	private static final int SNAPSHOT_CHUNK_SIZE = 65536;
+	private static final long SNAPSHOT_POLL_INTERVAL_MS = 50;
+	
+	/* Largest ring, in samples, that fits in a direct byte buffer at 8 bytes
+	 * (float I/Q) per sample */
+	private static final long MAXIMUM_CAPACITY = Integer.MAX_VALUE / 8;
+	
+	/* All active tuner ring buffers, for snapshot triggers that aren't
+	 * associated with a specific tuner */
+	private static CopyOnWriteArrayList<TunerRingBuffer> sRingBuffers = 
+			new CopyOnWriteArrayList<TunerRingBuffer>();
+
+	private Tuner mTuner;
+	private int mSeconds;
+	private long mMaximumSize;
+	
+	private FloatBuffer mBuffer;
+	private int mCapacity;
+	private int mPreTriggerCapacity;
+	private int mSampleRate;
+	private long mFrequency;
+	
+	/* Total samples written to the ring since the last reset */
+	private long mWritten;
+	/* Incremented each time the ring is reset or reallocated */
+	private int mGeneration;
+	private boolean mDisposed;
+
+	/**
+	 * Constructs a ring buffer for the tuner.  The ring memory is allocated 
+	 * when the first sample buffer arrives.
+	 * 
+	 * @param tuner - tuner providing the sample stream
+	 * @param seconds - pre-trigger duration to retain
+	 * @param maximumSizeMB - maximum ring size in megabytes
+	 */
+	public TunerRingBuffer( Tuner tuner, int seconds, int maximumSizeMB )
+	{
+		mTuner = tuner;
+		mSeconds = seconds;
+		mMaximumSize = (long)maximumSizeMB * 1024l * 1024l;
+		
+		sRingBuffers.add( this );
+	}
+
+	/**
+	 * Creates a ring buffer for the tuner from the system properties, or 
+	 * returns null if tuner ring buffers are not enabled.
+	 */
+	public static TunerRingBuffer create( Tuner tuner )
+	{
+		SystemProperties props = SystemProperties.getInstance();
+		
+		int seconds = props.get( SECONDS_PROPERTY, 0 );
+		
+		if( seconds > 0 )
+		{
+			return new TunerRingBuffer( tuner, seconds, 
+				props.get( MAXIMUM_SIZE_PROPERTY, DEFAULT_MAXIMUM_SIZE_MB ) );
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Active tuner ring buffers
+	 */
+	public static List<TunerRingBuffer> getRingBuffers()
+	{
+		return sRingBuffers;
+	}
+
+	/**
+	 * Writes a snapshot of each active tuner ring buffer
+	 * 
+	 * @param label - label to include in the snapshot file names
+	 * @param postTriggerSeconds - seconds of samples to record after the 
+	 * trigger
+	 */
+	public static void snapshotAll( String label, int postTriggerSeconds )
+	{
+		for( TunerRingBuffer ringBuffer: sRingBuffers )
+		{
+			ringBuffer.snapshot( label, postTriggerSeconds );
+		}
+	}
+	
+	public void dispose()
+	{
+		sRingBuffers.remove( this );
+		
+		synchronized( this )
+		{
+			mDisposed = true;
+			mBuffer = null;
+			mGeneration++;
+		}
+	}
+	
+	public Tuner getTuner()
+	{
+		return mTuner;
+	}
+	
+	/**
+	 * Duration of samples currently held in the ring, in milliseconds
+	 */
+	public synchronized long getBufferedDuration()
+	{
+		if( mSampleRate == 0 )
+		{
+			return 0;
+		}
+		
+		return Math.min( mWritten, mCapacity ) * 1000l / mSampleRate;
+	}
+
+	@Override
+	public synchronized void receive( ComplexBuffer buffer )
+	{
+		if( mDisposed )
+		{
+			return;
+		}
+		
+		if( mBuffer == null )
+		{
+			allocate();
+		}
+		
+		float[] samples = buffer.getSamples();
+
+		int offset = 0;
+		
+		while( offset < samples.length )
+		{
+			int position = (int)( mWritten % mCapacity );
+			
+			int length = Math.min( ( samples.length - offset ) / 2, 
+								   mCapacity - position );
+			
+			mBuffer.position( position * 2 );
+			mBuffer.put( samples, offset, length * 2 );
+			
+			offset += length * 2;
+			mWritten += length;
+		}
+	}
+
+	/**
+	 * Allocates the ring for the current tuner sample rate.  The ring is 
+	 * limited to the maximum size and to the largest direct buffer size.
+	 */
+	private void allocate()
+	{
+		mSampleRate = mTuner.getSampleRate();
+		
+		long maximumCapacity = Math.min( mMaximumSize / 8, MAXIMUM_CAPACITY );
+		
+		long preTrigger = Math.min( (long)mSeconds * mSampleRate, 
+									maximumCapacity * 8 / 9 );
+		
+		if( preTrigger < (long)mSeconds * mSampleRate )
+		{
+			mLog.warn( "Tuner [" + mTuner.getName() + "] ring buffer limited "
+				+ "to [" + ( maximumCapacity * 8 / 1048576 ) + " MB] - "
+				+ "requested [" + mSeconds + "] seconds don't fit" );
+		}
+		
+		mPreTriggerCapacity = (int)Math.max( preTrigger, 1 );
+		
+		/* Guard space for the snapshot writer */
+		mCapacity = mPreTriggerCapacity + Math.max( mPreTriggerCapacity / 8, 1 );
+		
+		mBuffer = ByteBuffer.allocateDirect( mCapacity * 8 )
+				.order( ByteOrder.nativeOrder() ).asFloatBuffer();
+
+		try
+		{
+			mFrequency = mTuner.getFrequency();
+		}
+		catch( Exception e )
+		{
+			mFrequency = 0;
+		}
+		
+		reset();
+		
+		mLog.info( "Tuner [" + mTuner.getName() + "] ring buffer allocated [" + 
+			( (long)mCapacity * 8 / 1048576 ) + " MB] holding [" + 
+			String.format( "%.1f", (double)mPreTriggerCapacity / 
+						   (double)mSampleRate ) + 
+			"] seconds at sample rate [" + mSampleRate + "]" );
+	}
+	
+	private void reset()
+	{
+		mWritten = 0;
+		mGeneration++;
+	}
+	
+	@Override
+	public synchronized void frequencyChanged( FrequencyChangeEvent event )
+	{
+		switch( event.getAttribute() )
+		{
+			case FREQUENCY:
+				mFrequency = event.getValue().longValue();
+				reset();
+				break;
+			case SAMPLE_RATE:
+				if( mBuffer != null && 
+					event.getValue().intValue() != mSampleRate )
+				{
+					/* Reallocate on the next sample buffer */
+					mBuffer = null;
+					reset();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Writes the samples currently held in the ring, plus the post-trigger 
+	 * samples, to a float wave file in the recordings folder.  The snapshot is
+	 * written on a separate thread and this method returns immediately.
+	 * 
+	 * @param label - label to include in the file name
+	 * @param postTriggerSeconds - seconds of samples to record after the 
+	 * trigger
+	 */
+	public synchronized void snapshot( String label, int postTriggerSeconds )
+	{
+		if( mBuffer == null || mWritten == 0 )
+		{
+			mLog.info( "Tuner [" + mTuner.getName() + "] ring buffer is empty - "
+					+ "no snapshot recorded" );
+			return;
+		}
+		
+		long start = mWritten - Math.min( mWritten, mPreTriggerCapacity );
+		long end = mWritten + (long)Math.max( postTriggerSeconds, 0 ) * mSampleRate;
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append( SystemProperties.getInstance()
+							.getApplicationFolder( "recordings" ) );
+		sb.append( File.separator );
+		sb.append( TimeStamp.getTimeStamp( "_" ) );
+		sb.append( "_" );
+		sb.append( mTuner.getName().replaceAll( "[^A-Za-z0-9_-]", "_" ) );
+		sb.append( "_" );
+		sb.append( mFrequency );
+		
+		if( label != null && !label.isEmpty() )
+		{
+			sb.append( "_" );
+			sb.append( label.replaceAll( "[^A-Za-z0-9_-]", "_" ) );
+		}
+		
+		sb.append( "_snapshot" );
+		
+		SnapshotWriter writer = new SnapshotWriter( sb.toString(), start, end, 
+				mGeneration, mSampleRate );
+		writer.setDaemon( true );
+		writer.start();
+	}
+	
+	/**
+	 * Snapshot writer thread.  Transfers samples from the ring to the wave 
+	 * file until the end of the post-trigger period.
+	 */
+	public class SnapshotWriter extends Thread
+	{
+		private String mFileName;
+		private long mIndex;
+		private long mEnd;
+		private int mSnapshotGeneration;
+		private int mSnapshotSampleRate;
+		private long mLost;
+		
+		public SnapshotWriter( String fileName, long start, long end, 
+							   int generation, int sampleRate )
+		{
+			super( "tuner ring buffer snapshot" );
+			
+			mFileName = fileName;
+			mIndex = start;
+			mEnd = end;
+			mSnapshotGeneration = generation;
+			mSnapshotSampleRate = sampleRate;
+		}
+		
+		/**
+		 * Copies the next samples from the ring into the array, skipping any
+		 * samples that were overwritten before they could be copied.
+		 * 
+		 * @return number of samples copied, or -1 if the ring was reset since
+		 * the snapshot started
+		 */
+		private int read( float[] samples )
+		{
+			synchronized( TunerRingBuffer.this )
+			{
+				if( mSnapshotGeneration != mGeneration || mBuffer == null )
+				{
+					return -1;
+				}
+				
+				long oldest = mWritten - mCapacity;
+				
+				if( mIndex < oldest )
+				{
+					mLost += oldest - mIndex;
+					mIndex = oldest;
+				}
+				
+				long available = Math.min( mEnd, mWritten ) - mIndex;
+				
+				int count = (int)Math.min( available, samples.length / 2 );
+				int copied = 0;
+				
+				while( copied < count )
+				{
+					int position = (int)( ( mIndex + copied ) % mCapacity );
+					
+					int length = Math.min( count - copied, mCapacity - position );
+					
+					mBuffer.position( position * 2 );
+					mBuffer.get( samples, copied * 2, length * 2 );
+					
+					copied += length;
+				}
+				
+				return copied;
+			}
+		}
+		
+		public void run()
+		{
+			MappedComplexWaveRecorder recorder = 
+				new MappedComplexWaveRecorder( mSnapshotSampleRate, mFileName );
+
+			float[] samples = new float[ SNAPSHOT_CHUNK_SIZE * 2 ];
+			
+			try
+			{
+				recorder.start();
+				
+				while( mIndex < mEnd )
+				{
+					int count = read( samples );
+					
+					if( count < 0 )
+					{
+						mLog.info( "Tuner [" + mTuner.getName() + "] frequency "
+							+ "or sample rate changed - ending snapshot [" + 
+							recorder.getFileName() + "]" );
+						break;
+					}
+					else if( count == 0 )
+					{
+						Thread.sleep( SNAPSHOT_POLL_INTERVAL_MS );
+					}
+					else
+					{
+						recorder.write( samples, 0, count * 2 );
+						
+						mIndex += count;
+					}
+				}
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Error writing tuner ring buffer snapshot [" + 
+						recorder.getFileName() + "]", ioe );
+			}
+			catch( InterruptedException e )
+			{
+				/* Snapshot cancelled */
+			}
+			finally
+			{
+				try
+				{
+					recorder.stop();
+				}
+				catch( IOException ioe )
+				{
+					mLog.error( "Error closing tuner ring buffer snapshot [" + 
+							recorder.getFileName() + "]", ioe );
+				}
+			}
+			
+			if( mLost > 0 )
+			{
+				mLog.warn( "Tuner ring buffer snapshot [" + mFileName + 
+					"] missed [" + mLost + "] samples that were overwritten "
+					+ "before they could be written" );
+			}
+		}
+	}
+}
@@ -70,11 +70,16 @@ public class HackRFTuner extends Tuner
 		{
 			mLog.error( "couldn't read HackRF board id", e  );
 		}
+		
+		mController.getComplexBufferPool()
+				.setMetricGroup( getMetricGroup(), "buffer.pool" );
+		mController.getByteArrayPool()
+				.setMetricGroup( getMetricGroup(), "transfer.pool" );
 	}
 
 	public void dispose()
 	{
-		//TODO: dispose of something here
+		super.dispose();
 	}
 	
 	public HackRFTunerController getController()
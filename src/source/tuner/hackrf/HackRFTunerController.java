@@ -56,7 +56,6 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
@@ -81,9 +80,11 @@ import org.usb4java.TransferCallback;
 import sample.Listener;
 import sample.adapter.ByteSampleAdapter;
 import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
 import source.SourceException;
 import source.tuner.TunerConfiguration;
 import source.tuner.TunerController;
+import buffer.ByteArrayPool;
 
 
 public class HackRFTunerController extends TunerController
@@ -110,9 +111,16 @@ public class HackRFTunerController extends TunerController
 	public static final long DEFAULT_FREQUENCY = 101100000;
 
 	public final static int TRANSFER_BUFFER_POOL_SIZE = 16;
+	public final static int BUFFER_POOL_SIZE = 64;
 	
 	private LinkedTransferQueue<byte[]> mFilledBuffers = 
 			new LinkedTransferQueue<byte[]>();
+
+	/* Reusable raw transfer and converted sample buffer pools */
+	private ByteArrayPool mByteArrayPool = 
+						new ByteArrayPool( BUFFER_POOL_SIZE );
+	private ComplexBufferPool mComplexBufferPool = 
+						new ComplexBufferPool( BUFFER_POOL_SIZE );
 	
 	private CopyOnWriteArrayList<Listener<ComplexBuffer>> mSampleListeners =
 					new CopyOnWriteArrayList<Listener<ComplexBuffer>>();
@@ -899,34 +907,34 @@ public class HackRFTunerController extends TunerController
     }
 
 	/**
-	 * Dispatches the sample array to each registered listener. If there is more
-	 * than one listener, they receive a copy of the samples.  If there is only
-	 * one listener, or the last listener, they receive the original sample array.
-	 * 
-	 * This is to facilitate garbage collection of the array when the listener
-	 * is done processing the samples.
+	 * Dispatches the sample buffer to each registered listener.  All listeners
+	 * share the same (read-only) pooled buffer.  Listeners that hold the 
+	 * buffer beyond the receive() call must retain and then release the buffer.
 	 */
     public void broadcast( ComplexBuffer samples )
     {
-    	Iterator<Listener<ComplexBuffer>> it = mSampleListeners.iterator();
-
-    	while( it.hasNext() )
+    	for( Listener<ComplexBuffer> listener: mSampleListeners )
     	{
-        	Listener<ComplexBuffer> next = it.next();
-			
-			/* if this is the last (or only) listener, send the original 
-			 * buffer, otherwise send a copy of the buffer */
-			if( it.hasNext() )
-			{
-				next.receive( samples.copyOf() );
-			}
-			else
-			{
-				next.receive( samples );
-			}
+    		listener.receive( samples );
     	}
     }
 
+    /**
+     * Pool of converted sample buffers dispatched to the sample listeners
+     */
+    public ComplexBufferPool getComplexBufferPool()
+    {
+    	return mComplexBufferPool;
+    }
+
+    /**
+     * Pool of raw byte buffers used for USB sample transfers
+     */
+    public ByteArrayPool getByteArrayPool()
+    {
+    	return mByteArrayPool;
+    }
+
 	/**
 	 * Buffer processing thread.  Fetches samples from the HackRF Tuner and 
 	 * dispatches them to all registered listeners
@@ -993,7 +1001,13 @@ public class HackRFTunerController extends TunerController
 				if( mSampleDispatcherTask != null )
 				{
 					mSampleDispatcherTask.cancel( true );
-					mFilledBuffers.clear();
+					byte[] filled = mFilledBuffers.poll();
+
+					while( filled != null )
+					{
+						mByteArrayPool.recycle( filled );
+						filled = mFilledBuffers.poll();
+					}
 				}
 			}
 		}
@@ -1013,7 +1027,7 @@ public class HackRFTunerController extends TunerController
 			{
 				ByteBuffer buffer = transfer.buffer();
 				
-				byte[] data = new byte[ transfer.actualLength() ];
+				byte[] data = mByteArrayPool.get( transfer.actualLength() );
 				
 				buffer.get( data );
 
@@ -1123,9 +1137,17 @@ public class HackRFTunerController extends TunerController
 
 				for( byte[] buffer: buffers )
 				{
-					float[] samples = mSampleAdapter.convert( buffer );
+					ComplexBuffer complexBuffer = mComplexBufferPool.getBuffer( 
+						mSampleAdapter.getConvertedLength( buffer.length ) );
+					
+					mSampleAdapter.convert( buffer, complexBuffer.getSamples() );
+					
+					mByteArrayPool.recycle( buffer );
+					
+					broadcast( complexBuffer );
 					
-					broadcast( new ComplexBuffer( samples ) );
+					/* Release the dispatcher's hold on the buffer */
+					complexBuffer.release();
 				}
 			}
 			catch( Exception e )
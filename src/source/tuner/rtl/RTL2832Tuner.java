@@ -58,11 +58,16 @@ public class RTL2832Tuner extends Tuner
 		mTunerClass = tunerClass;
 		mController = controller;
 		mController.addListener( (FrequencyChangeListener)this );
+		
+		mController.getComplexBufferPool()
+				.setMetricGroup( getMetricGroup(), "buffer.pool" );
+		mController.getByteArrayPool()
+				.setMetricGroup( getMetricGroup(), "transfer.pool" );
 	}
 	
 	public void dispose()
 	{
-		//TODO: dispose of something here
+		super.dispose();
 	}
 	
 	public RTL2832TunerController getController()
@@ -27,7 +27,6 @@ import java.nio.charset.Charset;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
@@ -54,11 +53,13 @@ import org.usb4java.TransferCallback;
 import sample.Listener;
 import sample.adapter.ByteSampleAdapter;
 import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
 import source.SourceException;
 import source.tuner.frequency.FrequencyChangeEvent;
 import source.tuner.frequency.FrequencyChangeEvent.Attribute;
 import source.tuner.TunerController;
 import source.tuner.TunerType;
+import buffer.ByteArrayPool;
 import buffer.FloatAveragingBuffer;
 import controller.ResourceManager;
 
@@ -84,6 +85,7 @@ public abstract class RTL2832TunerController extends TunerController
 	public final static byte REQUEST_ZERO = (byte)0;
 	
 	public final static int TRANSFER_BUFFER_POOL_SIZE = 16;
+	public final static int BUFFER_POOL_SIZE = 64;
 	
 	public final static byte EEPROM_ADDRESS = (byte)0xA0;
 	
@@ -113,6 +115,12 @@ public abstract class RTL2832TunerController extends TunerController
 	
 	private LinkedTransferQueue<byte[]> mFilledBuffers = 
 									new LinkedTransferQueue<byte[]>();
+
+	/* Reusable raw transfer and converted sample buffer pools */
+	private ByteArrayPool mByteArrayPool = 
+						new ByteArrayPool( BUFFER_POOL_SIZE );
+	private ComplexBufferPool mComplexBufferPool = 
+						new ComplexBufferPool( BUFFER_POOL_SIZE );
 									
 	private SampleRateMonitor mSampleRateMonitor;
     private AtomicInteger mSampleCounter = new AtomicInteger();
@@ -1374,29 +1382,35 @@ public abstract class RTL2832TunerController extends TunerController
     }
 
 	/**
-	 * Dispatches float sample buffers to all registered listeners
+	 * Dispatches float sample buffers to all registered listeners.  All 
+	 * listeners share the same (read-only) pooled buffer.  Listeners that hold
+	 * the buffer beyond the receive() call must retain and then release the
+	 * buffer.
 	 */
     public void broadcast( ComplexBuffer buffer )
     {
-		Iterator<Listener<ComplexBuffer>> it = mSampleListeners.iterator();
-		
-		while( it.hasNext() )
+		for( Listener<ComplexBuffer> listener: mSampleListeners )
 		{
-			Listener<ComplexBuffer> next = it.next();
-			
-			/* if this is the last (or only) listener, send him the original 
-			 * buffer, otherwise send him a copy of the buffer */
-			if( it.hasNext() )
-			{
-				next.receive( buffer.copyOf() );
-			}
-			else
-			{
-				next.receive( buffer );
-			}
+			listener.receive( buffer );
 		}
     }
 
+    /**
+     * Pool of converted sample buffers dispatched to the sample listeners
+     */
+    public ComplexBufferPool getComplexBufferPool()
+    {
+    	return mComplexBufferPool;
+    }
+
+    /**
+     * Pool of raw byte buffers used for USB sample transfers
+     */
+    public ByteArrayPool getByteArrayPool()
+    {
+    	return mByteArrayPool;
+    }
+
 	/**
 	 * Buffer processing thread.  Fetches samples from the RTL2832 Tuner and 
 	 * dispatches them to all registered listeners
@@ -1487,7 +1501,13 @@ public abstract class RTL2832TunerController extends TunerController
 				{
 					mSampleDispatcherTask.cancel( true );
 					mSampleRateCounterTask.cancel( true );					
-					mFilledBuffers.clear();
+					byte[] filled = mFilledBuffers.poll();
+
+					while( filled != null )
+					{
+						mByteArrayPool.recycle( filled );
+						filled = mFilledBuffers.poll();
+					}
 				}
 			}
 		}
@@ -1507,7 +1527,7 @@ public abstract class RTL2832TunerController extends TunerController
 			{
 				ByteBuffer buffer = transfer.buffer();
 				
-				byte[] data = new byte[ transfer.actualLength() ];
+				byte[] data = mByteArrayPool.get( transfer.actualLength() );
 				
 				buffer.get( data );
 
@@ -1619,9 +1639,17 @@ public abstract class RTL2832TunerController extends TunerController
 
 				for( byte[] buffer: buffers )
 				{
-					float[] samples = mSampleAdapter.convert( buffer );
+					ComplexBuffer complexBuffer = mComplexBufferPool.getBuffer( 
+						mSampleAdapter.getConvertedLength( buffer.length ) );
+					
+					mSampleAdapter.convert( buffer, complexBuffer.getSamples() );
 					
-					broadcast( new ComplexBuffer( samples ) );
+					mByteArrayPool.recycle( buffer );
+					
+					broadcast( complexBuffer );
+					
+					/* Release the dispatcher's hold on the buffer */
+					complexBuffer.release();
 				}
 			}
 			catch( Exception e )
@@ -1753,6 +1781,11 @@ public abstract class RTL2832TunerController extends TunerController
 				sb.append( mDecimalFormatter.format( mTargetSampleRate ) );
 				
 				mLog.info( sb.toString() );
+				
+				mLog.debug( "sample buffer pool " + 
+						mComplexBufferPool.getStatistics() + 
+						" transfer buffer pool " + 
+						mByteArrayPool.getStatistics() );
 			}
         }
 	}
@@ -0,0 +1,651 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package source.wave;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sample.Broadcaster;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import sample.complex.ComplexBufferPool;
+
+/**
+ * Complex (I&Q) wave file playback source that memory-maps the file and 
+ * produces complex sample buffers.  Supports 2-channel 16-bit PCM wave files
+ * and 2-channel 32-bit float wave files, as produced by the memory-mapped
+ * baseband recorder.
+ * 
+ * Float sample data is transferred from the mapped file into pooled sample 
+ * buffers with a single bulk copy.  Seeking (jumpTo) repositions the read 
+ * pointer in constant time, without reading the intervening samples.
+ * 
+ * Playback can be invoked manually with the next() and next(x) methods, or 
+ * run automatically on a playback thread with the start() and stop() 
+ * methods.  Automatic playback is paced at a multiple of the recorded sample 
+ * rate, or runs as fast as the listeners can consume the samples.
+ * 
+ * Registered listeners that hold a sample buffer beyond the receive() method 
+ * must retain() and then release() the buffer.
+ */
+public class MappedComplexWaveSource extends WaveSource
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( MappedComplexWaveSource.class );
+
+	private static final int FORMAT_PCM = 1;
+	private static final int FORMAT_IEEE_FLOAT = 3;
+	private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+	
+	/* Mapped window size - 64 MB */
+	private static final long WINDOW_SIZE = 64l * 1024l * 1024l;
+	
+	/* Automatic playback buffer duration - 20 buffers per second */
+	private static final int PLAYBACK_BUFFERS_PER_SECOND = 20;
+
+	private boolean mLoop = false;
+	private long mFrequency = 0;
+
+	private RandomAccessFile mFile;
+	private FileChannel mChannel;
+	private int mSampleRate;
+	private int mBytesPerSample;
+	private long mDataOffset;
+	private long mSampleCount;
+	
+	private MappedByteBuffer mWindow;
+	private long mWindowStart = -1;
+	private long mWindowSampleCount;
+	private short[] mShortScratch;
+
+	private ComplexBufferPool mBufferPool = new ComplexBufferPool( 16 );
+	private Broadcaster<ComplexBuffer> mBroadcaster = 
+			new Broadcaster<ComplexBuffer>();
+	
+	private PlaybackThread mPlaybackThread;
+
+	/**
+	 * @param file - 2-channel 16-bit PCM or 32-bit float wave file
+	 * @param loop - true to restart at the beginning of the file when the end
+	 * of the file is reached
+	 */
+	public MappedComplexWaveSource( File file, boolean loop )
+	{
+		super( file, SampleType.COMPLEX );
+		
+		mLoop = loop;
+	}
+
+	@Override
+	public int getSampleRate()
+	{
+		return mSampleRate;
+	}
+
+	/**
+	 * Returns the frequency set for this file.  Normally returns zero, but
+	 * the value can be set with setFrequency() method.
+	 */
+	@Override
+	public long getFrequency()
+	{
+		return mFrequency;
+	}
+
+	/**
+	 * Changes the value returned from getFrequency() for this source.
+	 */
+	public void setFrequency( long frequency )
+	{
+		mFrequency = frequency;
+	}
+	
+	/**
+	 * Number of complex samples in the file
+	 */
+	public long getSampleCount()
+	{
+		return mSampleCount;
+	}
+
+	/**
+	 * Opens the file and parses the wave header
+	 * 
+	 * @throws IOException if the file can't be read or isn't a supported 
+	 * 2-channel 16-bit PCM or 32-bit float wave file
+	 */
+	@Override
+	public void open() throws IOException
+	{
+		if( mChannel != null )
+		{
+			return;
+		}
+		
+		mFile = new RandomAccessFile( getFile(), "r" );
+		mChannel = mFile.getChannel();
+		
+		try
+		{
+			readHeader();
+		}
+		catch( IOException ioe )
+		{
+			close();
+			
+			throw ioe;
+		}
+		
+		mCurrentPosition = 0;
+		
+		mLog.info( "Opened [" + getFile().getName() + "] sample rate [" + 
+			mSampleRate + "] samples [" + mSampleCount + "] " + 
+			( mBytesPerSample == 4 ? "32-bit float" : "16-bit" ) );
+	}
+
+	/**
+	 * Stops playback and closes the file
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		stop();
+		
+		synchronized( this )
+		{
+			mWindow = null;
+			mWindowStart = -1;
+			
+			if( mChannel != null )
+			{
+				mChannel.close();
+				mChannel = null;
+			}
+			
+			if( mFile != null )
+			{
+				mFile.close();
+				mFile = null;
+			}
+		}
+	}
+
+	/**
+	 * Walks the RIFF chunks to locate the format and data chunks
+	 */
+	private void readHeader() throws IOException
+	{
+		long fileSize = mChannel.size();
+		
+		ByteBuffer buffer = read( 0, 12 );
+		
+		int riff = buffer.getInt();
+		buffer.getInt();
+		int wave = buffer.getInt();
+		
+		if( riff != 0x46464952 || wave != 0x45564157 )
+		{
+			throw new IOException( "Unsupported file format - expected a "
+					+ "RIFF/WAVE file" );
+		}
+		
+		long position = 12;
+		boolean format = false;
+		
+		while( position + 8 <= fileSize )
+		{
+			ByteBuffer chunk = read( position, 8 );
+			
+			int id = chunk.getInt();
+			long size = chunk.getInt() & 0xFFFFFFFFl;
+			
+			position += 8;
+			
+			/* Format chunk */
+			if( id == 0x20746D66 )
+			{
+				ByteBuffer fmt = read( position, (int)Math.min( size, 40 ) );
+				
+				int formatTag = fmt.getShort() & 0xFFFF;
+				int channels = fmt.getShort();
+				mSampleRate = fmt.getInt();
+				fmt.getInt();
+				fmt.getShort();
+				int bits = fmt.getShort();
+				
+				/* Extensible format stores the format tag in the sub-format */
+				if( formatTag == FORMAT_EXTENSIBLE && size >= 26 )
+				{
+					fmt.position( 24 );
+					formatTag = fmt.getShort() & 0xFFFF;
+				}
+				
+				if( channels != 2 ||
+					!( ( formatTag == FORMAT_PCM && bits == 16 ) ||
+					   ( formatTag == FORMAT_IEEE_FLOAT && bits == 32 ) ) )
+				{
+					throw new IOException( "Unsupported Wave Format - EXPECTED: "
+						+ "2 channels 16-bit PCM or 32-bit float samples FOUND: " 
+						+ channels + " channels " + bits + "-bit samples format "
+						+ "tag [" + formatTag + "]" );
+				}
+				
+				mBytesPerSample = bits / 8;
+				
+				format = true;
+			}
+			/* Data chunk */
+			else if( id == 0x61746164 )
+			{
+				if( !format )
+				{
+					throw new IOException( "Wave file data chunk precedes the "
+							+ "format chunk" );
+				}
+				
+				mDataOffset = position;
+				
+				/* A recording that wasn't closed may have a zero or incomplete
+				 * data size - use the size specified in the header, limited 
+				 * to the actual file size */
+				long available = fileSize - position;
+				
+				if( size == 0 || size > available )
+				{
+					size = available;
+				}
+
+				mSampleCount = size / getBytesPerFrame();
+				
+				return;
+			}
+			
+			/* Chunks are word aligned */
+			position += size + ( size & 1 );
+		}
+		
+		throw new IOException( "Wave file doesn't contain a data chunk" );
+	}
+	
+	private ByteBuffer read( long position, int length ) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate( length );
+		buffer.order( ByteOrder.LITTLE_ENDIAN );
+		
+		while( buffer.hasRemaining() )
+		{
+			if( mChannel.read( buffer, position + buffer.position() ) < 0 )
+			{
+				throw new IOException( "Unexpected end of file while reading "
+						+ "the wave header" );
+			}
+		}
+		
+		buffer.flip();
+		
+		return buffer;
+	}
+	
+	private int getBytesPerFrame()
+	{
+		return mBytesPerSample * 2;
+	}
+
+	/**
+	 * Sends the next sample to the registered listeners.
+	 * 
+	 * @return true if a sample was sent, or false at the end of the file
+	 */
+	@Override
+	public boolean next() throws IOException
+	{
+		return next( 1 );
+	}
+
+	/**
+	 * Sends the next (count) samples to the registered listeners in a single 
+	 * sample buffer.  At the end of the file, the buffer contains the samples
+	 * remaining in the file, or when looping, continues from the beginning of
+	 * the file.
+	 * 
+	 * @param count - number of samples to send
+	 * @return true if samples were sent, or false at the end of the file
+	 */
+	@Override
+	public boolean next( int count ) throws IOException
+	{
+		ComplexBuffer buffer = read( count );
+		
+		if( buffer == null )
+		{
+			return false;
+		}
+		
+		mBroadcaster.broadcast( buffer );
+		
+		buffer.release();
+		
+		return true;
+	}
+
+	/**
+	 * Reads up to (count) samples from the current position into a pooled
+	 * sample buffer and advances the current position.
+	 * 
+	 * @return buffer with a user count of one, or null at the end of the file
+	 */
+	private synchronized ComplexBuffer read( int count ) throws IOException
+	{
+		if( mChannel == null )
+		{
+			throw new IOException( "Wave source is not open" );
+		}
+		
+		if( count <= 0 )
+		{
+			return null;
+		}
+		
+		if( mCurrentPosition >= mSampleCount )
+		{
+			if( mLoop && mSampleCount > 0 )
+			{
+				incrementCurrentLocation( -mCurrentPosition, true );
+			}
+			else
+			{
+				return null;
+			}
+		}
+		
+		if( !mLoop )
+		{
+			count = (int)Math.min( count, mSampleCount - mCurrentPosition );
+		}
+		
+		ComplexBuffer buffer = mBufferPool.getBuffer( count * 2 );
+		float[] samples = buffer.getSamples();
+		
+		int offset = 0;
+		
+		while( offset < samples.length )
+		{
+			if( mCurrentPosition >= mSampleCount )
+			{
+				mCurrentPosition = 0;
+			}
+			
+			int length = transfer( mCurrentPosition, samples, offset, 
+								   ( samples.length - offset ) / 2 );
+			
+			offset += length * 2;
+			mCurrentPosition += length;
+		}
+		
+		incrementCurrentLocation( 0, false );
+		
+		return buffer;
+	}
+
+	/**
+	 * Transfers samples from the mapped file window containing the sample 
+	 * index, up to the end of the window or the end of the file.
+	 * 
+	 * @param index - sample index in the file
+	 * @param samples - interleaved I/Q destination array
+	 * @param offset - destination array offset
+	 * @param count - maximum number of samples to transfer
+	 * @return number of samples transferred
+	 */
+	private int transfer( long index, float[] samples, int offset, int count )
+			throws IOException
+	{
+		long windowSamples = WINDOW_SIZE / getBytesPerFrame();
+		
+		long windowStart = ( index / windowSamples ) * windowSamples;
+		
+		if( windowStart != mWindowStart )
+		{
+			mWindowSampleCount = Math.min( windowSamples, 
+										   mSampleCount - windowStart );
+			
+			mWindow = mChannel.map( MapMode.READ_ONLY, 
+					mDataOffset + windowStart * getBytesPerFrame(), 
+					mWindowSampleCount * getBytesPerFrame() );
+			mWindow.order( ByteOrder.LITTLE_ENDIAN );
+			
+			mWindowStart = windowStart;
+		}
+		
+		int start = (int)( index - windowStart );
+		int length = (int)Math.min( count, mWindowSampleCount - start );
+
+		mWindow.position( start * getBytesPerFrame() );
+
+		if( mBytesPerSample == 4 )
+		{
+			FloatBuffer floats = mWindow.asFloatBuffer();
+			floats.get( samples, offset, length * 2 );
+		}
+		else
+		{
+			if( mShortScratch == null || mShortScratch.length < length * 2 )
+			{
+				mShortScratch = new short[ length * 2 ];
+			}
+			
+			ShortBuffer shorts = mWindow.asShortBuffer();
+			shorts.get( mShortScratch, 0, length * 2 );
+			
+			for( int x = 0; x < length * 2; x++ )
+			{
+				samples[ offset + x ] = (float)mShortScratch[ x ] / 32767.0f;
+			}
+		}
+		
+		return length;
+	}
+
+	/**
+	 * Repositions the playback pointer to the sample index
+	 */
+	@Override
+	public synchronized void jumpTo( long index ) throws IOException
+	{
+		if( index < 0 || index > mSampleCount )
+		{
+			throw new IOException( "Sample index [" + index + 
+					"] is outside of the file sample range [0-" + 
+					mSampleCount + "]" );
+		}
+		
+		incrementCurrentLocation( index - mCurrentPosition, true );
+	}
+
+	/**
+	 * Starts automatic playback on a playback thread from the current 
+	 * position.
+	 * 
+	 * @param speed - playback rate as a multiple of the file sample rate, or 
+	 * zero to play back as fast as the listeners can process the samples
+	 */
+	public synchronized void start( double speed ) throws IOException
+	{
+		if( mChannel == null )
+		{
+			open();
+		}
+		
+		if( mPlaybackThread == null )
+		{
+			mPlaybackThread = new PlaybackThread( speed );
+			mPlaybackThread.setDaemon( true );
+			mPlaybackThread.start();
+		}
+	}
+	
+	/**
+	 * Stops automatic playback
+	 */
+	public void stop()
+	{
+		PlaybackThread thread;
+		
+		synchronized( this )
+		{
+			thread = mPlaybackThread;
+			mPlaybackThread = null;
+		}
+		
+		if( thread != null )
+		{
+			thread.halt();
+
+			if( thread != Thread.currentThread() )
+			{
+				try
+				{
+					thread.join();
+				}
+				catch( InterruptedException e )
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Indicates if automatic playback is running
+	 */
+	public synchronized boolean isPlaying()
+	{
+		return mPlaybackThread != null;
+	}
+
+	/**
+	 * Adds a listener to receive sample buffers as they are read from the file
+	 */
+	public void setListener( Listener<ComplexBuffer> listener )
+	{
+		mBroadcaster.addListener( listener );
+	}
+
+	public void removeListener( Listener<ComplexBuffer> listener )
+	{
+		mBroadcaster.removeListener( listener );
+	}
+
+	@Override
+	public void dispose()
+	{
+		try
+		{
+			close();
+		}
+		catch( IOException ioe )
+		{
+			mLog.error( "Error closing wave source [" + 
+					getFile().getName() + "]", ioe );
+		}
+		
+		mBroadcaster.dispose();
+		mBufferPool.clear();
+	}
+	
+	/**
+	 * Automatic playback thread.  Paces the sample buffers according to the 
+	 * playback speed, relative to the playback start time, so that timing 
+	 * errors don't accumulate.
+	 */
+	public class PlaybackThread extends Thread
+	{
+		private double mSpeed;
+		private volatile boolean mRunning = true;
+		
+		public PlaybackThread( double speed )
+		{
+			super( "baseband playback" );
+			
+			mSpeed = speed;
+		}
+		
+		public void halt()
+		{
+			mRunning = false;
+		}
+		
+		public void run()
+		{
+			int count = Math.max( 1, mSampleRate / PLAYBACK_BUFFERS_PER_SECOND );
+			
+			long start = System.nanoTime();
+			long sent = 0;
+			
+			try
+			{
+				while( mRunning && next( count ) )
+				{
+					sent += count;
+					
+					if( mSpeed > 0.0 )
+					{
+						long target = start + (long)( (double)sent * 1E9d / 
+								( (double)mSampleRate * mSpeed ) );
+						
+						long delay = target - System.nanoTime();
+						
+						if( delay > 0 )
+						{
+							Thread.sleep( delay / 1000000l, 
+										  (int)( delay % 1000000l ) );
+						}
+					}
+				}
+			}
+			catch( IOException ioe )
+			{
+				mLog.error( "Error reading wave file [" + 
+						getFile().getName() + "] during playback", ioe );
+			}
+			catch( InterruptedException e )
+			{
+				/* Playback stopped */
+			}
+			
+			synchronized( MappedComplexWaveSource.this )
+			{
+				if( mPlaybackThread == this )
+				{
+					mPlaybackThread = null;
+				}
+			}
+		}
+	}
+}
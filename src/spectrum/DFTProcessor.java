@@ -17,7 +17,6 @@
  ******************************************************************************/
 package spectrum;
 
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -43,6 +42,17 @@ import dsp.filter.Window.WindowType;
 /**
  * Processes both complex samples or float samples and dispatches a float array
  * of DFT results, using configurable fft size and output dispatch timelines.  
+ * 
+ * Inbound samples are bulk copied into a preallocated overlap ring that holds
+ * the most recent FFT frame of samples.  Each calculation consumes the new 
+ * samples that arrived since the previous frame, unrolls the ring into a 
+ * reusable FFT buffer and applies a precalculated window, so that steady 
+ * state processing doesn't allocate any memory.  When more samples arrive per
+ * frame than the FFT width, the excess samples are skipped without copying.
+ * 
+ * The application limits JTransforms multi-threading to FFT widths at or 
+ * above MULTITHREADED_FFT_WIDTH at startup, so that smaller FFTs run on the 
+ * calculation thread only.
  */
 public class DFTProcessor implements Listener<ComplexBuffer>,
 									 FrequencyChangeListener
@@ -50,6 +60,11 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	private final static Logger mLog = 
 			LoggerFactory.getLogger( DFTProcessor.class );
 
+	public static final int MULTITHREADED_FFT_WIDTH = 32768;
+	
+	/* Maximum wait for the calculation thread to finish when disposing */
+	private static final long DISPOSE_TIMEOUT_MS = 5000;
+
 	private CopyOnWriteArrayList<DFTResultsConverter> mListeners =
 			new CopyOnWriteArrayList<DFTResultsConverter>();
 
@@ -62,19 +77,26 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	private FFTWidth mFFTWidth = FFTWidth.FFT04096;
 	private FFTWidth mNewFFTWidth = FFTWidth.FFT04096;
 	
-	private double[] mWindow;
+	private volatile float[] mWindow;
 	private WindowType mWindowType = Window.WindowType.HAMMING;
 
 	private FloatFFT_1D mFFT = new FloatFFT_1D( mFFTWidth.getWidth() );
 	
 	private int mFrameRate;
 	private int mSampleRate;
-	private int mFFTFloatsPerFrame;
-	private float mNewFloatsPerFrame;
-	private float mNewFloatsPerFrameToConsume;
-	private float mNewFloatResidual;
-	private float[] mPreviousFrame = new float[ 8192 ];
+	private float mNewSamplesPerFrame;
+	private float mNewSampleResidual;
+
+	/* Overlap ring holding the most recent frame of sample floats.  The ring
+	 * pointer indicates the oldest float, which is the next float replaced */
+	private float[] mOverlap;
+	private int mOverlapPointer;
 	
+	/* Reusable FFT input/output buffer */
+	private float[] mFrame;
+	private boolean mOverflow = false;
+	
+	private ComplexBuffer mCurrentComplexBuffer;
 	private float[] mCurrentBuffer;
 	private int mCurrentBufferPointer = 0;
 	
@@ -88,14 +110,41 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 		setFrameRate( 20 );
 	}
 	
+	/**
+	 * Stops the calculation thread and releases all buffers.  The current 
+	 * buffer is owned by the calculation thread, so it is only released here
+	 * once the calculation thread has terminated.
+	 */
 	public void dispose()
 	{
-		stop();
+		/* Interrupt a calculation that is waiting for the next buffer */
+		mScheduler.shutdownNow();
+		
+		boolean terminated = false;
+		
+		try
+		{
+			terminated = mScheduler.awaitTermination( DISPOSE_TIMEOUT_MS, 
+					TimeUnit.MILLISECONDS );
+		}
+		catch( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+		}
 		
 		mListeners.clear();
-		mQueue.clear();
+		purge();
 		mWindow = null;
-		mCurrentBuffer = null;
+		
+		if( terminated )
+		{
+			releaseCurrentBuffer();
+		}
+		else
+		{
+			mLog.warn( "DFTProcessor - calculation thread didn't stop - "
+					+ "current buffer not released" );
+		}
 	}
 	
 	public WindowType getWindowType()
@@ -107,16 +156,36 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	{
 		mWindowType = windowType;
 		
-		if( mSampleType == SampleType.COMPLEX )
-		{
-			mWindow = Window.getWindow( mWindowType, 
-										mFFTWidth.getWidth() * 2 );		
-		}
-		else
+		mWindow = getWindow( mWindowType, mFFTWidth );
+	}
+	
+	/**
+	 * Creates window coefficients for each float in a frame.  For complex 
+	 * samples, each coefficient is repeated for the inphase and quadrature
+	 * values of the sample.
+	 */
+	private float[] getWindow( WindowType type, FFTWidth width )
+	{
+		double[] coefficients = Window.getWindow( type, width.getWidth() );
+		
+		int floatsPerSample = getFloatsPerSample();
+		
+		float[] window = new float[ coefficients.length * floatsPerSample ];
+		
+		for( int x = 0; x < window.length; x++ )
 		{
-			mWindow = Window.getWindow( mWindowType,
-										mFFTWidth.getWidth() );		
+			window[ x ] = (float)coefficients[ x / floatsPerSample ];
 		}
+		
+		return window;
+	}
+	
+	/**
+	 * Number of floats per sample - 2 for complex samples and 1 for real
+	 */
+	private int getFloatsPerSample()
+	{
+		return mSampleType == SampleType.COMPLEX ? 2 : 1;
 	}
 	
 	/**
@@ -127,6 +196,19 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	{
 		mSampleType = type;
 		setWindowType( mWindowType );
+		allocateFrame();
+	}
+	
+	/**
+	 * Allocates the overlap ring and the FFT buffer for the current FFT width
+	 */
+	private void allocateFrame()
+	{
+		int length = mFFTWidth.getWidth() * getFloatsPerSample();
+		
+		mOverlap = new float[ length ];
+		mOverlapPointer = 0;
+		mFrame = new float[ length ];
 	}
 	
 	public Source.SampleType getSampleType()
@@ -220,30 +302,78 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	}
 	
 	/**
-	 * Places the sample into a transfer queue for future processing. 
+	 * Places the sample into a transfer queue for future processing.  The
+	 * buffer is retained while queued and released once it has been consumed
+	 * or purged.  When the queue is full, the oldest queued buffer is 
+	 * discarded to make room.
 	 */
 	@Override
     public void receive( ComplexBuffer sampleBuffer )
     {
-		if( !mQueue.offer( sampleBuffer ) )
+		sampleBuffer.retain();
+		
+		while( !mQueue.offer( sampleBuffer ) )
 		{
-			mLog.error( "DFTProcessor - [" + mSampleType.toString()
-						+ "]queue is full, purging queue, "
-						+ "samples[" + sampleBuffer + "]" );
+			if( !mOverflow )
+			{
+				mOverflow = true;
 
-			mQueue.clear();
-			mQueue.offer( sampleBuffer );
+				mLog.error( "DFTProcessor - [" + mSampleType.toString()
+						+ "] queue is full - discarding oldest sample buffers" );
+			}
+			
+			ComplexBuffer oldest = mQueue.poll();
+			
+			if( oldest != null )
+			{
+				oldest.release();
+			}
 		}
     }
+
+	/**
+	 * Removes and releases all queued buffers
+	 */
+	private void purge()
+	{
+		ComplexBuffer buffer = mQueue.poll();
+		
+		while( buffer != null )
+		{
+			buffer.release();
+			buffer = mQueue.poll();
+		}
+	}
 	
-	private void getNextBuffer()
+	/**
+	 * Releases the buffer currently being consumed
+	 */
+	private void releaseCurrentBuffer()
 	{
+		if( mCurrentComplexBuffer != null )
+		{
+			mCurrentComplexBuffer.release();
+			mCurrentComplexBuffer = null;
+		}
+		
 		mCurrentBuffer = null;
+	}
+	
+	/**
+	 * Releases the current buffer and waits for the next queued buffer
+	 * 
+	 * @return true if a buffer is available
+	 */
+	private boolean getNextBuffer()
+	{
+		releaseCurrentBuffer();
 
 		try
         {
-			ComplexBuffer buffer = mQueue.take();
-            mCurrentBuffer = buffer.getSamples();
+			mCurrentComplexBuffer = mQueue.take();
+            mCurrentBuffer = mCurrentComplexBuffer.getSamples();
+            
+            mOverflow = false;
         }
         catch ( InterruptedException e )
         {
@@ -251,129 +381,136 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
         }
 
 		mCurrentBufferPointer = 0;
+		
+		return mCurrentBuffer != null;
 	}
 
-	private float[] getSamples()
+	/**
+	 * Consumes the samples that arrived since the previous frame into the
+	 * overlap ring and unrolls the ring into the FFT buffer, oldest sample 
+	 * first.  When the number of new samples exceeds the frame size, the 
+	 * oldest of the new samples are skipped.
+	 */
+	private void getSamples()
 	{
-		int remaining = (int)mFFTFloatsPerFrame;
-
-		float[] currentFrame = new float[ remaining ];
-
-		int currentFramePointer = 0;
-
-		float integralFloatsToConsume = mNewFloatsPerFrame + mNewFloatResidual;
+		float integralSamplesToConsume = mNewSamplesPerFrame + mNewSampleResidual;
 		
-		int newFloatsToConsumeThisFrame = (int)integralFloatsToConsume;
+		int newSamples = (int)integralSamplesToConsume;
 		
-		mNewFloatResidual = integralFloatsToConsume - newFloatsToConsumeThisFrame;
+		mNewSampleResidual = integralSamplesToConsume - newSamples;
+
+		/* Consume whole samples so that complex frames stay I/Q aligned */
+		int newFloats = newSamples * getFloatsPerSample();
 		
-		/* If the number of required floats for the fft is greater than the
-		 * consumption rate per frame, we have to reach into the previous
-		 * frame to makeup the difference. */
-		if( newFloatsToConsumeThisFrame < remaining )
+		if( newFloats > mOverlap.length )
 		{
-			int previousFloatsRequired = remaining - newFloatsToConsumeThisFrame;
+			skip( newFloats - mOverlap.length );
 			
-			System.arraycopy( mPreviousFrame, 
-							  mPreviousFrame.length - previousFloatsRequired, 
-							  currentFrame, 
-							  currentFramePointer, 
-							  previousFloatsRequired );
-			
-			remaining -= previousFloatsRequired;
-			currentFramePointer += previousFloatsRequired;
+			newFloats = mOverlap.length;
 		}
+		
+		fill( newFloats );
 
-		/* Fill the rest of the buffer with new samples */
-		while( mRunning.get() && remaining > 0 )
+		int oldest = mOverlap.length - mOverlapPointer;
+		
+		System.arraycopy( mOverlap, mOverlapPointer, mFrame, 0, oldest );
+		System.arraycopy( mOverlap, 0, mFrame, oldest, mOverlapPointer );
+	}
+	
+	/**
+	 * Bulk copies floats from the queued sample buffers into the overlap ring
+	 */
+	private void fill( int count )
+	{
+		while( mRunning.get() && count > 0 )
 		{
 			if( mCurrentBuffer == null || 
-					mCurrentBufferPointer >= mCurrentBuffer.length )
+				mCurrentBufferPointer >= mCurrentBuffer.length )
 			{
-				getNextBuffer();
+				if( !getNextBuffer() )
+				{
+					return;
+				}
 			}
+			
+			int length = Math.min( count, 
+				Math.min( mCurrentBuffer.length - mCurrentBufferPointer, 
+						  mOverlap.length - mOverlapPointer ) );
 
-			int samplesAvailable = mCurrentBuffer.length - mCurrentBufferPointer;
-
-			while( remaining > 0 && samplesAvailable > 0 )
+			System.arraycopy( mCurrentBuffer, mCurrentBufferPointer, 
+							  mOverlap, mOverlapPointer, length );
+			
+			mCurrentBufferPointer += length;
+			mOverlapPointer += length;
+			
+			if( mOverlapPointer >= mOverlap.length )
 			{
-				currentFrame[ currentFramePointer++ ] = 
-						(float)mCurrentBuffer[ mCurrentBufferPointer++ ];
-				
-				samplesAvailable--;
-				remaining--;
-				newFloatsToConsumeThisFrame--;
+				mOverlapPointer = 0;
 			}
+			
+			count -= length;
 		}
-		
-		/* If the incoming float rate is greater than the fft consumption rate,
-		 * then we have to purge some floats, otherwise, store the previous
-		 * frame, because we have overlapping frames */
-		if( newFloatsToConsumeThisFrame > 0 )
-		{
-			purge( newFloatsToConsumeThisFrame );
-		}
-		else
+	}
+	
+	/**
+	 * Skips floats from the queued sample buffers without copying them
+	 */
+	private void skip( int count )
+	{
+		while( mRunning.get() && count > 0 )
 		{
-			mPreviousFrame = Arrays.copyOf( currentFrame, currentFrame.length );
+			if( mCurrentBuffer == null || 
+				mCurrentBufferPointer >= mCurrentBuffer.length )
+			{
+				if( !getNextBuffer() )
+				{
+					return;
+				}
+			}
+			
+			int length = Math.min( count, 
+					mCurrentBuffer.length - mCurrentBufferPointer );
+			
+			mCurrentBufferPointer += length;
+			count -= length;
 		}
-
-		return currentFrame;
 	}
 	
 	private void calculate()
 	{
-		float[] samples = getSamples();
+		getSamples();
 		
-		Window.apply( mWindow, samples );
-
-		if( mSampleType == SampleType.REAL )
+		float[] frame = mFrame;
+		float[] window = mWindow;
+		
+		if( window.length != frame.length )
 		{
-			mFFT.realForward( samples );
+			window = getWindow( mWindowType, mFFTWidth );
+			mWindow = window;
 		}
-		else
+		
+		for( int x = 0; x < frame.length; x++ )
 		{
-			mFFT.complexForward( samples );
+			frame[ x ] *= window[ x ];
 		}
-		
-		dispatch( samples );
-	}
 
-	
-	private void purge( int samplesToPurge )
-	{
-		if( samplesToPurge <= 0 )
+		if( mSampleType == SampleType.REAL )
 		{
-			throw new IllegalArgumentException( "DFTProcessor - cannot purge "
-					+ "negative sample amount" );
+			mFFT.realForward( frame );
 		}
-
-		while( mRunning.get() && samplesToPurge > 0 )
+		else
 		{
-			if( mCurrentBuffer == null || 
-					mCurrentBufferPointer >= mCurrentBuffer.length )
-			{
-				getNextBuffer();
-			}
-			
-			int samplesAvailable = mCurrentBuffer.length - mCurrentBufferPointer;
-			
-			if( samplesAvailable >= samplesToPurge )
-			{
-				mCurrentBufferPointer += samplesToPurge;
-				samplesToPurge = 0;
-			}
-			else
-			{
-				samplesToPurge -= samplesAvailable;
-				mCurrentBufferPointer = mCurrentBuffer.length;
-			}
+			mFFT.complexForward( frame );
 		}
+		
+		dispatch( frame );
 	}
-	
+
 	/**
 	 * Takes a calculated DFT results set, reformats the data, and sends it 
-	 * out to all registered listeners.
+	 * out to all registered listeners.  The results array is reused for the
+	 * next calculation, so listeners must not retain the array after the
+	 * receive() method returns.
 	 */
 	private void dispatch( float[] results )
 	{
@@ -434,14 +571,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 
 			setWindowType( mWindowType );
 
-			if( mSampleType == SampleType.COMPLEX )
-			{
-				mPreviousFrame = new float[ mFFTWidth.getWidth() * 2 ];
-			}
-			else
-			{
-				mPreviousFrame = new float[ mFFTWidth.getWidth() ];
-			}
+			allocateFrame();
 
 			mFFT = new FloatFFT_1D( mFFTWidth.getWidth() );
 		}
@@ -449,7 +579,7 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
 	
 	public void clearBuffer()
 	{
-		mQueue.clear();
+		purge();
 	}
 	
 	@Override
@@ -469,26 +599,12 @@ public class DFTProcessor implements Listener<ComplexBuffer>,
     }
 	
 	/**
-	 * 
+	 * Calculates the number of new samples that arrive between frames
 	 */
 	private void calculateConsumptionRate()
 	{
-		mNewFloatResidual = 0.0f;
-		
-		mNewFloatsPerFrame = ( (float)mSampleRate / (float)mFrameRate ) *
-				( mSampleType == SampleType.COMPLEX ? 2.0f : 1.0f );
+		mNewSampleResidual = 0.0f;
 		
-		mFFTFloatsPerFrame = ( mSampleType == SampleType.COMPLEX ? 
-					mFFTWidth.getWidth() * 2 : 
-					mFFTWidth.getWidth() );
-
-		if( mFFTFloatsPerFrame < mNewFloatsPerFrame )
-		{
-			mNewFloatsPerFrameToConsume = mFFTFloatsPerFrame;
-		}
-		else
-		{
-			mNewFloatsPerFrameToConsume = mNewFloatsPerFrame;
-		}
+		mNewSamplesPerFrame = (float)mSampleRate / (float)mFrameRate;
 	}
 }
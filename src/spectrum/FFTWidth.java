@@ -25,7 +25,8 @@ public enum FFTWidth
 	FFT04096( 4096 ),
 	FFT08192( 8192 ),
 	FFT16384( 16384 ),
-	FFT32768( 32768 );
+	FFT32768( 32768 ),
+	FFT65536( 65536 );
 	
 	private int mWidth;
 	
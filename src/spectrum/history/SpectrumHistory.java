@@ -0,0 +1,503 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package spectrum.history;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import properties.SystemProperties;
+import sample.Listener;
+import sample.complex.ComplexBuffer;
+import source.Source.SampleType;
+import source.SourceException;
+import source.tuner.Tuner;
+import source.tuner.frequency.FrequencyChangeEvent;
+import source.tuner.frequency.FrequencyChangeEvent.Attribute;
+import source.tuner.frequency.FrequencyChangeListener;
+import spectrum.DFTProcessor;
+import spectrum.DFTResultsListener;
+import spectrum.FFTWidth;
+import spectrum.converter.ComplexDecibelConverter;
+
+/**
+ * Headless spectrum and waterfall history for a tuner.  Processes the full 
+ * bandwidth tuner sample stream with a DFT processor, independent of any 
+ * spectral display, and retains a decimated and averaged history of the power
+ * spectrum that can be retrieved as spectrum/waterfall tiles at any zoom level.
+ * 
+ * Each DFT result is decimated to the history width by keeping the peak value
+ * of the bins that map to each history bin, and consecutive results are 
+ * averaged to produce each history row.  Rows are quantized to one byte per 
+ * bin and stored in a ring with the same row-major layout as the waterfall 
+ * display pixels, so that the memory used per tuner is (width x rows) bytes.
+ * 
+ * The history is cleared when the tuner frequency or sample rate changes.
+ */
+public class SpectrumHistory implements DFTResultsListener, 
+										FrequencyChangeListener
+{
+	private final static Logger mLog = 
+			LoggerFactory.getLogger( SpectrumHistory.class );
+
+	public static final String ENABLED_PROPERTY = "spectrum.history.enabled";
+	public static final String WIDTH_PROPERTY = "spectrum.history.width";
+	public static final String ROWS_PROPERTY = "spectrum.history.rows";
+	public static final String FRAME_RATE_PROPERTY = "spectrum.history.frame.rate";
+	public static final String AVERAGE_PROPERTY = "spectrum.history.average";
+	
+	public static final int DEFAULT_WIDTH = 2048;
+	public static final int DEFAULT_ROWS = 600;
+	public static final int DEFAULT_FRAME_RATE = 10;
+	public static final int DEFAULT_AVERAGE = 2;
+	
+	public static final int TILE_WIDTH = 256;
+	
+	/* Quantization - 0.5 dB steps from -100 dB to +27.5 dB */
+	public static final float MINIMUM_DECIBELS = -100.0f;
+	public static final float STEPS_PER_DECIBEL = 2.0f;
+
+	private Tuner mTuner;
+	private DFTProcessor mDFTProcessor;
+	private ComplexDecibelConverter mDFTConverter;
+	
+	private int mWidth;
+	private int mRows;
+	private int mAverage;
+	private long mRowPeriod;
+	
+	/* Ring of quantized rows and row timestamps.  The ring pointer indicates 
+	 * the row that is replaced next (ie the oldest row) */
+	private byte[] mHistory;
+	private long[] mRowTimestamps;
+	private int mRowPointer;
+	private int mRowCount;
+	
+	/* Row accumulator */
+	private float[] mPeaks;
+	private float[] mSums;
+	private int mSumCount;
+	
+	private long mFrequency;
+	private int mSampleRate;
+
+	/**
+	 * Constructs a spectrum history and starts processing tuner samples.
+	 * 
+	 * @param tuner - tuner providing the sample stream
+	 * @param width - number of history bins per row
+	 * @param rows - number of history rows
+	 * @param frameRate - DFT calculations per second
+	 * @param average - number of DFT results averaged per history row
+	 */
+	public SpectrumHistory( Tuner tuner, int width, int rows, int frameRate, 
+							int average )
+	{
+		mTuner = tuner;
+		mWidth = width;
+		mRows = rows;
+		mAverage = Math.max( average, 1 );
+		mRowPeriod = 1000l * mAverage / frameRate;
+		
+		mHistory = new byte[ mWidth * mRows ];
+		mRowTimestamps = new long[ mRows ];
+		mPeaks = new float[ mWidth ];
+		mSums = new float[ mWidth ];
+		
+		mDFTProcessor = new DFTProcessor( SampleType.COMPLEX );
+		mDFTProcessor.setFFTSize( getFFTWidth( mWidth ) );
+		mDFTProcessor.setFrameRate( frameRate );
+		
+		mDFTConverter = new ComplexDecibelConverter();
+		mDFTConverter.addListener( this );
+		mDFTProcessor.addConverter( mDFTConverter );
+
+		mTuner.addListener( (FrequencyChangeListener)this );
+		mTuner.addListener( (Listener<ComplexBuffer>)mDFTProcessor );
+
+		try
+		{
+			frequencyChanged( new FrequencyChangeEvent( 
+					Attribute.FREQUENCY, mTuner.getFrequency() ) );
+		}
+		catch( SourceException e )
+		{
+			mLog.error( "Couldn't get frequency from tuner [" + 
+					mTuner.getName() + "]", e );
+		}
+
+		frequencyChanged( new FrequencyChangeEvent( 
+				Attribute.SAMPLE_RATE, mTuner.getSampleRate() ) );
+		
+		mLog.info( "Tuner [" + mTuner.getName() + "] spectrum history started - "
+			+ "width [" + mWidth + "] rows [" + mRows + "] row period [" + 
+			mRowPeriod + " ms]" );
+	}
+
+	/**
+	 * Creates a spectrum history for the tuner from the system properties, or
+	 * returns null if spectrum histories are not enabled.
+	 */
+	public static SpectrumHistory create( Tuner tuner )
+	{
+		SystemProperties props = SystemProperties.getInstance();
+		
+		if( props.get( ENABLED_PROPERTY, false ) )
+		{
+			return new SpectrumHistory( tuner, 
+				props.get( WIDTH_PROPERTY, DEFAULT_WIDTH ),
+				props.get( ROWS_PROPERTY, DEFAULT_ROWS ),
+				props.get( FRAME_RATE_PROPERTY, DEFAULT_FRAME_RATE ),
+				props.get( AVERAGE_PROPERTY, DEFAULT_AVERAGE ) );
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Smallest FFT width that provides at least one DFT bin per history bin
+	 */
+	private static FFTWidth getFFTWidth( int width )
+	{
+		for( FFTWidth fftWidth: FFTWidth.values() )
+		{
+			if( fftWidth.getWidth() >= width )
+			{
+				return fftWidth;
+			}
+		}
+		
+		return FFTWidth.values()[ FFTWidth.values().length - 1 ];
+	}
+
+	public void dispose()
+	{
+		mTuner.removeListener( (Listener<ComplexBuffer>)mDFTProcessor );
+		mTuner.removeListener( (FrequencyChangeListener)this );
+		
+		mDFTProcessor.dispose();
+		mDFTConverter.dispose();
+	}
+	
+	public Tuner getTuner()
+	{
+		return mTuner;
+	}
+	
+	/**
+	 * Number of history bins per row
+	 */
+	public int getWidth()
+	{
+		return mWidth;
+	}
+	
+	/**
+	 * Maximum number of history rows
+	 */
+	public int getRows()
+	{
+		return mRows;
+	}
+	
+	/**
+	 * Number of history rows currently available
+	 */
+	public synchronized int getRowCount()
+	{
+		return mRowCount;
+	}
+	
+	/**
+	 * Time between history rows in milliseconds
+	 */
+	public long getRowPeriod()
+	{
+		return mRowPeriod;
+	}
+	
+	/**
+	 * Number of tiles across the tuner bandwidth at the zoom level
+	 */
+	public static int getTileCount( int zoom )
+	{
+		return 1 << zoom;
+	}
+	
+	/**
+	 * Highest zoom level, where each tile pixel covers one history bin or less
+	 */
+	public int getMaximumZoom()
+	{
+		int zoom = 0;
+		
+		while( getTileCount( zoom ) * TILE_WIDTH < mWidth )
+		{
+			zoom++;
+		}
+		
+		return zoom;
+	}
+
+	/**
+	 * Receives decibel spectrum results from the DFT converter and adds them
+	 * to the history
+	 */
+	@Override
+	public synchronized void receive( float[] results )
+	{
+		/* Decimate to the history width, keeping the peak value of the bins
+		 * that map to each history bin */
+		Arrays.fill( mPeaks, -Float.MAX_VALUE );
+		
+		for( int x = 0; x < results.length; x++ )
+		{
+			int bin = (int)( (long)x * mWidth / results.length );
+			
+			if( results[ x ] > mPeaks[ bin ] )
+			{
+				mPeaks[ bin ] = results[ x ];
+			}
+		}
+
+		/* FFT widths smaller than the history width leave empty bins that are 
+		 * filled from the previous bin */
+		for( int x = 1; x < mWidth; x++ )
+		{
+			if( mPeaks[ x ] == -Float.MAX_VALUE )
+			{
+				mPeaks[ x ] = mPeaks[ x - 1 ];
+			}
+		}
+		
+		for( int x = 0; x < mWidth; x++ )
+		{
+			mSums[ x ] += mPeaks[ x ];
+		}
+		
+		mSumCount++;
+		
+		if( mSumCount >= mAverage )
+		{
+			addRow();
+		}
+	}
+
+	/**
+	 * Quantizes the averaged row accumulator into the history ring
+	 */
+	private synchronized void addRow()
+	{
+		int offset = mRowPointer * mWidth;
+		
+		for( int x = 0; x < mWidth; x++ )
+		{
+			float value = ( mSums[ x ] / mSumCount - MINIMUM_DECIBELS ) * 
+							STEPS_PER_DECIBEL;
+			
+			if( value < 0.0f || Float.isNaN( value ) )
+			{
+				mHistory[ offset + x ] = 0;
+			}
+			else if( value > 255.0f )
+			{
+				mHistory[ offset + x ] = (byte)255;
+			}
+			else
+			{
+				mHistory[ offset + x ] = (byte)value;
+			}
+		}
+		
+		mRowTimestamps[ mRowPointer ] = System.currentTimeMillis();
+
+		mRowPointer++;
+		
+		if( mRowPointer >= mRows )
+		{
+			mRowPointer = 0;
+		}
+		
+		if( mRowCount < mRows )
+		{
+			mRowCount++;
+		}
+
+		Arrays.fill( mSums, 0.0f );
+		mSumCount = 0;
+	}
+
+	/**
+	 * Returns the most recent rows of the history for a section of the tuner
+	 * bandwidth.  At zoom level 0, a single tile covers the tuner bandwidth.  
+	 * Each increase in zoom level halves the bandwidth covered by each tile. 
+	 * Each tile pixel holds the peak value of the history bins that it covers, 
+	 * or when zoomed beyond the history resolution, the value of the history 
+	 * bin that contains the pixel.
+	 * 
+	 * @param zoom - zoom level, 0 or greater
+	 * @param index - tile index within the zoom level, 0 to (2^zoom - 1), from
+	 * the lowest frequency
+	 * @param rows - number of rows, newest first.  Rows that are not yet 
+	 * available in the history are zero.
+	 * 
+	 * @throws IllegalArgumentException for an invalid zoom level, index, or 
+	 * row count
+	 */
+	public SpectrumTile getTile( int zoom, int index, int rows )
+	{
+		if( zoom < 0 || zoom > 30 )
+		{
+			throw new IllegalArgumentException( "Invalid zoom level [" + 
+					zoom + "]" );
+		}
+		
+		int tileCount = getTileCount( zoom );
+		
+		if( index < 0 || index >= tileCount )
+		{
+			throw new IllegalArgumentException( "Invalid tile index [" + index + 
+				"] for zoom level [" + zoom + "] - valid range 0-" + 
+				( tileCount - 1 ) );
+		}
+		
+		if( rows < 1 || rows > mRows )
+		{
+			throw new IllegalArgumentException( "Invalid row count [" + rows + 
+					"] - valid range 1-" + mRows );
+		}
+		
+		byte[] pixels = new byte[ TILE_WIDTH * rows ];
+
+		/* History bin range covered by each pixel is calculated in units of 
+		 * 1/tileCount bins so that the ranges stay exact at any zoom level */
+		long tileStart = (long)index * mWidth;
+		
+		long timestamp = 0;
+		long frequency;
+		int sampleRate;
+
+		synchronized( this )
+		{
+			frequency = mFrequency;
+			sampleRate = mSampleRate;
+			
+			int available = Math.min( rows, mRowCount );
+			
+			for( int row = 0; row < available; row++ )
+			{
+				int ringRow = mRowPointer - 1 - row;
+				
+				if( ringRow < 0 )
+				{
+					ringRow += mRows;
+				}
+				
+				if( row == 0 )
+				{
+					timestamp = mRowTimestamps[ ringRow ];
+				}
+				
+				int rowOffset = ringRow * mWidth;
+				int pixelOffset = row * TILE_WIDTH;
+				
+				for( int x = 0; x < TILE_WIDTH; x++ )
+				{
+					int start = (int)( ( tileStart + 
+						(long)x * mWidth / TILE_WIDTH ) / tileCount );
+					int end = (int)( ( tileStart + 
+						(long)( x + 1 ) * mWidth / TILE_WIDTH ) / tileCount );
+					
+					int peak = mHistory[ rowOffset + start ] & 0xFF;
+					
+					for( int bin = start + 1; bin < end; bin++ )
+					{
+						int value = mHistory[ rowOffset + bin ] & 0xFF;
+						
+						if( value > peak )
+						{
+							peak = value;
+						}
+					}
+					
+					pixels[ pixelOffset + x ] = (byte)peak;
+				}
+			}
+		}
+		
+		long bandwidthPerTile = sampleRate / tileCount;
+		long minimum = frequency - ( sampleRate / 2 ) + 
+				(long)index * sampleRate / tileCount;
+		
+		return new SpectrumTile( zoom, index, TILE_WIDTH, rows, pixels, minimum, 
+			minimum + bandwidthPerTile, timestamp, mRowPeriod );
+	}
+
+	/**
+	 * Clears the history rows
+	 */
+	private synchronized void clear()
+	{
+		Arrays.fill( mHistory, (byte)0 );
+		Arrays.fill( mRowTimestamps, 0 );
+		mRowPointer = 0;
+		mRowCount = 0;
+		
+		Arrays.fill( mSums, 0.0f );
+		mSumCount = 0;
+	}
+
+	@Override
+	public void frequencyChanged( FrequencyChangeEvent event )
+	{
+		mDFTProcessor.frequencyChanged( event );
+		
+		synchronized( this )
+		{
+			update( event );
+		}
+	}
+	
+	private void update( FrequencyChangeEvent event )
+	{
+		switch( event.getAttribute() )
+		{
+			case FREQUENCY:
+				long frequency = event.getValue().longValue();
+				
+				if( frequency != mFrequency )
+				{
+					mFrequency = frequency;
+					clear();
+				}
+				break;
+			case SAMPLE_RATE:
+				int sampleRate = event.getValue().intValue();
+				
+				if( sampleRate != mSampleRate )
+				{
+					mSampleRate = sampleRate;
+					clear();
+				}
+				break;
+			default:
+				break;
+		}
+	}
+}
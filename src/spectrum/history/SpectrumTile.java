@@ -0,0 +1,149 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package spectrum.history;
+
+/**
+ * Spectrum and waterfall tile produced by a spectrum history.  The tile pixels
+ * hold quantized power spectrum values with one row per history row, newest
+ * row first.  Each pixel value is the peak value of the spectrum bins that the
+ * pixel covers.
+ * 
+ * Pixel values are unsigned bytes - use getDecibels() to convert a pixel value
+ * to decibels relative to the DC component of the spectrum.
+ */
+public class SpectrumTile
+{
+	private int mZoom;
+	private int mIndex;
+	private int mWidth;
+	private int mHeight;
+	private byte[] mPixels;
+	private long mMinimumFrequency;
+	private long mMaximumFrequency;
+	private long mTimestamp;
+	private long mRowPeriod;
+
+	/**
+	 * @param zoom - zoom level, where the tuner bandwidth is divided into 2^zoom 
+	 * tiles
+	 * @param index - tile index within the zoom level, from the lowest frequency
+	 * @param width - tile width in pixels
+	 * @param height - tile height (number of rows)
+	 * @param pixels - quantized spectrum values, row-major, newest row first
+	 * @param minimumFrequency - frequency at the left edge of the tile
+	 * @param maximumFrequency - frequency at the right edge of the tile
+	 * @param timestamp - time of the newest row in milliseconds
+	 * @param rowPeriod - time between rows in milliseconds
+	 */
+	public SpectrumTile( int zoom, int index, int width, int height, 
+			byte[] pixels, long minimumFrequency, long maximumFrequency, 
+			long timestamp, long rowPeriod )
+	{
+		mZoom = zoom;
+		mIndex = index;
+		mWidth = width;
+		mHeight = height;
+		mPixels = pixels;
+		mMinimumFrequency = minimumFrequency;
+		mMaximumFrequency = maximumFrequency;
+		mTimestamp = timestamp;
+		mRowPeriod = rowPeriod;
+	}
+
+	public int getZoom()
+	{
+		return mZoom;
+	}
+	
+	public int getIndex()
+	{
+		return mIndex;
+	}
+	
+	public int getWidth()
+	{
+		return mWidth;
+	}
+	
+	public int getHeight()
+	{
+		return mHeight;
+	}
+	
+	/**
+	 * Quantized spectrum values, row-major (width x height), newest row first
+	 */
+	public byte[] getPixels()
+	{
+		return mPixels;
+	}
+	
+	public long getMinimumFrequency()
+	{
+		return mMinimumFrequency;
+	}
+	
+	public long getMaximumFrequency()
+	{
+		return mMaximumFrequency;
+	}
+	
+	/**
+	 * Time of the newest row in milliseconds, or 0 if the tile is empty
+	 */
+	public long getTimestamp()
+	{
+		return mTimestamp;
+	}
+
+	/**
+	 * Time between rows in milliseconds
+	 */
+	public long getRowPeriod()
+	{
+		return mRowPeriod;
+	}
+
+	/**
+	 * Spectrum for the row, in decibels
+	 * 
+	 * @param row - row index, where row 0 is the newest row
+	 */
+	public float[] getSpectrum( int row )
+	{
+		float[] spectrum = new float[ mWidth ];
+		
+		int offset = row * mWidth;
+		
+		for( int x = 0; x < mWidth; x++ )
+		{
+			spectrum[ x ] = getDecibels( mPixels[ offset + x ] );
+		}
+		
+		return spectrum;
+	}
+	
+	/**
+	 * Converts a quantized pixel value to decibels
+	 */
+	public static float getDecibels( byte value )
+	{
+		return SpectrumHistory.MINIMUM_DECIBELS + 
+			(float)( value & 0xFF ) / SpectrumHistory.STEPS_PER_DECIBEL;
+	}
+}
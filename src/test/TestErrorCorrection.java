@@ -0,0 +1,359 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package test;
+
+import java.util.Random;
+
+import bits.BinaryMessage;
+import edac.BCH_63_16_11;
+import edac.CRC;
+import edac.CRCP25;
+import edac.Golay23;
+import edac.Golay24;
+import edac.Hamming10;
+import edac.Hamming15;
+
+/**
+ * Sweeps every correctable error pattern through the syndrome table based
+ * error correction classes and compares the results against the original 
+ * codeword, a linear checksum table scan, or the Berlekamp-Massey decoder.
+ */
+public class TestErrorCorrection
+{
+	private static final Random RANDOM = new Random( 1 );
+	
+	private static int mFailures = 0;
+	
+	public static void main( String[] args )
+	{
+		log( "Starting ... " );
+		
+		testGolay();
+		testHamming( 10, 6 );
+		testHamming( 15, 11 );
+		testBitError();
+		testBCH();
+		
+		log( "Finished - failures: " + mFailures );
+	}
+	
+	/**
+	 * Golay(23,12) and Golay(24,12) - every data value with every 1, 2 and 3
+	 * bit error pattern.  Golay24 is tested at a non-zero offset within a 
+	 * larger message, the same as TDU link control messages.
+	 */
+	private static void testGolay()
+	{
+		long tests = 0;
+		
+		for( int data = 0; data < 4096; data++ )
+		{
+			int codeword = ( data << 11 ) | checksum( Golay23.CHECKSUMS, data, 12 );
+			
+			for( int c = -1; c < 23; c++ )
+			{
+				for( int b = -1; b < Math.max( c, 0 ); b++ )
+				{
+					for( int a = -1; a < Math.max( b, 0 ); a++ )
+					{
+						int error = bit( a ) | bit( b ) | bit( c );
+						
+						int expected = Integer.bitCount( error );
+						
+						BinaryMessage frame = new BinaryMessage( 48 );
+						frame.load( 10, 23, codeword ^ error );
+						
+						int errors = Golay23.checkAndCorrect( frame, 10 );
+						
+						if( errors != expected || 
+							frame.getInt( 10, 32 ) != codeword )
+						{
+							fail( "Golay23 data:" + data + " error:" + 
+									Integer.toHexString( error ) );
+						}
+						
+						BinaryMessage message = new BinaryMessage( 112 );
+						message.load( 64, 23, codeword ^ error );
+						message.set( 87, Integer.bitCount( codeword ) % 2 != 0 );
+						
+						Golay24.checkAndCorrect( message, 64 );
+
+						if( message.getCRC() != CRC.PASSED || 
+							message.getInt( 64, 86 ) != codeword )
+						{
+							fail( "Golay24 data:" + data + " error:" + 
+									Integer.toHexString( error ) );
+						}
+						
+						tests++;
+					}
+				}
+			}
+		}
+		
+		log( "Golay - tested " + tests + " error patterns" );
+	}
+	
+	/**
+	 * Hamming - every data value with every single bit error
+	 */
+	private static void testHamming( int length, int dataLength )
+	{
+		int[] checksums = length == 10 ? 
+				new int[] { 0xE,0xD,0xB,0X7,0x3,0xC } :
+				new int[] { 0xF,0xE,0xD,0xC,0xB,0XA,0x9,0x7,0x6,0x5,0x3 };
+		
+		int parityLength = length - dataLength;
+
+		long tests = 0;
+		
+		for( int data = 0; data < ( 1 << dataLength ); data++ )
+		{
+			int codeword = ( data << parityLength ) | 
+							checksum( checksums, data, dataLength );
+			
+			for( int a = -1; a < length; a++ )
+			{
+				int error = a < 0 ? 0 : bit( a );
+				
+				BinaryMessage frame = new BinaryMessage( 32 );
+				frame.load( 5, length, codeword ^ error );
+				
+				int errors = length == 10 ? 
+						Hamming10.checkAndCorrect( frame, 5 ) :
+						Hamming15.checkAndCorrect( frame, 5 );
+						
+				if( errors != Integer.bitCount( error ) ||
+					frame.getInt( 5, 5 + length - 1 ) != codeword )
+				{
+					fail( "Hamming" + length + " data:" + data + 
+							" error:" + Integer.toHexString( error ) );
+				}
+				
+				tests++;
+			}
+		}
+
+		log( "Hamming" + length + " - tested " + tests + " error patterns" );
+	}
+	
+	/**
+	 * P25 CRC single bit error lookups against a linear table scan, for every
+	 * table value and for values that are not in the tables
+	 */
+	private static void testBitError()
+	{
+		long tests = 0;
+		
+		for( long[] table: new long[][] { CRCP25.PDU1_CHECKSUMS, 
+				CRCP25.PDU2_CHECKSUMS, CRCP25.PDU3_CHECKSUMS } )
+		{
+			for( int x = 0; x < table.length + 1000; x++ )
+			{
+				long value = x < table.length ? table[ x ] : 
+					RANDOM.nextLong() & 0xFFFFFFFFl;
+				
+				if( CRCP25.getBitError( value, table ) != scan( value, table ) )
+				{
+					fail( "CRC bit error value:" + value );
+				}
+				
+				tests++;
+			}
+		}
+
+		int[] table = CRCP25.CCITT_80_CHECKSUMS;
+		
+		for( int value = 0; value <= 0xFFFF; value++ )
+		{
+			long[] longTable = new long[ table.length ];
+			
+			for( int x = 0; x < table.length; x++ )
+			{
+				longTable[ x ] = table[ x ];
+			}
+			
+			if( CRCP25.getBitError( value, table ) != scan( value, longTable ) )
+			{
+				fail( "CCITT bit error value:" + value );
+			}
+			
+			tests++;
+		}
+
+		log( "CRC - tested " + tests + " checksum values" );
+	}
+	
+	/**
+	 * BCH(63,16) - random NID codewords with every 1, 2 and 3 bit error 
+	 * pattern (syndrome table) plus random 4 - 12 bit error patterns 
+	 * (Berlekamp-Massey), compared against the Berlekamp-Massey decoder.
+	 */
+	private static void testBCH()
+	{
+		BCH_63_16_11 bch = new BCH_63_16_11();
+		
+		long tests = 0;
+		
+		for( int trial = 0; trial < 4; trial++ )
+		{
+			long codeword = encode( RANDOM.nextInt( 65536 ) );
+			
+			if( BCH_63_16_11.getSyndrome( codeword ) != 0 )
+			{
+				fail( "BCH encoded codeword has non-zero syndrome" );
+			}
+			
+			for( int c = -1; c < 63; c++ )
+			{
+				for( int b = -1; b < Math.max( c, 0 ); b++ )
+				{
+					for( int a = -1; a < Math.max( b, 0 ); a++ )
+					{
+						long error = bitl( a ) | bitl( b ) | bitl( c );
+						
+						compareBCH( bch, codeword, error );
+						
+						tests++;
+					}
+				}
+			}
+			
+			for( int x = 0; x < 20000; x++ )
+			{
+				long error = 0;
+				
+				int weight = 4 + RANDOM.nextInt( 9 );
+
+				while( Long.bitCount( error ) < weight )
+				{
+					error |= 1l << RANDOM.nextInt( 63 );
+				}
+				
+				compareBCH( bch, codeword, error );
+				
+				tests++;
+			}
+		}
+		
+		log( "BCH - tested " + tests + " error patterns" );
+	}
+	
+	private static void compareBCH( BCH_63_16_11 bch, long codeword, long error )
+	{
+		BinaryMessage message = new BinaryMessage( 64 );
+		message.load( 0, 63, codeword ^ error );
+		
+		BinaryMessage reference = message.copy();
+
+		bch.correctNID( message );
+		
+		/* Reference Berlekamp-Massey decode */
+		int[] input = reference.toReverseIntegerArray( 0, 62 );
+		int[] output = new int[ 63 ];
+		
+		CRC expected = CRC.PASSED;
+		
+		if( bch.decode( input, output ) )
+		{
+			expected = CRC.FAILED_CRC;
+		}
+		else
+		{
+			for( int x = 0; x < 16; x++ )
+			{
+				if( output[ 62 - x ] != input[ 62 - x ] )
+				{
+					expected = CRC.CORRECTED;
+					reference.flip( x );
+				}
+			}
+		}
+
+		if( message.getCRC() != expected || 
+			message.getLong( 0, 63 ) != reference.getLong( 0, 63 ) )
+		{
+			fail( "BCH codeword:" + Long.toHexString( codeword ) + 
+					" error:" + Long.toHexString( error ) + 
+					" status:" + message.getCRC() + " expected:" + expected );
+		}
+	}
+
+	/**
+	 * Systematic BCH(63,16) encoder - information bits in x^62 - x^47 
+	 */
+	private static long encode( int data )
+	{
+		long codeword = (long)data << 47;
+		
+		return codeword | BCH_63_16_11.getSyndrome( codeword );
+	}
+	
+	private static int checksum( int[] checksums, int data, int dataLength )
+	{
+		int checksum = 0;
+		
+		for( int x = 0; x < dataLength; x++ )
+		{
+			if( ( data & ( 1 << ( dataLength - x - 1 ) ) ) != 0 )
+			{
+				checksum ^= checksums[ x ];
+			}
+		}
+		
+		return checksum;
+	}
+
+	private static int scan( long value, long[] table )
+	{
+		for( int x = 0; x < table.length; x++ )
+		{
+			if( table[ x ] == value )
+			{
+				return x;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private static int bit( int index )
+	{
+		return index < 0 ? 0 : 1 << index;
+	}
+
+	private static long bitl( int index )
+	{
+		return index < 0 ? 0 : 1l << index;
+	}
+	
+	private static void fail( String message )
+	{
+		mFailures++;
+		
+		if( mFailures < 20 )
+		{
+			log( "FAILED: " + message );
+		}
+	}
+	
+	public static void log( String message )
+	{
+		System.out.println( message );
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     SDR Trunk 
+ *     Copyright (C) 2015 Dennis Sheirer
+ * 
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ * 
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ * 
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>
+ ******************************************************************************/
+package test;
+
+import java.util.Random;
+
+import util.ArcTangent;
+
+/**
+ * Accuracy check for the FM discriminator angle estimators.
+ * 
+ * Demodulates a noisy 48 kHz NBFM test signal (1 kHz tone, 2.5 kHz deviation)
+ * and compares each estimator against a double precision Math.atan2 reference.
+ * Estimator throughput is measured by the FMDiscriminator entries in the 
+ * benchmark suite (benchmark.DSPBenchmarks).
+ */
+public class TestFMDiscriminator
+{
+	private static final int SAMPLE_RATE = 48000;
+	private static final int SAMPLE_COUNT = 2 * 1024 * 1024;
+
+	public static void main( String[] args )
+	{
+		log( "Starting ... " );
+		
+		for( double snr: new double[] { 30.0, 10.0, 0.0 } )
+		{
+			float[] samples = getSignal( snr );
+
+			log( String.format( "SNR %.0f dB - maximum/RMS error (radians) "
+					+ "versus double precision atan2", snr ) );
+			
+			logError( "Math.atan (current)", samples, 0 );
+			logError( "Lookup table (util.ArcTangent)", samples, 1 );
+			logError( "Polynomial atan2", samples, 2 );
+		}
+
+		log( "Done!" );
+	}
+
+	/**
+	 * Generates interleaved I/Q samples of a tone modulated FM signal with 
+	 * additive gaussian noise at the specified signal to noise ratio
+	 */
+	private static float[] getSignal( double snr )
+	{
+		Random random = new Random( 1 );
+		
+		double noise = Math.sqrt( 0.5 * Math.pow( 10.0, -snr / 10.0 ) );
+		
+		float[] samples = new float[ SAMPLE_COUNT * 2 ];
+		
+		double phase = 0.0;
+		
+		for( int x = 0; x < SAMPLE_COUNT; x++ )
+		{
+			double deviation = 2500.0 * 
+					Math.sin( 2.0 * Math.PI * 1000.0 * x / SAMPLE_RATE );
+			
+			phase += 2.0 * Math.PI * deviation / SAMPLE_RATE;
+			
+			samples[ 2 * x ] = 
+				(float)( Math.cos( phase ) + noise * random.nextGaussian() );
+			samples[ 2 * x + 1 ] = 
+				(float)( Math.sin( phase ) + noise * random.nextGaussian() );
+		}
+		
+		return samples;
+	}
+	
+	/**
+	 * Logs the maximum and RMS angle error of the estimator
+	 * 
+	 * @param estimator - 0 Math.atan, 1 lookup table, 2 polynomial atan2
+	 */
+	private static void logError( String label, float[] samples, int estimator )
+	{
+		double maximum = 0.0;
+		double sum = 0.0;
+		int count = 0;
+		
+		for( int x = 2; x < samples.length; x += 2 )
+		{
+			float i = ( samples[ x ] * samples[ x - 2 ] ) + 
+					  ( samples[ x + 1 ] * samples[ x - 1 ] );
+			float q = ( samples[ x + 1 ] * samples[ x - 2 ] ) - 
+					  ( samples[ x ] * samples[ x - 1 ] );
+			
+			double reference = Math.atan2( q, i );
+			double angle;
+			
+			switch( estimator )
+			{
+				case 0:
+					angle = i == 0 ? 0.0 : Math.atan( (double)q / (double)i );
+					break;
+				case 1:
+					angle = ArcTangent.getAngle( i, q );
+					break;
+				default:
+					angle = ArcTangent.atan2( q, i );
+					break;
+			}
+			
+			double error = Math.abs( angle - reference );
+			
+			maximum = Math.max( maximum, error );
+			sum += error * error;
+			count++;
+		}
+		
+		log( String.format( "  %-32s max %.2e  rms %.2e", label, maximum, 
+				Math.sqrt( sum / count ) ) );
+	}
+	
+	public static void log( String message )
+	{
+		System.out.println( message );
+	}
+}
@@ -259,4 +259,64 @@ public class ArcTangent
 		
 		return angle;
 	}
+
+	/* Polynomial arc tangent coefficients (Abramowitz & Stegun 4.4.49) for
+	 * ratios from 0 to 1, with an absolute error of 1.0e-5 radians or less */
+	private static final float sPOLY_A1 = 0.9998660f;
+	private static final float sPOLY_A3 = -0.3302995f;
+	private static final float sPOLY_A5 = 0.1801410f;
+	private static final float sPOLY_A7 = -0.0851330f;
+	private static final float sPOLY_A9 = 0.0208351f;
+	
+	private static final float sPI_FLOAT = (float)Math.PI;
+	private static final float sHALF_PI_FLOAT = (float)( Math.PI / 2.0 );
+
+	/**
+	 * Maximum absolute error (radians) of the polynomial atan2 approximation,
+	 * excluding float rounding error
+	 */
+	public static final double sPOLYNOMIAL_MAXIMUM_ERROR = 1.0e-5;
+	
+	/**
+	 * Fast arc tangent of y/x using a 9th order polynomial approximation with 
+	 * a maximum absolute error of 1.0e-5 radians (about 0.0006 degrees), plus
+	 * float rounding error.  Requires a single division and no table lookup.
+	 * 
+	 * @param y - y polar coordinate
+	 * @param x - x polar coordinate
+	 * @return angle in radians in the range -PI to PI, or zero when both 
+	 * coordinates are zero
+	 */
+	public static float atan2( float y, float x )
+	{
+		float x_abs = Math.abs( x );
+		float y_abs = Math.abs( y );
+		
+		if( x_abs == 0.0f && y_abs == 0.0f )
+		{
+			return 0.0f;
+		}
+
+		/* Normalize the ratio to 0 - 1 (0 to 45 degrees) */
+		boolean swapped = y_abs > x_abs;
+		
+		float z = swapped ? x_abs / y_abs : y_abs / x_abs;
+		float z2 = z * z;
+		
+		float angle = z * ( sPOLY_A1 + z2 * ( sPOLY_A3 + z2 * ( sPOLY_A5 + 
+						z2 * ( sPOLY_A7 + z2 * sPOLY_A9 ) ) ) );
+		
+		/* Map the angle to the correct octant and quadrant */
+		if( swapped )
+		{
+			angle = sHALF_PI_FLOAT - angle;
+		}
+		
+		if( x < 0.0f )
+		{
+			angle = sPI_FLOAT - angle;
+		}
+		
+		return y < 0.0f ? -angle : angle;
+	}
 }
@@ -21,11 +21,21 @@ import sample.complex.ComplexSample;
 
 public class Oscillator
 {
+	/* Oscillator values are generated from a table of phasor increments that
+	 * are applied against an anchor phasor.  The anchor is advanced and 
+	 * renormalized once per table length, so rounding errors don't accumulate
+	 * from sample to sample */
+	private static final int TABLE_SIZE = 256;
+	
 	private double mFrequency;
 	private double mSampleRate;
 
-	private ComplexSample mAnglePerSample;
-	private ComplexSample mCurrentAngle = new ComplexSample( 0.0f, -1.0f );
+	private float[] mTableInphase = new float[ TABLE_SIZE ];
+	private float[] mTableQuadrature = new float[ TABLE_SIZE ];
+	private int mTableIndex = 0;
+	
+	private float mAnchorInphase = 0.0f;
+	private float mAnchorQuadrature = -1.0f;
 
 	/**
 	 * Oscillator produces complex or float samples corresponding to a sine wave 
@@ -44,15 +54,35 @@ public class Oscillator
 	
 	public ComplexSample getCurrentAngle()
 	{
-		return mCurrentAngle;
+		if( mTableIndex == 0 )
+		{
+			return new ComplexSample( mAnchorInphase, mAnchorQuadrature );
+		}
+		
+		return new ComplexSample( inphase( mTableIndex - 1 ), 
+								  quadrature( mTableIndex - 1 ) );
 	}
 
+	/**
+	 * Rebuilds the phasor increment table for the current frequency and 
+	 * sample rate, anchored at the current angle to maintain phase continuity
+	 */
 	private void update()
 	{
-		float anglePerSample = 
-				(float)( 2.0d * Math.PI * mFrequency / mSampleRate );
+		if( mTableIndex != 0 )
+		{
+			anchor( mTableIndex - 1 );
+		}
+		
+		double anglePerSample = 2.0d * Math.PI * mFrequency / mSampleRate;
 
-		mAnglePerSample = ComplexSample.fromAngle( anglePerSample );
+		for( int x = 0; x < TABLE_SIZE; x++ )
+		{
+			double angle = anglePerSample * (double)( x + 1 );
+			
+			mTableInphase[ x ] = (float)Math.cos( angle );
+			mTableQuadrature[ x ] = (float)Math.sin( angle );
+		}
 	}
 
 	/**
@@ -73,13 +103,55 @@ public class Oscillator
 		update();
 	}
 
+	/**
+	 * Inphase value of the anchor phasor rotated by the table entry
+	 */
+	private float inphase( int index )
+	{
+		return ( mAnchorInphase * mTableInphase[ index ] ) - 
+			   ( mAnchorQuadrature * mTableQuadrature[ index ] );
+	}
+	
+	/**
+	 * Quadrature value of the anchor phasor rotated by the table entry
+	 */
+	private float quadrature( int index )
+	{
+		return ( mAnchorInphase * mTableQuadrature[ index ] ) + 
+			   ( mAnchorQuadrature * mTableInphase[ index ] );
+	}
+
+	/**
+	 * Moves the anchor phasor to the table entry, renormalizes the anchor to
+	 * unit magnitude, and resets the table index
+	 */
+	private void anchor( int index )
+	{
+		float inphase = inphase( index );
+		float quadrature = quadrature( index );
+		
+		float gain = (float)( 1.0d / Math.sqrt( ( inphase * inphase ) + 
+									 ( quadrature * quadrature ) ) );
+		
+		mAnchorInphase = inphase * gain;
+		mAnchorQuadrature = quadrature * gain;
+		
+		mTableIndex = 0;
+	}
+	
 	/**
 	 * Steps the current angle by the angle per sample amount
 	 */
 	private void rotate()
 	{
-		mCurrentAngle.multiply( mAnglePerSample );
-		mCurrentAngle.fastNormalize();
+		mTableIndex++;
+		
+		if( mTableIndex > TABLE_SIZE )
+		{
+			anchor( TABLE_SIZE - 1 );
+			
+			mTableIndex = 1;
+		}
 	}
 
 	/**
@@ -88,7 +160,9 @@ public class Oscillator
 	public ComplexSample nextComplex()
 	{
 		rotate();
-		return mCurrentAngle.copy();
+		
+		return new ComplexSample( inphase( mTableIndex - 1 ), 
+								  quadrature( mTableIndex - 1 ) );
 	}
 
 	/**
@@ -97,7 +171,81 @@ public class Oscillator
 	public float nextFloat()
 	{
 		rotate();
-		return mCurrentAngle.real();
+		
+		return inphase( mTableIndex - 1 );
+	}
+
+	/**
+	 * Fills the array with the next block of interleaved inphase and 
+	 * quadrature oscillator values
+	 */
+	public void generate( float[] values )
+	{
+		mix( null, values );
+	}
+	
+	/**
+	 * Mixes (complex multiplies) the interleaved complex samples with the next
+	 * block of oscillator values, placing the results in the mixed array.  
+	 * The samples and mixed arrays can be the same array, to mix in place.
+	 * 
+	 * @param samples - interleaved inphase and quadrature samples, or null to
+	 * output the oscillator values
+	 * @param mixed - array to receive the mixed samples, sized the same as the
+	 * samples array
+	 */
+	public void mix( float[] samples, float[] mixed )
+	{
+		int pointer = 0;
+		
+		while( pointer < mixed.length - 1 )
+		{
+			if( mTableIndex >= TABLE_SIZE )
+			{
+				anchor( TABLE_SIZE - 1 );
+			}
+			
+			int count = Math.min( TABLE_SIZE - mTableIndex, 
+								  ( mixed.length - pointer ) / 2 );
+			
+			int end = mTableIndex + count;
+
+			float anchorInphase = mAnchorInphase;
+			float anchorQuadrature = mAnchorQuadrature;
+			
+			if( samples == null )
+			{
+				for( int x = mTableIndex; x < end; x++ )
+				{
+					mixed[ pointer++ ] = 
+							( anchorInphase * mTableInphase[ x ] ) - 
+							( anchorQuadrature * mTableQuadrature[ x ] );
+					mixed[ pointer++ ] = 
+							( anchorInphase * mTableQuadrature[ x ] ) + 
+							( anchorQuadrature * mTableInphase[ x ] );
+				}
+			}
+			else
+			{
+				for( int x = mTableIndex; x < end; x++ )
+				{
+					float inphase = ( anchorInphase * mTableInphase[ x ] ) - 
+							( anchorQuadrature * mTableQuadrature[ x ] );
+					float quadrature = ( anchorInphase * mTableQuadrature[ x ] ) + 
+							( anchorQuadrature * mTableInphase[ x ] );
+					
+					float sampleInphase = samples[ pointer ];
+					float sampleQuadrature = samples[ pointer + 1 ];
+					
+					mixed[ pointer++ ] = ( sampleInphase * inphase ) - 
+										 ( sampleQuadrature * quadrature );
+					mixed[ pointer++ ] = ( sampleQuadrature * inphase ) + 
+										 ( sampleInphase * quadrature );
+				}
+			}
+			
+			mTableIndex = end;
+		}
 	}
 	
 	public static void main( String[] args )